@@ -0,0 +1,122 @@
+package com.powergrid.maintenance.tms_backend_application.admin.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retraining readiness queries against a growing audit log: a fixed number of actions since the
+ * last completed run on top of {@code history} older rows. The set-based queries should stay flat
+ * as history grows; the legacy load-everything approach grows linearly.
+ *
+ * Needs PostgreSQL (same DB_URL / DB_USERNAME / DB_PASSWORD as the application). Data is seeded
+ * into a throwaway schema jmh_retraining, mirroring annotation_actions and its timestamp index.
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args="RetrainingStatsQueryBenchmark -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RetrainingStatsQueryBenchmark {
+
+    private static final int RECENT_ACTIONS = 2_000;
+
+    // Same SQL as AnnotationActionRepository#countByActionTimestampAfter / #findInspectionIdsWithActionsSince
+    private static final String COUNT_SINCE =
+            "SELECT count(*) FROM jmh_retraining.annotation_actions WHERE action_timestamp > ?";
+    private static final String AFFECTED_INSPECTIONS =
+            "SELECT DISTINCT inspection_id FROM jmh_retraining.annotation_actions " +
+            "WHERE action_timestamp > ? AND action_type IN ('CREATED', 'EDITED', 'DELETED', 'REJECTED')";
+    private static final String LOAD_ALL =
+            "SELECT inspection_id, action_type, action_timestamp FROM jmh_retraining.annotation_actions";
+
+    @Param({"100000", "1000000", "5000000"})
+    int history;
+
+    Connection connection;
+    Timestamp watermark;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getenv("DB_URL"), System.getenv("DB_USERNAME"), System.getenv("DB_PASSWORD"));
+        watermark = Timestamp.valueOf(LocalDateTime.now().minusDays(1));
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS jmh_retraining CASCADE");
+            st.execute("CREATE SCHEMA jmh_retraining");
+            st.execute("CREATE TABLE jmh_retraining.annotation_actions (" +
+                    "id bigserial PRIMARY KEY, inspection_id bigint NOT NULL, " +
+                    "action_type varchar(20) NOT NULL, action_timestamp timestamp)");
+            // History before the watermark, then the actions a retraining run would pick up
+            st.execute("INSERT INTO jmh_retraining.annotation_actions (inspection_id, action_type, action_timestamp) " +
+                    "SELECT g % 20000, (ARRAY['CREATED','EDITED','DELETED','APPROVED','REJECTED','COMMENTED'])[1 + g % 6], " +
+                    "now() - interval '2 days' - (g || ' seconds')::interval FROM generate_series(1, " + history + ") g");
+            st.execute("INSERT INTO jmh_retraining.annotation_actions (inspection_id, action_type, action_timestamp) " +
+                    "SELECT g % 300, (ARRAY['CREATED','EDITED','APPROVED','COMMENTED'])[1 + g % 4], " +
+                    "now() - (g || ' seconds')::interval FROM generate_series(1, " + RECENT_ACTIONS + ") g");
+            st.execute("CREATE INDEX ON jmh_retraining.annotation_actions (action_timestamp, id)");
+            st.execute("ANALYZE jmh_retraining.annotation_actions");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void drop() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS jmh_retraining CASCADE");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long countSinceWatermark() throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(COUNT_SINCE)) {
+            ps.setTimestamp(1, watermark);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    @Benchmark
+    public Set<Long> affectedInspections() throws SQLException {
+        Set<Long> ids = new HashSet<>();
+        try (PreparedStatement ps = connection.prepareStatement(AFFECTED_INSPECTIONS)) {
+            ps.setTimestamp(1, watermark);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * What findAll().stream().filter(timestamp > since) cost before, minus entity hydration.
+     */
+    @Benchmark
+    public long legacyLoadAllAndFilter() throws SQLException {
+        long count = 0;
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(LOAD_ALL)) {
+            while (rs.next()) {
+                if (rs.getTimestamp(3).after(watermark)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
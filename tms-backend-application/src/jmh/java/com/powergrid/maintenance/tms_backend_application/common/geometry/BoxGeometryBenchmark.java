@@ -0,0 +1,76 @@
+package com.powergrid.maintenance.tms_backend_application.common.geometry;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the primitive box kernel on detector-sized inputs.
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args="BoxGeometryBenchmark -f 1"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BoxGeometryBenchmark {
+
+    @Param({"50", "300"})
+    int boxes;
+
+    int[] a;
+    int[] b;
+    double[] scores;
+    double[] iouOut;
+    int[] order;
+    int[] keep;
+    int[] xywh;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        a = randomBoxes(random, boxes);
+        b = randomBoxes(random, boxes);
+        scores = new double[boxes];
+        for (int i = 0; i < boxes; i++) {
+            scores[i] = random.nextDouble();
+        }
+        iouOut = new double[boxes * boxes];
+        order = new int[boxes];
+        keep = new int[boxes];
+        xywh = new int[4 * boxes];
+    }
+
+    @Benchmark
+    public double[] iouMatrix() {
+        BoxGeometry.iouMatrix(a, boxes, b, boxes, iouOut);
+        return iouOut;
+    }
+
+    @Benchmark
+    public int nms() {
+        return BoxGeometry.nms(a, scores, boxes, 0.45, order, keep);
+    }
+
+    @Benchmark
+    public void convertRoundTrip(Blackhole bh) {
+        BoxGeometry.xyxyToXywh(a, xywh, boxes);
+        BoxGeometry.xywhToXyxy(xywh, xywh, boxes);
+        bh.consume(xywh);
+    }
+
+    /**
+     * Boxes of 8-120 px scattered over a 640x512 thermal frame, packed xyxy.
+     */
+    static int[] randomBoxes(Random random, int n) {
+        int[] out = new int[4 * n];
+        for (int i = 0; i < n; i++) {
+            int w = 8 + random.nextInt(112);
+            int h = 8 + random.nextInt(112);
+            BoxGeometry.xywhToXyxy(random.nextInt(640 - w), random.nextInt(512 - h), w, h, out, i);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,49 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.tracking;
+
+import com.powergrid.maintenance.tms_backend_application.common.geometry.BoxGeometry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of matching one inspection against the open track heads of a transformer.
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args="AnomalyTrackMatcherBenchmark -f 1"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AnomalyTrackMatcherBenchmark {
+
+    @Param({"20", "500"})
+    int heads;
+
+    AnomalyTrackMatcher matcher;
+    int[] headBoxes;
+    int[] currentBoxes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        matcher = new AnomalyTrackMatcher(0.3, 40, 64);
+        headBoxes = new int[4 * heads];
+        currentBoxes = new int[4 * heads];
+        for (int i = 0; i < heads; i++) {
+            int w = 8 + random.nextInt(60);
+            int h = 8 + random.nextInt(60);
+            int x = random.nextInt(4000);
+            int y = random.nextInt(3000);
+            BoxGeometry.xywhToXyxy(x, y, w, h, headBoxes, i);
+            // Same hotspot next inspection: small drift and growth
+            BoxGeometry.xywhToXyxy(x + random.nextInt(9) - 4, y + random.nextInt(9) - 4,
+                    w + random.nextInt(5), h + random.nextInt(5), currentBoxes, i);
+        }
+    }
+
+    @Benchmark
+    public int[] match() {
+        return matcher.match(headBoxes, heads, currentBoxes, heads);
+    }
+}
@@ -0,0 +1,101 @@
+package com.powergrid.maintenance.tms_backend_application.admin.controller;
+
+import com.powergrid.maintenance.tms_backend_application.admin.dataset.DatasetSnapshotBuilder;
+import com.powergrid.maintenance.tms_backend_application.admin.dataset.DatasetSnapshotManifest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * On-disk retraining dataset snapshots. The fine-tuning service pulls the manifest and then only
+ * the image/label files it does not already hold; those are content-addressed and never change.
+ */
+@RestController
+@RequestMapping("/api/admin/retraining/snapshots")
+@RequiredArgsConstructor
+@Slf4j
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminDatasetSnapshotController {
+
+    private final DatasetSnapshotBuilder snapshotBuilder;
+
+    /**
+     * Build a new snapshot from the current corrections
+     * POST /api/admin/retraining/snapshots
+     */
+    @PostMapping
+    public ResponseEntity<?> buildSnapshot() {
+        try {
+            DatasetSnapshotManifest manifest = snapshotBuilder.build();
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "snapshotId", manifest.snapshotId(),
+                    "images", manifest.entries().size(),
+                    "added", manifest.delta().added().size(),
+                    "changed", manifest.delta().changed().size(),
+                    "removed", manifest.delta().removed().size()));
+        } catch (Exception e) {
+            log.error("Error building dataset snapshot", e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("success", false, "error", "Failed to build snapshot: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Snapshot ids, newest first
+     */
+    @GetMapping
+    public ResponseEntity<?> listSnapshots() {
+        return ResponseEntity.ok(Map.of("snapshots", snapshotBuilder.listSnapshotIds()));
+    }
+
+    /**
+     * GET /api/admin/retraining/snapshots/{snapshotId|latest}/manifest
+     */
+    @GetMapping("/{snapshotId}/manifest")
+    public ResponseEntity<Resource> getManifest(@PathVariable String snapshotId) {
+        return snapshotJson(snapshotId, "manifest.json");
+    }
+
+    /**
+     * GET /api/admin/retraining/snapshots/{snapshotId|latest}/coco
+     */
+    @GetMapping("/{snapshotId}/coco")
+    public ResponseEntity<Resource> getCoco(@PathVariable String snapshotId) {
+        return snapshotJson(snapshotId, "coco.json");
+    }
+
+    /**
+     * Content-addressed image or label file referenced by a manifest
+     * GET /api/admin/retraining/snapshots/files/{images|labels}/{sha256}.{ext}
+     */
+    @GetMapping("/files/{kind}/{name}")
+    public ResponseEntity<Resource> getFile(@PathVariable String kind, @PathVariable String name) {
+        return snapshotBuilder.blob(kind, name)
+                .map(path -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                        .contentType(MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                        .body((Resource) new FileSystemResource(path)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<Resource> snapshotJson(String snapshotId, String fileName) {
+        return snapshotBuilder.snapshotFile(snapshotId, fileName)
+                .map(Path::toFile)
+                .map(file -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body((Resource) new FileSystemResource(file)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,12 +1,24 @@
 package com.powergrid.maintenance.tms_backend_application.admin.controller;
 
+import com.powergrid.maintenance.tms_backend_application.admin.dto.RetrainingProgressDTO;
 import com.powergrid.maintenance.tms_backend_application.admin.service.ModelRetrainingService;
+import com.powergrid.maintenance.tms_backend_application.common.exception.NotFoundException;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationFeedCursor;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationFeedFilter;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationFeedPageDTO;
+import com.powergrid.maintenance.tms_backend_application.inspection.model.ActionType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -23,14 +35,24 @@ public class AdminRetrainingController {
     private final ModelRetrainingService retrainingService;
 
     /**
-     * Get all annotation actions for model retraining review
+     * Get annotation actions since the last retraining for review (keyset paginated, newest first)
+     * GET /api/admin/retraining/annotations?from=&to=&username=&actionType=&cursor=&limit=
      */
     @GetMapping("/annotations")
-    public ResponseEntity<?> getAnnotations() {
-        log.info("Fetching all annotation actions for retraining");
+    public ResponseEntity<?> getAnnotations(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) List<ActionType> actionType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "0") int limit) {
+        log.info("Fetching annotation actions for retraining (cursor: {}, limit: {})", cursor, limit);
         try {
-            Map<String, Object> result = retrainingService.getAllAnnotationActions();
+            AnnotationFeedPageDTO result = retrainingService.getAllAnnotationActions(new AnnotationFeedFilter(
+                    from, to, username, actionType, AnnotationFeedCursor.decode(cursor), limit));
             return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(AnnotationFeedPageDTO.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching annotations", e);
             return ResponseEntity.internalServerError()
@@ -55,7 +77,8 @@ public class AdminRetrainingController {
     }
 
     /**
-     * Trigger incremental model retraining with user corrections
+     * Trigger incremental model retraining with user corrections.
+     * Returns 202 with the run id; follow it via /events/{runId} or /status/{runId}.
      */
     @PostMapping("/trigger")
     public ResponseEntity<?> triggerRetraining(
@@ -76,17 +99,24 @@ public class AdminRetrainingController {
                         ));
             }
 
-            // Trigger retraining
+            // Queue retraining; training runs in the background
             String runId = retrainingService.triggerRetraining(username);
 
-            return ResponseEntity.ok(Map.of(
+            return ResponseEntity.accepted().body(Map.of(
                     "success", true,
                     "runId", runId,
-                    "status", "started",
-                    "message", "Incremental retraining initiated successfully",
+                    "status", "PENDING",
+                    "message", "Incremental retraining queued successfully",
                     "corrections", newCorrections
             ));
 
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of(
+                            "success", false,
+                            "error", e.getMessage(),
+                            "message", e.getMessage()
+                    ));
         } catch (Exception e) {
             log.error("Error triggering retraining", e);
             return ResponseEntity.internalServerError()
@@ -97,6 +127,40 @@ public class AdminRetrainingController {
         }
     }
 
+    /**
+     * Cancel a pending or running retraining run
+     */
+    @PostMapping("/cancel/{runId}")
+    public ResponseEntity<?> cancelRetraining(@PathVariable String runId) {
+        log.info("Cancelling retraining run: {}", runId);
+        try {
+            return ResponseEntity.ok(RetrainingProgressDTO.from(retrainingService.cancelRetraining(runId)));
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("success", false, "error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error cancelling retraining run", e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("success", false, "error", "Failed to cancel retraining: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Stream progress of a retraining run as server-sent "progress" events.
+     * The stream completes once the run is COMPLETED, FAILED or CANCELLED.
+     */
+    @GetMapping(value = "/events/{runId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamRetrainingProgress(@PathVariable String runId) {
+        try {
+            return ResponseEntity.ok(retrainingService.subscribeToProgress(runId));
+        } catch (NotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     /**
      * Get status of a retraining run
      */
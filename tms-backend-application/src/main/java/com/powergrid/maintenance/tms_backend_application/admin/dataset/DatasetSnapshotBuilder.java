@@ -0,0 +1,495 @@
+package com.powergrid.maintenance.tms_backend_application.admin.dataset;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.powergrid.maintenance.tms_backend_application.admin.dataset.DatasetSnapshotManifest.Delta;
+import com.powergrid.maintenance.tms_backend_application.admin.dataset.DatasetSnapshotManifest.Entry;
+import com.powergrid.maintenance.tms_backend_application.admin.dataset.DatasetSnapshotManifest.FileRef;
+import com.powergrid.maintenance.tms_backend_application.admin.evaluation.HoldoutSplit;
+import com.powergrid.maintenance.tms_backend_application.inspection.model.ActionType;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionAnomalyRepository;
+import com.powergrid.maintenance.tms_backend_application.inspection.repository.AnnotationActionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Materializes the retraining dataset on disk: content-addressed images and YOLO label files, a
+ * COCO JSON and a manifest per snapshot. The directory is meant to be shared with the fine-tuning
+ * service, which reads a run's images from it instead of downloading them again.
+ *
+ * Builds are incremental. Images are downloaded only when their URL is not in the previous
+ * snapshot, and blobs that already exist under their hash are not rewritten, so a new snapshot
+ * costs roughly the size of its delta. Old snapshots beyond app.retraining.snapshot.keep are
+ * pruned together with blobs no remaining manifest references.
+ *
+ * Corrected inspections are read app.retraining.snapshot.page-size at a time (keyset on the
+ * inspection id), and each page's images are written before the next is read, so only the
+ * manifest entries are kept for the whole history.
+ */
+@Slf4j
+@Component
+public class DatasetSnapshotBuilder {
+
+    static final String MANIFEST_FILE = "manifest.json";
+    static final String COCO_FILE = "coco.json";
+    private static final String CURRENT_POINTER = "current.json";
+    private static final LocalDateTime ALL_TIME = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final Pattern SNAPSHOT_ID = Pattern.compile("snap_\\d{8}T\\d{6}Z_[0-9a-f]{6}");
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,5})?");
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of(".jpg", ".jpeg", ".png", ".bmp", ".tif", ".tiff");
+    private static final DateTimeFormatter ID_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final InspectionAnomalyRepository anomalyRepository;
+    private final AnnotationActionRepository actionRepository;
+    private final HoldoutSplit holdoutSplit;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path root;
+    private final int keep;
+    private final int pageSize;
+
+    public DatasetSnapshotBuilder(InspectionAnomalyRepository anomalyRepository,
+                                  AnnotationActionRepository actionRepository,
+                                  HoldoutSplit holdoutSplit,
+                                  RestTemplate restTemplate,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.retraining.snapshot.dir:/var/lib/tms/dataset-snapshots}") String dir,
+                                  @Value("${app.retraining.snapshot.keep:5}") int keep,
+                                  @Value("${app.retraining.snapshot.page-size:500}") int pageSize) {
+        this.anomalyRepository = anomalyRepository;
+        this.actionRepository = actionRepository;
+        this.holdoutSplit = holdoutSplit;
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.root = Path.of(dir);
+        this.keep = Math.max(1, keep);
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Active boxes of one corrected inspection, packed as xywh quadruples.
+     */
+    private static final class Sample {
+        final long inspectionId;
+        final String imageUrl;
+        int[] boxes = new int[16];
+        int[] classIds = new int[4];
+        String[] faultTypes = new String[4];
+        int count;
+
+        Sample(long inspectionId, String imageUrl) {
+            this.inspectionId = inspectionId;
+            this.imageUrl = imageUrl;
+        }
+
+        void add(int x, int y, int w, int h, int classId, String faultType) {
+            if (count == classIds.length) {
+                boxes = Arrays.copyOf(boxes, boxes.length * 2);
+                classIds = Arrays.copyOf(classIds, classIds.length * 2);
+                faultTypes = Arrays.copyOf(faultTypes, faultTypes.length * 2);
+            }
+            int o = count * 4;
+            boxes[o] = x;
+            boxes[o + 1] = y;
+            boxes[o + 2] = w;
+            boxes[o + 3] = h;
+            classIds[count] = classId;
+            faultTypes[count] = faultType;
+            count++;
+        }
+    }
+
+    /**
+     * Samples of one page of inspections; lastInspectionId is null once there are no more.
+     */
+    private record SamplePage(List<Sample> samples, Long lastInspectionId) {
+    }
+
+    /**
+     * Build a new snapshot of every corrected inspection and make it the current one.
+     */
+    public synchronized DatasetSnapshotManifest build() {
+        try {
+            return doBuild();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to build dataset snapshot", e);
+        }
+    }
+
+    private DatasetSnapshotManifest doBuild() throws IOException {
+        Files.createDirectories(root.resolve("images"));
+        Files.createDirectories(root.resolve("labels"));
+
+        DatasetSnapshotManifest previous = latest().orElse(null);
+        Map<String, Entry> previousByKey = new HashMap<>();
+        Map<String, Entry> previousByUrl = new HashMap<>();
+        if (previous != null) {
+            for (Entry e : previous.entries()) {
+                previousByKey.put(e.key(), e);
+                previousByUrl.put(e.imageUrl(), e);
+            }
+        }
+
+        String snapshotId = "snap_" + ID_FORMAT.format(Instant.now()) + "_"
+                + HexFormat.of().toHexDigits(new Random().nextInt()).substring(2);
+        List<Entry> entries = new ArrayList<>();
+        List<Map<String, Object>> cocoImages = new ArrayList<>();
+        List<Map<String, Object>> cocoAnnotations = new ArrayList<>();
+        Map<Integer, String> categories = new TreeMap<>();
+        int downloaded = 0;
+
+        for (Sample sample : samples()) {
+            Entry reused = previousByUrl.get(sample.imageUrl);
+            FileRef image;
+            int width;
+            int height;
+            if (reused != null && Files.exists(root.resolve(reused.image().path()))) {
+                image = reused.image();
+                width = reused.width();
+                height = reused.height();
+            } else {
+                try {
+                    byte[] bytes = restTemplate.getForObject(sample.imageUrl, byte[].class);
+                    if (bytes == null || bytes.length == 0) {
+                        throw new IOException("empty response");
+                    }
+                    int[] size = readDimensions(bytes);
+                    width = size[0];
+                    height = size[1];
+                    image = writeBlob("images", extensionOf(sample.imageUrl), bytes);
+                    downloaded++;
+                } catch (IOException | RestClientException | IllegalArgumentException e) {
+                    log.warn("Skipping inspection {} in dataset snapshot: image {} unavailable ({})",
+                            sample.inspectionId, sample.imageUrl, e.getMessage());
+                    continue;
+                }
+            }
+
+            StringBuilder label = new StringBuilder();
+            int imageId = cocoImages.size() + 1;
+            int detections = 0;
+            for (int i = 0; i < sample.count; i++) {
+                int o = i * 4;
+                // Clip to the image, as the fine-tuning service does
+                double x1 = clamp(sample.boxes[o], width);
+                double y1 = clamp(sample.boxes[o + 1], height);
+                double x2 = clamp(sample.boxes[o] + sample.boxes[o + 2], width);
+                double y2 = clamp(sample.boxes[o + 1] + sample.boxes[o + 3], height);
+                if (x2 <= x1 || y2 <= y1) {
+                    continue;
+                }
+                int classId = sample.classIds[i];
+                label.append(String.format(Locale.ROOT, "%d %.6f %.6f %.6f %.6f%n", classId,
+                        (x1 + x2) / 2 / width, (y1 + y2) / 2 / height, (x2 - x1) / width, (y2 - y1) / height));
+                cocoAnnotations.add(Map.of(
+                        "id", cocoAnnotations.size() + 1,
+                        "image_id", imageId,
+                        "category_id", classId,
+                        "bbox", List.of(x1, y1, x2 - x1, y2 - y1),
+                        "area", (x2 - x1) * (y2 - y1),
+                        "iscrowd", 0));
+                categories.putIfAbsent(classId, sample.faultTypes[i] != null ? sample.faultTypes[i] : "class_" + classId);
+                detections++;
+            }
+            if (detections == 0) {
+                continue;
+            }
+
+            FileRef labelRef = writeBlob("labels", ".txt", label.toString().getBytes(StandardCharsets.UTF_8));
+            cocoImages.add(Map.of(
+                    "id", imageId,
+                    "file_name", image.path(),
+                    "width", width,
+                    "height", height,
+                    "inspection_id", sample.inspectionId));
+            entries.add(new Entry("inspection-" + sample.inspectionId, sample.inspectionId, sample.imageUrl,
+                    image, width, height, labelRef, detections));
+        }
+
+        Delta delta = delta(entries, previousByKey);
+
+        Path snapshotDir = root.resolve("snapshots").resolve(snapshotId);
+        Files.createDirectories(snapshotDir);
+        Map<String, Object> coco = new LinkedHashMap<>();
+        coco.put("info", Map.of("description", "TMS retraining dataset", "version", snapshotId));
+        coco.put("images", cocoImages);
+        coco.put("annotations", cocoAnnotations);
+        coco.put("categories", categories.entrySet().stream()
+                .map(c -> Map.of("id", c.getKey(), "name", c.getValue())).toList());
+        byte[] cocoBytes = objectMapper.writeValueAsBytes(coco);
+        writeAtomically(snapshotDir.resolve(COCO_FILE), cocoBytes);
+        FileRef cocoRef = new FileRef(root.relativize(snapshotDir.resolve(COCO_FILE)).toString().replace('\\', '/'),
+                sha256(cocoBytes), cocoBytes.length);
+
+        DatasetSnapshotManifest manifest = new DatasetSnapshotManifest(snapshotId, LocalDateTime.now(),
+                previous != null ? previous.snapshotId() : null, entries, delta, cocoRef);
+        writeAtomically(snapshotDir.resolve(MANIFEST_FILE), objectMapper.writeValueAsBytes(manifest));
+        writeAtomically(root.resolve(CURRENT_POINTER), objectMapper.writeValueAsBytes(Map.of("snapshotId", snapshotId)));
+
+        log.info("Dataset snapshot {}: {} images ({} added, {} changed, {} removed, {} downloaded)",
+                snapshotId, entries.size(), delta.added().size(), delta.changed().size(), delta.removed().size(), downloaded);
+        prune();
+        return manifest;
+    }
+
+    /**
+     * Every corrected inspection, read a page at a time as the iteration reaches it. Each page is
+     * read in its own short read-only transaction, so none is open while images download.
+     */
+    private Iterable<Sample> samples() {
+        return () -> new Iterator<>() {
+            private Iterator<Sample> page = Collections.emptyIterator();
+            private long afterInspectionId = -1;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && !exhausted) {
+                    SamplePage next = readOnlyTransaction.execute(status -> readSamples(afterInspectionId));
+                    if (next == null || next.lastInspectionId() == null) {
+                        exhausted = true;
+                    } else {
+                        afterInspectionId = next.lastInspectionId();
+                        page = next.samples().iterator();
+                    }
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public Sample next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+    }
+
+    private SamplePage readSamples(long afterInspectionId) {
+        List<Long> inspectionIds = actionRepository.findCorrectedInspectionIdsAfter(ALL_TIME, ActionType.CORRECTIONS,
+                holdoutSplit.modulus(), holdoutSplit.heldOutRemainder(), afterInspectionId, PageRequest.of(0, pageSize));
+        if (inspectionIds.isEmpty()) {
+            return new SamplePage(List.of(), null);
+        }
+        List<Sample> samples = new ArrayList<>();
+        Sample current = null;
+        for (Object[] row : anomalyRepository.findFinetuneRowsByInspectionIdIn(inspectionIds)) {
+            long inspectionId = (Long) row[0];
+            if (current == null || current.inspectionId != inspectionId) {
+                current = new Sample(inspectionId, (String) row[1]);
+                samples.add(current);
+            }
+            if (row[2] == null || row[3] == null || row[4] == null || row[5] == null || row[6] == null) {
+                continue;
+            }
+            current.add((Integer) row[2], (Integer) row[3], (Integer) row[4], (Integer) row[5],
+                    (Integer) row[6], (String) row[7]);
+        }
+        return new SamplePage(samples, inspectionIds.get(inspectionIds.size() - 1));
+    }
+
+    private static Delta delta(List<Entry> entries, Map<String, Entry> previousByKey) {
+        List<String> added = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Entry e : entries) {
+            seen.add(e.key());
+            Entry before = previousByKey.get(e.key());
+            if (before == null) {
+                added.add(e.key());
+            } else if (!before.image().sha256().equals(e.image().sha256())
+                    || !before.label().sha256().equals(e.label().sha256())) {
+                changed.add(e.key());
+            }
+        }
+        List<String> removed = previousByKey.keySet().stream().filter(k -> !seen.contains(k)).sorted().toList();
+        return new Delta(added, changed, removed);
+    }
+
+    // ---- reading snapshots ----
+
+    public Optional<DatasetSnapshotManifest> latest() {
+        Path pointer = root.resolve(CURRENT_POINTER);
+        if (!Files.exists(pointer)) {
+            return Optional.empty();
+        }
+        try {
+            String snapshotId = (String) objectMapper.readValue(pointer.toFile(), Map.class).get("snapshotId");
+            return find(snapshotId);
+        } catch (IOException e) {
+            log.warn("Unreadable dataset snapshot pointer {}: {}", pointer, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public Optional<DatasetSnapshotManifest> find(String snapshotId) {
+        return snapshotFile(snapshotId, MANIFEST_FILE).map(path -> {
+            try {
+                return objectMapper.readValue(path.toFile(), DatasetSnapshotManifest.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unreadable manifest " + path, e);
+            }
+        });
+    }
+
+    /**
+     * Snapshot ids, newest first.
+     */
+    public List<String> listSnapshotIds() {
+        Path dir = root.resolve("snapshots");
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> children = Files.list(dir)) {
+            return children.map(p -> p.getFileName().toString())
+                    .filter(name -> SNAPSHOT_ID.matcher(name).matches())
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * manifest.json or coco.json of a snapshot ("latest" resolves to the current one).
+     */
+    public Optional<Path> snapshotFile(String snapshotId, String fileName) {
+        if ("latest".equals(snapshotId)) {
+            return latest().flatMap(m -> snapshotFile(m.snapshotId(), fileName));
+        }
+        if (snapshotId == null || !SNAPSHOT_ID.matcher(snapshotId).matches()
+                || !(MANIFEST_FILE.equals(fileName) || COCO_FILE.equals(fileName))) {
+            return Optional.empty();
+        }
+        Path path = root.resolve("snapshots").resolve(snapshotId).resolve(fileName);
+        return Files.exists(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * A content-addressed image or label file.
+     */
+    public Optional<Path> blob(String kind, String name) {
+        if (!("images".equals(kind) || "labels".equals(kind)) || !BLOB_NAME.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        Path path = root.resolve(kind).resolve(name);
+        return Files.exists(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    // ---- storage ----
+
+    private FileRef writeBlob(String kind, String extension, byte[] bytes) throws IOException {
+        String sha = sha256(bytes);
+        Path target = root.resolve(kind).resolve(sha + extension);
+        if (!Files.exists(target)) {
+            writeAtomically(target, bytes);
+        }
+        return new FileRef(kind + "/" + sha + extension, sha, bytes.length);
+    }
+
+    private static void writeAtomically(Path target, byte[] bytes) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(tmp, bytes);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void prune() throws IOException {
+        List<String> ids = listSnapshotIds();
+        for (String id : ids.subList(Math.min(keep, ids.size()), ids.size())) {
+            deleteRecursively(root.resolve("snapshots").resolve(id));
+        }
+        Set<String> referenced = new HashSet<>();
+        for (String id : ids.subList(0, Math.min(keep, ids.size()))) {
+            find(id).ifPresent(m -> m.entries().forEach(e -> {
+                referenced.add(e.image().path());
+                referenced.add(e.label().path());
+            }));
+        }
+        for (String kind : List.of("images", "labels")) {
+            try (Stream<Path> files = Files.list(root.resolve(kind))) {
+                for (Path file : files.toList()) {
+                    if (!referenced.contains(kind + "/" + file.getFileName())) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    // ---- helpers ----
+
+    private static int[] readDimensions(byte[] bytes) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new int[]{reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static String extensionOf(String url) {
+        String path = URI.create(url).getPath();
+        int dot = path != null ? path.lastIndexOf('.') : -1;
+        String ext = dot >= 0 ? path.substring(dot).toLowerCase(Locale.ROOT) : "";
+        return IMAGE_EXTENSIONS.contains(ext) ? ext : ".jpg";
+    }
+
+    private static double clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
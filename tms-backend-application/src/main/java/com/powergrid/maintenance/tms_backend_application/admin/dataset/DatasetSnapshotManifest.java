@@ -0,0 +1,44 @@
+package com.powergrid.maintenance.tms_backend_application.admin.dataset;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Manifest of an on-disk dataset snapshot. Images and YOLO label files are stored once under
+ * their SHA-256 (images/&lt;sha&gt;.&lt;ext&gt;, labels/&lt;sha&gt;.txt) and shared between snapshots;
+ * the delta lists entry keys that differ from the base snapshot, so a consumer that already holds
+ * the base only needs the files referenced by added/changed entries.
+ */
+public record DatasetSnapshotManifest(
+        String snapshotId,
+        LocalDateTime createdAt,
+        String baseSnapshotId,
+        List<Entry> entries,
+        Delta delta,
+        FileRef coco
+) {
+
+    /**
+     * One training image (a corrected inspection) with its label file.
+     */
+    public record Entry(
+            String key,
+            Long inspectionId,
+            String imageUrl,
+            FileRef image,
+            int width,
+            int height,
+            FileRef label,
+            int detections
+    ) {
+    }
+
+    /**
+     * A file relative to the snapshot root, with its SHA-256 and size in bytes.
+     */
+    public record FileRef(String path, String sha256, long size) {
+    }
+
+    public record Delta(List<String> added, List<String> changed, List<String> removed) {
+    }
+}
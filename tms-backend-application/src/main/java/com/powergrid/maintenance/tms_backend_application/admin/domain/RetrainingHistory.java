@@ -2,20 +2,36 @@ package com.powergrid.maintenance.tms_backend_application.admin.domain;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 /**
- * Entity representing a model retraining session
+ * Entity representing a model retraining session.
+ * Dynamic updates so the job runner and a concurrent cancel request only write the columns they change.
  */
 @Entity
-@Table(name = "retraining_history")
+@Table(name = "retraining_history", indexes = {
+        @Index(name = "idx_retraining_history_status_completed", columnList = "status,completed_at"),
+        @Index(name = "idx_retraining_history_started", columnList = "started_at")
+})
 @Data
+@DynamicUpdate
 public class RetrainingHistory {
 
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+    /** Trained, but the candidate regressed on held-out verified inspections and was not rolled out. */
+    public static final String STATUS_REJECTED = "REJECTED";
+    public static final List<String> ACTIVE_STATUSES = List.of(STATUS_PENDING, STATUS_RUNNING);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -24,7 +40,25 @@ public class RetrainingHistory {
     private String runId;
 
     @Column(name = "status", nullable = false, length = 20)
-    private String status; // PENDING, RUNNING, COMPLETED, FAILED
+    private String status; // PENDING, RUNNING, COMPLETED, FAILED, CANCELLED, REJECTED
+
+    @Column(name = "stage", length = 40)
+    private String stage; // EXPORTING, QUEUED, BUILDING_DATASET, TRAINING, VALIDATING, ...
+
+    @Column(name = "progress_percent")
+    private Integer progressPercent;
+
+    @Column(name = "current_epoch")
+    private Integer currentEpoch;
+
+    @Column(name = "total_epochs")
+    private Integer totalEpochs;
+
+    @Column(name = "training_job_id", length = 100)
+    private String trainingJobId; // Job id assigned by the fine-tuning service
+
+    @Column(name = "cancel_requested")
+    private Boolean cancelRequested = false;
 
     @Column(name = "started_at", nullable = false)
     private LocalDateTime startedAt;
@@ -32,6 +66,9 @@ public class RetrainingHistory {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
 
+    @Column(name = "data_cutoff")
+    private LocalDateTime dataCutoff; // When the export began reading corrections (the next run's watermark)
+
     @Column(name = "images_count")
     private Integer imagesCount;
 
@@ -71,7 +108,11 @@ public class RetrainingHistory {
             startedAt = LocalDateTime.now();
         }
         if (status == null) {
-            status = "PENDING";
+            status = STATUS_PENDING;
         }
     }
+
+    public boolean isActive() {
+        return ACTIVE_STATUSES.contains(status);
+    }
 }
@@ -0,0 +1,44 @@
+package com.powergrid.maintenance.tms_backend_application.admin.dto;
+
+import com.powergrid.maintenance.tms_backend_application.admin.domain.RetrainingHistory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress snapshot of a retraining run, streamed to admins over SSE.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetrainingProgressDTO {
+    private String runId;
+    private String status;
+    private String stage;
+    private Integer progressPercent;
+    private Integer currentEpoch;
+    private Integer totalEpochs;
+    private boolean cancelRequested;
+    private String errorMessage;
+    private String weightsPath;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+
+    public static RetrainingProgressDTO from(RetrainingHistory history) {
+        return new RetrainingProgressDTO(
+                history.getRunId(),
+                history.getStatus(),
+                history.getStage(),
+                history.getProgressPercent(),
+                history.getCurrentEpoch(),
+                history.getTotalEpochs(),
+                Boolean.TRUE.equals(history.getCancelRequested()),
+                history.getErrorMessage(),
+                history.getWeightsPath(),
+                history.getStartedAt(),
+                history.getCompletedAt()
+        );
+    }
+}
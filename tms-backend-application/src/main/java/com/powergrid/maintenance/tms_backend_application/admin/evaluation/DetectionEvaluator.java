@@ -0,0 +1,228 @@
+package com.powergrid.maintenance.tms_backend_application.admin.evaluation;
+
+import com.powergrid.maintenance.tms_backend_application.common.geometry.BoxGeometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * COCO-style detection metrics: per-class AP at IoU 0.50 and averaged over 0.50:0.05:0.95
+ * (101-point interpolation), plus precision and recall at IoU 0.50 for one operating confidence.
+ *
+ * Matching is greedy per image and class: predictions in descending score order take the unmatched
+ * ground-truth box with the highest IoU above the threshold. Images are independent, so matching is
+ * split across a fork/join pool; accumulation per class is sequential and cheap.
+ */
+public final class DetectionEvaluator {
+
+    static final double[] IOU_THRESHOLDS = {0.50, 0.55, 0.60, 0.65, 0.70, 0.75, 0.80, 0.85, 0.90, 0.95};
+    private static final int RECALL_POINTS = 101;
+    private static final int IMAGES_PER_TASK = 8;
+
+    private DetectionEvaluator() {
+    }
+
+    /**
+     * Ground truth and predictions of one image. Boxes are packed xyxy (see {@link BoxGeometry}).
+     */
+    public record ImageDetections(int[] truths, int[] truthClasses,
+                                  int[] predictions, int[] predictionClasses, double[] scores) {
+    }
+
+    /**
+     * Evaluate all images; {@code confidence} is the operating point for precision/recall.
+     */
+    public static DetectionMetrics evaluate(List<ImageDetections> images, double confidence, ForkJoinPool pool) {
+        int[][] order = new int[images.size()][];
+        int[][] matched = new int[images.size()][];
+        pool.invoke(new MatchTask(images, order, matched, 0, images.size()));
+
+        // Gather per-class ground truth counts and (score, match mask) of every prediction
+        TreeMap<Integer, int[]> truthCounts = new TreeMap<>();
+        TreeMap<Integer, Accumulator> byClass = new TreeMap<>();
+        int totalTruths = 0;
+        int totalPredictions = 0;
+        for (int i = 0; i < images.size(); i++) {
+            ImageDetections image = images.get(i);
+            for (int c : image.truthClasses()) {
+                truthCounts.computeIfAbsent(c, k -> new int[1])[0]++;
+            }
+            totalTruths += image.truthClasses().length;
+            for (int k = 0; k < order[i].length; k++) {
+                int p = order[i][k];
+                byClass.computeIfAbsent(image.predictionClasses()[p], c -> new Accumulator())
+                        .add(image.scores()[p], matched[i][k]);
+            }
+            totalPredictions += order[i].length;
+        }
+
+        List<DetectionMetrics.ClassMetrics> classes = new ArrayList<>();
+        TreeSet<Integer> classIds = new TreeSet<>(truthCounts.keySet());
+        classIds.addAll(byClass.keySet());
+        for (int classId : classIds) {
+            int truths = truthCounts.containsKey(classId) ? truthCounts.get(classId)[0] : 0;
+            Accumulator acc = byClass.getOrDefault(classId, new Accumulator());
+            classes.add(acc.metrics(classId, truths, confidence));
+        }
+        return DetectionMetrics.of(images.size(), totalTruths, totalPredictions, classes);
+    }
+
+    /**
+     * Matches predictions of a range of images; writes each image's score order and per-prediction
+     * bitmask (bit t set when matched at IOU_THRESHOLDS[t]).
+     */
+    private static final class MatchTask extends RecursiveAction {
+        private final List<ImageDetections> images;
+        private final int[][] order;
+        private final int[][] matched;
+        private final int from;
+        private final int to;
+
+        MatchTask(List<ImageDetections> images, int[][] order, int[][] matched, int from, int to) {
+            this.images = images;
+            this.order = order;
+            this.matched = matched;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= IMAGES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    match(images.get(i), i);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MatchTask(images, order, matched, from, mid),
+                    new MatchTask(images, order, matched, mid, to));
+        }
+
+        private void match(ImageDetections image, int i) {
+            int np = image.predictionClasses().length;
+            int nt = image.truthClasses().length;
+            int[] idx = new int[np];
+            for (int k = 0; k < np; k++) {
+                idx[k] = k;
+            }
+            BoxGeometry.sortIndicesByScoreDesc(idx, image.scores(), np);
+            int[] masks = new int[np];
+            if (nt > 0 && np > 0) {
+                double[] iou = new double[np * nt];
+                BoxGeometry.iouMatrix(image.predictions(), np, image.truths(), nt, iou);
+                boolean[] used = new boolean[nt];
+                for (int t = 0; t < IOU_THRESHOLDS.length; t++) {
+                    Arrays.fill(used, false);
+                    for (int k = 0; k < np; k++) {
+                        int p = idx[k];
+                        int cls = image.predictionClasses()[p];
+                        int best = -1;
+                        double bestIou = IOU_THRESHOLDS[t];
+                        for (int j = 0; j < nt; j++) {
+                            double v = iou[p * nt + j];
+                            if (!used[j] && image.truthClasses()[j] == cls && v >= bestIou) {
+                                best = j;
+                                bestIou = v;
+                            }
+                        }
+                        if (best >= 0) {
+                            used[best] = true;
+                            masks[k] |= 1 << t;
+                        }
+                    }
+                }
+            }
+            order[i] = idx;
+            matched[i] = masks;
+        }
+    }
+
+    /**
+     * Predictions of one class across all images.
+     */
+    private static final class Accumulator {
+        private double[] scores = new double[64];
+        private int[] masks = new int[64];
+        private int n;
+
+        void add(double score, int mask) {
+            if (n == scores.length) {
+                scores = Arrays.copyOf(scores, n * 2);
+                masks = Arrays.copyOf(masks, n * 2);
+            }
+            scores[n] = score;
+            masks[n] = mask;
+            n++;
+        }
+
+        DetectionMetrics.ClassMetrics metrics(int classId, int truths, double confidence) {
+            int[] idx = new int[n];
+            for (int k = 0; k < n; k++) {
+                idx[k] = k;
+            }
+            BoxGeometry.sortIndicesByScoreDesc(idx, scores, n);
+
+            // Precision/recall at IoU 0.50 over predictions at or above the operating confidence
+            int tp = 0;
+            int kept = 0;
+            for (int k = 0; k < n && scores[idx[k]] >= confidence; k++) {
+                kept++;
+                tp += masks[idx[k]] & 1;
+            }
+            double precision = kept > 0 ? (double) tp / kept : 0;
+            Double recall = truths > 0 ? (double) tp / truths : null;
+
+            if (truths == 0) {
+                // No ground truth: AP is undefined (excluded from the means), as in COCO
+                return new DetectionMetrics.ClassMetrics(classId, 0, n, precision, recall, null, null);
+            }
+            double sum = 0;
+            double ap50 = 0;
+            for (int t = 0; t < IOU_THRESHOLDS.length; t++) {
+                double ap = averagePrecision(idx, t, truths);
+                sum += ap;
+                if (t == 0) {
+                    ap50 = ap;
+                }
+            }
+            return new DetectionMetrics.ClassMetrics(classId, truths, n, precision, recall, ap50, sum / IOU_THRESHOLDS.length);
+        }
+
+        private double averagePrecision(int[] idx, int t, int truths) {
+            if (n == 0) {
+                return 0;
+            }
+            double[] precision = new double[n];
+            double[] recall = new double[n];
+            int tp = 0;
+            for (int k = 0; k < n; k++) {
+                tp += (masks[idx[k]] >>> t) & 1;
+                precision[k] = (double) tp / (k + 1);
+                recall[k] = (double) tp / truths;
+            }
+            // Precision envelope: best precision at any recall >= this one
+            for (int k = n - 2; k >= 0; k--) {
+                precision[k] = Math.max(precision[k], precision[k + 1]);
+            }
+            double sum = 0;
+            int k = 0;
+            for (int r = 0; r < RECALL_POINTS; r++) {
+                double target = r / (double) (RECALL_POINTS - 1);
+                while (k < n && recall[k] < target) {
+                    k++;
+                }
+                if (k == n) {
+                    break;
+                }
+                sum += precision[k];
+            }
+            return sum / RECALL_POINTS;
+        }
+    }
+}
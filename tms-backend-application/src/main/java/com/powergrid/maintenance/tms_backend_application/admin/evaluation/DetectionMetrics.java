@@ -0,0 +1,73 @@
+package com.powergrid.maintenance.tms_backend_application.admin.evaluation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Detection metrics of one model on the evaluation sample. Means are macro averages over classes
+ * that have ground truth.
+ */
+public record DetectionMetrics(
+        int images,
+        int truths,
+        int predictions,
+        double map50,
+        double map,
+        double precision,
+        double recall,
+        List<ClassMetrics> classes
+) {
+
+    /**
+     * Per-class metrics; AP and recall are null when the class has no ground truth in the sample.
+     */
+    public record ClassMetrics(int classId, int truths, int predictions,
+                               double precision, Double recall, Double ap50, Double ap) {
+    }
+
+    static DetectionMetrics of(int images, int truths, int predictions, List<ClassMetrics> classes) {
+        List<ClassMetrics> scored = classes.stream().filter(c -> c.truths() > 0).toList();
+        return new DetectionMetrics(images, truths, predictions,
+                mean(scored.stream().map(ClassMetrics::ap50).toList()),
+                mean(scored.stream().map(ClassMetrics::ap).toList()),
+                mean(scored.stream().map(c -> c.precision()).toList()),
+                mean(scored.stream().map(ClassMetrics::recall).toList()),
+                classes);
+    }
+
+    public ClassMetrics forClass(int classId) {
+        return classes.stream().filter(c -> c.classId() == classId).findFirst().orElse(null);
+    }
+
+    /**
+     * JSON-friendly form for RetrainingHistory.metrics.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("images", images);
+        out.put("groundTruthBoxes", truths);
+        out.put("predictions", predictions);
+        out.put("mAP50", map50);
+        out.put("mAP50-95", map);
+        out.put("precision", precision);
+        out.put("recall", recall);
+        out.put("perClass", classes.stream().map(c -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("classId", c.classId());
+            m.put("groundTruthBoxes", c.truths());
+            m.put("predictions", c.predictions());
+            m.put("precision", c.precision());
+            m.put("recall", c.recall());
+            m.put("ap50", c.ap50());
+            m.put("ap50-95", c.ap());
+            return m;
+        }).toList());
+        return out;
+    }
+
+    private static double mean(List<Double> values) {
+        return values.stream().filter(Objects::nonNull).mapToDouble(Double::doubleValue).average().orElse(0);
+    }
+}
@@ -0,0 +1,34 @@
+package com.powergrid.maintenance.tms_backend_application.admin.evaluation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deterministic train/evaluation split by inspection id: inspections with
+ * {@code id % app.retraining.evaluation.holdout-modulus == 0} are never exported for training and
+ * form the pool candidates are evaluated on. A modulus of 0 disables the split.
+ *
+ * Use {@link #modulus()} and {@link #heldOutRemainder()} as query parameters
+ * ({@code MOD(inspectionId, :modulus) <> :heldOut}); when disabled they match nothing.
+ */
+@Component
+public class HoldoutSplit {
+
+    private final int modulus;
+
+    public HoldoutSplit(@Value("${app.retraining.evaluation.holdout-modulus:10}") int modulus) {
+        this.modulus = Math.max(0, modulus);
+    }
+
+    public boolean enabled() {
+        return modulus > 1;
+    }
+
+    public int modulus() {
+        return enabled() ? modulus : 1;
+    }
+
+    public int heldOutRemainder() {
+        return enabled() ? 0 : -1;
+    }
+}
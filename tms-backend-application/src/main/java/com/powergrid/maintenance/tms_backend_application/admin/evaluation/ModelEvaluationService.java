@@ -0,0 +1,285 @@
+package com.powergrid.maintenance.tms_backend_application.admin.evaluation;
+
+import com.powergrid.maintenance.tms_backend_application.common.geometry.BoxGeometry;
+import com.powergrid.maintenance.tms_backend_application.inspection.domain.InferenceMetadata;
+import com.powergrid.maintenance.tms_backend_application.inspection.domain.InspectionAnomaly;
+import com.powergrid.maintenance.tms_backend_application.inspection.model.ActionType;
+import com.powergrid.maintenance.tms_backend_application.inspection.model.AnomalySource;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InferenceMetadataRepository;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionAnomalyRepository;
+import com.powergrid.maintenance.tms_backend_application.inspection.repository.AnnotationActionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Gates model rollout: scores a candidate and the active model on held-out inspections a reviewer
+ * has corrected, and only promotes the candidate when it does not regress. The ground truth is
+ * their user-added boxes and the AI boxes a reviewer approved or edited.
+ *
+ * The fine-tuning service provides raw detections for either model; all scoring happens here.
+ */
+@Slf4j
+@Service
+public class ModelEvaluationService {
+
+    private static final int PREDICT_BATCH = 25;
+    // Keep low-confidence detections so AP covers the whole precision/recall curve
+    private static final double PREDICT_CONFIDENCE = 0.001;
+
+    private final AnnotationActionRepository actionRepository;
+    private final InspectionAnomalyRepository anomalyRepository;
+    private final InferenceMetadataRepository inferenceMetadataRepository;
+    private final HoldoutSplit holdoutSplit;
+    private final RestTemplate restTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final String finetuneServiceUrl;
+    private final boolean enabled;
+    private final int sampleSize;
+    private final int minSampleInspections;
+    private final double confidence;
+    private final double maxMapDrop;
+    private final double maxClassApDrop;
+    private final int minClassInstances;
+
+    public ModelEvaluationService(AnnotationActionRepository actionRepository,
+                                  InspectionAnomalyRepository anomalyRepository,
+                                  InferenceMetadataRepository inferenceMetadataRepository,
+                                  HoldoutSplit holdoutSplit,
+                                  RestTemplate restTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${finetune.service.url:http://localhost:8002}") String finetuneServiceUrl,
+                                  @Value("${app.retraining.evaluation.enabled:true}") boolean enabled,
+                                  @Value("${app.retraining.evaluation.sample-size:200}") int sampleSize,
+                                  @Value("${app.retraining.evaluation.min-sample-inspections:10}") int minSampleInspections,
+                                  @Value("${app.retraining.evaluation.confidence:0.5}") double confidence,
+                                  @Value("${app.retraining.evaluation.max-map-drop:0.01}") double maxMapDrop,
+                                  @Value("${app.retraining.evaluation.max-class-ap-drop:0.05}") double maxClassApDrop,
+                                  @Value("${app.retraining.evaluation.min-class-instances:5}") int minClassInstances) {
+        this.actionRepository = actionRepository;
+        this.anomalyRepository = anomalyRepository;
+        this.inferenceMetadataRepository = inferenceMetadataRepository;
+        this.holdoutSplit = holdoutSplit;
+        this.restTemplate = restTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.finetuneServiceUrl = finetuneServiceUrl;
+        this.enabled = enabled;
+        this.sampleSize = sampleSize;
+        this.minSampleInspections = minSampleInspections;
+        this.confidence = confidence;
+        this.maxMapDrop = maxMapDrop;
+        this.maxClassApDrop = maxClassApDrop;
+        this.minClassInstances = minClassInstances;
+    }
+
+    /**
+     * Outcome of comparing a candidate with the active model. A skipped evaluation passes.
+     */
+    public record EvaluationReport(boolean passed, String skippedReason, int sampleInspections,
+                                   DetectionMetrics candidate, DetectionMetrics baseline, List<String> regressions) {
+
+        static EvaluationReport skipped(String reason, int sampleInspections) {
+            return new EvaluationReport(true, reason, sampleInspections, null, null, List.of());
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("passed", passed);
+            map.put("sampleInspections", sampleInspections);
+            if (skippedReason != null) {
+                map.put("skipped", skippedReason);
+            }
+            if (candidate != null) {
+                map.put("candidate", candidate.toMap());
+                map.put("baseline", baseline.toMap());
+            }
+            map.put("regressions", regressions);
+            return map;
+        }
+    }
+
+    private record Sample(long inspectionId, String imageUrl, int[] truths, int[] classes) {
+    }
+
+    private record Prediction(int[] boxes, int[] classes, double[] scores) {
+    }
+
+    /**
+     * Whether retraining should produce candidates that go through {@link #evaluate} before rollout.
+     */
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public EvaluationReport evaluate(String candidateWeightsPath) {
+        if (!holdoutSplit.enabled()) {
+            return EvaluationReport.skipped("Evaluation hold-out is disabled", 0);
+        }
+        List<Sample> samples = readOnlyTransaction.execute(status -> loadSamples());
+        if (samples.size() < minSampleInspections) {
+            log.info("Skipping model evaluation: {} held-out verified inspections (need {})",
+                    samples.size(), minSampleInspections);
+            return EvaluationReport.skipped("Only " + samples.size() + " held-out verified inspections", samples.size());
+        }
+
+        List<String> urls = samples.stream().map(Sample::imageUrl).distinct().toList();
+        Map<String, Prediction> candidate = predict(urls, candidateWeightsPath);
+        Map<String, Prediction> baseline = predict(urls, null);
+
+        // Score both models on exactly the same images
+        List<DetectionEvaluator.ImageDetections> candidateImages = new ArrayList<>();
+        List<DetectionEvaluator.ImageDetections> baselineImages = new ArrayList<>();
+        for (Sample sample : samples) {
+            Prediction c = candidate.get(sample.imageUrl());
+            Prediction b = baseline.get(sample.imageUrl());
+            if (c == null || b == null) {
+                continue;
+            }
+            candidateImages.add(new DetectionEvaluator.ImageDetections(sample.truths(), sample.classes(), c.boxes(), c.classes(), c.scores()));
+            baselineImages.add(new DetectionEvaluator.ImageDetections(sample.truths(), sample.classes(), b.boxes(), b.classes(), b.scores()));
+        }
+        if (candidateImages.size() < minSampleInspections) {
+            return EvaluationReport.skipped("Only " + candidateImages.size() + " held-out images could be scored",
+                    candidateImages.size());
+        }
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        DetectionMetrics candidateMetrics = DetectionEvaluator.evaluate(candidateImages, confidence, pool);
+        DetectionMetrics baselineMetrics = DetectionEvaluator.evaluate(baselineImages, confidence, pool);
+        List<String> regressions = regressions(candidateMetrics, baselineMetrics);
+
+        log.info("Model evaluation on {} inspections: candidate mAP50-95={} mAP50={}, active mAP50-95={} mAP50={}, {}",
+                candidateImages.size(),
+                String.format("%.4f", candidateMetrics.map()), String.format("%.4f", candidateMetrics.map50()),
+                String.format("%.4f", baselineMetrics.map()), String.format("%.4f", baselineMetrics.map50()),
+                regressions.isEmpty() ? "no regression" : "regressions: " + regressions);
+        return new EvaluationReport(regressions.isEmpty(), null, candidateImages.size(),
+                candidateMetrics, baselineMetrics, regressions);
+    }
+
+    /**
+     * Make the candidate the model served by the inference service.
+     */
+    public void promote(String candidateWeightsPath) {
+        restTemplate.postForObject(finetuneServiceUrl + "/api/finetune/promote",
+                Map.of("weights_path", candidateWeightsPath), Map.class);
+        log.info("Promoted candidate weights {}", candidateWeightsPath);
+    }
+
+    private List<String> regressions(DetectionMetrics candidate, DetectionMetrics baseline) {
+        List<String> regressions = new ArrayList<>();
+        if (candidate.map() < baseline.map() - maxMapDrop) {
+            regressions.add(String.format(Locale.ROOT, "mAP50-95 %.3f -> %.3f", baseline.map(), candidate.map()));
+        }
+        if (candidate.map50() < baseline.map50() - maxMapDrop) {
+            regressions.add(String.format(Locale.ROOT, "mAP50 %.3f -> %.3f", baseline.map50(), candidate.map50()));
+        }
+        for (DetectionMetrics.ClassMetrics before : baseline.classes()) {
+            if (before.truths() < minClassInstances || before.ap50() == null) {
+                continue;
+            }
+            DetectionMetrics.ClassMetrics after = candidate.forClass(before.classId());
+            double ap50 = after != null && after.ap50() != null ? after.ap50() : 0;
+            if (ap50 < before.ap50() - maxClassApDrop) {
+                regressions.add(String.format(Locale.ROOT, "class %d AP50 %.3f -> %.3f", before.classId(), before.ap50(), ap50));
+            }
+        }
+        return regressions;
+    }
+
+    private List<Sample> loadSamples() {
+        List<Long> ids = actionRepository.findReviewedHoldoutInspectionIds(
+                holdoutSplit.modulus(), holdoutSplit.heldOutRemainder(), ActionType.CORRECTIONS, PageRequest.of(0, sampleSize));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, String> imageUrls = new HashMap<>();
+        for (InferenceMetadata m : inferenceMetadataRepository.findByInspectionIdIn(ids)) {
+            if (m.getMaintenanceImageUrl() != null) {
+                imageUrls.put(m.getInspectionId(), m.getMaintenanceImageUrl());
+            }
+        }
+        Map<Long, List<InspectionAnomaly>> anomalies = new HashMap<>();
+        // Untouched AI boxes are the baseline model's own output, not ground truth
+        for (InspectionAnomaly a : anomalyRepository.findVerifiedByInspectionIdIn(
+                ids, AnomalySource.AI_GENERATED, ActionType.VERIFICATIONS)) {
+            if (a.getBboxX() != null && a.getBboxY() != null && a.getBboxWidth() != null
+                    && a.getBboxHeight() != null && a.getClassId() != null) {
+                anomalies.computeIfAbsent(a.getInspectionId(), k -> new ArrayList<>()).add(a);
+            }
+        }
+
+        List<Sample> samples = new ArrayList<>();
+        for (Long id : ids) {
+            String url = imageUrls.get(id);
+            if (url == null) {
+                continue;
+            }
+            // An inspection whose reviewer removed every box is a valid "no faults" sample
+            List<InspectionAnomaly> truth = anomalies.getOrDefault(id, List.of());
+            int[] boxes = new int[truth.size() * 4];
+            int[] classes = new int[truth.size()];
+            for (int i = 0; i < truth.size(); i++) {
+                InspectionAnomaly a = truth.get(i);
+                BoxGeometry.xywhToXyxy(a.getBboxX(), a.getBboxY(), a.getBboxWidth(), a.getBboxHeight(), boxes, i);
+                classes[i] = a.getClassId();
+            }
+            samples.add(new Sample(id, url, boxes, classes));
+        }
+        return samples;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Prediction> predict(List<String> urls, String weightsPath) {
+        Map<String, Prediction> predictions = new HashMap<>();
+        for (int from = 0; from < urls.size(); from += PREDICT_BATCH) {
+            List<String> batch = urls.subList(from, Math.min(from + PREDICT_BATCH, urls.size()));
+            Map<String, Object> request = new HashMap<>();
+            request.put("image_urls", batch);
+            request.put("conf", PREDICT_CONFIDENCE);
+            if (weightsPath != null) {
+                request.put("weights_path", weightsPath);
+            }
+            Map<String, Object> response = restTemplate.postForObject(
+                    finetuneServiceUrl + "/api/finetune/predict", request, Map.class);
+            if (response == null || !(response.get("predictions") instanceof List<?> results) || results.size() != batch.size()) {
+                throw new IllegalStateException("Fine-tuning service returned no predictions");
+            }
+            // Results are in request order; images that failed to download are left out of scoring
+            for (int i = 0; i < batch.size(); i++) {
+                Map<String, Object> image = (Map<String, Object>) results.get(i);
+                if (image.get("error") == null) {
+                    predictions.put(batch.get(i), toPrediction((List<Map<String, Object>>) image.get("detections")));
+                }
+            }
+        }
+        return predictions;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Prediction toPrediction(List<Map<String, Object>> detections) {
+        int n = detections.size();
+        int[] boxes = new int[n * 4];
+        int[] classes = new int[n];
+        double[] scores = new double[n];
+        for (int i = 0; i < n; i++) {
+            Map<String, Object> d = detections.get(i);
+            Map<String, Object> box = (Map<String, Object>) d.get("box");
+            boxes[4 * i] = (int) Math.round(((Number) box.get("x_min")).doubleValue());
+            boxes[4 * i + 1] = (int) Math.round(((Number) box.get("y_min")).doubleValue());
+            boxes[4 * i + 2] = (int) Math.round(((Number) box.get("x_max")).doubleValue());
+            boxes[4 * i + 3] = (int) Math.round(((Number) box.get("y_max")).doubleValue());
+            classes[i] = ((Number) d.get("class_id")).intValue();
+            scores[i] = ((Number) d.get("confidence")).doubleValue();
+        }
+        return new Prediction(boxes, classes, scores);
+    }
+}
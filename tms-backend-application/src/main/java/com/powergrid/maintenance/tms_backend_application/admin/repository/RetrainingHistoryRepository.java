@@ -1,11 +1,16 @@
 package com.powergrid.maintenance.tms_backend_application.admin.repository;
 
 import com.powergrid.maintenance.tms_backend_application.admin.domain.RetrainingHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,33 +26,64 @@ public interface RetrainingHistoryRepository extends JpaRepository<RetrainingHis
     Optional<RetrainingHistory> findByRunId(String runId);
 
     /**
-     * Find latest completed retraining
+     * Latest run in the given status by completion time (index: status, completed_at)
      */
-    @Query("SELECT r FROM RetrainingHistory r WHERE r.status = 'COMPLETED' ORDER BY r.completedAt DESC")
-    List<RetrainingHistory> findCompletedOrderByCompletedAtDesc();
+    Optional<RetrainingHistory> findFirstByStatusOrderByCompletedAtDesc(String status);
 
     /**
      * Get latest completed retraining
      */
     default Optional<RetrainingHistory> findLatestCompleted() {
-        List<RetrainingHistory> results = findCompletedOrderByCompletedAtDesc();
-        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+        return findFirstByStatusOrderByCompletedAtDesc(RetrainingHistory.STATUS_COMPLETED);
     }
 
     /**
      * Find last successful retraining timestamp
      */
-    default Optional<LocalDateTime> findLastCompletedTimestamp() {
-        return findLatestCompleted().map(RetrainingHistory::getCompletedAt);
-    }
+    @Query("SELECT MAX(r.completedAt) FROM RetrainingHistory r WHERE r.status = 'COMPLETED'")
+    Optional<LocalDateTime> findLastCompletedTimestamp();
+
+    /**
+     * The retraining watermark: when the last completed run started reading corrections. Corrections
+     * made while it trained come after it. Runs from before data_cutoff existed fall back to completedAt.
+     */
+    @Query("SELECT MAX(COALESCE(r.dataCutoff, r.completedAt)) FROM RetrainingHistory r WHERE r.status = 'COMPLETED'")
+    Optional<LocalDateTime> findWatermark();
+
+    /**
+     * When the last run that trained and was evaluated finished, whether or not it was rolled out;
+     * paces automatic runs so a rejected candidate does not trigger another immediately
+     */
+    @Query("SELECT MAX(r.completedAt) FROM RetrainingHistory r WHERE r.status IN ('COMPLETED', 'REJECTED')")
+    Optional<LocalDateTime> findLastFinishedAttemptTimestamp();
 
     /**
      * Find all by status
      */
     List<RetrainingHistory> findByStatusOrderByStartedAtDesc(String status);
 
+    /**
+     * Runs in any of the given statuses (e.g. still PENDING/RUNNING)
+     */
+    List<RetrainingHistory> findByStatusIn(Collection<String> statuses);
+
+    boolean existsByStatusIn(Collection<String> statuses);
+
+    /**
+     * Flag a run for cancellation if it has not finished yet; the job runner acts on it
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RetrainingHistory r SET r.cancelRequested = true WHERE r.runId = :runId AND r.status IN ('PENDING', 'RUNNING')")
+    int requestCancel(@Param("runId") String runId);
+
     /**
      * Find recent history
      */
     List<RetrainingHistory> findTop10ByOrderByStartedAtDesc();
+
+    /**
+     * Most recent runs first, one page (index: started_at)
+     */
+    List<RetrainingHistory> findByOrderByStartedAtDesc(Pageable pageable);
 }
@@ -3,6 +3,7 @@ package com.powergrid.maintenance.tms_backend_application.admin.service;
 import com.powergrid.maintenance.tms_backend_application.admin.dto.AdminRegistrationRequest;
 import com.powergrid.maintenance.tms_backend_application.admin.model.AdminApproval;
 import com.powergrid.maintenance.tms_backend_application.admin.repository.AdminApprovalRepository;
+import com.powergrid.maintenance.tms_backend_application.user.event.UserAccountChangedEvent;
 import com.powergrid.maintenance.tms_backend_application.user.model.User;
 import com.powergrid.maintenance.tms_backend_application.user.repository.UserRepository;
 import com.powergrid.maintenance.tms_backend_application.user.service.EmailService;
@@ -10,6 +11,7 @@ import com.powergrid.maintenance.tms_backend_application.user.service.OtpService
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,6 +32,7 @@ public class AdminService {
     private final BCryptPasswordEncoder passwordEncoder;
     private final OtpService otpService;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Secret key for admin registration (configured in application.properties).
@@ -166,6 +169,9 @@ public class AdminService {
             emailService.sendPendingApprovalEmail(email, user.getUsername());
         }
 
+        // Enabled (and possibly promoted): drop any cached principal
+        eventPublisher.publishEvent(new UserAccountChangedEvent(user.getUsername()));
+
         // Clean up OTP
         otpService.deleteOtp(email);
 
@@ -199,6 +205,7 @@ public class AdminService {
 
         user.setRole("ROLE_ADMIN");
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(user.getUsername()));
 
         // Update approval status
         approval.setStatus(AdminApproval.ApprovalStatus.APPROVED);
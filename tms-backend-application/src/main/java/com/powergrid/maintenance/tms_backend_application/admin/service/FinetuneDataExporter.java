@@ -0,0 +1,140 @@
+package com.powergrid.maintenance.tms_backend_application.admin.service;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.powergrid.maintenance.tms_backend_application.admin.evaluation.HoldoutSplit;
+import com.powergrid.maintenance.tms_backend_application.admin.repository.RetrainingHistoryRepository;
+import com.powergrid.maintenance.tms_backend_application.common.geometry.BoxGeometry;
+import com.powergrid.maintenance.tms_backend_application.inspection.model.ActionType;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionAnomalyRepository;
+import com.powergrid.maintenance.tms_backend_application.inspection.repository.AnnotationActionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Streams the fine-tuning dataset (all active detections of inspections corrected since the last
+ * completed run, minus the evaluation hold-out) as NDJSON in the format expected by the Python fine-tuning service:
+ * a parameters line, then one line per image.
+ *
+ * Rows come from a single forward-only cursor over anomalies joined with their image URL, so memory
+ * use is bounded by one image's detections regardless of the size of the correction backlog.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FinetuneDataExporter {
+
+    static final int TRAIN_REPLAY = 50; // Mix in baseline samples
+    static final int EPOCHS = 10;
+
+    private final AnnotationActionRepository annotationActionRepository;
+    private final InspectionAnomalyRepository anomalyRepository;
+    private final RetrainingHistoryRepository retrainingHistoryRepository;
+    private final ObjectMapper objectMapper;
+    private final HoldoutSplit holdoutSplit;
+
+    /**
+     * Counts of what was written by {@link #writeFinetuningData}.
+     */
+    public record ExportSummary(int images, int detections, int epochs, int trainReplay) {
+    }
+
+    private record Params(@JsonProperty("train_replay") int trainReplay, int epochs,
+                          @JsonProperty("candidate_only") boolean candidateOnly,
+                          @JsonProperty("dataset_snapshot") String datasetSnapshot) {
+    }
+
+    private record Box(@JsonProperty("x_min") int xMin, @JsonProperty("y_min") int yMin,
+                       @JsonProperty("x_max") int xMax, @JsonProperty("y_max") int yMax) {
+    }
+
+    private record Detection(Box box, @JsonProperty("class_id") Integer classId) {
+    }
+
+    private record FeedbackImage(@JsonProperty("image_url") String imageUrl, List<Detection> detections) {
+    }
+
+    /**
+     * Whether any inspection has corrections (CREATED, EDITED, DELETED or REJECTED actions;
+     * APPROVED and COMMENTED alone do not count) since the last completed retraining
+     */
+    @Transactional(readOnly = true)
+    public boolean hasCorrectionsToExport() {
+        List<Long> affected = annotationActionRepository.findInspectionIdsWithActionsSince(watermark(), ActionType.CORRECTIONS);
+        log.info("Found {} affected inspections with user corrections", affected.size());
+        return !affected.isEmpty();
+    }
+
+    /**
+     * Write the fine-tuning dataset as NDJSON. The stream is flushed but not closed.
+     * With {@code candidateOnly} the service keeps the new weights aside for evaluation instead of serving them.
+     * With a {@code snapshotId} (may be null) the service takes the images from that dataset snapshot
+     * on shared storage and only downloads the ones missing from it.
+     */
+    @Transactional(readOnly = true)
+    public ExportSummary writeFinetuningData(OutputStream out, boolean candidateOnly, String snapshotId) {
+        LocalDateTime since = watermark();
+        int images = 0;
+        int detections = 0;
+
+        try (JsonGenerator generator = objectMapper.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(generator);
+             Stream<Object[]> rows = anomalyRepository.streamFinetuneRowsSince(
+                     since, ActionType.CORRECTIONS, holdoutSplit.modulus(), holdoutSplit.heldOutRemainder())) {
+            writer.write(new Params(TRAIN_REPLAY, EPOCHS, candidateOnly, snapshotId));
+
+            Long currentInspection = null;
+            String currentUrl = null;
+            List<Detection> current = new ArrayList<>();
+            int[] xyxy = new int[4];
+
+            for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                Object[] row = it.next();
+                Long inspectionId = (Long) row[0];
+                if (!inspectionId.equals(currentInspection)) {
+                    if (!current.isEmpty()) {
+                        writer.write(new FeedbackImage(currentUrl, current));
+                        images++;
+                        detections += current.size();
+                        current = new ArrayList<>();
+                    }
+                    currentInspection = inspectionId;
+                    currentUrl = (String) row[1];
+                }
+                // Convert bbox format: (x, y, width, height) -> (x_min, y_min, x_max, y_max)
+                BoxGeometry.xywhToXyxy((Integer) row[2], (Integer) row[3], (Integer) row[4], (Integer) row[5], xyxy, 0);
+                current.add(new Detection(new Box(xyxy[0], xyxy[1], xyxy[2], xyxy[3]), (Integer) row[6]));
+            }
+            if (!current.isEmpty()) {
+                writer.write(new FeedbackImage(currentUrl, current));
+                images++;
+                detections += current.size();
+            }
+            // End with a newline so the last record is a complete NDJSON line
+            generator.writeRaw('\n');
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stream fine-tuning data", e);
+        }
+
+        log.info("Exported {} images with {} total detections for retraining", images, detections);
+        return new ExportSummary(images, detections, EPOCHS, TRAIN_REPLAY);
+    }
+
+    private LocalDateTime watermark() {
+        return retrainingHistoryRepository
+                .findWatermark()
+                .orElse(LocalDateTime.of(2000, 1, 1, 0, 0));
+    }
+}
@@ -0,0 +1,421 @@
+package com.powergrid.maintenance.tms_backend_application.admin.service;
+
+import com.powergrid.maintenance.tms_backend_application.admin.dataset.DatasetSnapshotBuilder;
+import com.powergrid.maintenance.tms_backend_application.admin.domain.RetrainingHistory;
+import com.powergrid.maintenance.tms_backend_application.admin.evaluation.ModelEvaluationService;
+import com.powergrid.maintenance.tms_backend_application.admin.repository.RetrainingHistoryRepository;
+import com.powergrid.maintenance.tms_backend_application.common.lock.AdvisoryLock;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Drives retraining runs in the background: streams the training data to the
+ * Python fine-tuning service as a new job, then polls it and mirrors its progress into RetrainingHistory.
+ *
+ * No request thread or database transaction is held while the model trains; each state change
+ * is a short transaction of its own. Runs left PENDING/RUNNING by a restart are picked up again
+ * on startup and every app.retraining.resume-interval-ms, re-attaching to the fine-tuning job when
+ * one was already submitted. A node follows runs only while it holds a PostgreSQL advisory lock,
+ * so with several nodes exactly one exports, submits and polls, and another takes over if it dies.
+ */
+@Slf4j
+@Component
+public class RetrainingJobRunner {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final RetrainingHistoryRepository historyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final FinetuneDataExporter dataExporter;
+    private final RestTemplate restTemplate;
+    private final RetrainingProgressPublisher progressPublisher;
+    private final DatasetSnapshotBuilder snapshotBuilder;
+    private final ModelEvaluationService evaluationService;
+    private final boolean snapshotEnabled;
+    private final TransactionTemplate transactionTemplate;
+    private final String finetuneServiceUrl;
+    private final long pollIntervalMs;
+    private final int maxPollFailures;
+    private final Duration maxDuration;
+    private volatile String followingRunId;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "retraining-job");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public RetrainingJobRunner(RetrainingHistoryRepository historyRepository,
+                               JdbcTemplate jdbcTemplate,
+                               FinetuneDataExporter dataExporter,
+                               RestTemplate restTemplate,
+                               RetrainingProgressPublisher progressPublisher,
+                               DatasetSnapshotBuilder snapshotBuilder,
+                               ModelEvaluationService evaluationService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${finetune.service.url:http://localhost:8002}") String finetuneServiceUrl,
+                               @Value("${app.retraining.poll-interval-ms:2000}") long pollIntervalMs,
+                               @Value("${app.retraining.max-poll-failures:30}") int maxPollFailures,
+                               @Value("${app.retraining.max-duration-minutes:240}") long maxDurationMinutes,
+                               @Value("${app.retraining.snapshot.enabled:false}") boolean snapshotEnabled) {
+        this.historyRepository = historyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataExporter = dataExporter;
+        this.restTemplate = restTemplate;
+        this.progressPublisher = progressPublisher;
+        this.snapshotBuilder = snapshotBuilder;
+        this.evaluationService = evaluationService;
+        this.snapshotEnabled = snapshotEnabled;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.finetuneServiceUrl = finetuneServiceUrl;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxPollFailures = maxPollFailures;
+        this.maxDuration = Duration.ofMinutes(maxDurationMinutes);
+    }
+
+    /**
+     * Queue a PENDING run for execution.
+     */
+    public void submit(String runId) {
+        executor.execute(() -> {
+            try {
+                boolean followed = AdvisoryLock.RETRAINING_FOLLOWER.runIfAvailable(jdbcTemplate, () -> {
+                    followingRunId = runId;
+                    try {
+                        run(runId);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        log.info("Stopped following retraining run {}; it resumes on next startup", runId);
+                    } catch (Exception e) {
+                        log.error("Retraining run {} failed: {}", runId, e.getMessage(), e);
+                        finish(runId, RetrainingHistory.STATUS_FAILED, e.getMessage());
+                    } finally {
+                        followingRunId = null;
+                    }
+                });
+                if (!followed) {
+                    log.debug("Retraining run {} is followed by another node", runId);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not follow retraining run {}: {}", runId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Pick up runs nobody is following: left behind by a restart, or by a node that went away.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.retraining.resume-interval-ms:60000}",
+               initialDelayString = "${app.retraining.resume-interval-ms:60000}")
+    public void resumeActiveRuns() {
+        if (followingRunId != null) {
+            return;
+        }
+        for (RetrainingHistory history : historyRepository.findByStatusIn(RetrainingHistory.ACTIVE_STATUSES)) {
+            log.info("Resuming retraining run {} ({}, job {})",
+                    history.getRunId(), history.getStatus(), history.getTrainingJobId());
+            submit(history.getRunId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupts polling only; the fine-tuning job keeps running and is re-attached on restart
+        executor.shutdownNow();
+    }
+
+    private void run(String runId) throws InterruptedException {
+        // Queued twice, or finished by the node that followed it before this one took the lock
+        if (historyRepository.findByRunId(runId).filter(RetrainingHistory::isActive).isEmpty()) {
+            return;
+        }
+        RetrainingHistory history = update(runId, h -> {
+            h.setStatus(RetrainingHistory.STATUS_RUNNING);
+            if (h.getTrainingJobId() == null) {
+                h.setStage("EXPORTING");
+                h.setProgressPercent(0);
+            }
+        });
+        if (isCancelRequested(history) && history.getTrainingJobId() == null) {
+            finish(runId, RetrainingHistory.STATUS_CANCELLED, null);
+            return;
+        }
+
+        String jobId = history.getTrainingJobId();
+        if (jobId == null) {
+            if (!dataExporter.hasCorrectionsToExport()) {
+                finish(runId, RetrainingHistory.STATUS_FAILED, "No images available for retraining");
+                return;
+            }
+            if (isCancelRequested(historyRepository.findByRunId(runId).orElse(history))) {
+                finish(runId, RetrainingHistory.STATUS_CANCELLED, null);
+                return;
+            }
+
+            // Everything recorded up to here is in this run's data; the next run starts from it
+            LocalDateTime dataCutoff = LocalDateTime.now();
+            String snapshotId = buildSnapshot(runId);
+            AtomicReference<FinetuneDataExporter.ExportSummary> exported = new AtomicReference<>();
+            try {
+                jobId = submitTrainingJob(out -> exported.set(dataExporter.writeFinetuningData(out, evaluationService.enabled(), snapshotId)));
+            } catch (HttpClientErrorException e) {
+                if (exported.get() != null && exported.get().images() == 0) {
+                    // Corrected inspections without an image or active detections; the service rejects empty uploads
+                    finish(runId, RetrainingHistory.STATUS_FAILED, "No images available for retraining");
+                    return;
+                }
+                throw e;
+            }
+            String submittedJobId = jobId;
+            FinetuneDataExporter.ExportSummary summary = exported.get();
+            history = update(runId, h -> {
+                h.setTrainingJobId(submittedJobId);
+                h.setDataCutoff(dataCutoff);
+                h.setImagesCount(summary.images());
+                h.setActionsIncluded(summary.detections());
+                h.setStage("QUEUED");
+                h.setTotalEpochs(summary.epochs());
+                Map<String, Object> hyperparams = new HashMap<>();
+                hyperparams.put("epochs", summary.epochs());
+                hyperparams.put("train_replay", summary.trainReplay());
+                if (snapshotId != null) {
+                    hyperparams.put("dataset_snapshot", snapshotId);
+                }
+                h.setHyperparameters(hyperparams);
+            });
+            log.info("Retraining run {} submitted as fine-tuning job {}", runId, jobId);
+        }
+
+        poll(runId, jobId, history.getStartedAt());
+    }
+
+    /**
+     * Refresh the on-disk dataset snapshot when enabled. Failures only cost the snapshot, not the run.
+     */
+    private String buildSnapshot(String runId) {
+        if (!snapshotEnabled) {
+            return null;
+        }
+        try {
+            return snapshotBuilder.build().snapshotId();
+        } catch (RuntimeException e) {
+            log.warn("Dataset snapshot for retraining run {} failed: {}", runId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void poll(String runId, String jobId, LocalDateTime startedAt) throws InterruptedException {
+        String statusUrl = finetuneServiceUrl + "/api/finetune/jobs/" + jobId;
+        boolean cancelSent = false;
+        int failures = 0;
+
+        while (true) {
+            Thread.sleep(pollIntervalMs);
+
+            if (!cancelSent && isCancelRequested(historyRepository.findByRunId(runId).orElse(null))) {
+                cancelSent = cancelTrainingJob(jobId);
+            }
+
+            Map<String, Object> job;
+            try {
+                job = getMap(statusUrl);
+                failures = 0;
+            } catch (HttpClientErrorException.NotFound e) {
+                finish(runId, RetrainingHistory.STATUS_FAILED, "Fine-tuning service no longer knows job " + jobId);
+                return;
+            } catch (RestClientException e) {
+                if (++failures >= maxPollFailures) {
+                    finish(runId, RetrainingHistory.STATUS_FAILED, "Fine-tuning service unreachable: " + e.getMessage());
+                    return;
+                }
+                log.warn("Polling fine-tuning job {} failed ({}/{}): {}", jobId, failures, maxPollFailures, e.getMessage());
+                continue;
+            }
+
+            String status = String.valueOf(job.get("status"));
+            switch (status) {
+                case "COMPLETED" -> {
+                    complete(runId, job);
+                    return;
+                }
+                case "FAILED" -> {
+                    finish(runId, RetrainingHistory.STATUS_FAILED, (String) job.get("error"));
+                    return;
+                }
+                case "CANCELLED" -> {
+                    finish(runId, RetrainingHistory.STATUS_CANCELLED, null);
+                    return;
+                }
+                default -> update(runId, h -> {
+                    h.setStage((String) job.get("stage"));
+                    h.setProgressPercent(asInteger(job.get("progress")));
+                    h.setCurrentEpoch(asInteger(job.get("epoch")));
+                    if (job.get("total_epochs") != null) {
+                        h.setTotalEpochs(asInteger(job.get("total_epochs")));
+                    }
+                });
+            }
+
+            if (startedAt != null && LocalDateTime.now().isAfter(startedAt.plus(maxDuration))) {
+                cancelTrainingJob(jobId);
+                finish(runId, RetrainingHistory.STATUS_FAILED, "Retraining exceeded " + maxDuration.toMinutes() + " minutes");
+                return;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void complete(String runId, Map<String, Object> job) {
+        Map<String, Object> result = (Map<String, Object>) job.get("result");
+        String weightsPath = result != null ? (String) result.get("weights_path") : null;
+
+        ModelEvaluationService.EvaluationReport report = null;
+        if (evaluationService.enabled() && weightsPath != null) {
+            update(runId, h -> h.setStage("EVALUATING"));
+            try {
+                report = evaluationService.evaluate(weightsPath);
+                if (report.passed()) {
+                    evaluationService.promote(weightsPath);
+                }
+            } catch (RuntimeException e) {
+                log.error("Evaluating candidate of retraining run {} failed", runId, e);
+                finish(runId, RetrainingHistory.STATUS_FAILED, "Model evaluation failed, candidate not rolled out: " + e.getMessage());
+                return;
+            }
+        }
+
+        ModelEvaluationService.EvaluationReport evaluation = report;
+        boolean rolledOut = evaluation == null || evaluation.passed();
+        update(runId, h -> {
+            h.setStatus(rolledOut ? RetrainingHistory.STATUS_COMPLETED : RetrainingHistory.STATUS_REJECTED);
+            h.setStage(rolledOut ? "COMPLETED" : RetrainingHistory.STATUS_REJECTED);
+            h.setProgressPercent(100);
+            h.setCompletedAt(LocalDateTime.now());
+            if (!rolledOut) {
+                h.setErrorMessage("Candidate regressed on held-out verified inspections: "
+                        + String.join("; ", evaluation.regressions()));
+            }
+            if (result != null) {
+                h.setWeightsPath(weightsPath);
+                Map<String, Object> metrics = new HashMap<>();
+                if (result.get("metrics") instanceof Map<?, ?> trainingMetrics) {
+                    metrics.putAll((Map<String, Object>) trainingMetrics);
+                }
+                if (evaluation != null) {
+                    metrics.put("evaluation", evaluation.toMap());
+                }
+                h.setMetrics(metrics);
+                if (result.get("hyperparameters") instanceof Map<?, ?> hyperparams) {
+                    h.setHyperparameters((Map<String, Object>) hyperparams);
+                }
+                h.setFeedbackSamples(asInteger(result.get("feedback_samples")));
+                h.setReplaySamples(asInteger(result.get("replay_samples")));
+                h.setPythonResponse(result);
+            }
+        });
+        if (rolledOut) {
+            log.info("Retraining completed successfully: {}", runId);
+        } else {
+            log.warn("Retraining run {} rejected, active model kept: {}", runId, evaluation.regressions());
+        }
+    }
+
+    private void finish(String runId, String status, String errorMessage) {
+        update(runId, h -> {
+            h.setStatus(status);
+            h.setStage(status);
+            h.setCompletedAt(LocalDateTime.now());
+            h.setErrorMessage(errorMessage);
+        });
+        log.info("Retraining run {} finished as {}{}", runId, status, errorMessage != null ? ": " + errorMessage : "");
+    }
+
+    /**
+     * Apply a change to the run in its own short transaction and publish the new state.
+     */
+    private RetrainingHistory update(String runId, Consumer<RetrainingHistory> change) {
+        RetrainingHistory history = transactionTemplate.execute(status -> {
+            RetrainingHistory h = historyRepository.findByRunId(runId)
+                    .orElseThrow(() -> new IllegalStateException("Retraining run not found: " + runId));
+            change.accept(h);
+            return h;
+        });
+        progressPublisher.publish(history);
+        return history;
+    }
+
+    /**
+     * Upload the dataset as a chunked NDJSON stream and return the fine-tuning job id.
+     * The body is written straight to the connection, never buffered as a whole.
+     */
+    @SuppressWarnings("rawtypes")
+    private String submitTrainingJob(StreamingHttpOutputMessage.Body body) {
+        String endpoint = finetuneServiceUrl + "/api/finetune/jobs/stream";
+        log.info("Streaming fine-tuning dataset to: {}", endpoint);
+        ResponseEntity<Map> response = restTemplate.execute(endpoint, HttpMethod.POST, request -> {
+            request.getHeaders().setContentType(NDJSON);
+            if (request instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(body);
+            } else {
+                body.writeTo(request.getBody());
+            }
+        }, restTemplate.responseEntityExtractor(Map.class));
+        Map<?, ?> job = response != null ? response.getBody() : null;
+        if (job == null || job.get("job_id") == null) {
+            throw new IllegalStateException("Fine-tuning service did not return a job id");
+        }
+        return (String) job.get("job_id");
+    }
+
+    private boolean cancelTrainingJob(String jobId) {
+        try {
+            restTemplate.postForObject(finetuneServiceUrl + "/api/finetune/jobs/" + jobId + "/cancel", null, Map.class);
+            log.info("Requested cancellation of fine-tuning job {}", jobId);
+            return true;
+        } catch (RestClientException e) {
+            log.warn("Cancelling fine-tuning job {} failed: {}", jobId, e.getMessage());
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getMap(String url) {
+        Map<String, Object> body = restTemplate.getForObject(url, Map.class);
+        if (body == null) {
+            throw new RestClientException("Empty response from " + url);
+        }
+        return body;
+    }
+
+    private static boolean isCancelRequested(RetrainingHistory history) {
+        return history != null && Boolean.TRUE.equals(history.getCancelRequested());
+    }
+
+    private static Integer asInteger(Object value) {
+        return value instanceof Number n ? n.intValue() : null;
+    }
+}
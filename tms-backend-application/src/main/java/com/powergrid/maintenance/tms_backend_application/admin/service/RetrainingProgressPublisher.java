@@ -0,0 +1,87 @@
+package com.powergrid.maintenance.tms_backend_application.admin.service;
+
+import com.powergrid.maintenance.tms_backend_application.admin.domain.RetrainingHistory;
+import com.powergrid.maintenance.tms_backend_application.admin.dto.RetrainingProgressDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fans retraining progress out to SSE subscribers, keyed by run id.
+ * Streams complete on their own once the run reaches a terminal status.
+ */
+@Slf4j
+@Component
+public class RetrainingProgressPublisher {
+
+    static final String EVENT_NAME = "progress";
+
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final long timeoutMs;
+
+    public RetrainingProgressPublisher(@Value("${app.retraining.sse-timeout-ms:1800000}") long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Open a stream for a run, starting with its current state.
+     */
+    public SseEmitter subscribe(RetrainingHistory current) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        String runId = current.getRunId();
+        if (!current.isActive()) {
+            send(emitter, RetrainingProgressDTO.from(current));
+            emitter.complete();
+            return emitter;
+        }
+        List<SseEmitter> subscribers = emitters.computeIfAbsent(runId, k -> new CopyOnWriteArrayList<>());
+        subscribers.add(emitter);
+        emitter.onCompletion(() -> remove(runId, emitter));
+        emitter.onTimeout(() -> remove(runId, emitter));
+        emitter.onError(e -> remove(runId, emitter));
+        send(emitter, RetrainingProgressDTO.from(current));
+        return emitter;
+    }
+
+    public void publish(RetrainingHistory history) {
+        List<SseEmitter> subscribers = emitters.get(history.getRunId());
+        if (subscribers == null) {
+            return;
+        }
+        RetrainingProgressDTO event = RetrainingProgressDTO.from(history);
+        for (SseEmitter emitter : subscribers) {
+            if (!send(emitter, event)) {
+                remove(history.getRunId(), emitter);
+            }
+        }
+        if (!history.isActive()) {
+            emitters.remove(history.getRunId());
+            subscribers.forEach(SseEmitter::complete);
+        }
+    }
+
+    private boolean send(SseEmitter emitter, RetrainingProgressDTO event) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(event));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the servlet container completes the emitter
+            log.debug("Dropping retraining progress subscriber for {}: {}", event.getRunId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void remove(String runId, SseEmitter emitter) {
+        emitters.computeIfPresent(runId, (k, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+}
@@ -0,0 +1,143 @@
+package com.powergrid.maintenance.tms_backend_application.admin.service;
+
+import com.powergrid.maintenance.tms_backend_application.common.lock.AdvisoryLock;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InferenceMetadataRepository;
+import com.powergrid.maintenance.tms_backend_application.inspection.service.InferenceLoadTracker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Triggers retraining automatically once enough corrections have accumulated.
+ *
+ * Every node evaluates on the same cadence, but only the one holding a PostgreSQL advisory lock
+ * acts, so a multi-instance deployment starts at most one run. Runs only start inside the
+ * off-peak window and are deferred, with exponential back-off, while inference is busy.
+ * Enabled with app.retraining.scheduler.enabled=true.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.retraining.scheduler", name = "enabled", havingValue = "true")
+public class RetrainingScheduler {
+
+    static final String TRIGGERED_BY = "scheduler";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ModelRetrainingService retrainingService;
+    private final InferenceLoadTracker inferenceLoad;
+    private final InferenceMetadataRepository inferenceMetadataRepository;
+    private final LocalTime windowStart;
+    private final LocalTime windowEnd;
+    private final Duration minInterval;
+    private final int maxInferenceInFlight;
+    private final long maxRecentInferences;
+    private final Duration recentInferenceWindow;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+
+    private int consecutiveBackoffs;
+    private LocalDateTime deferredUntil;
+
+    public RetrainingScheduler(JdbcTemplate jdbcTemplate,
+                               ModelRetrainingService retrainingService,
+                               InferenceLoadTracker inferenceLoad,
+                               InferenceMetadataRepository inferenceMetadataRepository,
+                               @Value("${app.retraining.scheduler.window-start:01:00}") String windowStart,
+                               @Value("${app.retraining.scheduler.window-end:05:00}") String windowEnd,
+                               @Value("${app.retraining.scheduler.min-interval-hours:24}") long minIntervalHours,
+                               @Value("${app.retraining.scheduler.max-inference-in-flight:2}") int maxInferenceInFlight,
+                               @Value("${app.retraining.scheduler.max-recent-inferences:20}") long maxRecentInferences,
+                               @Value("${app.retraining.scheduler.recent-inference-minutes:10}") long recentInferenceMinutes,
+                               @Value("${app.retraining.scheduler.backoff-base-minutes:5}") long backoffBaseMinutes,
+                               @Value("${app.retraining.scheduler.backoff-max-minutes:60}") long backoffMaxMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retrainingService = retrainingService;
+        this.inferenceLoad = inferenceLoad;
+        this.inferenceMetadataRepository = inferenceMetadataRepository;
+        this.windowStart = LocalTime.parse(windowStart);
+        this.windowEnd = LocalTime.parse(windowEnd);
+        this.minInterval = Duration.ofHours(minIntervalHours);
+        this.maxInferenceInFlight = maxInferenceInFlight;
+        this.maxRecentInferences = maxRecentInferences;
+        this.recentInferenceWindow = Duration.ofMinutes(recentInferenceMinutes);
+        this.backoffBase = Duration.ofMinutes(backoffBaseMinutes);
+        this.backoffMax = Duration.ofMinutes(backoffMaxMinutes);
+        log.info("[RETRAIN-SCHEDULER] Enabled, window {}-{}, min interval {}h", windowStart, windowEnd, minIntervalHours);
+    }
+
+    @Scheduled(fixedDelayString = "${app.retraining.scheduler.interval-ms:300000}",
+               initialDelayString = "${app.retraining.scheduler.initial-delay-ms:60000}")
+    public void evaluate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (!inWindow(now.toLocalTime()) || (deferredUntil != null && now.isBefore(deferredUntil))) {
+            return;
+        }
+        try {
+            boolean leader = AdvisoryLock.RETRAINING_SCHEDULER.runIfAvailable(jdbcTemplate, () -> evaluateAsLeader(now));
+            if (!leader) {
+                log.debug("[RETRAIN-SCHEDULER] Another node holds the scheduler lock");
+            }
+        } catch (Exception e) {
+            log.warn("[RETRAIN-SCHEDULER] Evaluation failed: {}", e.getMessage());
+        }
+    }
+
+    private void evaluateAsLeader(LocalDateTime now) {
+        int inFlight = inferenceLoad.inFlight();
+        long recent = inferenceMetadataRepository.countByInferenceRunAtAfter(now.minus(recentInferenceWindow));
+        if (inFlight >= maxInferenceInFlight || recent >= maxRecentInferences) {
+            Duration delay = backoffBase.multipliedBy(1L << Math.min(consecutiveBackoffs, 16));
+            if (delay.compareTo(backoffMax) > 0) {
+                delay = backoffMax;
+            }
+            consecutiveBackoffs++;
+            deferredUntil = now.plus(delay);
+            log.info("[RETRAIN-SCHEDULER] Inference busy ({} in flight, {} in last {}m), deferring {}m",
+                    inFlight, recent, recentInferenceWindow.toMinutes(), delay.toMinutes());
+            return;
+        }
+        consecutiveBackoffs = 0;
+        deferredUntil = null;
+
+        ModelRetrainingService.Readiness readiness = retrainingService.evaluateReadiness();
+        if (!readiness.ready()) {
+            log.debug("[RETRAIN-SCHEDULER] Not ready: {} actions, {} corrected inspections",
+                    readiness.newActions(), readiness.correctedInspections());
+            return;
+        }
+        // Paced on the last finished attempt: a rejected candidate counts, or a rejection would be
+        // followed by another full train + evaluate on the next tick
+        if (readiness.lastAttempt() != null && readiness.lastAttempt().plus(minInterval).isAfter(now)) {
+            log.debug("[RETRAIN-SCHEDULER] Last run at {} is within the minimum interval", readiness.lastAttempt());
+            return;
+        }
+
+        try {
+            String runId = retrainingService.triggerRetraining(TRIGGERED_BY);
+            log.info("[RETRAIN-SCHEDULER] Started retraining run {} ({} actions, {} corrected inspections)",
+                    runId, readiness.newActions(), readiness.correctedInspections());
+        } catch (IllegalStateException e) {
+            log.debug("[RETRAIN-SCHEDULER] {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Whether a time falls in [windowStart, windowEnd); windows may wrap past midnight.
+     */
+    boolean inWindow(LocalTime time) {
+        if (windowStart.equals(windowEnd)) {
+            return true;
+        }
+        if (windowStart.isBefore(windowEnd)) {
+            return !time.isBefore(windowStart) && time.isBefore(windowEnd);
+        }
+        return !time.isBefore(windowStart) || time.isBefore(windowEnd);
+    }
+}
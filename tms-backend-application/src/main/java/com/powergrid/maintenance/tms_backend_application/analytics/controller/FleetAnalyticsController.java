@@ -0,0 +1,68 @@
+package com.powergrid.maintenance.tms_backend_application.analytics.controller;
+
+import com.powergrid.maintenance.tms_backend_application.analytics.service.FleetAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.Map;
+
+/**
+ * REST Controller for fleet analytics dashboards, served from the rollup tables
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "http://localhost:5173")
+@RequiredArgsConstructor
+@Slf4j
+public class FleetAnalyticsController {
+
+    private final FleetAnalyticsService analyticsService;
+
+    /**
+     * Active anomalies per region, month and fault type (default: the last 12 months)
+     * GET /api/analytics/faults?from=2025-01&to=2025-12&region=&faultType=
+     */
+    @GetMapping("/faults")
+    public ResponseEntity<?> getFaultRollups(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+                                             @RequestParam(required = false) String region,
+                                             @RequestParam(required = false) String faultType) {
+        try {
+            return ResponseEntity.ok(analyticsService.getFaultRollups(from, to, region, faultType));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Inspections per region, month and status (default: the last 12 months)
+     * GET /api/analytics/inspections?from=2025-01&to=2025-12&region=&status=
+     */
+    @GetMapping("/inspections")
+    public ResponseEntity<?> getInspectionRollups(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                                  @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+                                                  @RequestParam(required = false) String region,
+                                                  @RequestParam(required = false) String status) {
+        try {
+            return ResponseEntity.ok(analyticsService.getInspectionRollups(from, to, region, status));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Recompute every inspection's share and repair drifted rollup rows
+     * POST /api/analytics/reconcile
+     */
+    @PostMapping("/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> reconcile() {
+        log.info("Reconciling fleet analytics rollups");
+        return ResponseEntity.ok(analyticsService.reconcile());
+    }
+}
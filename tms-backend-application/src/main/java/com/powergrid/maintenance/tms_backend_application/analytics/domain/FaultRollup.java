@@ -0,0 +1,38 @@
+package com.powergrid.maintenance.tms_backend_application.analytics.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Active anomalies per (transformer region, inspection month, fault type). Maintained by delta
+ * updates from FleetAnalyticsService; the month is stored as its first day.
+ */
+@Entity
+@Table(name = "analytics_fault_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_analytics_fault_rollup_key", columnNames = {"region", "period_month", "fault_type"})
+}, indexes = {
+        @Index(name = "idx_analytics_fault_rollup_month", columnList = "period_month")
+})
+@Data
+@NoArgsConstructor
+public class FaultRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 32)
+    private String region;
+
+    @Column(name = "period_month", nullable = false)
+    private LocalDate month;
+
+    @Column(name = "fault_type", nullable = false, length = 100)
+    private String faultType;
+
+    @Column(name = "anomaly_count", nullable = false)
+    private long anomalyCount;
+}
@@ -0,0 +1,37 @@
+package com.powergrid.maintenance.tms_backend_application.analytics.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * What one inspection currently adds to the rollups: its bucket (region, month, status) here and
+ * its active anomalies per fault type in {@link InspectionFaultCount}. Kept so a change can be
+ * applied as (new - old), and summed by the reconciliation job to check the rollups.
+ */
+@Entity
+@Table(name = "analytics_inspection_snapshot", indexes = {
+        @Index(name = "idx_analytics_inspection_snapshot_transformer", columnList = "transformer_no")
+})
+@Data
+@NoArgsConstructor
+public class InspectionAnalyticsSnapshot {
+
+    @Id
+    @Column(name = "inspection_id")
+    private Long inspectionId;
+
+    @Column(name = "transformer_no", nullable = false, length = 64)
+    private String transformerNo;
+
+    @Column(nullable = false, length = 32)
+    private String region;
+
+    @Column(name = "period_month", nullable = false)
+    private LocalDate month;
+
+    @Column(nullable = false, length = 32)
+    private String status;
+}
@@ -0,0 +1,30 @@
+package com.powergrid.maintenance.tms_backend_application.analytics.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Active anomalies of one fault type on one inspection, as last applied to the rollups
+ */
+@Entity
+@Table(name = "analytics_inspection_fault_count", indexes = {
+        @Index(name = "idx_analytics_inspection_fault_count_inspection", columnList = "inspection_id")
+})
+@Data
+@NoArgsConstructor
+public class InspectionFaultCount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "inspection_id", nullable = false)
+    private Long inspectionId;
+
+    @Column(name = "fault_type", nullable = false, length = 100)
+    private String faultType;
+
+    @Column(name = "anomaly_count", nullable = false)
+    private int anomalyCount;
+}
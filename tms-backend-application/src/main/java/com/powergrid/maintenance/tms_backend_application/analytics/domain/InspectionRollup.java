@@ -0,0 +1,38 @@
+package com.powergrid.maintenance.tms_backend_application.analytics.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Inspections per (transformer region, inspection month, status). Maintained by delta updates
+ * from FleetAnalyticsService; the month is stored as its first day.
+ */
+@Entity
+@Table(name = "analytics_inspection_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_analytics_inspection_rollup_key", columnNames = {"region", "period_month", "status"})
+}, indexes = {
+        @Index(name = "idx_analytics_inspection_rollup_month", columnList = "period_month")
+})
+@Data
+@NoArgsConstructor
+public class InspectionRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 32)
+    private String region;
+
+    @Column(name = "period_month", nullable = false)
+    private LocalDate month;
+
+    @Column(nullable = false, length = 32)
+    private String status;
+
+    @Column(name = "inspection_count", nullable = false)
+    private long inspectionCount;
+}
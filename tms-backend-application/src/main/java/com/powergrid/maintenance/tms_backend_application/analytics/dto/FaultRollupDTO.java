@@ -0,0 +1,20 @@
+package com.powergrid.maintenance.tms_backend_application.analytics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+
+/**
+ * Active anomalies of one fault type on inspections of one region in one month
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FaultRollupDTO {
+    private String region;
+    private YearMonth month;
+    private String faultType;
+    private long anomalyCount;
+}
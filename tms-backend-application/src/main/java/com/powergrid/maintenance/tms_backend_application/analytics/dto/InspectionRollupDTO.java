@@ -0,0 +1,20 @@
+package com.powergrid.maintenance.tms_backend_application.analytics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+
+/**
+ * Inspections of one region in one month with one status
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InspectionRollupDTO {
+    private String region;
+    private YearMonth month;
+    private String status;
+    private long inspectionCount;
+}
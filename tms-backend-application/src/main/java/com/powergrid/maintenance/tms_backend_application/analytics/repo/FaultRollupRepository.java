@@ -0,0 +1,30 @@
+package com.powergrid.maintenance.tms_backend_application.analytics.repo;
+
+import com.powergrid.maintenance.tms_backend_application.analytics.domain.FaultRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface FaultRollupRepository extends JpaRepository<FaultRollup, Long> {
+
+    /**
+     * Add a delta to one rollup row in place. Returns 0 when the row does not exist yet.
+     */
+    @Modifying
+    @Query("UPDATE FaultRollup r SET r.anomalyCount = r.anomalyCount + :delta " +
+           "WHERE r.region = :region AND r.month = :month AND r.faultType = :faultType")
+    int applyDelta(@Param("region") String region, @Param("month") LocalDate month,
+                   @Param("faultType") String faultType, @Param("delta") long delta);
+
+    @Query("SELECT r FROM FaultRollup r WHERE r.month BETWEEN :from AND :to AND r.anomalyCount > 0 " +
+           "AND (:region IS NULL OR r.region = :region) AND (:faultType IS NULL OR r.faultType = :faultType) " +
+           "ORDER BY r.month, r.region, r.faultType")
+    List<FaultRollup> findRange(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                @Param("region") String region, @Param("faultType") String faultType);
+}
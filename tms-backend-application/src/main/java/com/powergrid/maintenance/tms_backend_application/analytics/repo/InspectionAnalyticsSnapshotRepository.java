@@ -0,0 +1,49 @@
+package com.powergrid.maintenance.tms_backend_application.analytics.repo;
+
+import com.powergrid.maintenance.tms_backend_application.analytics.domain.InspectionAnalyticsSnapshot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InspectionAnalyticsSnapshotRepository extends JpaRepository<InspectionAnalyticsSnapshot, Long> {
+
+    /**
+     * Locks the snapshots (in id order, so concurrent chunks cannot deadlock) while their deltas are applied
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InspectionAnalyticsSnapshot s WHERE s.inspectionId IN :ids ORDER BY s.inspectionId")
+    List<InspectionAnalyticsSnapshot> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.inspectionId FROM InspectionAnalyticsSnapshot s WHERE s.transformerNo = :transformerNo")
+    List<Long> findInspectionIdsByTransformerNo(@Param("transformerNo") String transformerNo);
+
+    /**
+     * Snapshots left behind by inspections that no longer exist (archived inspections still count)
+     */
+    @Query("SELECT s.inspectionId FROM InspectionAnalyticsSnapshot s WHERE NOT EXISTS (" +
+           "SELECT 1 FROM Inspection i WHERE i.inspectionIdNumeric = s.inspectionId) AND NOT EXISTS (" +
+           "SELECT 1 FROM ArchivedInspection a WHERE a.inspectionId = s.inspectionId)")
+    List<Long> findOrphanedIds();
+
+    /**
+     * {region, month, status, count} summed over all snapshots: what the inspection rollup should hold
+     */
+    @Query("SELECT s.region, s.month, s.status, COUNT(s) FROM InspectionAnalyticsSnapshot s " +
+           "GROUP BY s.region, s.month, s.status")
+    List<Object[]> sumByStatus();
+
+    /**
+     * {region, month, faultType, count} summed over all snapshots: what the fault rollup should hold
+     */
+    @Query("SELECT s.region, s.month, f.faultType, SUM(f.anomalyCount) FROM InspectionFaultCount f " +
+           "JOIN InspectionAnalyticsSnapshot s ON s.inspectionId = f.inspectionId " +
+           "GROUP BY s.region, s.month, f.faultType")
+    List<Object[]> sumByFaultType();
+}
@@ -0,0 +1,21 @@
+package com.powergrid.maintenance.tms_backend_application.analytics.repo;
+
+import com.powergrid.maintenance.tms_backend_application.analytics.domain.InspectionFaultCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InspectionFaultCountRepository extends JpaRepository<InspectionFaultCount, Long> {
+
+    List<InspectionFaultCount> findByInspectionIdIn(Collection<Long> inspectionIds);
+
+    @Modifying
+    @Query("DELETE FROM InspectionFaultCount f WHERE f.inspectionId IN :inspectionIds")
+    int deleteByInspectionIdIn(@Param("inspectionIds") Collection<Long> inspectionIds);
+}
@@ -0,0 +1,30 @@
+package com.powergrid.maintenance.tms_backend_application.analytics.repo;
+
+import com.powergrid.maintenance.tms_backend_application.analytics.domain.InspectionRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface InspectionRollupRepository extends JpaRepository<InspectionRollup, Long> {
+
+    /**
+     * Add a delta to one rollup row in place. Returns 0 when the row does not exist yet.
+     */
+    @Modifying
+    @Query("UPDATE InspectionRollup r SET r.inspectionCount = r.inspectionCount + :delta " +
+           "WHERE r.region = :region AND r.month = :month AND r.status = :status")
+    int applyDelta(@Param("region") String region, @Param("month") LocalDate month,
+                   @Param("status") String status, @Param("delta") long delta);
+
+    @Query("SELECT r FROM InspectionRollup r WHERE r.month BETWEEN :from AND :to AND r.inspectionCount > 0 " +
+           "AND (:region IS NULL OR r.region = :region) AND (:status IS NULL OR r.status = :status) " +
+           "ORDER BY r.month, r.region, r.status")
+    List<InspectionRollup> findRange(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                     @Param("region") String region, @Param("status") String status);
+}
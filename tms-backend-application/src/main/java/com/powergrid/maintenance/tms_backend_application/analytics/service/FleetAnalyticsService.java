@@ -0,0 +1,448 @@
+package com.powergrid.maintenance.tms_backend_application.analytics.service;
+
+import com.powergrid.maintenance.tms_backend_application.analytics.domain.FaultRollup;
+import com.powergrid.maintenance.tms_backend_application.analytics.domain.InspectionAnalyticsSnapshot;
+import com.powergrid.maintenance.tms_backend_application.analytics.domain.InspectionFaultCount;
+import com.powergrid.maintenance.tms_backend_application.analytics.domain.InspectionRollup;
+import com.powergrid.maintenance.tms_backend_application.analytics.dto.FaultRollupDTO;
+import com.powergrid.maintenance.tms_backend_application.analytics.dto.InspectionRollupDTO;
+import com.powergrid.maintenance.tms_backend_application.analytics.repo.FaultRollupRepository;
+import com.powergrid.maintenance.tms_backend_application.analytics.repo.InspectionAnalyticsSnapshotRepository;
+import com.powergrid.maintenance.tms_backend_application.analytics.repo.InspectionFaultCountRepository;
+import com.powergrid.maintenance.tms_backend_application.analytics.repo.InspectionRollupRepository;
+import com.powergrid.maintenance.tms_backend_application.archive.repo.ArchivedInspectionRepository;
+import com.powergrid.maintenance.tms_backend_application.common.lock.AdvisoryLock;
+import com.powergrid.maintenance.tms_backend_application.inspection.event.InspectionChangedEvent;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionAnomalyRepository;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fleet analytics rollups: active anomalies per (region, month, fault type) and inspections per
+ * (region, month, status), so dashboards read a few pre-aggregated rows instead of joining
+ * inspection_anomalies, inspections and transformers on every request.
+ *
+ * Each inspection's share is kept as a snapshot; when an inspection changes (InspectionChangedEvent)
+ * its share is recomputed and only the difference is applied to the rollup rows. A scheduled
+ * reconciliation recomputes every inspection in parallel chunks and then checks the rollups
+ * against the sum of the snapshots, repairing any drift.
+ *
+ * Refreshes hold a shared PostgreSQL advisory lock and the rollup check an exclusive one, so the
+ * check reads snapshots and rollups with no refresh in flight on any node, and two nodes running
+ * the check one after the other do not apply the same correction twice.
+ */
+@Slf4j
+@Service
+public class FleetAnalyticsService {
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private record FaultKey(String region, LocalDate month, String faultType) {
+    }
+
+    private record StatusKey(String region, LocalDate month, String status) {
+    }
+
+    // Deltas are applied in key order so concurrent chunks lock rollup rows in the same order
+    private static final Comparator<FaultKey> FAULT_KEY_ORDER = Comparator.comparing(FaultKey::region)
+            .thenComparing(FaultKey::month).thenComparing(FaultKey::faultType);
+    private static final Comparator<StatusKey> STATUS_KEY_ORDER = Comparator.comparing(StatusKey::region)
+            .thenComparing(StatusKey::month).thenComparing(StatusKey::status);
+
+    /**
+     * What one inspection adds to the rollups
+     */
+    private record Share(String transformerNo, String region, LocalDate month, String status,
+                         Map<String, Integer> faultCounts) {
+    }
+
+    private final InspectionRepo inspectionRepo;
+    private final InspectionAnomalyRepository anomalyRepository;
+    private final InspectionAnalyticsSnapshotRepository snapshotRepository;
+    private final InspectionFaultCountRepository faultCountRepository;
+    private final FaultRollupRepository faultRollupRepository;
+    private final InspectionRollupRepository inspectionRollupRepository;
+    private final ArchivedInspectionRepository archiveRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final FleetAnalyticsService self;
+    private final int chunkSize;
+    private final int reconcileThreads;
+    private final int defaultMonths;
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    public FleetAnalyticsService(InspectionRepo inspectionRepo,
+                                 InspectionAnomalyRepository anomalyRepository,
+                                 InspectionAnalyticsSnapshotRepository snapshotRepository,
+                                 InspectionFaultCountRepository faultCountRepository,
+                                 FaultRollupRepository faultRollupRepository,
+                                 InspectionRollupRepository inspectionRollupRepository,
+                                 ArchivedInspectionRepository archiveRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 @Lazy FleetAnalyticsService self,
+                                 @Value("${app.analytics.reconcile-chunk-size:500}") int chunkSize,
+                                 @Value("${app.analytics.reconcile-threads:4}") int reconcileThreads,
+                                 @Value("${app.analytics.default-months:12}") int defaultMonths) {
+        this.inspectionRepo = inspectionRepo;
+        this.anomalyRepository = anomalyRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.faultCountRepository = faultCountRepository;
+        this.faultRollupRepository = faultRollupRepository;
+        this.inspectionRollupRepository = inspectionRollupRepository;
+        this.archiveRepository = archiveRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.self = self;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.reconcileThreads = Math.max(1, reconcileThreads);
+        this.defaultMonths = Math.max(1, defaultMonths);
+    }
+
+    /**
+     * Build the rollups on first start (no snapshots yet).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            if (snapshotRepository.count() == 0) {
+                reconcile();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not backfill fleet analytics at startup: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInspectionChanged(InspectionChangedEvent event) {
+        refreshQuietly(List.of(event.inspectionId()));
+    }
+
+    /**
+     * Re-bucket every inspection of a transformer once the current transaction has committed
+     * (its region changed, or it was deleted along with its inspections).
+     */
+    public void transformerChangedAfterCommit(String transformerNo) {
+        Runnable refresh = () -> {
+            try {
+                Set<Long> ids = new TreeSet<>(snapshotRepository.findInspectionIdsByTransformerNo(transformerNo));
+                inspectionRepo.findTimelineByTransformerNo(transformerNo).forEach(row -> ids.add((Long) row[0]));
+                chunks(new ArrayList<>(ids)).forEach(this::refreshQuietly);
+            } catch (Exception e) {
+                log.warn("Could not refresh fleet analytics of transformer {}: {}", transformerNo, e.getMessage());
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh.run();
+            }
+        });
+    }
+
+    private int refreshQuietly(List<Long> inspectionIds) {
+        try {
+            return self.refresh(inspectionIds);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent refresh inserted the same snapshot or rollup row first; retry as an update
+            try {
+                return self.refresh(inspectionIds);
+            } catch (Exception retry) {
+                log.warn("Fleet analytics refresh failed for {} inspections: {}", inspectionIds.size(), retry.getMessage());
+            }
+        } catch (Exception e) {
+            // Rollups are derived data; never fail the write that triggered them
+            log.warn("Fleet analytics refresh failed for {} inspections: {}", inspectionIds.size(), e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Recompute the share of each inspection and apply the differences to the rollups.
+     * Deleted inspections and inspections without a timestamp have no share; archived inspections keep
+     * the share they had when they were archived.
+     *
+     * @return number of inspections whose share changed
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int refresh(Collection<Long> inspectionIds) {
+        // Shared with other refreshes, excluded while reconcileRollups compares the tables
+        AdvisoryLock.FLEET_ANALYTICS.lockSharedForTransaction(jdbcTemplate);
+        Map<Long, InspectionAnalyticsSnapshot> snapshots = new HashMap<>();
+        snapshotRepository.findAllForUpdate(inspectionIds).forEach(s -> snapshots.put(s.getInspectionId(), s));
+        Map<Long, Map<String, Integer>> appliedCounts = new HashMap<>();
+        for (InspectionFaultCount f : faultCountRepository.findByInspectionIdIn(inspectionIds)) {
+            appliedCounts.computeIfAbsent(f.getInspectionId(), id -> new HashMap<>()).put(f.getFaultType(), f.getAnomalyCount());
+        }
+        Map<Long, Share> current = loadShares(inspectionIds);
+        List<Long> missing = inspectionIds.stream().filter(id -> !current.containsKey(id)).toList();
+        Set<Long> archived = missing.isEmpty() ? Set.of() : new HashSet<>(archiveRepository.findArchivedIds(missing));
+
+        Map<FaultKey, Long> faultDeltas = new TreeMap<>(FAULT_KEY_ORDER);
+        Map<StatusKey, Long> statusDeltas = new TreeMap<>(STATUS_KEY_ORDER);
+        List<Long> changed = new ArrayList<>();
+        List<InspectionFaultCount> newCounts = new ArrayList<>();
+        for (Long id : inspectionIds) {
+            InspectionAnalyticsSnapshot snapshot = snapshots.get(id);
+            Share before = snapshot == null ? null : new Share(snapshot.getTransformerNo(), snapshot.getRegion(),
+                    snapshot.getMonth(), snapshot.getStatus(), appliedCounts.getOrDefault(id, Map.of()));
+            Share after = current.get(id);
+            if (Objects.equals(before, after) || archived.contains(id)) {
+                continue;
+            }
+            changed.add(id);
+            if (before != null) {
+                addDeltas(before, -1, faultDeltas, statusDeltas);
+            }
+            if (after == null) {
+                snapshotRepository.delete(snapshot);
+                continue;
+            }
+            addDeltas(after, 1, faultDeltas, statusDeltas);
+            if (snapshot == null) {
+                snapshot = new InspectionAnalyticsSnapshot();
+                snapshot.setInspectionId(id);
+            }
+            snapshot.setTransformerNo(after.transformerNo());
+            snapshot.setRegion(after.region());
+            snapshot.setMonth(after.month());
+            snapshot.setStatus(after.status());
+            snapshotRepository.save(snapshot);
+            after.faultCounts().forEach((faultType, count) -> {
+                InspectionFaultCount f = new InspectionFaultCount();
+                f.setInspectionId(id);
+                f.setFaultType(faultType);
+                f.setAnomalyCount(count);
+                newCounts.add(f);
+            });
+        }
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        faultCountRepository.deleteByInspectionIdIn(changed);
+        faultCountRepository.saveAll(newCounts);
+        applyDeltas(faultDeltas, statusDeltas);
+        return changed.size();
+    }
+
+    /**
+     * Recompute every inspection in parallel chunks, then repair rollup rows that disagree with the
+     * snapshots. Concurrent refreshes keep working; a run that overlaps another is skipped.
+     */
+    @Scheduled(cron = "${app.analytics.reconcile-cron:0 30 2 * * *}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Fleet analytics reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> reconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return Map.of("success", false, "message", "Reconciliation already running");
+        }
+        long started = System.currentTimeMillis();
+        try {
+            AtomicInteger threadNo = new AtomicInteger();
+            List<Future<Integer>> results = new ArrayList<>();
+            int inspections = 0;
+            try (ExecutorService pool = Executors.newFixedThreadPool(reconcileThreads, r -> {
+                Thread t = new Thread(r, "analytics-reconcile-" + threadNo.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            })) {
+                Long afterId = Long.MIN_VALUE;
+                List<Long> chunk;
+                do {
+                    chunk = inspectionRepo.findIdsAfter(afterId, PageRequest.of(0, chunkSize));
+                    if (!chunk.isEmpty()) {
+                        List<Long> ids = chunk;
+                        results.add(pool.submit(() -> refreshQuietly(ids)));
+                        inspections += ids.size();
+                        afterId = ids.get(ids.size() - 1);
+                    }
+                } while (chunk.size() == chunkSize);
+                for (List<Long> ids : chunks(snapshotRepository.findOrphanedIds())) {
+                    results.add(pool.submit(() -> refreshQuietly(ids)));
+                }
+            }
+            int refreshed = 0;
+            for (Future<Integer> result : results) {
+                refreshed += result.get();
+            }
+            int repaired = self.reconcileRollups();
+            long elapsedMs = System.currentTimeMillis() - started;
+            log.info("Fleet analytics reconciled in {} ms: {} inspections checked, {} refreshed, {} rollup rows repaired",
+                    elapsedMs, inspections, refreshed, repaired);
+            return Map.of("success", true, "inspectionsChecked", inspections, "inspectionsRefreshed", refreshed,
+                    "rollupRowsRepaired", repaired, "elapsedMs", elapsedMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Reconciliation failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            reconciling.set(false);
+        }
+    }
+
+    /**
+     * Bring every rollup row in line with the sum of the snapshots. Waits for in-flight refreshes on
+     * every node and holds new ones back until it commits, so both sides are read in the same state.
+     *
+     * @return number of rows corrected
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int reconcileRollups() {
+        AdvisoryLock.FLEET_ANALYTICS.lockForTransaction(jdbcTemplate);
+        Map<FaultKey, Long> faultDeltas = new TreeMap<>(FAULT_KEY_ORDER);
+        for (Object[] row : snapshotRepository.sumByFaultType()) {
+            faultDeltas.put(new FaultKey((String) row[0], (LocalDate) row[1], (String) row[2]), ((Number) row[3]).longValue());
+        }
+        for (FaultRollup r : faultRollupRepository.findAll()) {
+            faultDeltas.merge(new FaultKey(r.getRegion(), r.getMonth(), r.getFaultType()), -r.getAnomalyCount(), Long::sum);
+        }
+        Map<StatusKey, Long> statusDeltas = new TreeMap<>(STATUS_KEY_ORDER);
+        for (Object[] row : snapshotRepository.sumByStatus()) {
+            statusDeltas.put(new StatusKey((String) row[0], (LocalDate) row[1], (String) row[2]), ((Number) row[3]).longValue());
+        }
+        for (InspectionRollup r : inspectionRollupRepository.findAll()) {
+            statusDeltas.merge(new StatusKey(r.getRegion(), r.getMonth(), r.getStatus()), -r.getInspectionCount(), Long::sum);
+        }
+        return applyDeltas(faultDeltas, statusDeltas);
+    }
+
+    @Transactional(readOnly = true)
+    public List<FaultRollupDTO> getFaultRollups(YearMonth from, YearMonth to, String region, String faultType) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(defaultMonths - 1L);
+        checkRange(start, end);
+        return faultRollupRepository.findRange(start.atDay(1), end.atDay(1), blankToNull(region), blankToNull(faultType))
+                .stream()
+                .map(r -> new FaultRollupDTO(r.getRegion(), YearMonth.from(r.getMonth()), r.getFaultType(), r.getAnomalyCount()))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<InspectionRollupDTO> getInspectionRollups(YearMonth from, YearMonth to, String region, String status) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(defaultMonths - 1L);
+        checkRange(start, end);
+        return inspectionRollupRepository.findRange(start.atDay(1), end.atDay(1), blankToNull(region), blankToNull(status))
+                .stream()
+                .map(r -> new InspectionRollupDTO(r.getRegion(), YearMonth.from(r.getMonth()), r.getStatus(), r.getInspectionCount()))
+                .toList();
+    }
+
+    private Map<Long, Share> loadShares(Collection<Long> inspectionIds) {
+        Map<Long, Map<String, Integer>> counts = new HashMap<>();
+        for (Object[] row : anomalyRepository.countActiveByFaultType(inspectionIds)) {
+            counts.computeIfAbsent((Long) row[0], id -> new HashMap<>())
+                    .merge(faultTypeKey((String) row[1]), ((Number) row[2]).intValue(), Integer::sum);
+        }
+        Map<Long, Share> shares = new HashMap<>();
+        for (Object[] row : inspectionRepo.findAnalyticsRows(inspectionIds)) {
+            ZonedDateTime timestamp = (ZonedDateTime) row[3];
+            if (timestamp == null) {
+                continue;
+            }
+            Long id = (Long) row[0];
+            shares.put(id, new Share((String) row[1], (String) row[2], timestamp.toLocalDate().withDayOfMonth(1),
+                    row[4] != null ? (String) row[4] : UNKNOWN, counts.getOrDefault(id, Map.of())));
+        }
+        return shares;
+    }
+
+    private static void addDeltas(Share share, int sign, Map<FaultKey, Long> faultDeltas, Map<StatusKey, Long> statusDeltas) {
+        statusDeltas.merge(new StatusKey(share.region(), share.month(), share.status()), (long) sign, Long::sum);
+        share.faultCounts().forEach((faultType, count) ->
+                faultDeltas.merge(new FaultKey(share.region(), share.month(), faultType), (long) sign * count, Long::sum));
+    }
+
+    private int applyDeltas(Map<FaultKey, Long> faultDeltas, Map<StatusKey, Long> statusDeltas) {
+        int applied = 0;
+        for (Map.Entry<FaultKey, Long> e : faultDeltas.entrySet()) {
+            long delta = e.getValue();
+            if (delta == 0) {
+                continue;
+            }
+            FaultKey key = e.getKey();
+            if (faultRollupRepository.applyDelta(key.region(), key.month(), key.faultType(), delta) == 0) {
+                FaultRollup row = new FaultRollup();
+                row.setRegion(key.region());
+                row.setMonth(key.month());
+                row.setFaultType(key.faultType());
+                row.setAnomalyCount(delta);
+                faultRollupRepository.save(row);
+            }
+            applied++;
+        }
+        for (Map.Entry<StatusKey, Long> e : statusDeltas.entrySet()) {
+            long delta = e.getValue();
+            if (delta == 0) {
+                continue;
+            }
+            StatusKey key = e.getKey();
+            if (inspectionRollupRepository.applyDelta(key.region(), key.month(), key.status(), delta) == 0) {
+                InspectionRollup row = new InspectionRollup();
+                row.setRegion(key.region());
+                row.setMonth(key.month());
+                row.setStatus(key.status());
+                row.setInspectionCount(delta);
+                inspectionRollupRepository.save(row);
+            }
+            applied++;
+        }
+        return applied;
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + chunkSize)));
+        }
+        return chunks;
+    }
+
+    private static String faultTypeKey(String faultType) {
+        return faultType == null || faultType.isBlank() ? UNKNOWN : faultType.trim();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static void checkRange(YearMonth start, YearMonth end) {
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+    }
+}
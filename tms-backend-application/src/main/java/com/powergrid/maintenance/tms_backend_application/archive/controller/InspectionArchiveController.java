@@ -0,0 +1,49 @@
+package com.powergrid.maintenance.tms_backend_application.archive.controller;
+
+import com.powergrid.maintenance.tms_backend_application.archive.service.InspectionArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST Controller for the inspection archive
+ */
+@RestController
+@RequestMapping("/api/archive")
+@CrossOrigin(origins = "http://localhost:5173")
+@RequiredArgsConstructor
+@Slf4j
+public class InspectionArchiveController {
+
+    private final InspectionArchiveService archiveService;
+
+    /**
+     * Archive eligible inspections now instead of waiting for the scheduled run
+     * POST /api/archive/run
+     */
+    @PostMapping("/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> run() {
+        log.info("Running inspection archival");
+        int archived = archiveService.archiveOldInspections();
+        return ResponseEntity.ok(Map.of("success", true, "archived", archived));
+    }
+
+    /**
+     * Restore one archived inspection (reading it through GET /api/inspections/{id} does the same)
+     * POST /api/archive/{inspectionId}/restore
+     */
+    @PostMapping("/{inspectionId}/restore")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> restore(@PathVariable Long inspectionId) {
+        if (archiveService.rehydrateIfArchived(inspectionId).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("success", false, "message", "Inspection not found"));
+        }
+        return ResponseEntity.ok(Map.of("success", true, "inspectionId", inspectionId));
+    }
+}
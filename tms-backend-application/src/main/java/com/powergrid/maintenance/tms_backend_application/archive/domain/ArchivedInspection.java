@@ -0,0 +1,45 @@
+package com.powergrid.maintenance.tms_backend_application.archive.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+
+/**
+ * An inspection moved out of the hot tables: its inspections row together with its inference
+ * metadata, anomalies, anomaly notes and annotation actions, as one gzip-compressed JSON document
+ * (see InspectionArchiveService). The other columns are kept uncompressed for listing and cleanup.
+ */
+@Entity
+@Table(name = "inspection_archive", indexes = {
+        @Index(name = "idx_inspection_archive_transformer", columnList = "transformer_no")
+})
+@Data
+@NoArgsConstructor
+public class ArchivedInspection {
+
+    @Id
+    @Column(name = "inspection_id")
+    private Long inspectionId;
+
+    @Column(name = "transformer_no", nullable = false, length = 64)
+    private String transformerNo;
+
+    @Column(name = "inspection_timestamp", nullable = false)
+    private ZonedDateTime inspectionTimestamp;
+
+    @Column(name = "anomaly_count", nullable = false)
+    private int anomalyCount;
+
+    // Size of the JSON document before compression
+    @Column(name = "raw_bytes", nullable = false)
+    private int rawBytes;
+
+    @Column(name = "payload", nullable = false)
+    private byte[] payload;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
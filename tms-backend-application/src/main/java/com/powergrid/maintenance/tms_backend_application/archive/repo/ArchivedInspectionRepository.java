@@ -0,0 +1,32 @@
+package com.powergrid.maintenance.tms_backend_application.archive.repo;
+
+import com.powergrid.maintenance.tms_backend_application.archive.domain.ArchivedInspection;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedInspectionRepository extends JpaRepository<ArchivedInspection, Long> {
+
+    /**
+     * Locks the archive row while it is rehydrated, so concurrent reads restore it only once
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM ArchivedInspection a WHERE a.inspectionId = :inspectionId")
+    Optional<ArchivedInspection> findForUpdate(@Param("inspectionId") Long inspectionId);
+
+    @Query("SELECT a.inspectionId FROM ArchivedInspection a WHERE a.inspectionId IN :ids")
+    List<Long> findArchivedIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedInspection a WHERE a.transformerNo = :transformerNo")
+    int deleteByTransformerNo(@Param("transformerNo") String transformerNo);
+}
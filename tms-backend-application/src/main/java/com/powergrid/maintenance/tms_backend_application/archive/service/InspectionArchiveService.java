@@ -0,0 +1,279 @@
+package com.powergrid.maintenance.tms_backend_application.archive.service;
+
+import com.powergrid.maintenance.tms_backend_application.archive.domain.ArchivedInspection;
+import com.powergrid.maintenance.tms_backend_application.archive.repo.ArchivedInspectionRepository;
+import com.powergrid.maintenance.tms_backend_application.common.transaction.AfterCommit;
+import com.powergrid.maintenance.tms_backend_application.inspection.domain.Inspection;
+import com.powergrid.maintenance.tms_backend_application.inspection.enums.InspectionStatus;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionRepo;
+import com.powergrid.maintenance.tms_backend_application.inspection.service.AnnotationViewCache;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for old inspections. Completed inspections older than app.archive.min-age-months
+ * (other than the latest inspection of each transformer) are moved, with their inference metadata,
+ * anomalies, notes and annotation actions, into one compressed {@link ArchivedInspection} row, so
+ * the hot tables and their indexes only hold inspections people still open.
+ *
+ * The job works in chunks of app.archive.chunk-size inspections, each in its own transaction; an
+ * interrupted run leaves every committed chunk archived and the next run picks up the rest.
+ * Reading an archived inspection through InspectionService.getInspectionById restores it.
+ *
+ * Rows are captured and restored by PostgreSQL itself (row_to_json / json_populate_record), so
+ * every column round-trips with its original type and id. Restored annotation actions whose
+ * monthly partition has since been detached land in annotation_actions_default (see
+ * MonthlyPartitionManager). Fleet analytics keep counting archived inspections.
+ */
+@Slf4j
+@Service
+public class InspectionArchiveService {
+
+    // One JSON document per inspection, taken under a row lock so concurrent writers cannot slip in
+    private static final String CAPTURE_SQL = """
+            SELECT i.transformer_no, i.inspection_timestamp,
+                   (SELECT COUNT(*) FROM inspection_anomalies a WHERE a.inspection_id = i.inspection_id),
+                   json_build_object(
+                       'inspection', row_to_json(i),
+                       'inferenceMetadata', (SELECT COALESCE(json_agg(m), '[]'::json)
+                                             FROM inference_metadata m WHERE m.inspection_id = i.inspection_id),
+                       'anomalies', (SELECT COALESCE(json_agg(a ORDER BY a.id), '[]'::json)
+                                     FROM inspection_anomalies a WHERE a.inspection_id = i.inspection_id),
+                       'notes', (SELECT COALESCE(json_agg(n ORDER BY n.id), '[]'::json)
+                                 FROM anomaly_notes n JOIN inspection_anomalies a ON a.id = n.anomaly_id
+                                 WHERE a.inspection_id = i.inspection_id),
+                       'actions', (SELECT COALESCE(json_agg(x ORDER BY x.id), '[]'::json)
+                                   FROM annotation_actions x WHERE x.inspection_id = i.inspection_id)
+                   )::text
+            FROM inspections i
+            WHERE i.inspection_id = ? AND i.status = ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    // Children before parents when deleting; restored in the reverse order
+    private static final String[] DELETE_SQL = {
+            "DELETE FROM annotation_actions WHERE inspection_id = ?",
+            "DELETE FROM anomaly_notes WHERE anomaly_id IN (SELECT id FROM inspection_anomalies WHERE inspection_id = ?)",
+            "DELETE FROM inspection_anomalies WHERE inspection_id = ?",
+            "DELETE FROM inference_metadata WHERE inspection_id = ?",
+            "DELETE FROM inspections WHERE inspection_id = ?"
+    };
+
+    private static final String[] RESTORE_SQL = {
+            "INSERT INTO inspections SELECT * FROM json_populate_record(NULL::inspections, ?::json -> 'inspection')",
+            "INSERT INTO inference_metadata SELECT * FROM json_populate_recordset(NULL::inference_metadata, ?::json -> 'inferenceMetadata')",
+            "INSERT INTO inspection_anomalies SELECT * FROM json_populate_recordset(NULL::inspection_anomalies, ?::json -> 'anomalies')",
+            "INSERT INTO anomaly_notes SELECT * FROM json_populate_recordset(NULL::anomaly_notes, ?::json -> 'notes')",
+            "INSERT INTO annotation_actions SELECT * FROM json_populate_recordset(NULL::annotation_actions, ?::json -> 'actions')"
+    };
+
+    private record Captured(String transformerNo, ZonedDateTime inspectionTimestamp, int anomalyCount, String document) {
+    }
+
+    private final ArchivedInspectionRepository archiveRepository;
+    private final InspectionRepo inspectionRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final AnnotationViewCache viewCache;
+    private final InspectionArchiveService self;
+    private final int minAgeMonths;
+    private final int chunkSize;
+    private final AtomicBoolean archiving = new AtomicBoolean();
+
+    public InspectionArchiveService(ArchivedInspectionRepository archiveRepository,
+                                    InspectionRepo inspectionRepo,
+                                    JdbcTemplate jdbcTemplate,
+                                    AnnotationViewCache viewCache,
+                                    @Lazy InspectionArchiveService self,
+                                    @Value("${app.archive.min-age-months:36}") int minAgeMonths,
+                                    @Value("${app.archive.chunk-size:200}") int chunkSize) {
+        this.archiveRepository = archiveRepository;
+        this.inspectionRepo = inspectionRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.viewCache = viewCache;
+        this.self = self;
+        this.minAgeMonths = Math.max(1, minAgeMonths);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 0 3 * * SUN}")
+    public void scheduledArchive() {
+        try {
+            archiveOldInspections();
+        } catch (RuntimeException e) {
+            log.warn("Inspection archival failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Archive every eligible inspection, one chunk per transaction. A run that overlaps another is skipped.
+     *
+     * @return number of inspections archived
+     */
+    public int archiveOldInspections() {
+        if (!archiving.compareAndSet(false, true)) {
+            log.info("Inspection archival already running, skipping");
+            return 0;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            ZonedDateTime cutoff = ZonedDateTime.now().minusMonths(minAgeMonths);
+            int archived = 0;
+            long afterId = 0L;
+            List<Long> ids;
+            do {
+                ids = inspectionRepo.findArchivableIdsAfter(InspectionStatus.COMPLETED.getValue(), cutoff, afterId,
+                        PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                try {
+                    archived += self.archive(ids);
+                } catch (RuntimeException e) {
+                    // Left in the hot tables; the next run retries them
+                    log.warn("Could not archive inspections {}..{}: {}", ids.get(0), ids.get(ids.size() - 1), e.getMessage());
+                }
+                afterId = ids.get(ids.size() - 1);
+            } while (ids.size() == chunkSize);
+            log.info("Archived {} inspections older than {} months in {} ms", archived, minAgeMonths,
+                    System.currentTimeMillis() - started);
+            return archived;
+        } finally {
+            archiving.set(false);
+        }
+    }
+
+    /**
+     * Move the given inspections into the archive. Inspections that are locked by a concurrent
+     * writer, or are no longer completed, are skipped.
+     *
+     * @return number of inspections archived
+     */
+    @Transactional
+    public int archive(List<Long> inspectionIds) {
+        List<Long> archived = new ArrayList<>();
+        long rawBytes = 0;
+        long storedBytes = 0;
+        for (Long id : inspectionIds) {
+            Captured captured = capture(id);
+            if (captured == null) {
+                continue;
+            }
+            byte[] raw = captured.document().getBytes(StandardCharsets.UTF_8);
+            ArchivedInspection row = new ArchivedInspection();
+            row.setInspectionId(id);
+            row.setTransformerNo(captured.transformerNo());
+            row.setInspectionTimestamp(captured.inspectionTimestamp());
+            row.setAnomalyCount(captured.anomalyCount());
+            row.setRawBytes(raw.length);
+            row.setPayload(gzip(raw));
+            row.setArchivedAt(LocalDateTime.now());
+            archiveRepository.save(row);
+            for (String sql : DELETE_SQL) {
+                jdbcTemplate.update(sql, id);
+            }
+            archived.add(id);
+            rawBytes += raw.length;
+            storedBytes += row.getPayload().length;
+        }
+        if (!archived.isEmpty()) {
+            log.debug("Archived {} inspections ({} bytes compressed to {})", archived.size(), rawBytes, storedBytes);
+            AfterCommit.run(() -> archived.forEach(viewCache::evict));
+        }
+        return archived.size();
+    }
+
+    /**
+     * Move an archived inspection back into the hot tables. Never throws; a failed restore leaves
+     * the inspection archived.
+     *
+     * @return the restored inspection (transformer loaded), read on the primary so callers inside a
+     * read-only transaction routed to a replica need not wait for replication; empty if the
+     * inspection is neither archived nor present
+     */
+    public Optional<Inspection> rehydrateIfArchived(Long inspectionId) {
+        try {
+            return self.rehydrate(inspectionId);
+        } catch (RuntimeException e) {
+            log.warn("Could not restore archived inspection {}: {}", inspectionId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<Inspection> rehydrate(Long inspectionId) {
+        ArchivedInspection row = archiveRepository.findForUpdate(inspectionId).orElse(null);
+        if (row != null) {
+            String document = new String(gunzip(row.getPayload()), StandardCharsets.UTF_8);
+            for (String sql : RESTORE_SQL) {
+                jdbcTemplate.update(sql, document);
+            }
+            archiveRepository.delete(row);
+            log.info("Restored archived inspection {} ({} anomalies)", inspectionId, row.getAnomalyCount());
+        }
+        // Also covers a concurrent request having restored it while this one waited for the row lock
+        Optional<Inspection> inspection = inspectionRepo.findById(inspectionId);
+        inspection.ifPresent(i -> Hibernate.initialize(i.getTransformer()));
+        return inspection;
+    }
+
+    /**
+     * Drop the archived inspections of a transformer that is being deleted, in the caller's transaction.
+     */
+    @Transactional
+    public void transformerRemoved(String transformerNo) {
+        int removed = archiveRepository.deleteByTransformerNo(transformerNo);
+        if (removed > 0) {
+            log.info("Deleted {} archived inspections of transformer {}", removed, transformerNo);
+        }
+    }
+
+    private Captured capture(Long inspectionId) {
+        return jdbcTemplate.query(CAPTURE_SQL, rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            return new Captured(rs.getString(1), rs.getObject(2, OffsetDateTime.class).toZonedDateTime(),
+                    rs.getInt(3), rs.getString(4));
+        }, inspectionId, InspectionStatus.COMPLETED.getValue());
+    }
+
+    private static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(raw);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not compress archived inspection", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] compressed) {
+        try (GZIPInputStream gz = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return gz.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not decompress archived inspection", e);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.powergrid.maintenance.tms_backend_application.common.geometry;
+
+/**
+ * Axis-aligned bounding box math on primitive arrays.
+ *
+ * Boxes are packed four ints per box in xyxy order (x1, y1, x2, y2; x2/y2 exclusive), so box i
+ * occupies {@code boxes[4*i .. 4*i+3]}. Methods that produce arrays write into caller-supplied
+ * buffers and never allocate, so they can be used on hot paths (tracking, NMS, dedupe).
+ * The entity columns use xywh; use the conversion helpers at the boundary.
+ */
+public final class BoxGeometry {
+
+    private BoxGeometry() {
+    }
+
+    // ---- scalar helpers (entity columns are x, y, width, height) ----
+
+    /**
+     * Centre along one axis of a box starting at origin with the given extent.
+     */
+    public static double center(int origin, int extent) {
+        return origin + extent / 2.0;
+    }
+
+    /**
+     * Area in pixels of a width x height box. Plain int arithmetic, as the entity column has always
+     * been computed; the packed-array {@link #area(int[], int)} works in long.
+     */
+    public static int area(int width, int height) {
+        return width * height;
+    }
+
+    // ---- conversions ----
+
+    /**
+     * Writes box (x, y, w, h) as xyxy into out[4*i .. 4*i+3].
+     */
+    public static void xywhToXyxy(int x, int y, int width, int height, int[] out, int i) {
+        int o = 4 * i;
+        out[o] = x;
+        out[o + 1] = y;
+        out[o + 2] = x + width;
+        out[o + 3] = y + height;
+    }
+
+    /**
+     * Converts n packed xywh boxes to xyxy (in and out may be the same array).
+     */
+    public static void xywhToXyxy(int[] xywh, int[] out, int n) {
+        for (int o = 0; o < 4 * n; o += 4) {
+            out[o] = xywh[o];
+            out[o + 1] = xywh[o + 1];
+            out[o + 2] = xywh[o] + xywh[o + 2];
+            out[o + 3] = xywh[o + 1] + xywh[o + 3];
+        }
+    }
+
+    /**
+     * Converts n packed xyxy boxes to xywh (in and out may be the same array).
+     */
+    public static void xyxyToXywh(int[] xyxy, int[] out, int n) {
+        for (int o = 0; o < 4 * n; o += 4) {
+            int x1 = xyxy[o];
+            int y1 = xyxy[o + 1];
+            out[o] = x1;
+            out[o + 1] = y1;
+            out[o + 2] = xyxy[o + 2] - x1;
+            out[o + 3] = xyxy[o + 3] - y1;
+        }
+    }
+
+    // ---- per-box measures on packed xyxy ----
+
+    public static long area(int[] boxes, int i) {
+        int o = 4 * i;
+        long w = boxes[o + 2] - boxes[o];
+        long h = boxes[o + 3] - boxes[o + 1];
+        return w > 0 && h > 0 ? w * h : 0;
+    }
+
+    public static double centerX(int[] boxes, int i) {
+        return (boxes[4 * i] + boxes[4 * i + 2]) / 2.0;
+    }
+
+    public static double centerY(int[] boxes, int i) {
+        return (boxes[4 * i + 1] + boxes[4 * i + 3]) / 2.0;
+    }
+
+    /**
+     * Euclidean distance between the centres of a[i] and b[j].
+     */
+    public static double centerDistance(int[] a, int i, int[] b, int j) {
+        double dx = centerX(a, i) - centerX(b, j);
+        double dy = centerY(a, i) - centerY(b, j);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // ---- overlap ----
+
+    /**
+     * Intersection-over-union of a[i] and b[j]; 0 when they do not overlap.
+     */
+    public static double iou(int[] a, int i, int[] b, int j) {
+        int oa = 4 * i;
+        int ob = 4 * j;
+        long iw = (long) Math.min(a[oa + 2], b[ob + 2]) - Math.max(a[oa], b[ob]);
+        long ih = (long) Math.min(a[oa + 3], b[ob + 3]) - Math.max(a[oa + 1], b[ob + 1]);
+        if (iw <= 0 || ih <= 0) {
+            return 0;
+        }
+        long inter = iw * ih;
+        long union = area(a, i) + area(b, j) - inter;
+        return union <= 0 ? 0 : (double) inter / union;
+    }
+
+    /**
+     * Fills out (row-major, na x nb) with the IoU of every pair a[i], b[j].
+     */
+    public static void iouMatrix(int[] a, int na, int[] b, int nb, double[] out) {
+        for (int i = 0; i < na; i++) {
+            int row = i * nb;
+            for (int j = 0; j < nb; j++) {
+                out[row + j] = iou(a, i, b, j);
+            }
+        }
+    }
+
+    // ---- editing ----
+
+    /**
+     * Writes the smallest box enclosing a[i] and b[j] into out[k].
+     */
+    public static void merge(int[] a, int i, int[] b, int j, int[] out, int k) {
+        int oa = 4 * i;
+        int ob = 4 * j;
+        int x1 = Math.min(a[oa], b[ob]);
+        int y1 = Math.min(a[oa + 1], b[ob + 1]);
+        int x2 = Math.max(a[oa + 2], b[ob + 2]);
+        int y2 = Math.max(a[oa + 3], b[ob + 3]);
+        int o = 4 * k;
+        out[o] = x1;
+        out[o + 1] = y1;
+        out[o + 2] = x2;
+        out[o + 3] = y2;
+    }
+
+    /**
+     * Clamps n packed xyxy boxes in place to an image of the given size.
+     */
+    public static void clamp(int[] boxes, int n, int imageWidth, int imageHeight) {
+        for (int o = 0; o < 4 * n; o += 4) {
+            boxes[o] = Math.max(0, Math.min(boxes[o], imageWidth));
+            boxes[o + 1] = Math.max(0, Math.min(boxes[o + 1], imageHeight));
+            boxes[o + 2] = Math.max(boxes[o], Math.min(boxes[o + 2], imageWidth));
+            boxes[o + 3] = Math.max(boxes[o + 1], Math.min(boxes[o + 3], imageHeight));
+        }
+    }
+
+    // ---- suppression ----
+
+    /**
+     * Greedy non-maximum suppression.
+     *
+     * @param order  scratch of length >= n (overwritten with indices sorted by descending score)
+     * @param keep   receives the kept indices, best first
+     * @return number of entries written to keep
+     */
+    public static int nms(int[] boxes, double[] scores, int n, double iouThreshold, int[] order, int[] keep) {
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        sortIndicesByScoreDesc(order, scores, n);
+
+        int kept = 0;
+        for (int r = 0; r < n; r++) {
+            int candidate = order[r];
+            boolean suppressed = false;
+            for (int k = 0; k < kept; k++) {
+                if (iou(boxes, candidate, boxes, keep[k]) > iouThreshold) {
+                    suppressed = true;
+                    break;
+                }
+            }
+            if (!suppressed) {
+                keep[kept++] = candidate;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Sorts idx[0 .. n-1] in place so that scores[idx[k]] is descending (no boxing, no allocation).
+     */
+    public static void sortIndicesByScoreDesc(int[] idx, double[] scores, int n) {
+        sortByScoreDesc(idx, scores, 0, n - 1);
+    }
+
+    private static void sortByScoreDesc(int[] idx, double[] scores, int lo, int hi) {
+        while (lo < hi) {
+            if (hi - lo < 16) {
+                for (int i = lo + 1; i <= hi; i++) {
+                    int v = idx[i];
+                    int j = i - 1;
+                    while (j >= lo && scores[idx[j]] < scores[v]) {
+                        idx[j + 1] = idx[j];
+                        j--;
+                    }
+                    idx[j + 1] = v;
+                }
+                return;
+            }
+            double pivot = scores[idx[(lo + hi) >>> 1]];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (scores[idx[i]] > pivot) i++;
+                while (scores[idx[j]] < pivot) j--;
+                if (i <= j) {
+                    int t = idx[i];
+                    idx[i++] = idx[j];
+                    idx[j--] = t;
+                }
+            }
+            // Recurse into the smaller half, loop on the larger
+            if (j - lo < hi - i) {
+                sortByScoreDesc(idx, scores, lo, j);
+                lo = i;
+            } else {
+                sortByScoreDesc(idx, scores, i, hi);
+                hi = j;
+            }
+        }
+    }
+}
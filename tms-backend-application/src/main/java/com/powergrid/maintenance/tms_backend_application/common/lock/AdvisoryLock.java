@@ -0,0 +1,81 @@
+package com.powergrid.maintenance.tms_backend_application.common.lock;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * PostgreSQL advisory locks used to coordinate nodes. Every key is listed here, so two features
+ * cannot pick the same one; keys are arbitrary (eight ASCII bytes, noted next to each).
+ */
+public enum AdvisoryLock {
+
+    RETRAINING_SCHEDULER(0x746d735f72657472L),  // "tms_retr"
+    RETRAINING_FOLLOWER(0x746d735f72666f6cL),   // "tms_rfol"
+    RETRAINING_TRIGGER(0x746d735f72747267L),    // "tms_rtrg"
+    FLEET_ANALYTICS(0x746d735f616e6c79L),       // "tms_anly"
+    PARTITIONS(0x746d735f70617274L);            // "tms_part"
+
+    private final long key;
+
+    AdvisoryLock(long key) {
+        this.key = key;
+    }
+
+    public long key() {
+        return key;
+    }
+
+    /**
+     * Runs the action while this node's session holds the lock, on one pooled connection for the
+     * whole call. Returns false without running it when another session holds the lock.
+     */
+    public boolean runIfAvailable(JdbcTemplate jdbcTemplate, Runnable action) {
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            if (!tryLock(con)) {
+                return false;
+            }
+            try {
+                action.run();
+            } finally {
+                unlock(con);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    /**
+     * Waits for the exclusive lock; released when the current transaction ends.
+     */
+    public void lockForTransaction(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", key);
+    }
+
+    /**
+     * Waits for the lock in shared mode; released when the current transaction ends.
+     */
+    public void lockSharedForTransaction(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock_shared(?)", key);
+    }
+
+    private boolean tryLock(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            ps.setLong(1, key);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void unlock(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            ps.setLong(1, key);
+            ps.execute();
+        }
+    }
+}
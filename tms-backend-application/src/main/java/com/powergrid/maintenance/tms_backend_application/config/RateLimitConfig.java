@@ -0,0 +1,34 @@
+package com.powergrid.maintenance.tms_backend_application.config;
+
+import com.powergrid.maintenance.tms_backend_application.config.ratelimit.RateLimitFilter;
+import com.powergrid.maintenance.tms_backend_application.config.ratelimit.RateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Per-caller rate limits and per-class bulkheads for /api (see RateLimitFilter).
+ * Disable with app.rate-limit.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties properties,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new)));
+        registration.addUrlPatterns("/api/*");
+        // After Spring Security (principal is known), before the read-your-writes filter
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 20);
+        return registration;
+    }
+}
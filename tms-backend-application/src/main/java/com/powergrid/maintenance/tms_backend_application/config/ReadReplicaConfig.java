@@ -0,0 +1,66 @@
+package com.powergrid.maintenance.tms_backend_application.config;
+
+import com.powergrid.maintenance.tms_backend_application.config.datasource.ReadYourWritesFilter;
+import com.powergrid.maintenance.tms_backend_application.config.datasource.ReplicaPool;
+import com.powergrid.maintenance.tms_backend_application.config.datasource.ReplicaProperties;
+import com.powergrid.maintenance.tms_backend_application.config.datasource.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes @Transactional(readOnly = true) work to read replicas. Only active when
+ * app.db.replicas.enabled=true; otherwise the primary DataSource is used untouched.
+ *
+ * The primary "dataSource" bean (see DatabaseAutoCreateConfig) is decorated rather than
+ * replaced, so database auto-creation and Boot's JPA wiring keep working as before.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(prefix = "app.db.replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    public ReplicaPool replicaPool(ReplicaProperties properties,
+                                   DataSourceProperties dataSourceProperties,
+                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ReplicaPool(properties, dataSourceProperties, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    public static BeanPostProcessor replicaRoutingDataSourcePostProcessor(ObjectProvider<ReplicaPool> replicaPool) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)) {
+                    return bean;
+                }
+                ReplicaPool pool = replicaPool.getObject();
+                log.info("[DB-REPLICA] Routing read-only transactions across {} replica(s)", pool.getReplicas().size());
+                return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, pool));
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaProperties properties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(properties.getReadYourWritesWindowMs()));
+        registration.addUrlPatterns("/api/*");
+        // Runs after the Spring Security filter so the authenticated user is available
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 10);
+        return registration;
+    }
+}
@@ -0,0 +1,12 @@
+package com.powergrid.maintenance.tms_backend_application.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background tasks (replica lag probes, housekeeping jobs).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
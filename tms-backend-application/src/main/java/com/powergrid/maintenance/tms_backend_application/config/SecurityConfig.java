@@ -1,9 +1,13 @@
 package com.powergrid.maintenance.tms_backend_application.config;
 
+import com.powergrid.maintenance.tms_backend_application.config.security.AccessTokenService;
+import com.powergrid.maintenance.tms_backend_application.config.security.BearerTokenAuthenticationFilter;
 import com.powergrid.maintenance.tms_backend_application.user.service.MyUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -14,11 +18,17 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.web.cors.CorsConfigurationSource;
 
 /**
  * Security configuration for Spring Security.
  * Configures authentication, authorization, and password encoding.
+ *
+ * Requests authenticate with a signed bearer access token (see BearerTokenAuthenticationFilter),
+ * so no session is kept and no password hash is checked per request. HTTP Basic remains available
+ * as an opt-in fallback for scripts via app.auth.basic.enabled.
  */
 @Configuration
 @EnableWebSecurity
@@ -28,16 +38,22 @@ public class SecurityConfig {
     private final MyUserDetailsService userDetailsService;
     private final BCryptPasswordEncoder passwordEncoder;
     private final CorsConfigurationSource corsConfigurationSource;
+    private final AccessTokenService accessTokenService;
+    private final boolean basicAuthEnabled;
 
     /**
      * Constructor injection to avoid circular dependencies.
      */
     public SecurityConfig(MyUserDetailsService userDetailsService, 
                          BCryptPasswordEncoder passwordEncoder,
-                         CorsConfigurationSource corsConfigurationSource) {
+                         CorsConfigurationSource corsConfigurationSource,
+                         AccessTokenService accessTokenService,
+                         @Value("${app.auth.basic.enabled:false}") boolean basicAuthEnabled) {
         this.userDetailsService = userDetailsService;
         this.passwordEncoder = passwordEncoder;
         this.corsConfigurationSource = corsConfigurationSource;
+        this.accessTokenService = accessTokenService;
+        this.basicAuthEnabled = basicAuthEnabled;
     }
 
     /**
@@ -60,7 +76,7 @@ public class SecurityConfig {
                         
                         // Public endpoints - no authentication required
                         .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/logout", 
-                                        "/api/auth/verify-otp", "/api/auth/resend-otp").permitAll()
+                                        "/api/auth/refresh", "/api/auth/verify-otp", "/api/auth/resend-otp").permitAll()
                         
                         // Admin registration endpoints - public (require admin secret key instead)
                         .requestMatchers("/api/admin/auth/register", "/api/admin/auth/verify-otp").permitAll()
@@ -81,12 +97,23 @@ public class SecurityConfig {
                 // Disable form login (we're using REST API)
                 .formLogin(AbstractHttpConfigurer::disable)
                 
-                // Enable HTTP Basic authentication for protected endpoints
-                .httpBasic(basic -> {})
+                // Bearer access tokens, verified from their signature alone
+                .addFilterBefore(new BearerTokenAuthenticationFilter(accessTokenService),
+                        BasicAuthenticationFilter.class)
                 
-                // Session management
+                // HTTP Basic only as an opt-in fallback (it costs a BCrypt check per request)
+                .httpBasic(basic -> {
+                    if (!basicAuthEnabled) {
+                        basic.disable();
+                    }
+                })
+                .exceptionHandling(ex -> ex
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+                )
+                
+                // Stateless: every request carries its own credentials
                 .sessionManagement(session -> session
-                        .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 
                 // Use userDetailsService directly instead of deprecated AuthenticationProvider
@@ -0,0 +1,48 @@
+package com.powergrid.maintenance.tms_backend_application.config.datasource;
+
+/**
+ * Per-request routing state used by {@link ReplicaRoutingDataSource}.
+ * Only populated inside {@link ReadYourWritesFilter}, so background threads never get pinned.
+ */
+public final class ReadYourWritesContext {
+
+    private static final ThreadLocal<State> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWritesContext() {
+    }
+
+    static void begin(boolean pinnedToPrimary) {
+        CURRENT.set(new State(pinnedToPrimary));
+    }
+
+    static boolean end() {
+        State state = CURRENT.get();
+        CURRENT.remove();
+        return state != null && state.wrote;
+    }
+
+    /**
+     * Record that the current request opened a read-write transaction.
+     * Every later read in the same request is served by the primary.
+     */
+    static void markWrite() {
+        State state = CURRENT.get();
+        if (state != null) {
+            state.wrote = true;
+        }
+    }
+
+    static boolean isPinnedToPrimary() {
+        State state = CURRENT.get();
+        return state != null && (state.pinned || state.wrote);
+    }
+
+    private static final class State {
+        private final boolean pinned;
+        private boolean wrote;
+
+        private State(boolean pinned) {
+            this.pinned = pinned;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.powergrid.maintenance.tms_backend_application.config.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a user's reads on the primary for a short window after they wrote,
+ * so a GET right after a POST/PUT never sees a replica that hasn't caught up yet.
+ * Registered after the Spring Security chain so the principal is known.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final long windowMs;
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    public ReadYourWritesFilter(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String user = currentUser();
+        long now = System.currentTimeMillis();
+        boolean pinned = false;
+        if (user != null) {
+            Long lastWrite = lastWriteByUser.get(user);
+            if (lastWrite != null) {
+                if (now - lastWrite < windowMs) {
+                    pinned = true;
+                } else {
+                    lastWriteByUser.remove(user, lastWrite);
+                }
+            }
+        }
+
+        ReadYourWritesContext.begin(pinned);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            boolean wrote = ReadYourWritesContext.end();
+            if (wrote && user != null) {
+                lastWriteByUser.put(user, System.currentTimeMillis());
+            }
+        }
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,165 @@
+package com.powergrid.maintenance.tms_backend_application.config.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns one Hikari pool per read replica and tracks how far each one lags behind the primary.
+ * A replica is only handed out while it is reachable and within app.db.replicas.max-lag-ms.
+ */
+@Slf4j
+public class ReplicaPool implements DisposableBean {
+
+    // Caught-up replicas (receive LSN == replay LSN) report zero even when the primary is idle,
+    // otherwise fall back to the age of the last replayed transaction.
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0)
+                   END
+            """;
+
+    private final List<Replica> replicas;
+    private final long maxLagMs;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    public ReplicaPool(ReplicaProperties properties, DataSourceProperties primary, MeterRegistry meterRegistry) {
+        this.maxLagMs = properties.getMaxLagMs();
+        List<Replica> built = new ArrayList<>();
+        for (int i = 0; i < properties.getNodes().size(); i++) {
+            ReplicaProperties.Node node = properties.getNodes().get(i);
+            if (!StringUtils.hasText(node.getUrl())) {
+                log.warn("Skipping replica #{} - no url configured", i);
+                continue;
+            }
+            String key = "replica-" + i;
+            HikariDataSource ds = buildPool(key, node, primary, meterRegistry);
+            Replica replica = new Replica(key, node.getUrl(), ds);
+            if (meterRegistry != null) {
+                // -1 while the replica is unreachable
+                Gauge.builder("tms.db.replica.lag", replica, r -> r.healthy ? r.lagMs : -1)
+                        .tag("replica", key)
+                        .baseUnit("milliseconds")
+                        .register(meterRegistry);
+            }
+            built.add(replica);
+            log.info("[DB-REPLICA] Registered {} -> {}", key, node.getUrl());
+        }
+        this.replicas = Collections.unmodifiableList(built);
+    }
+
+    private HikariDataSource buildPool(String key, ReplicaProperties.Node node,
+                                       DataSourceProperties primary, MeterRegistry meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("tms-" + key);
+        config.setJdbcUrl(node.getUrl());
+        config.setUsername(StringUtils.hasText(node.getUsername()) ? node.getUsername() : primary.getUsername());
+        config.setPassword(StringUtils.hasText(node.getPassword()) ? node.getPassword() : primary.getPassword());
+        if (StringUtils.hasText(primary.getDriverClassName())) {
+            config.setDriverClassName(primary.getDriverClassName());
+        }
+        config.setMaximumPoolSize(node.getMaximumPoolSize());
+        config.setMinimumIdle(node.getMinimumIdle());
+        config.setReadOnly(true);
+        // Do not block startup if a replica is down; the lag probe will keep it out of rotation
+        config.setInitializationFailTimeout(-1);
+        if (meterRegistry != null) {
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+        return new HikariDataSource(config);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Round-robin over replicas that are currently healthy and within the lag budget.
+     *
+     * @return the lookup key of the chosen replica, or null if none qualifies
+     */
+    public String nextEligibleKey() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica candidate = replicas.get((start + i) % size);
+            if (candidate.healthy && candidate.lagMs <= maxLagMs) {
+                return candidate.key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Probe every replica for replication lag.
+     */
+    @Scheduled(fixedDelayString = "${app.db.replicas.lag-check-interval-ms:2000}")
+    public void refreshLag() {
+        for (Replica replica : replicas) {
+            try (Connection con = replica.dataSource.getConnection();
+                 Statement st = con.createStatement();
+                 ResultSet rs = st.executeQuery(LAG_QUERY)) {
+                long lag = rs.next() ? Math.round(rs.getDouble(1)) : Long.MAX_VALUE;
+                if (!replica.healthy || (lag > maxLagMs) != (replica.lagMs > maxLagMs)) {
+                    log.info("[DB-REPLICA] {} lag={}ms ({})", replica.key, lag,
+                            lag <= maxLagMs ? "in rotation" : "out of rotation");
+                }
+                replica.lagMs = lag;
+                replica.healthy = true;
+            } catch (Exception e) {
+                if (replica.healthy) {
+                    log.warn("[DB-REPLICA] {} unreachable, routing reads to primary: {}", replica.key, e.getMessage());
+                }
+                replica.healthy = false;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    public static final class Replica {
+        private final String key;
+        private final String url;
+        private final HikariDataSource dataSource;
+        // Start out of rotation until the first probe succeeds
+        private volatile boolean healthy = false;
+        private volatile long lagMs = Long.MAX_VALUE;
+
+        Replica(String key, String url, HikariDataSource dataSource) {
+            this.key = key;
+            this.url = url;
+            this.dataSource = dataSource;
+        }
+
+        public String getKey() { return key; }
+        public String getUrl() { return url; }
+        public HikariDataSource getDataSource() { return dataSource; }
+        public boolean isHealthy() { return healthy; }
+        public long getLagMs() { return lagMs; }
+    }
+}
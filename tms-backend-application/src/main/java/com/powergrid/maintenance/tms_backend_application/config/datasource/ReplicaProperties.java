@@ -0,0 +1,51 @@
+package com.powergrid.maintenance.tms_backend_application.config.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica settings (app.db.replicas.*).
+ * Replicas only receive read-only transactions; everything else stays on the primary.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.db.replicas")
+public class ReplicaProperties {
+
+    /**
+     * Master switch. When false the primary DataSource is used as-is.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Replica nodes. Username/password fall back to spring.datasource.* when blank.
+     */
+    private List<Node> nodes = new ArrayList<>();
+
+    /**
+     * A replica lagging more than this is skipped until it catches up.
+     */
+    private long maxLagMs = 1000;
+
+    /**
+     * How often replica lag is probed.
+     */
+    private long lagCheckIntervalMs = 2000;
+
+    /**
+     * After a user writes, their reads stay on the primary for this long.
+     * Should comfortably exceed maxLagMs.
+     */
+    private long readYourWritesWindowMs = 5000;
+
+    @Data
+    public static class Node {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+        private int minimumIdle = 2;
+    }
+}
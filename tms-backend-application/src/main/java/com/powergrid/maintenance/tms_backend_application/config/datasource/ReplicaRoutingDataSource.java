@@ -0,0 +1,48 @@
+package com.powergrid.maintenance.tms_backend_application.config.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary.
+ *
+ * Must be wrapped in a LazyConnectionDataSourceProxy: the transaction's read-only flag is only
+ * published after JpaTransactionManager begins, so the physical connection has to be fetched lazily.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final ReplicaPool replicaPool;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaPool replicaPool) {
+        this.replicaPool = replicaPool;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (ReplicaPool.Replica replica : replicaPool.getReplicas()) {
+            targets.put(replica.getKey(), replica.getDataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ReadYourWritesContext.markWrite();
+            }
+            return PRIMARY;
+        }
+        if (ReadYourWritesContext.isPinnedToPrimary()) {
+            return PRIMARY;
+        }
+        String replicaKey = replicaPool.nextEligibleKey();
+        return replicaKey != null ? replicaKey : PRIMARY;
+    }
+}
@@ -0,0 +1,242 @@
+package com.powergrid.maintenance.tms_backend_application.config.partition;
+
+import com.powergrid.maintenance.tms_backend_application.common.lock.AdvisoryLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps append-only tables range-partitioned by month in PostgreSQL.
+ *
+ * The schema is otherwise managed by Hibernate (ddl-auto=update), which creates these tables as
+ * plain tables, so the first run converts each one in a single transaction: the existing table
+ * is renamed to {table}_legacy and attached as the partition holding everything up to the end of
+ * the current month, and a partitioned table takes over the original name, indexes and foreign
+ * keys. From then on every run (startup and daily) creates the next premake-months monthly
+ * partitions ({table}_pYYYY_MM) and detaches partitions that ended more than retention-months
+ * ago; detached partitions are left in place as standalone tables for archiving, without their
+ * foreign keys so they never block deleting the rows they referenced. A {table}_default partition
+ * takes rows for months whose partition has been detached (e.g. actions of a restored archived
+ * inspection).
+ *
+ * retention-months must exceed app.archive.min-age-months, so an inspection is archived (with its
+ * actions) before the partitions holding those actions are detached.
+ *
+ * Queries bounded on the partition column (e.g. "actions since the last retraining") only read
+ * the matching partitions.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.partitioning", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MonthlyPartitionManager {
+
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    record PartitionedTable(String name, String column) {
+    }
+
+    // inspection_anomalies stays unpartitioned: anomaly_notes and annotation_actions reference its
+    // id, and a partitioned table can only be referenced through a key that includes the partition column
+    private static final List<PartitionedTable> TABLES = List.of(
+            new PartitionedTable("annotation_actions", "action_timestamp"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int premakeMonths;
+    private final int retentionMonths;
+
+    public MonthlyPartitionManager(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.partitioning.premake-months:3}") int premakeMonths,
+                                   @Value("${app.partitioning.retention-months:48}") int retentionMonths,
+                                   @Value("${app.archive.min-age-months:36}") int archiveMinAgeMonths) {
+        if (retentionMonths > 0 && retentionMonths <= archiveMinAgeMonths) {
+            throw new IllegalStateException("app.partitioning.retention-months (" + retentionMonths
+                    + ") must be 0 or greater than app.archive.min-age-months (" + archiveMinAgeMonths
+                    + "): annotation actions would be detached before their inspection is archived");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.premakeMonths = Math.max(1, premakeMonths);
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.partitioning.maintenance-cron:0 15 0 * * *}")
+    public void maintain() {
+        for (PartitionedTable table : TABLES) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> maintain(table));
+            } catch (RuntimeException e) {
+                log.warn("Partition maintenance failed for {}: {}", table.name(), e.getMessage());
+            }
+        }
+    }
+
+    private void maintain(PartitionedTable table) {
+        // Serialises maintenance across application instances; released at commit
+        AdvisoryLock.PARTITIONS.lockForTransaction(jdbcTemplate);
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT c.relkind::text FROM pg_class c WHERE c.oid = to_regclass(?)", String.class, table.name());
+        if (kind == null) {
+            return;
+        }
+        if ("r".equals(kind) && !convert(table)) {
+            return;
+        }
+        createUpcomingPartitions(table);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table.name() + "_default PARTITION OF " + table.name() + " DEFAULT");
+        if (retentionMonths > 0) {
+            detachExpiredPartitions(table);
+        }
+    }
+
+    /**
+     * Turn the plain table into a partitioned one, keeping its rows in a single legacy partition.
+     */
+    private boolean convert(PartitionedTable table) {
+        String name = table.name();
+        String legacy = name + "_legacy";
+        String column = table.column();
+        Long nulls = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + name + " WHERE " + column + " IS NULL", Long.class);
+        if (nulls != null && nulls > 0) {
+            log.warn("Not partitioning {}: {} rows have no {}", name, nulls, column);
+            return false;
+        }
+        jdbcTemplate.execute("LOCK TABLE " + name + " IN ACCESS EXCLUSIVE MODE");
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + name, Long.class);
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + name, Long.class);
+        LocalDateTime latest = jdbcTemplate.queryForObject("SELECT MAX(" + column + ") FROM " + name, LocalDateTime.class);
+        YearMonth lastMonth = YearMonth.now();
+        if (latest != null && YearMonth.from(latest).isAfter(lastMonth)) {
+            lastMonth = YearMonth.from(latest);
+        }
+
+        // Index, primary key and foreign key definitions before the rename frees their names
+        List<Map<String, Object>> indexes = jdbcTemplate.queryForList(
+                "SELECT i.relname AS index_name, pg_get_indexdef(i.oid) AS definition, x.indisunique AS is_unique " +
+                "FROM pg_index x JOIN pg_class i ON i.oid = x.indexrelid " +
+                "WHERE x.indrelid = to_regclass(?) AND NOT x.indisprimary", name);
+        String primaryKey = jdbcTemplate.queryForObject(
+                "SELECT conname FROM pg_constraint WHERE conrelid = to_regclass(?) AND contype = 'p'", String.class, name);
+        List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT conname, pg_get_constraintdef(oid) AS definition FROM pg_constraint " +
+                "WHERE conrelid = to_regclass(?) AND contype = 'f'", name);
+
+        jdbcTemplate.execute("ALTER TABLE " + name + " RENAME TO " + legacy);
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " ALTER COLUMN " + column + " SET NOT NULL");
+        if (primaryKey != null) {
+            jdbcTemplate.execute("ALTER TABLE " + legacy + " RENAME CONSTRAINT " + primaryKey + " TO " + legacy + "_pkey");
+        }
+        for (Map<String, Object> index : indexes) {
+            jdbcTemplate.execute("ALTER INDEX " + index.get("index_name") + " RENAME TO " + index.get("index_name") + "_legacy");
+        }
+
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + name + "_id_seq START WITH " + (maxId + 1));
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + legacy + " INCLUDING DEFAULTS) PARTITION BY RANGE (" + column + ")");
+        jdbcTemplate.execute("ALTER TABLE " + name + " ALTER COLUMN id SET DEFAULT nextval('" + name + "_id_seq')");
+        jdbcTemplate.execute("ALTER SEQUENCE " + name + "_id_seq OWNED BY " + name + ".id");
+        jdbcTemplate.execute("ALTER TABLE " + name + " ADD CONSTRAINT " + name + "_pkey PRIMARY KEY (id, " + column + ")");
+
+        if (rows != null && rows > 0) {
+            jdbcTemplate.execute("ALTER TABLE " + name + " ATTACH PARTITION " + legacy
+                    + " FOR VALUES FROM (MINVALUE) TO ('" + lastMonth.plusMonths(1).atDay(1) + "')");
+        } else {
+            jdbcTemplate.execute("DROP TABLE " + legacy);
+        }
+
+        // Captured before the rename, so these target the parent; each attaches the matching legacy index
+        for (Map<String, Object> index : indexes) {
+            if (Boolean.TRUE.equals(index.get("is_unique"))) {
+                log.warn("Dropping unique index {} from partitioned {}: it does not include {}",
+                        index.get("index_name"), name, column);
+                continue;
+            }
+            jdbcTemplate.execute((String) index.get("definition"));
+        }
+        for (Map<String, Object> foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE " + name + " ADD CONSTRAINT " + foreignKey.get("conname")
+                    + " " + foreignKey.get("definition"));
+        }
+        log.info("Converted {} to a monthly partitioned table ({} existing rows kept in {})", name, rows,
+                rows != null && rows > 0 ? legacy : "no partition");
+        return true;
+    }
+
+    private void createUpcomingPartitions(PartitionedTable table) {
+        YearMonth month = YearMonth.now();
+        LocalDate coveredUntil = null;
+        for (String bound : partitionBounds(table.name()).values()) {
+            LocalDate upper = upperBound(bound);
+            if (upper != null && (coveredUntil == null || upper.isAfter(coveredUntil))) {
+                coveredUntil = upper;
+            }
+        }
+        if (coveredUntil != null && YearMonth.from(coveredUntil).isAfter(month)) {
+            month = YearMonth.from(coveredUntil);
+        }
+        YearMonth last = YearMonth.now().plusMonths(premakeMonths);
+        for (; !month.isAfter(last); month = month.plusMonths(1)) {
+            String partition = table.name() + "_p" + month.format(SUFFIX);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + table.name()
+                    + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+    }
+
+    private void detachExpiredPartitions(PartitionedTable table) {
+        LocalDate cutoff = YearMonth.now().minusMonths(retentionMonths).atDay(1);
+        partitionBounds(table.name()).forEach((partition, bound) -> {
+            LocalDate upper = upperBound(bound);
+            if (upper != null && !upper.isAfter(cutoff)) {
+                jdbcTemplate.execute("ALTER TABLE " + table.name() + " DETACH PARTITION " + partition);
+                // Detached rows are history only; their copies of the parent's foreign keys would
+                // otherwise stop the referenced anomalies from ever being deleted or archived
+                for (String constraint : jdbcTemplate.queryForList(
+                        "SELECT conname FROM pg_constraint WHERE conrelid = to_regclass(?) AND contype = 'f'",
+                        String.class, partition)) {
+                    jdbcTemplate.execute("ALTER TABLE " + partition + " DROP CONSTRAINT " + constraint);
+                }
+                log.info("Detached partition {} from {} (older than {} months)", partition, table.name(), retentionMonths);
+            }
+        });
+    }
+
+    // partition name -> "FOR VALUES FROM (...) TO (...)"
+    private Map<String, String> partitionBounds(String table) {
+        Map<String, String> bounds = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass(?)",
+                rs -> { bounds.put(rs.getString(1), rs.getString(2)); }, table);
+        return bounds;
+    }
+
+    private static LocalDate upperBound(String bound) {
+        Matcher m = UPPER_BOUND.matcher(bound);
+        return m.find() ? LocalDate.parse(m.group(1).substring(0, 10)) : null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.powergrid.maintenance.tms_backend_application.config.ratelimit;
+
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * Cost classes of API requests; each has its own rate limit and concurrency cap
+ * (app.rate-limit.limits.&lt;class&gt;.*).
+ */
+public enum EndpointClass {
+
+    /** Calls into the Python inference service. */
+    INFERENCE,
+    /** Retraining triggers and other admin retraining writes. */
+    RETRAINING,
+    /** Requests that send email (registration, OTP resend). */
+    EMAIL,
+    /** Password and OTP checks (login, refresh, OTP verification, account deletion). */
+    AUTH,
+    /** Any other write. */
+    WRITE,
+    /** Any other read. */
+    READ;
+
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+
+    /**
+     * Class of a request, or null when it is not limited (non-API paths, CORS preflight,
+     * long-lived event streams and snapshot file downloads used by the dataset sync).
+     */
+    public static EndpointClass classify(String method, String path) {
+        if (!path.startsWith("/api/") || "OPTIONS".equals(method)
+                || path.contains("/events/") || path.startsWith("/api/admin/retraining/snapshots/files/")) {
+            return null;
+        }
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            return READ;
+        }
+        if (MATCHER.match("/api/inspections/*/upload-thermal-with-inference", path)
+                || MATCHER.match("/api/inspections/*/rerun-inference", path)) {
+            return INFERENCE;
+        }
+        if (path.startsWith("/api/admin/retraining/")) {
+            return RETRAINING;
+        }
+        switch (path) {
+            case "/api/auth/register", "/api/auth/resend-otp", "/api/admin/auth/register" -> {
+                return EMAIL;
+            }
+            case "/api/auth/login", "/api/auth/refresh", "/api/auth/verify-otp",
+                 "/api/admin/auth/verify-otp", "/api/auth/account" -> {
+                return AUTH;
+            }
+            default -> {
+                return WRITE;
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.powergrid.maintenance.tms_backend_application.config.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for API requests, per {@link EndpointClass}:
+ * a token bucket per (class, caller), where the caller is the authenticated user or else the
+ * client IP, and a bulkhead capping concurrent requests of the class across all callers, so a
+ * burst of inference or retraining calls cannot take every request thread from cheap reads.
+ *
+ * Rejections answer 429 with Retry-After and count in tms.ratelimit.rejected{endpoint_class, reason}.
+ * Registered after the Spring Security chain so the principal is known.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final long BULKHEAD_RETRY_AFTER_SECONDS = 1;
+
+    private final RateLimitProperties properties;
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<EndpointClass, Semaphore> bulkheads = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rateRejections = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> concurrencyRejections = new EnumMap<>(EndpointClass.class);
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedKeys())
+                .expireAfterAccess(Duration.ofSeconds(properties.getIdleExpirySeconds()))
+                .build();
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String tag = endpointClass.name().toLowerCase();
+            rateRejections.put(endpointClass, Counter.builder("tms.ratelimit.rejected")
+                    .tag("endpoint_class", tag).tag("reason", "rate").register(registry));
+            concurrencyRejections.put(endpointClass, Counter.builder("tms.ratelimit.rejected")
+                    .tag("endpoint_class", tag).tag("reason", "concurrency").register(registry));
+            RateLimitProperties.Limit limit = properties.getLimits().get(endpointClass);
+            if (limit != null && limit.getMaxConcurrent() > 0) {
+                Semaphore bulkhead = new Semaphore(limit.getMaxConcurrent());
+                bulkheads.put(endpointClass, bulkhead);
+                Gauge.builder("tms.bulkhead.in-use", bulkhead, b -> limit.getMaxConcurrent() - b.availablePermits())
+                        .tag("endpoint_class", tag)
+                        .register(registry);
+            }
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        EndpointClass endpointClass = EndpointClass.classify(request.getMethod(), path);
+        RateLimitProperties.Limit limit = endpointClass != null ? properties.getLimits().get(endpointClass) : null;
+        if (limit == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (limit.getCapacity() > 0 && limit.getRefillPerMinute() > 0) {
+            String key = endpointClass.name() + '|' + callerKey(request);
+            long now = System.nanoTime();
+            TokenBucket bucket = buckets.get(key, k -> new TokenBucket(limit.getCapacity(), limit.getRefillPerMinute(), now));
+            long waitNanos = bucket.tryConsume(now);
+            if (waitNanos > 0) {
+                rateRejections.get(endpointClass).increment();
+                log.debug("Rate limited {} {} for {}", request.getMethod(), path, key);
+                reject(response, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)),
+                        "Too many requests. Please slow down.");
+                return;
+            }
+        }
+
+        Semaphore bulkhead = bulkheads.get(endpointClass);
+        if (bulkhead == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(limit.getMaxWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            concurrencyRejections.get(endpointClass).increment();
+            log.debug("Bulkhead full for {} ({} {})", endpointClass, request.getMethod(), path);
+            reject(response, BULKHEAD_RETRY_AFTER_SECONDS, "Server is busy with similar requests. Please retry shortly.");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private String callerKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        if (properties.isTrustForwardedFor()) {
+            String forwarded = forwardedClient(request, properties.getTrustedProxyHops());
+            if (forwarded != null) {
+                return "ip:" + forwarded;
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * The X-Forwarded-For entry added by the outermost trusted proxy, or null when the header has
+     * fewer entries than there are trusted proxies (the request bypassed one of them).
+     */
+    private static String forwardedClient(HttpServletRequest request, int trustedHops) {
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (forwarded == null || forwarded.isBlank() || trustedHops < 1) {
+            return null;
+        }
+        String[] entries = forwarded.split(",");
+        if (entries.length < trustedHops) {
+            return null;
+        }
+        String client = entries[entries.length - trustedHops].trim();
+        return client.isEmpty() ? null : client;
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"success\":false,\"message\":\"" + message + "\",\"retryAfterSeconds\":"
+                + retryAfterSeconds + "}");
+    }
+}
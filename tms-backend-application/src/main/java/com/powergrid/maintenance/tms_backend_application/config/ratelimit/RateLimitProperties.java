@@ -0,0 +1,68 @@
+package com.powergrid.maintenance.tms_backend_application.config.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Request admission settings (app.rate-limit.*).
+ * Classes without an entry under limits are not limited.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Master switch.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Key anonymous callers by the X-Forwarded-For address appended by our own proxies rather than
+     * the connection address. Only enable behind a reverse proxy.
+     */
+    private boolean trustForwardedFor = false;
+
+    /**
+     * Number of trusted proxies that append to X-Forwarded-For; the caller is the address that
+     * many entries from the right. Entries further left are supplied by the client and ignored.
+     */
+    private int trustedProxyHops = 1;
+
+    /**
+     * Upper bound on tracked (class, caller) buckets; idle ones are dropped first.
+     */
+    private long maxTrackedKeys = 100_000;
+
+    /**
+     * A bucket idle this long is forgotten (it would be full again anyway).
+     */
+    private long idleExpirySeconds = 600;
+
+    private Map<EndpointClass, Limit> limits = new EnumMap<>(EndpointClass.class);
+
+    @Data
+    public static class Limit {
+        /**
+         * Burst size per caller; 0 disables the rate limit.
+         */
+        private int capacity;
+
+        /**
+         * Sustained requests per minute per caller.
+         */
+        private double refillPerMinute;
+
+        /**
+         * Concurrent requests of this class across all callers; 0 is unlimited.
+         */
+        private int maxConcurrent;
+
+        /**
+         * How long a request may wait for a concurrency slot before being rejected.
+         */
+        private long maxWaitMs;
+    }
+}
@@ -0,0 +1,41 @@
+package com.powergrid.maintenance.tms_backend_application.config.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its virtual-scheduling (GCRA) form: the whole state is one
+ * "theoretical arrival time" updated by CAS. A request conforms when taking one more token would
+ * not push the arrival time more than {@code capacity} tokens ahead of now; tokens accrue at
+ * {@code refillPerMinute}.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(int capacity, double refillPerMinute, long nowNanos) {
+        this.intervalNanos = Math.max(1, (long) (60_000_000_000L / refillPerMinute));
+        this.burstNanos = capacity * intervalNanos;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Take one token.
+     *
+     * @return 0 when admitted, otherwise nanoseconds until a token becomes available
+     */
+    long tryConsume(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, nowNanos) + intervalNanos;
+            long conformsAt = next - burstNanos;
+            if (conformsAt > nowNanos) {
+                return conformsAt - nowNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.powergrid.maintenance.tms_backend_application.config.security;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Issues and verifies short-lived access tokens: compact JWTs (header.claims.signature, base64url)
+ * signed with EdDSA. Verification is local and stateless, so authenticated requests need neither a
+ * password hash nor a database lookup.
+ */
+@Service
+public class AccessTokenService {
+
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64D = Base64.getUrlDecoder();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final TokenSigningKeys keys;
+    private final ObjectMapper objectMapper;
+    private final Duration accessTtl;
+
+    public AccessTokenService(TokenSigningKeys keys,
+                              ObjectMapper objectMapper,
+                              @Value("${app.auth.token.access-ttl-minutes:15}") long accessTtlMinutes) {
+        this.keys = keys;
+        this.objectMapper = objectMapper;
+        this.accessTtl = Duration.ofMinutes(accessTtlMinutes);
+    }
+
+    /**
+     * Claims of a token that passed signature and expiry checks.
+     */
+    public record VerifiedToken(String username, String role, Instant expiresAt) {
+    }
+
+    public Duration accessTtl() {
+        return accessTtl;
+    }
+
+    public String issue(String username, String role) {
+        Instant now = Instant.now();
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("alg", "EdDSA");
+        header.put("typ", "JWT");
+        header.put("kid", keys.keyId());
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", username);
+        claims.put("role", role);
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", now.plus(accessTtl).getEpochSecond());
+        try {
+            String signingInput = encode(header) + "." + encode(claims);
+            Signature signer = Signature.getInstance(TokenSigningKeys.ALGORITHM);
+            signer.initSign(keys.signingKey());
+            signer.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + B64.encodeToString(signer.sign());
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to sign access token", e);
+        }
+    }
+
+    /**
+     * Verify signature, algorithm and expiry; empty for any malformed, forged or expired token.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        if (first <= 0 || second <= first + 1 || second == token.length() - 1 || token.indexOf('.', second + 1) >= 0) {
+            return Optional.empty();
+        }
+        try {
+            Map<String, Object> header = decode(token.substring(0, first));
+            if (!"EdDSA".equals(header.get("alg"))) {
+                return Optional.empty();
+            }
+            PublicKey key = keys.verificationKey((String) header.get("kid"));
+            if (key == null) {
+                return Optional.empty();
+            }
+            Signature verifier = Signature.getInstance(TokenSigningKeys.ALGORITHM);
+            verifier.initVerify(key);
+            verifier.update(token.substring(0, second).getBytes(StandardCharsets.US_ASCII));
+            if (!verifier.verify(B64D.decode(token.substring(second + 1)))) {
+                return Optional.empty();
+            }
+            Map<String, Object> claims = decode(token.substring(first + 1, second));
+            Instant expiresAt = Instant.ofEpochSecond(((Number) claims.get("exp")).longValue());
+            if (!expiresAt.isAfter(Instant.now()) || !(claims.get("sub") instanceof String username)) {
+                return Optional.empty();
+            }
+            return Optional.of(new VerifiedToken(username, (String) claims.get("role"), expiresAt));
+        } catch (GeneralSecurityException | RuntimeException | java.io.IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private String encode(Map<String, Object> json) throws java.io.IOException {
+        return B64.encodeToString(objectMapper.writeValueAsBytes(json));
+    }
+
+    private Map<String, Object> decode(String part) throws java.io.IOException {
+        return objectMapper.readValue(B64D.decode(part), MAP_TYPE);
+    }
+}
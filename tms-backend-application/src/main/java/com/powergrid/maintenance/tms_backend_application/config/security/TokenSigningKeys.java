@@ -0,0 +1,86 @@
+package com.powergrid.maintenance.tms_backend_application.config.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ed25519 keys for access tokens. The private key signs on this node; public keys are parsed once
+ * and kept by key id, so verifying a token is a map lookup plus one signature check.
+ *
+ * app.auth.token.signing-key / public-key are the base64 PKCS#8 / X.509 halves of the key pair
+ * shared by all nodes. Keys being rotated out go in app.auth.token.verification-keys as
+ * kid:base64-X.509 pairs. Without a configured key an ephemeral pair is generated, so tokens do not
+ * survive a restart.
+ */
+@Slf4j
+@Component
+public class TokenSigningKeys {
+
+    static final String ALGORITHM = "Ed25519";
+
+    private final String keyId;
+    private final PrivateKey signingKey;
+    private final Map<String, PublicKey> verificationKeys;
+
+    public TokenSigningKeys(@Value("${app.auth.token.signing-key:}") String signingKey,
+                            @Value("${app.auth.token.public-key:}") String publicKey,
+                            @Value("${app.auth.token.key-id:k1}") String keyId,
+                            @Value("${app.auth.token.verification-keys:}") String verificationKeys) throws GeneralSecurityException {
+        KeyFactory factory = KeyFactory.getInstance(ALGORITHM);
+        Map<String, PublicKey> keys = new HashMap<>();
+        if (signingKey.isBlank()) {
+            KeyPair pair = KeyPairGenerator.getInstance(ALGORITHM).generateKeyPair();
+            this.signingKey = pair.getPrivate();
+            keys.put(keyId, pair.getPublic());
+            log.warn("[AUTH] No app.auth.token.signing-key configured; using an ephemeral key. "
+                    + "Tokens are invalidated on restart and not accepted by other nodes.");
+        } else {
+            if (publicKey.isBlank()) {
+                throw new IllegalStateException("app.auth.token.public-key is required with app.auth.token.signing-key");
+            }
+            this.signingKey = factory.generatePrivate(new PKCS8EncodedKeySpec(decode(signingKey)));
+            keys.put(keyId, factory.generatePublic(new X509EncodedKeySpec(decode(publicKey))));
+        }
+        for (String entry : verificationKeys.split(",")) {
+            int colon = entry.indexOf(':');
+            if (colon > 0) {
+                keys.putIfAbsent(entry.substring(0, colon).trim(),
+                        factory.generatePublic(new X509EncodedKeySpec(decode(entry.substring(colon + 1)))));
+            }
+        }
+        this.keyId = keyId;
+        this.verificationKeys = Map.copyOf(keys);
+    }
+
+    public String keyId() {
+        return keyId;
+    }
+
+    public PrivateKey signingKey() {
+        return signingKey;
+    }
+
+    /**
+     * Public key for a token's kid header, or null when unknown.
+     */
+    public PublicKey verificationKey(String kid) {
+        return kid != null ? verificationKeys.get(kid) : null;
+    }
+
+    private static byte[] decode(String base64) {
+        return Base64.getDecoder().decode(base64.trim());
+    }
+}
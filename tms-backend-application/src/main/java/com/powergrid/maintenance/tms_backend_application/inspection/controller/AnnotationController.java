@@ -2,6 +2,11 @@ package com.powergrid.maintenance.tms_backend_application.inspection.controller;
 
 import com.powergrid.maintenance.tms_backend_application.inspection.domain.AnnotationAction;
 import com.powergrid.maintenance.tms_backend_application.inspection.domain.InspectionAnomaly;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationBatchRequestDTO;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationBatchResponseDTO;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationFeedCursor;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationFeedFilter;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationFeedPageDTO;
 import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationRequestDTO;
 import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationResponseDTO;
 import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationViewDTO;
@@ -9,11 +14,13 @@ import com.powergrid.maintenance.tms_backend_application.inspection.model.Action
 import com.powergrid.maintenance.tms_backend_application.inspection.service.AnnotationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -129,6 +136,31 @@ public class AnnotationController {
         }
     }
 
+    /**
+     * Apply an ordered list of annotation operations atomically
+     * POST /api/annotations/batch
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<AnnotationBatchResponseDTO> handleAnnotationBatch(
+            @RequestBody AnnotationBatchRequestDTO request) {
+
+        int count = request.getOperations() != null ? request.getOperations().size() : 0;
+        log.info("POST /api/annotations/batch - inspectionId: {}, operations: {}", request.getInspectionId(), count);
+
+        try {
+            String username = getCurrentUsername();
+            List<AnnotationResponseDTO> results = annotationService.applyBatch(request, username);
+            return ResponseEntity.ok(AnnotationBatchResponseDTO.success(results));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(AnnotationBatchResponseDTO.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error handling annotation batch", e);
+            return ResponseEntity.internalServerError()
+                    .body(AnnotationBatchResponseDTO.error("Error: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get annotation history for a specific anomaly
      * GET /api/annotations/{anomalyId}/history
@@ -154,21 +186,29 @@ public class AnnotationController {
     }
 
     /**
-     * Get all annotation actions across all inspections
+     * Get annotation actions across all inspections (keyset paginated, newest first)
      * This is accessible to all authenticated users (not admin-only)
-     * GET /api/annotations/history
+     * GET /api/annotations/history?from=&to=&username=&actionType=&cursor=&limit=
      */
     @GetMapping("/history")
-    public ResponseEntity<?> getAllAnnotationActions() {
-        log.info("Fetching all annotation actions for annotation history view");
+    public ResponseEntity<AnnotationFeedPageDTO> getAllAnnotationActions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) List<ActionType> actionType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "0") int limit) {
+        log.info("Fetching annotation history page (cursor: {}, limit: {})", cursor, limit);
         try {
-            // Use the service method to get all actions with inspection metadata
-            var result = annotationService.getAllAnnotationActionsWithMetadata();
+            AnnotationFeedPageDTO result = annotationService.getAnnotationFeed(new AnnotationFeedFilter(
+                    from, to, username, actionType, AnnotationFeedCursor.decode(cursor), limit));
             return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(AnnotationFeedPageDTO.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching annotation history", e);
             return ResponseEntity.internalServerError()
-                    .body(java.util.Map.of("success", false, "error", "Failed to fetch annotation history: " + e.getMessage()));
+                    .body(AnnotationFeedPageDTO.error("Failed to fetch annotation history: " + e.getMessage()));
         }
     }
 
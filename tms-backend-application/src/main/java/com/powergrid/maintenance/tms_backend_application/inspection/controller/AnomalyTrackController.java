@@ -0,0 +1,57 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.controller;
+
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnomalyTrackDTO;
+import com.powergrid.maintenance.tms_backend_application.inspection.service.AnomalyTrackingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for cross-inspection anomaly tracks (growth over time)
+ */
+@RestController
+@RequestMapping("/api/anomaly-tracks")
+@CrossOrigin(origins = "http://localhost:5173")
+@RequiredArgsConstructor
+@Slf4j
+public class AnomalyTrackController {
+
+    private final AnomalyTrackingService trackingService;
+
+    /**
+     * All tracks of a transformer with their growth series
+     * GET /api/anomaly-tracks?transformerNo=TX-001
+     */
+    @GetMapping
+    public ResponseEntity<List<AnomalyTrackDTO>> getTracks(@RequestParam String transformerNo) {
+        log.debug("GET /api/anomaly-tracks?transformerNo={}", transformerNo);
+        return ResponseEntity.ok(trackingService.getTracksForTransformer(transformerNo));
+    }
+
+    /**
+     * Growth series of a single track
+     * GET /api/anomaly-tracks/{trackId}
+     */
+    @GetMapping("/{trackId}")
+    public ResponseEntity<AnomalyTrackDTO> getTrack(@PathVariable String trackId) {
+        log.debug("GET /api/anomaly-tracks/{}", trackId);
+        return ResponseEntity.ok(trackingService.getTrack(trackId));
+    }
+
+    /**
+     * Recompute all tracks of a transformer (e.g. after tuning the matching thresholds)
+     * POST /api/anomaly-tracks/rebuild?transformerNo=TX-001
+     */
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuild(@RequestParam String transformerNo) {
+        log.info("Rebuilding anomaly tracks for transformer {}", transformerNo);
+        int tracked = trackingService.rebuildTransformer(transformerNo);
+        return ResponseEntity.ok(Map.of("success", true, "transformerNo", transformerNo, "trackedAnomalies", tracked));
+    }
+}
@@ -0,0 +1,52 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.controller;
+
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.TransformerRiskCursor;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.TransformerRiskPageDTO;
+import com.powergrid.maintenance.tms_backend_application.inspection.service.TransformerRiskService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST Controller for the fleet risk ranking
+ */
+@RestController
+@RequestMapping("/api/transformer-risk")
+@CrossOrigin(origins = "http://localhost:5173")
+@RequiredArgsConstructor
+@Slf4j
+public class TransformerRiskController {
+
+    private final TransformerRiskService riskService;
+
+    /**
+     * Riskiest transformers first, one page at a time
+     * GET /api/transformer-risk?limit=50&cursor=
+     */
+    @GetMapping
+    public ResponseEntity<TransformerRiskPageDTO> getTopRisks(@RequestParam(required = false) Integer limit,
+                                                              @RequestParam(required = false) String cursor) {
+        log.debug("GET /api/transformer-risk?limit={}&cursor={}", limit, cursor);
+        try {
+            return ResponseEntity.ok(riskService.getTopRisks(limit, TransformerRiskCursor.decode(cursor)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(TransformerRiskPageDTO.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Recompute the risk read model from scratch (e.g. after changing the weights or window)
+     * POST /api/transformer-risk/rebuild
+     */
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        log.info("Rebuilding transformer risk read model");
+        int transformers = riskService.rebuild();
+        return ResponseEntity.ok(Map.of("success", true, "transformers", transformers));
+    }
+}
@@ -17,7 +17,12 @@ import java.util.Map;
  * Entity representing an annotation action (audit trail)
  */
 @Entity
-@Table(name = "annotation_actions")
+@Table(name = "annotation_actions", indexes = {
+        @Index(name = "idx_annotation_actions_ts_id", columnList = "action_timestamp,id"),
+        @Index(name = "idx_annotation_actions_username_ts", columnList = "username,action_timestamp"),
+        @Index(name = "idx_annotation_actions_inspection_ts", columnList = "inspection_id,action_timestamp"),
+        @Index(name = "idx_annotation_actions_anomaly_ts", columnList = "anomaly_id,action_timestamp")
+})
 @Data
 public class AnnotationAction {
 
@@ -7,7 +7,9 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "inference_metadata")
+@Table(name = "inference_metadata", indexes = {
+        @Index(name = "idx_inference_metadata_run_at", columnList = "inference_run_at")
+})
 @Data
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "inspection"})
 public class InferenceMetadata {
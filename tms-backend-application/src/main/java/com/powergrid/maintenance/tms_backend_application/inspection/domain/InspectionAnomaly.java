@@ -8,7 +8,10 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.powergrid.maintenance.tms_backend_application.inspection.model.AnomalySource;
 
 @Entity
-@Table(name = "inspection_anomalies")
+@Table(name = "inspection_anomalies", indexes = {
+        @Index(name = "idx_inspection_anomalies_inspection_id", columnList = "inspection_id"),
+        @Index(name = "idx_inspection_anomalies_track_id", columnList = "track_id")
+})
 @Data
 public class InspectionAnomaly {
 
@@ -77,6 +80,10 @@ public class InspectionAnomaly {
     @Column(name = "created_by", length = 50)
     private String createdBy;
 
+    // Same physical hotspot across inspections of a transformer (see AnomalyTrackingService)
+    @Column(name = "track_id", length = 36)
+    private String trackId;
+
     // Bidirectional relationship with anomaly notes - CASCADE DELETE
     @OneToMany(mappedBy = "anomaly", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
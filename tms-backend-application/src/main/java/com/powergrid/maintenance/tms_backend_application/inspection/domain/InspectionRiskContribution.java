@@ -0,0 +1,45 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+
+/**
+ * What one inspection currently adds to its transformer's {@link TransformerRisk}. Kept so a
+ * change to the inspection's anomalies can be applied as (new - old) instead of re-summing the
+ * transformer's history. Only inspections inside the risk window with at least one fault anomaly
+ * have a row.
+ */
+@Entity
+@Table(name = "inspection_risk_contribution", indexes = {
+        @Index(name = "idx_inspection_risk_contribution_timestamp", columnList = "inspection_timestamp"),
+        @Index(name = "idx_inspection_risk_contribution_transformer", columnList = "transformer_no")
+})
+@Data
+@NoArgsConstructor
+public class InspectionRiskContribution {
+
+    @Id
+    @Column(name = "inspection_id")
+    private Long inspectionId;
+
+    @Column(name = "transformer_no", nullable = false, length = 64)
+    private String transformerNo;
+
+    @Column(name = "inspection_timestamp", nullable = false)
+    private ZonedDateTime inspectionTimestamp;
+
+    @Column(nullable = false)
+    private long score;
+
+    @Column(name = "faulty_anomalies", nullable = false)
+    private int faultyAnomalies;
+
+    @Column(name = "potential_anomalies", nullable = false)
+    private int potentialAnomalies;
+
+    @Column(name = "confidence_sum", nullable = false)
+    private long confidenceSum;
+}
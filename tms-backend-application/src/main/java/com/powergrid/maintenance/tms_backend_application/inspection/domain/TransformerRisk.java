@@ -0,0 +1,45 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Risk read model: one row per transformer, the sum of the {@link InspectionRiskContribution}s of
+ * its recent inspections. Maintained by delta updates in TransformerRiskService, never recomputed
+ * on read; the (score, transformer_no) index serves the top-N ranking directly.
+ *
+ * Scores and confidence sums are kept in thousandths so deltas add and subtract exactly.
+ */
+@Entity
+@Table(name = "transformer_risk", indexes = {
+        @Index(name = "idx_transformer_risk_rank", columnList = "score DESC,transformer_no")
+})
+@Data
+@NoArgsConstructor
+public class TransformerRisk {
+
+    @Id
+    @Column(name = "transformer_no", length = 64)
+    private String transformerNo;
+
+    @Column(nullable = false)
+    private long score;
+
+    @Column(name = "faulty_anomalies", nullable = false)
+    private int faultyAnomalies;
+
+    @Column(name = "potential_anomalies", nullable = false)
+    private int potentialAnomalies;
+
+    @Column(name = "confidence_sum", nullable = false)
+    private long confidenceSum;
+
+    @Column(name = "contributing_inspections", nullable = false)
+    private int contributingInspections;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
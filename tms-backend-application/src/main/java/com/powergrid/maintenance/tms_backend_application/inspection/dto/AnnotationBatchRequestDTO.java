@@ -0,0 +1,19 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for applying an ordered list of annotation operations in one transaction
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnnotationBatchRequestDTO {
+    private Long inspectionId; // default for operations that omit it
+    private Integer userId; // default for operations that omit it
+    private List<AnnotationRequestDTO> operations; // applied in list order
+}
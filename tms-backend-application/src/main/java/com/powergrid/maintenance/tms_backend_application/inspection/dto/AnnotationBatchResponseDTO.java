@@ -0,0 +1,30 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DTO for batch annotation response (one result per operation, same order as the request)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnnotationBatchResponseDTO {
+    private boolean success;
+    private int processed;
+    private List<AnnotationResponseDTO> results;
+    private String message;
+
+    public static AnnotationBatchResponseDTO success(List<AnnotationResponseDTO> results) {
+        return new AnnotationBatchResponseDTO(true, results.size(), results,
+                "Applied " + results.size() + " annotation operation(s)");
+    }
+
+    public static AnnotationBatchResponseDTO error(String message) {
+        return new AnnotationBatchResponseDTO(false, 0, Collections.emptyList(), message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.dto;
+
+import com.powergrid.maintenance.tms_backend_application.inspection.model.ActionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Filters and keyset position for the annotation activity feed
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnnotationFeedFilter {
+    private LocalDateTime from; // exclusive lower bound on action timestamp
+    private LocalDateTime to; // inclusive upper bound on action timestamp
+    private String username;
+    private List<ActionType> actionTypes;
+    private AnnotationFeedCursor cursor; // null for the first page
+    private int limit;
+}
@@ -0,0 +1,30 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.dto;
+
+import com.powergrid.maintenance.tms_backend_application.inspection.model.ActionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the annotation activity feed (action + inspection/transformer metadata)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnnotationFeedItemDTO {
+    private Long id;
+    private Long anomalyId;
+    private Long inspectionId;
+    private ActionType actionType;
+    private String username;
+    private LocalDateTime actionTimestamp;
+    private String comment;
+    private BBoxData previousBbox;
+    private BBoxData newBbox;
+    private ClassificationData previousClassification;
+    private ClassificationData newClassification;
+    private String transformerId; // transformer number of the inspection
+    private String transformerName; // transformer location details
+}
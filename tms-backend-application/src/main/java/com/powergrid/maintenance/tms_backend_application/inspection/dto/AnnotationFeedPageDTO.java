@@ -0,0 +1,34 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of the annotation activity feed, newest first
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnnotationFeedPageDTO {
+    private boolean success;
+    private List<AnnotationFeedItemDTO> annotations;
+    private int total; // rows in this page
+    private boolean hasMore;
+    private String nextCursor; // pass back as ?cursor= to fetch the next page
+    private LocalDateTime sinceTimestamp; // lower bound applied to the feed, if any
+    private String error;
+
+    public static AnnotationFeedPageDTO of(List<AnnotationFeedItemDTO> annotations, boolean hasMore,
+                                           String nextCursor, LocalDateTime sinceTimestamp) {
+        return new AnnotationFeedPageDTO(true, annotations, annotations.size(), hasMore, nextCursor, sinceTimestamp, null);
+    }
+
+    public static AnnotationFeedPageDTO error(String message) {
+        return new AnnotationFeedPageDTO(false, Collections.emptyList(), 0, false, null, null, message);
+    }
+}
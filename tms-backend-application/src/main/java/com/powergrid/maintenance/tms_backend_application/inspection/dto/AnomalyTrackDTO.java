@@ -0,0 +1,25 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * A hotspot tracked across inspections of one transformer, with its growth-over-time series
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnomalyTrackDTO {
+    private String trackId;
+    private String transformerNo;
+    private ZonedDateTime firstSeen;
+    private ZonedDateTime lastSeen;
+    private int observations;
+    private String latestFaultType;
+    private Double areaGrowthPct; // latest vs first observed area, null if unknown
+    private List<AnomalyTrackPointDTO> points; // oldest first
+}
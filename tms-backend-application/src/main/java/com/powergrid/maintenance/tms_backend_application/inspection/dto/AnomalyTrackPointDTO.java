@@ -0,0 +1,24 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+
+/**
+ * One observation of a tracked anomaly (one inspection)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnomalyTrackPointDTO {
+    private Long inspectionId;
+    private ZonedDateTime inspectionTimestamp;
+    private Long anomalyId;
+    private String faultType;
+    private Double faultConfidence;
+    private Integer areaPx;
+    private Double centroidX;
+    private Double centroidY;
+}
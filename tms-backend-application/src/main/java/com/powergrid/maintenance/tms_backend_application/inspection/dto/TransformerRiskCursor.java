@@ -0,0 +1,29 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in the risk ranking: the (score, transformerNo) of the last row returned,
+ * with the score in the read model's thousandths. Serialized as an opaque URL-safe token.
+ */
+public record TransformerRiskCursor(long score, String transformerNo) {
+
+    public String encode() {
+        String raw = score + "|" + transformerNo;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransformerRiskCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new TransformerRiskCursor(Long.parseLong(raw.substring(0, sep)), raw.substring(sep + 1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
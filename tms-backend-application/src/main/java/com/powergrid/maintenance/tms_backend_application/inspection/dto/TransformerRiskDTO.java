@@ -0,0 +1,26 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One transformer in the risk ranking
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransformerRiskDTO {
+    private String transformerNo;
+    private String region;
+    private String poleNo;
+    private String type;
+    private double riskScore;            // sum over active fault anomalies of weight x confidence
+    private int faultyAnomalies;
+    private int potentialAnomalies;
+    private double averageConfidence;
+    private int contributingInspections; // inspections inside the risk window with fault anomalies
+    private LocalDateTime updatedAt;
+}
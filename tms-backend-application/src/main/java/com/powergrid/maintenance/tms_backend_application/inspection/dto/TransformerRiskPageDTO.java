@@ -0,0 +1,31 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of the transformer risk ranking, riskiest first
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransformerRiskPageDTO {
+    private boolean success;
+    private List<TransformerRiskDTO> transformers;
+    private int total; // rows in this page
+    private boolean hasMore;
+    private String nextCursor; // pass back as ?cursor= to fetch the next page
+    private String error;
+
+    public static TransformerRiskPageDTO of(List<TransformerRiskDTO> transformers, boolean hasMore, String nextCursor) {
+        return new TransformerRiskPageDTO(true, transformers, transformers.size(), hasMore, nextCursor, null);
+    }
+
+    public static TransformerRiskPageDTO error(String message) {
+        return new TransformerRiskPageDTO(false, Collections.emptyList(), 0, false, null, message);
+    }
+}
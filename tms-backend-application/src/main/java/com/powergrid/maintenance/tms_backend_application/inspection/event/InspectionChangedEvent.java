@@ -0,0 +1,9 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.event;
+
+/**
+ * Published whenever something derived read models aggregate about an inspection changes: its
+ * active anomalies (inference results, annotations), status, timestamp or transformer, or its
+ * existence. Listeners run once the change commits.
+ */
+public record InspectionChangedEvent(Long inspectionId) {
+}
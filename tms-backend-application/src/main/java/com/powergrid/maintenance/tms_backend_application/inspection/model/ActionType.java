@@ -1,5 +1,8 @@
 package com.powergrid.maintenance.tms_backend_application.inspection.model;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Enum representing types of annotation actions for audit trail
  */
@@ -32,5 +35,16 @@ public enum ActionType {
     /**
      * Comment added to anomaly
      */
-    COMMENTED
+    COMMENTED;
+
+    /**
+     * Actions that change the ground truth and make an inspection a retraining sample
+     * (APPROVED and COMMENTED alone do not)
+     */
+    public static final Set<ActionType> CORRECTIONS = EnumSet.of(CREATED, EDITED, DELETED, REJECTED);
+
+    /**
+     * Actions by which a reviewer confirms an AI-generated box
+     */
+    public static final Set<ActionType> VERIFICATIONS = EnumSet.of(EDITED, APPROVED);
 }
@@ -8,6 +8,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,6 +18,10 @@ public interface InferenceMetadataRepository extends JpaRepository<InferenceMeta
 
     Optional<InferenceMetadata> findByInspectionId(Long inspectionId);
 
+    long countByInferenceRunAtAfter(LocalDateTime since);
+
+    List<InferenceMetadata> findByInspectionIdIn(Collection<Long> inspectionIds);
+
   @Transactional
   @Modifying
   @Query("DELETE FROM InferenceMetadata m WHERE m.inspectionId = :inspectionId")
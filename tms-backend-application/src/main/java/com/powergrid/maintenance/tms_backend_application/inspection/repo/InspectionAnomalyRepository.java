@@ -1,16 +1,24 @@
 package com.powergrid.maintenance.tms_backend_application.inspection.repo;
 
 import com.powergrid.maintenance.tms_backend_application.inspection.domain.InspectionAnomaly;
+import com.powergrid.maintenance.tms_backend_application.inspection.model.ActionType;
 import com.powergrid.maintenance.tms_backend_application.inspection.model.AnomalySource;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InspectionAnomalyRepository extends JpaRepository<InspectionAnomaly, Long> {
@@ -43,6 +51,102 @@ public interface InspectionAnomalyRepository extends JpaRepository<InspectionAno
      */
     long countByInspectionIdAndIsActiveTrueAndSource(Long inspectionId, AnomalySource source);
 
+    /**
+     * Active anomalies of the given inspections (input for cross-inspection tracking)
+     */
+    @Query("SELECT a FROM InspectionAnomaly a WHERE a.inspectionId IN :inspectionIds AND a.isActive = true ORDER BY a.inspectionId, a.id")
+    List<InspectionAnomaly> findActiveByInspectionIdIn(@Param("inspectionIds") Collection<Long> inspectionIds);
+
+    /**
+     * Active anomalies of the given inspections that a reviewer stands behind: added by a user, or
+     * AI-generated with an action of one of the verifying types (evaluation ground truth)
+     */
+    @Query("SELECT a FROM InspectionAnomaly a WHERE a.inspectionId IN :inspectionIds AND a.isActive = true " +
+           "AND (a.source <> :unverifiedSource OR EXISTS (SELECT 1 FROM AnnotationAction x " +
+           "WHERE x.anomalyId = a.id AND x.actionType IN :verifyingTypes)) ORDER BY a.inspectionId, a.id")
+    List<InspectionAnomaly> findVerifiedByInspectionIdIn(@Param("inspectionIds") Collection<Long> inspectionIds,
+                                                         @Param("unverifiedSource") AnomalySource unverifiedSource,
+                                                         @Param("verifyingTypes") Collection<ActionType> verifyingTypes);
+
+    /**
+     * Fine-tuning export rows, one per active anomaly of every inspection corrected since a timestamp:
+     * {inspectionId, maintenanceImageUrl, bboxX, bboxY, bboxWidth, bboxHeight, classId, faultType}, grouped by inspection.
+     * Inspections with {@code MOD(inspectionId, holdoutModulus) = heldOut} are left out (evaluation hold-out).
+     * Read through a forward-only cursor; must be consumed inside a (read-only) transaction and closed.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a.inspectionId, m.maintenanceImageUrl, a.bboxX, a.bboxY, a.bboxWidth, a.bboxHeight, a.classId, a.faultType " +
+           "FROM InspectionAnomaly a, InferenceMetadata m " +
+           "WHERE m.inspectionId = a.inspectionId AND a.isActive = true AND m.maintenanceImageUrl IS NOT NULL " +
+           "AND a.inspectionId IN (SELECT DISTINCT x.inspectionId FROM AnnotationAction x " +
+           "                       WHERE x.actionTimestamp > :since AND x.actionType IN :types) " +
+           "AND MOD(a.inspectionId, :holdoutModulus) <> :heldOut " +
+           "ORDER BY a.inspectionId, a.id")
+    Stream<Object[]> streamFinetuneRowsSince(@Param("since") LocalDateTime since,
+                                             @Param("types") Collection<ActionType> types,
+                                             @Param("holdoutModulus") int holdoutModulus,
+                                             @Param("heldOut") int heldOut);
+
+    /**
+     * Fine-tuning export rows (columns as in streamFinetuneRowsSince) of the given inspections, grouped by inspection
+     */
+    @Query("SELECT a.inspectionId, m.maintenanceImageUrl, a.bboxX, a.bboxY, a.bboxWidth, a.bboxHeight, a.classId, a.faultType " +
+           "FROM InspectionAnomaly a, InferenceMetadata m " +
+           "WHERE m.inspectionId = a.inspectionId AND a.isActive = true AND m.maintenanceImageUrl IS NOT NULL " +
+           "AND a.inspectionId IN :inspectionIds " +
+           "ORDER BY a.inspectionId, a.id")
+    List<Object[]> findFinetuneRowsByInspectionIdIn(@Param("inspectionIds") Collection<Long> inspectionIds);
+
+    /**
+     * Active tracked anomalies of a track with their inspection timestamp, oldest first
+     */
+    @Query("SELECT a, i.inspectionTimestamp FROM InspectionAnomaly a JOIN Inspection i ON i.inspectionIdNumeric = a.inspectionId " +
+           "WHERE a.trackId = :trackId AND a.isActive = true ORDER BY i.inspectionTimestamp, a.id")
+    List<Object[]> findTrackPoints(@Param("trackId") String trackId);
+
+    /**
+     * Active tracked anomalies of a transformer with their inspection timestamp, oldest first
+     */
+    @Query("SELECT a, i.inspectionTimestamp FROM InspectionAnomaly a JOIN Inspection i ON i.inspectionIdNumeric = a.inspectionId " +
+           "WHERE i.transformerNo = :transformerNo AND a.trackId IS NOT NULL AND a.isActive = true ORDER BY i.inspectionTimestamp, a.id")
+    List<Object[]> findTrackPointsByTransformerNo(@Param("transformerNo") String transformerNo);
+
+    /**
+     * {transformerNo, faultType} of every active anomaly on the latest inspection of each transformer
+     */
+    @Query("SELECT i.transformerNo, a.faultType FROM InspectionAnomaly a JOIN Inspection i ON i.inspectionIdNumeric = a.inspectionId " +
+           "WHERE a.isActive = true AND i.inspectionTimestamp = (" +
+           "    SELECT MAX(i2.inspectionTimestamp) FROM Inspection i2 WHERE i2.transformerNo = i.transformerNo)")
+    List<Object[]> findLatestInspectionFaultTypes();
+
+    /**
+     * {inspectionId, transformerNo, inspectionTimestamp, faultType, faultConfidence} of every active
+     * anomaly on inspections since the given time, for rebuilding the transformer risk read model
+     */
+    @Query("SELECT a.inspectionId, i.transformerNo, i.inspectionTimestamp, a.faultType, a.faultConfidence " +
+           "FROM InspectionAnomaly a JOIN Inspection i ON i.inspectionIdNumeric = a.inspectionId " +
+           "WHERE a.isActive = true AND i.inspectionTimestamp >= :since ORDER BY a.inspectionId")
+    List<Object[]> findActiveRiskRowsSince(@Param("since") ZonedDateTime since);
+
+    /**
+     * {inspectionId, faultType, count} of the active anomalies of the given inspections
+     */
+    @Query("SELECT a.inspectionId, a.faultType, COUNT(a) FROM InspectionAnomaly a " +
+           "WHERE a.inspectionId IN :inspectionIds AND a.isActive = true GROUP BY a.inspectionId, a.faultType")
+    List<Object[]> countActiveByFaultType(@Param("inspectionIds") Collection<Long> inspectionIds);
+
+    /**
+     * Creation time of the oldest anomaly of an inspection, or null when it has none or any of them
+     * predates created_at being recorded. Every annotation action references one of these anomalies,
+     * so none is older; used to bound action lookups on the partition key.
+     */
+    @Query("SELECT CASE WHEN COUNT(a) = COUNT(a.createdAt) THEN MIN(a.createdAt) END " +
+           "FROM InspectionAnomaly a WHERE a.inspectionId = :inspectionId")
+    LocalDateTime findEarliestCreatedAt(@Param("inspectionId") Long inspectionId);
+
     // Return number of rows deleted so caller can log/verify effect
     @Modifying
     @Transactional
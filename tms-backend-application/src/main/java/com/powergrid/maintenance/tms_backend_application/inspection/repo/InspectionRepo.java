@@ -2,9 +2,11 @@ package com.powergrid.maintenance.tms_backend_application.inspection.repo;
 
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -25,6 +27,13 @@ public interface InspectionRepo extends JpaRepository<Inspection, Long> {
     @Query("SELECT i FROM Inspection i LEFT JOIN FETCH i.transformer WHERE i.transformer.transformerNo = :transformerNo")
     List<Inspection> findByTransformerNo(@Param("transformerNo") String transformerNo);
     
+    /**
+     * Inspection ids and timestamps of a transformer, oldest first (tracking timeline)
+     */
+    @Query("SELECT i.inspectionIdNumeric, i.inspectionTimestamp FROM Inspection i WHERE i.transformerNo = :transformerNo " +
+           "ORDER BY i.inspectionTimestamp, i.inspectionIdNumeric")
+    List<Object[]> findTimelineByTransformerNo(@Param("transformerNo") String transformerNo);
+
     /**
      * Find inspections by date range using timestamp
      */
@@ -92,4 +101,37 @@ public interface InspectionRepo extends JpaRepository<Inspection, Long> {
            "    WHERE i2.transformer.transformerNo = i.transformer.transformerNo" +
            ")")
     List<Inspection> findLatestInspectionPerTransformer();
-}
\ No newline at end of file
+
+    /**
+     * Transformer numbers with at least one inspection
+     */
+    @Query("SELECT DISTINCT i.transformerNo FROM Inspection i")
+    List<String> findInspectedTransformerNos();
+
+    /**
+     * {inspectionId, transformerNo, region, inspectionTimestamp, status} for the fleet analytics rollups
+     */
+    @Query("SELECT i.inspectionIdNumeric, i.transformerNo, t.region, i.inspectionTimestamp, i.status " +
+           "FROM Inspection i JOIN i.transformer t WHERE i.inspectionIdNumeric IN :ids")
+    List<Object[]> findAnalyticsRows(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Next chunk of inspection ids in id order, for jobs that walk every inspection
+     */
+    @Query("SELECT i.inspectionIdNumeric FROM Inspection i WHERE i.inspectionIdNumeric > :afterId ORDER BY i.inspectionIdNumeric")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable page);
+
+    /**
+     * Next chunk of ids of inspections the archive job may move out: in the given status, older than
+     * the cutoff and not the latest inspection of their transformer
+     */
+    @Query("SELECT i.inspectionIdNumeric FROM Inspection i " +
+           "WHERE i.status = :status AND i.inspectionTimestamp < :before AND i.inspectionIdNumeric > :afterId " +
+           "AND EXISTS (SELECT 1 FROM Inspection n WHERE n.transformerNo = i.transformerNo " +
+           "            AND n.inspectionTimestamp > i.inspectionTimestamp) " +
+           "ORDER BY i.inspectionIdNumeric")
+    List<Long> findArchivableIdsAfter(@Param("status") String status,
+                                      @Param("before") ZonedDateTime before,
+                                      @Param("afterId") Long afterId,
+                                      Pageable page);
+}
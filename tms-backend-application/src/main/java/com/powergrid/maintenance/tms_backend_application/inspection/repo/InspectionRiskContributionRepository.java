@@ -0,0 +1,37 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.repo;
+
+import com.powergrid.maintenance.tms_backend_application.inspection.domain.InspectionRiskContribution;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InspectionRiskContributionRepository extends JpaRepository<InspectionRiskContribution, Long> {
+
+    /**
+     * Locks the contribution so concurrent refreshes of one inspection apply their deltas in turn
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM InspectionRiskContribution c WHERE c.inspectionId = :inspectionId")
+    Optional<InspectionRiskContribution> findForUpdate(@Param("inspectionId") Long inspectionId);
+
+    /**
+     * Contributions of inspections that have aged out of the risk window, oldest first
+     */
+    @Query("SELECT c.inspectionId FROM InspectionRiskContribution c WHERE c.inspectionTimestamp < :cutoff " +
+           "ORDER BY c.inspectionTimestamp")
+    List<Long> findExpiredIds(@Param("cutoff") ZonedDateTime cutoff, Pageable page);
+
+    @Modifying
+    @Query("DELETE FROM InspectionRiskContribution c WHERE c.transformerNo = :transformerNo")
+    int deleteByTransformerNo(@Param("transformerNo") String transformerNo);
+}
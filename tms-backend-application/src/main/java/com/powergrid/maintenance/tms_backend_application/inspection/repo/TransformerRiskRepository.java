@@ -0,0 +1,52 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.repo;
+
+import com.powergrid.maintenance.tms_backend_application.inspection.domain.TransformerRisk;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TransformerRiskRepository extends JpaRepository<TransformerRisk, String> {
+
+    /**
+     * Add a delta to a transformer's risk row in place. Returns 0 when the row does not exist yet.
+     */
+    @Modifying
+    @Query("UPDATE TransformerRisk r SET r.score = r.score + :score, " +
+           "r.faultyAnomalies = r.faultyAnomalies + :faulty, r.potentialAnomalies = r.potentialAnomalies + :potential, " +
+           "r.confidenceSum = r.confidenceSum + :confidenceSum, " +
+           "r.contributingInspections = r.contributingInspections + :inspections, r.updatedAt = :now " +
+           "WHERE r.transformerNo = :transformerNo")
+    int applyDelta(@Param("transformerNo") String transformerNo,
+                   @Param("score") long score,
+                   @Param("faulty") int faulty,
+                   @Param("potential") int potential,
+                   @Param("confidenceSum") long confidenceSum,
+                   @Param("inspections") int inspections,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * First page of the ranking: {TransformerRisk, region, poleNo, type}, riskiest first
+     */
+    @Query("SELECT r, t.region, t.poleNo, t.type FROM TransformerRisk r JOIN Transformer t ON t.transformerNo = r.transformerNo " +
+           "WHERE r.score > 0 ORDER BY r.score DESC, r.transformerNo")
+    List<Object[]> findTop(Pageable page);
+
+    /**
+     * Next page of the ranking after the (score, transformerNo) of the last row returned
+     */
+    @Query("SELECT r, t.region, t.poleNo, t.type FROM TransformerRisk r JOIN Transformer t ON t.transformerNo = r.transformerNo " +
+           "WHERE r.score > 0 AND (r.score < :score OR (r.score = :score AND r.transformerNo > :transformerNo)) " +
+           "ORDER BY r.score DESC, r.transformerNo")
+    List<Object[]> findTopAfter(@Param("score") long score, @Param("transformerNo") String transformerNo, Pageable page);
+
+    @Modifying
+    @Query("DELETE FROM TransformerRisk r WHERE r.transformerNo = :transformerNo")
+    int deleteByTransformerNo(@Param("transformerNo") String transformerNo);
+}
@@ -0,0 +1,87 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.powergrid.maintenance.tms_backend_application.inspection.domain.AnnotationAction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Inserts annotation audit rows with JDBC batching.
+ *
+ * AnnotationAction uses IDENTITY ids, which makes Hibernate insert one row per statement;
+ * the audit trail never needs the generated ids back, so it is written here in batches instead.
+ * Must run inside the caller's transaction (JdbcTemplate joins the JPA connection).
+ */
+@Slf4j
+@Repository
+public class AnnotationActionBatchWriter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO annotation_actions (
+                anomaly_id, inspection_id, user_id, username, action_type,
+                previous_bbox, new_bbox, previous_classification, new_classification,
+                comment, action_timestamp, client_metadata
+            ) VALUES (?, ?, ?, ?, ?, ?::jsonb, ?::jsonb, ?::jsonb, ?::jsonb, ?, ?, ?::jsonb)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final TimeZone jdbcTimeZone;
+
+    public AnnotationActionBatchWriter(JdbcTemplate jdbcTemplate,
+                                       ObjectMapper objectMapper,
+                                       @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                                       @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:UTC}") String jdbcTimeZone) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.jdbcTimeZone = TimeZone.getTimeZone(jdbcTimeZone);
+    }
+
+    public void insertAll(List<AnnotationAction> actions) {
+        if (actions.isEmpty()) {
+            return;
+        }
+        // Same time zone Hibernate binds timestamps with, so rows match the ones written through JPA
+        Calendar calendar = Calendar.getInstance(jdbcTimeZone);
+        jdbcTemplate.batchUpdate(INSERT_SQL, actions, batchSize, (ps, action) -> {
+            LocalDateTime timestamp = action.getActionTimestamp() != null
+                    ? action.getActionTimestamp() : LocalDateTime.now();
+            ps.setLong(1, action.getAnomalyId());
+            ps.setLong(2, action.getInspectionId());
+            ps.setObject(3, action.getUserId(), Types.INTEGER);
+            ps.setString(4, action.getUsername());
+            ps.setString(5, action.getActionType().name());
+            ps.setString(6, toJson(action.getPreviousBbox()));
+            ps.setString(7, toJson(action.getNewBbox()));
+            ps.setString(8, toJson(action.getPreviousClassification()));
+            ps.setString(9, toJson(action.getNewClassification()));
+            ps.setString(10, action.getComment());
+            ps.setTimestamp(11, Timestamp.valueOf(timestamp), calendar);
+            ps.setString(12, toJson(action.getClientMetadata()));
+        });
+        log.debug("Batch inserted {} annotation action(s)", actions.size());
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize annotation action payload", e);
+        }
+    }
+}
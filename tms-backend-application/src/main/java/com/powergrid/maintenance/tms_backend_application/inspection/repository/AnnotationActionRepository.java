@@ -2,16 +2,21 @@ package com.powergrid.maintenance.tms_backend_application.inspection.repository;
 
 import com.powergrid.maintenance.tms_backend_application.inspection.domain.AnnotationAction;
 import com.powergrid.maintenance.tms_backend_application.inspection.model.ActionType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repository for AnnotationAction entity
  */
 @Repository
-public interface AnnotationActionRepository extends JpaRepository<AnnotationAction, Long> {
+public interface AnnotationActionRepository extends JpaRepository<AnnotationAction, Long>, AnnotationActionRepositoryCustom {
 
     /**
      * Find all actions for a specific anomaly
@@ -23,6 +28,23 @@ public interface AnnotationActionRepository extends JpaRepository<AnnotationActi
      */
     List<AnnotationAction> findByInspectionIdOrderByActionTimestampDesc(Long inspectionId);
 
+    /**
+     * Actions for an anomaly at or after a timestamp; the bound lets PostgreSQL skip older
+     * annotation_actions partitions
+     */
+    @Query("SELECT a FROM AnnotationAction a WHERE a.anomalyId = :anomalyId AND a.actionTimestamp >= :since " +
+           "ORDER BY a.actionTimestamp DESC")
+    List<AnnotationAction> findByAnomalyIdSince(@Param("anomalyId") Long anomalyId,
+                                                @Param("since") LocalDateTime since);
+
+    /**
+     * Actions for an inspection at or after a timestamp, pruned like {@link #findByAnomalyIdSince}
+     */
+    @Query("SELECT a FROM AnnotationAction a WHERE a.inspectionId = :inspectionId AND a.actionTimestamp >= :since " +
+           "ORDER BY a.actionTimestamp DESC")
+    List<AnnotationAction> findByInspectionIdSince(@Param("inspectionId") Long inspectionId,
+                                                   @Param("since") LocalDateTime since);
+
     /**
      * Find all actions by a specific user
      */
@@ -39,6 +61,54 @@ public interface AnnotationActionRepository extends JpaRepository<AnnotationActi
      */
     long countByInspectionId(Long inspectionId);
 
+    /**
+     * Count actions after a timestamp (range scan on idx_annotation_actions_ts_id, partitions before it pruned)
+     */
+    long countByActionTimestampAfter(LocalDateTime since);
+
+    /**
+     * Inspections with at least one action of the given types after a timestamp.
+     * Equivalent to GROUP BY inspection_id HAVING bool_or(action_type IN :types), filtered before grouping.
+     */
+    @Query("SELECT DISTINCT a.inspectionId FROM AnnotationAction a " +
+           "WHERE a.actionTimestamp > :since AND a.actionType IN :types")
+    List<Long> findInspectionIdsWithActionsSince(@Param("since") LocalDateTime since,
+                                                 @Param("types") Collection<ActionType> types);
+
+    /**
+     * Number of inspections {@link #findInspectionIdsWithActionsSince} would return, without materializing them.
+     */
+    @Query("SELECT COUNT(DISTINCT a.inspectionId) FROM AnnotationAction a " +
+           "WHERE a.actionTimestamp > :since AND a.actionType IN :types")
+    long countInspectionsWithActionsSince(@Param("since") LocalDateTime since,
+                                          @Param("types") Collection<ActionType> types);
+
+    /**
+     * Next chunk, in id order, of inspections outside the evaluation hold-out with an action of one
+     * of the types since a timestamp (keyset paging over the fine-tuning data)
+     */
+    @Query("SELECT DISTINCT a.inspectionId FROM AnnotationAction a " +
+           "WHERE a.actionTimestamp > :since AND a.actionType IN :types AND a.inspectionId > :afterId " +
+           "AND MOD(a.inspectionId, :modulus) <> :heldOut ORDER BY a.inspectionId")
+    List<Long> findCorrectedInspectionIdsAfter(@Param("since") LocalDateTime since,
+                                               @Param("types") Collection<ActionType> types,
+                                               @Param("modulus") int modulus,
+                                               @Param("heldOut") int heldOut,
+                                               @Param("afterId") long afterId,
+                                               Pageable page);
+
+    /**
+     * Inspections of the evaluation hold-out ({@code MOD(inspectionId, modulus) = heldOut}) with an
+     * action of one of the types, most recently reviewed first.
+     */
+    @Query("SELECT a.inspectionId FROM AnnotationAction a " +
+           "WHERE MOD(a.inspectionId, :modulus) = :heldOut AND a.actionType IN :types " +
+           "GROUP BY a.inspectionId ORDER BY MAX(a.actionTimestamp) DESC")
+    List<Long> findReviewedHoldoutInspectionIds(@Param("modulus") int modulus,
+                                                @Param("heldOut") int heldOut,
+                                                @Param("types") Collection<ActionType> types,
+                                                Pageable pageable);
+
     /**
      * Delete all actions for an inspection
      */
@@ -0,0 +1,18 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.repository;
+
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationFeedFilter;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationFeedItemDTO;
+
+import java.util.List;
+
+/**
+ * Custom queries for AnnotationActionRepository
+ */
+public interface AnnotationActionRepositoryCustom {
+
+    /**
+     * Feed rows after the filter's cursor, newest first, joined with inspection and transformer
+     * metadata in a single query. Returns at most maxRows rows.
+     */
+    List<AnnotationFeedItemDTO> findFeed(AnnotationFeedFilter filter, int maxRows);
+}
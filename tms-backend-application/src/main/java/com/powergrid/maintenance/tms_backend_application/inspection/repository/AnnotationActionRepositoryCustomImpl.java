@@ -0,0 +1,65 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.repository;
+
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationFeedCursor;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationFeedFilter;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationFeedItemDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the feed query with only the predicates actually requested, so each filter combination
+ * gets its own plan on the (action_timestamp, id) / (username, action_timestamp) indexes.
+ */
+class AnnotationActionRepositoryCustomImpl implements AnnotationActionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AnnotationFeedItemDTO> findFeed(AnnotationFeedFilter filter, int maxRows) {
+        StringBuilder jpql = new StringBuilder("""
+                select new com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationFeedItemDTO(
+                    a.id, a.anomalyId, a.inspectionId, a.actionType, a.username, a.actionTimestamp, a.comment,
+                    a.previousBbox, a.newBbox, a.previousClassification, a.newClassification,
+                    coalesce(i.transformerNo, 'N/A'), coalesce(t.locationDetails, 'Unknown'))
+                from AnnotationAction a
+                left join Inspection i on i.inspectionIdNumeric = a.inspectionId
+                left join i.transformer t
+                where 1 = 1
+                """);
+        Map<String, Object> params = new HashMap<>();
+
+        if (filter.getFrom() != null) {
+            jpql.append(" and a.actionTimestamp > :from");
+            params.put("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            jpql.append(" and a.actionTimestamp <= :to");
+            params.put("to", filter.getTo());
+        }
+        if (filter.getUsername() != null && !filter.getUsername().isBlank()) {
+            jpql.append(" and a.username = :username");
+            params.put("username", filter.getUsername());
+        }
+        if (filter.getActionTypes() != null && !filter.getActionTypes().isEmpty()) {
+            jpql.append(" and a.actionType in :actionTypes");
+            params.put("actionTypes", filter.getActionTypes());
+        }
+        AnnotationFeedCursor cursor = filter.getCursor();
+        if (cursor != null) {
+            jpql.append(" and (a.actionTimestamp < :cursorTs or (a.actionTimestamp = :cursorTs and a.id < :cursorId))");
+            params.put("cursorTs", cursor.actionTimestamp());
+            params.put("cursorId", cursor.id());
+        }
+        jpql.append(" order by a.actionTimestamp desc, a.id desc");
+
+        TypedQuery<AnnotationFeedItemDTO> query = entityManager.createQuery(jpql.toString(), AnnotationFeedItemDTO.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(maxRows).getResultList();
+    }
+}
@@ -0,0 +1,353 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.powergrid.maintenance.tms_backend_application.inspection.domain.AnnotationAction;
+import com.powergrid.maintenance.tms_backend_application.inspection.repository.AnnotationActionBatchWriter;
+import com.powergrid.maintenance.tms_backend_application.inspection.repository.AnnotationActionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists annotation audit actions, either synchronously in the caller's transaction (default)
+ * or, with app.annotations.write-behind.enabled=true, through a bounded in-memory queue that is
+ * flushed in JDBC batches every flush-interval-ms or as soon as batch-size rows are waiting.
+ *
+ * Write-behind guarantees:
+ * - actions are only queued after the caller's transaction commits (no audit rows for rolled-back work);
+ * - when the queue is full the action is written synchronously instead (backpressure, nothing dropped);
+ * - actions are timestamped when recorded, not when flushed;
+ * - a flush that fails for a transient reason (database unavailable) is appended to a local
+ *   JSON-lines spool file and replayed on the next cycle; rows rejected by the database or that
+ *   cannot be bound (e.g. a constraint violation) are retried one by one and the bad ones moved to
+ *   a dead-letter file next to the spool, so they never block the rows behind them;
+ * - the queue is fully drained on shutdown, before the DataSource is closed; transactions that
+ *   commit after that write their actions synchronously.
+ * Actions still queued when the JVM is killed hard are lost; keep the feature off if that matters.
+ */
+@Slf4j
+@Component
+public class AnnotationActionRecorder implements SmartLifecycle {
+
+    private final AnnotationActionRepository actionRepository;
+    private final AnnotationActionBatchWriter batchWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean writeBehind;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final Path spoolFile;
+    private final Path deadLetterFile;
+    private final BlockingQueue<AnnotationAction> queue;
+    private final Timer flushTimer;
+    private final Counter flushedCounter;
+    private final Counter spooledCounter;
+    private final Counter fallbackCounter;
+    private final Counter deadLetteredCounter;
+
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    public AnnotationActionRecorder(AnnotationActionRepository actionRepository,
+                                    AnnotationActionBatchWriter batchWriter,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    ObjectProvider<MeterRegistry> meterRegistry,
+                                    @Value("${app.annotations.write-behind.enabled:false}") boolean writeBehind,
+                                    @Value("${app.annotations.write-behind.capacity:10000}") int capacity,
+                                    @Value("${app.annotations.write-behind.batch-size:200}") int batchSize,
+                                    @Value("${app.annotations.write-behind.flush-interval-ms:500}") long flushIntervalMs,
+                                    @Value("${app.annotations.write-behind.spool-dir:${java.io.tmpdir}/tms-annotation-spool}") String spoolDir) {
+        this.actionRepository = actionRepository;
+        this.batchWriter = batchWriter;
+        // Overflow writes run in afterCommit, where the caller's transaction is still bound but already committed
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.writeBehind = writeBehind;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.spoolFile = Path.of(spoolDir, "annotation-actions.jsonl");
+        this.deadLetterFile = Path.of(spoolDir, "annotation-actions.dead.jsonl");
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("tms.annotation.actions.queue.depth", queue, BlockingQueue::size)
+                .description("Annotation actions waiting to be written")
+                .register(registry);
+        this.flushTimer = Timer.builder("tms.annotation.actions.flush")
+                .description("Write-behind batch flush latency")
+                .register(registry);
+        this.flushedCounter = Counter.builder("tms.annotation.actions.flushed").register(registry);
+        this.spooledCounter = Counter.builder("tms.annotation.actions.spooled").register(registry);
+        this.fallbackCounter = Counter.builder("tms.annotation.actions.sync.fallback").register(registry);
+        this.deadLetteredCounter = Counter.builder("tms.annotation.actions.dead.lettered").register(registry);
+    }
+
+    /**
+     * Persist one audit action. Must be called inside the transaction that made the audited change.
+     */
+    public void record(AnnotationAction action) {
+        stamp(action);
+        if (!isBuffering()) {
+            actionRepository.save(action);
+            return;
+        }
+        enqueueAfterCommit(List.of(action));
+    }
+
+    /**
+     * Persist audit actions in bulk. Pending entity changes must already be flushed, since the
+     * synchronous path writes through plain JDBC.
+     */
+    public void recordAll(List<AnnotationAction> actions) {
+        if (actions.isEmpty()) {
+            return;
+        }
+        actions.forEach(AnnotationActionRecorder::stamp);
+        if (!isBuffering()) {
+            batchWriter.insertAll(actions);
+            return;
+        }
+        enqueueAfterCommit(List.copyOf(actions));
+    }
+
+    // The audit time is when the change happened; a buffered row may be written much later
+    private static void stamp(AnnotationAction action) {
+        if (action.getActionTimestamp() == null) {
+            action.setActionTimestamp(LocalDateTime.now());
+        }
+    }
+
+    private boolean isBuffering() {
+        return writeBehind && running && TransactionSynchronizationManager.isSynchronizationActive();
+    }
+
+    private void enqueueAfterCommit(List<AnnotationAction> snapshot) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(snapshot);
+            }
+        });
+    }
+
+    private void enqueue(List<AnnotationAction> actions) {
+        if (!running) {
+            // Committed after stop() drained the queue; nothing would flush it any more
+            writeOrSpool(actions);
+            return;
+        }
+        List<AnnotationAction> overflow = null;
+        for (AnnotationAction action : actions) {
+            if (!queue.offer(action)) {
+                if (overflow == null) {
+                    overflow = new ArrayList<>();
+                }
+                overflow.add(action);
+            }
+        }
+        if (overflow != null) {
+            // Queue full: write on the caller's thread rather than drop the audit trail
+            fallbackCounter.increment(overflow.size());
+            writeOrSpool(overflow);
+        }
+        if (!running) {
+            // stop() ran while these were offered and may have drained the queue before them
+            flush();
+        } else if (queue.size() >= batchSize && flusher != null) {
+            try {
+                flusher.execute(this::flushSafely);
+            } catch (RejectedExecutionException e) {
+                flush();
+            }
+        }
+    }
+
+    // ---- flushing ----
+
+    private synchronized void flush() {
+        replaySpool();
+        List<AnnotationAction> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeOrSpool(batch);
+            batch.clear();
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Annotation action flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void writeOrSpool(List<AnnotationAction> batch) {
+        Timer.Sample sample = Timer.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> batchWriter.insertAll(batch));
+            flushedCounter.increment(batch.size());
+        } catch (Exception e) {
+            if (!isBadData(e)) {
+                log.warn("Writing {} annotation actions failed, spooling to {}: {}", batch.size(), spoolFile, e.getMessage());
+                spool(batch);
+            } else if (batch.size() == 1) {
+                log.error("Annotation action rejected, moving it to {}: {}", deadLetterFile, e.getMessage());
+                append(deadLetterFile, batch);
+                deadLetteredCounter.increment();
+            } else {
+                // Isolate the offending rows so the rest of the batch is written
+                log.warn("Writing {} annotation actions failed, retrying them one by one: {}", batch.size(), e.getMessage());
+                for (AnnotationAction action : batch) {
+                    writeOrSpool(List.of(action));
+                }
+            }
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    /**
+     * Whether a write failed because of the rows themselves (retrying cannot help), as opposed to
+     * the database or the connection being unavailable.
+     */
+    private static boolean isBadData(Exception e) {
+        return e instanceof DataIntegrityViolationException
+                || !(e instanceof DataAccessException || e instanceof TransactionException);
+    }
+
+    // ---- durable spool ----
+
+    private void spool(List<AnnotationAction> batch) {
+        if (append(spoolFile, batch)) {
+            spooledCounter.increment(batch.size());
+        }
+    }
+
+    private synchronized boolean append(Path file, List<AnnotationAction> batch) {
+        try {
+            Files.createDirectories(file.getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (AnnotationAction action : batch) {
+                    writer.write(objectMapper.writeValueAsString(action));
+                    writer.newLine();
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            log.error("Could not write {} annotation actions to {}; they are lost", batch.size(), file, e);
+            return false;
+        }
+    }
+
+    private synchronized void replaySpool() {
+        if (!Files.exists(spoolFile)) {
+            return;
+        }
+        Path replaying = spoolFile.resolveSibling(spoolFile.getFileName() + ".replaying");
+        List<AnnotationAction> actions = new ArrayList<>();
+        try {
+            Files.move(spoolFile, replaying, StandardCopyOption.REPLACE_EXISTING);
+            for (String line : Files.readAllLines(replaying, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    actions.add(objectMapper.readValue(line, AnnotationAction.class));
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not read annotation action spool {}", replaying, e);
+            return;
+        }
+        for (int from = 0; from < actions.size(); from += batchSize) {
+            // Transient failures go back into the spool file, bad rows to the dead-letter file
+            writeOrSpool(actions.subList(from, Math.min(actions.size(), from + batchSize)));
+        }
+        try {
+            Files.deleteIfExists(replaying);
+        } catch (IOException e) {
+            log.warn("Could not delete replayed spool {}", replaying, e);
+        }
+        log.info("Replayed {} spooled annotation actions", actions.size());
+    }
+
+    // ---- lifecycle ----
+
+    @Override
+    public void start() {
+        running = true;
+        if (!writeBehind) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "annotation-action-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Annotation action write-behind enabled (capacity {}, batch {}, every {} ms)",
+                queue.remainingCapacity(), batchSize, flushIntervalMs);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Drain whatever is left on the stopping thread
+        flush();
+        log.info("Annotation action write-behind drained");
+    }
+
+    /**
+     * Stop after the web server (so no new actions arrive) but before context close destroys the DataSource.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
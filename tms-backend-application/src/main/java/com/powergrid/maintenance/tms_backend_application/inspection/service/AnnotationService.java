@@ -1,21 +1,24 @@
 package com.powergrid.maintenance.tms_backend_application.inspection.service;
 
+import com.powergrid.maintenance.tms_backend_application.common.geometry.BoxGeometry;
 import com.powergrid.maintenance.tms_backend_application.inspection.domain.AnnotationAction;
 import com.powergrid.maintenance.tms_backend_application.inspection.domain.AnomalyNote;
-import com.powergrid.maintenance.tms_backend_application.inspection.domain.Inspection;
 import com.powergrid.maintenance.tms_backend_application.inspection.domain.InspectionAnomaly;
 import com.powergrid.maintenance.tms_backend_application.inspection.dto.*;
+import com.powergrid.maintenance.tms_backend_application.inspection.event.InspectionChangedEvent;
 import com.powergrid.maintenance.tms_backend_application.inspection.model.ActionType;
 import com.powergrid.maintenance.tms_backend_application.inspection.model.AnomalySource;
 import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionAnomalyRepository;
 import com.powergrid.maintenance.tms_backend_application.inspection.repository.AnnotationActionRepository;
 import com.powergrid.maintenance.tms_backend_application.inspection.repo.AnomalyNoteRepository;
-import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionRepo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -28,32 +31,53 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AnnotationService {
 
+    // Margin below an anomaly's created_at when bounding its actions, for rows written with a skewed clock
+    private static final Duration ACTION_CLOCK_SLACK = Duration.ofDays(1);
+
     private final InspectionAnomalyRepository anomalyRepository;
     private final AnnotationActionRepository actionRepository;
     private final AnomalyNoteRepository noteRepository;
-    private final InspectionRepo inspectionRepo;
+    private final AnnotationActionRecorder actionRecorder;
+    private final AnnotationViewCache viewCache;
+    private final AnomalyTrackingService trackingService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.annotations.batch.max-operations:500}")
+    private int maxBatchOperations;
+
+    @Value("${app.annotations.feed.default-limit:200}")
+    private int defaultFeedLimit;
+
+    @Value("${app.annotations.feed.max-limit:1000}")
+    private int maxFeedLimit;
 
     /**
      * Get all annotations for an inspection (AI + User, active + inactive)
+     * Served from the annotation view cache; writes below evict it.
      */
     public AnnotationViewDTO getAnnotationsForInspection(Long inspectionId) {
+        return viewCache.get(inspectionId, this::loadAnnotationView);
+    }
+
+    private AnnotationViewDTO loadAnnotationView(Long inspectionId) {
         log.debug("Fetching all annotations for inspection: {}", inspectionId);
 
         List<InspectionAnomaly> allAnomalies = anomalyRepository
                 .findByInspectionIdOrderByCreatedAtDesc(inspectionId);
 
-        // Separate into categories
-        List<InspectionAnomaly> aiDetections = allAnomalies.stream()
-                .filter(a -> a.getSource() == AnomalySource.AI_GENERATED && Boolean.TRUE.equals(a.getIsActive()))
-                .collect(Collectors.toList());
-
-        List<InspectionAnomaly> userAnnotations = allAnomalies.stream()
-                .filter(a -> a.getSource() == AnomalySource.USER_ADDED && Boolean.TRUE.equals(a.getIsActive()))
-                .collect(Collectors.toList());
-
-        List<InspectionAnomaly> inactiveDetections = allAnomalies.stream()
-                .filter(a -> !Boolean.TRUE.equals(a.getIsActive()))
-                .collect(Collectors.toList());
+        // Separate into categories in a single pass
+        List<InspectionAnomaly> aiDetections = new ArrayList<>();
+        List<InspectionAnomaly> userAnnotations = new ArrayList<>();
+        List<InspectionAnomaly> inactiveDetections = new ArrayList<>();
+        for (InspectionAnomaly a : allAnomalies) {
+            if (!Boolean.TRUE.equals(a.getIsActive())) {
+                inactiveDetections.add(a);
+            } else if (a.getSource() == AnomalySource.AI_GENERATED) {
+                aiDetections.add(a);
+            } else if (a.getSource() == AnomalySource.USER_ADDED) {
+                userAnnotations.add(a);
+            }
+        }
 
         AnnotationViewDTO result = new AnnotationViewDTO();
         result.setInspectionId(inspectionId);
@@ -77,38 +101,7 @@ public class AnnotationService {
         log.info("Creating new user annotation for inspection: {} by user: {}", 
                 request.getInspectionId(), username);
 
-        // Create new anomaly
-        InspectionAnomaly anomaly = new InspectionAnomaly();
-        anomaly.setInspectionId(request.getInspectionId());
-        anomaly.setSource(AnomalySource.USER_ADDED);
-        anomaly.setIsActive(true);
-        anomaly.setCreatedBy(username);
-
-        // Set geometry
-        if (request.getGeometry() != null) {
-            Integer bboxX = request.getGeometry().getX();
-            Integer bboxY = request.getGeometry().getY();
-            Integer bboxWidth = request.getGeometry().getWidth();
-            Integer bboxHeight = request.getGeometry().getHeight();
-            
-            anomaly.setBboxX(bboxX);
-            anomaly.setBboxY(bboxY);
-            anomaly.setBboxWidth(bboxWidth);
-            anomaly.setBboxHeight(bboxHeight);
-            
-            // Calculate centroid and area
-            anomaly.setCentroidX(bboxX + bboxWidth / 2.0);
-            anomaly.setCentroidY(bboxY + bboxHeight / 2.0);
-            anomaly.setAreaPx(bboxWidth * bboxHeight);
-        }
-
-        // Set classification
-        if (request.getClassification() != null) {
-            anomaly.setFaultType(request.getClassification().getFaultType());
-            anomaly.setFaultConfidence(request.getClassification().getConfidence());
-            anomaly.setClassId(request.getClassification().getClassId());
-        }
-
+        InspectionAnomaly anomaly = buildUserAnnotation(request.getInspectionId(), request, username);
         anomaly = anomalyRepository.save(anomaly);
 
         // Log the action
@@ -124,7 +117,10 @@ public class AnnotationService {
                 toClassificationData(anomaly),
                 request.getComment()
         );
-        actionRepository.save(action);
+        actionRecorder.record(action);
+        viewCache.evict(anomaly.getInspectionId());
+        trackingService.assignTracksAfterCommit(anomaly.getInspectionId());
+        eventPublisher.publishEvent(new InspectionChangedEvent(anomaly.getInspectionId()));
 
         log.info("Created user annotation with ID: {}", anomaly.getId());
         return anomaly;
@@ -145,55 +141,7 @@ public class AnnotationService {
         BBoxData originalBbox = toBBoxData(original);
         ClassificationData originalClassification = toClassificationData(original);
 
-        // Create new anomaly with edited data
-        InspectionAnomaly newAnomaly = new InspectionAnomaly();
-        newAnomaly.setInspectionId(original.getInspectionId());
-        newAnomaly.setSource(AnomalySource.USER_ADDED); // Edited annotations are user-added
-        newAnomaly.setIsActive(true);
-        newAnomaly.setCreatedBy(username);
-
-        // Set new geometry
-        Integer bboxX, bboxY, bboxWidth, bboxHeight;
-        if (request.getGeometry() != null) {
-            bboxX = request.getGeometry().getX();
-            bboxY = request.getGeometry().getY();
-            bboxWidth = request.getGeometry().getWidth();
-            bboxHeight = request.getGeometry().getHeight();
-            
-            newAnomaly.setBboxX(bboxX);
-            newAnomaly.setBboxY(bboxY);
-            newAnomaly.setBboxWidth(bboxWidth);
-            newAnomaly.setBboxHeight(bboxHeight);
-        } else {
-            // Keep original geometry if not provided
-            bboxX = original.getBboxX();
-            bboxY = original.getBboxY();
-            bboxWidth = original.getBboxWidth();
-            bboxHeight = original.getBboxHeight();
-            
-            newAnomaly.setBboxX(bboxX);
-            newAnomaly.setBboxY(bboxY);
-            newAnomaly.setBboxWidth(bboxWidth);
-            newAnomaly.setBboxHeight(bboxHeight);
-        }
-        
-        // Calculate centroid and area
-        newAnomaly.setCentroidX(bboxX + bboxWidth / 2.0);
-        newAnomaly.setCentroidY(bboxY + bboxHeight / 2.0);
-        newAnomaly.setAreaPx(bboxWidth * bboxHeight);
-
-        // Set new classification
-        if (request.getClassification() != null) {
-            newAnomaly.setFaultType(request.getClassification().getFaultType());
-            newAnomaly.setFaultConfidence(request.getClassification().getConfidence());
-            newAnomaly.setClassId(request.getClassification().getClassId());
-        } else {
-            // Keep original classification if not provided
-            newAnomaly.setFaultType(original.getFaultType());
-            newAnomaly.setFaultConfidence(original.getFaultConfidence());
-            newAnomaly.setClassId(original.getClassId());
-        }
-
+        InspectionAnomaly newAnomaly = buildEditedAnnotation(original, request, username);
         newAnomaly = anomalyRepository.save(newAnomaly);
 
         // Mark original as superseded
@@ -215,7 +163,9 @@ public class AnnotationService {
                 toClassificationData(newAnomaly),
                 request.getComment()
         );
-        actionRepository.save(action);
+        actionRecorder.record(action);
+        viewCache.evict(original.getInspectionId());
+        eventPublisher.publishEvent(new InspectionChangedEvent(original.getInspectionId()));
 
         log.info("Edited annotation: old={}, new={}", anomalyId, newAnomaly.getId());
         return newAnomaly;
@@ -248,7 +198,9 @@ public class AnnotationService {
                 null,
                 comment
         );
-        actionRepository.save(action);
+        actionRecorder.record(action);
+        viewCache.evict(anomaly.getInspectionId());
+        eventPublisher.publishEvent(new InspectionChangedEvent(anomaly.getInspectionId()));
 
         log.info("Deleted annotation: {}", anomalyId);
     }
@@ -283,7 +235,8 @@ public class AnnotationService {
                 null,
                 comment
         );
-        actionRepository.save(action);
+        actionRecorder.record(action);
+        viewCache.evict(anomaly.getInspectionId());
 
         log.info("Added comment to annotation: {}", anomalyId);
     }
@@ -315,7 +268,8 @@ public class AnnotationService {
                 null,
                 "AI detection accepted"
         );
-        actionRepository.save(action);
+        actionRecorder.record(action);
+        viewCache.evict(anomaly.getInspectionId());
 
         log.info("Accepted AI detection: {}", anomalyId);
     }
@@ -351,100 +305,267 @@ public class AnnotationService {
                 null,
                 reason != null ? reason : "AI detection rejected"
         );
-        actionRepository.save(action);
+        actionRecorder.record(action);
+        viewCache.evict(anomaly.getInspectionId());
+        eventPublisher.publishEvent(new InspectionChangedEvent(anomaly.getInspectionId()));
 
         log.info("Rejected AI detection: {}", anomalyId);
     }
 
+    /**
+     * Apply an ordered list of annotation operations in a single transaction.
+     * Touched anomalies are loaded with one query; updates and audit rows are written in JDBC batches.
+     * Any failing operation rolls back the whole batch.
+     */
+    @Transactional
+    public List<AnnotationResponseDTO> applyBatch(AnnotationBatchRequestDTO batch, String username) {
+        List<AnnotationRequestDTO> operations = batch.getOperations();
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("operations must not be empty");
+        }
+        if (operations.size() > maxBatchOperations) {
+            throw new IllegalArgumentException("Too many operations in one batch (max " + maxBatchOperations + ")");
+        }
+        log.info("Applying {} annotation operations for inspection: {} by user: {}",
+                operations.size(), batch.getInspectionId(), username);
+
+        // Validate up front and load every referenced anomaly in one query
+        Set<Long> anomalyIds = new HashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            AnnotationRequestDTO op = operations.get(i);
+            if (op.getAction() == null) {
+                throw new IllegalArgumentException("Operation " + i + ": action is required");
+            }
+            if (op.getUserId() == null && batch.getUserId() == null) {
+                throw new IllegalArgumentException("Operation " + i + ": userId is required");
+            }
+            if (op.getAction() == ActionType.CREATED) {
+                if (op.getInspectionId() == null && batch.getInspectionId() == null) {
+                    throw new IllegalArgumentException("Operation " + i + ": inspectionId is required for CREATE action");
+                }
+                if (op.getInspectionId() != null && batch.getInspectionId() != null
+                        && !op.getInspectionId().equals(batch.getInspectionId())) {
+                    throw new IllegalArgumentException("Operation " + i + ": inspection " + op.getInspectionId()
+                            + " does not match batch inspection " + batch.getInspectionId());
+                }
+            } else if (op.getAnomalyId() == null) {
+                throw new IllegalArgumentException("Operation " + i + ": anomalyId is required for " + op.getAction() + " action");
+            } else {
+                anomalyIds.add(op.getAnomalyId());
+            }
+        }
+        Map<Long, InspectionAnomaly> anomalies = anomalyRepository.findAllById(anomalyIds).stream()
+                .collect(Collectors.toMap(InspectionAnomaly::getId, a -> a));
+        for (Long id : anomalyIds) {
+            InspectionAnomaly anomaly = anomalies.get(id);
+            if (anomaly == null) {
+                throw new RuntimeException("Anomaly not found: " + id);
+            }
+            if (batch.getInspectionId() != null && !batch.getInspectionId().equals(anomaly.getInspectionId())) {
+                throw new IllegalArgumentException("Anomaly " + id + " does not belong to inspection " + batch.getInspectionId());
+            }
+        }
+
+        List<AnnotationResponseDTO> results = new ArrayList<>(operations.size());
+        List<AnnotationAction> actions = new ArrayList<>(operations.size());
+        List<AnomalyNote> notes = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (AnnotationRequestDTO op : operations) {
+            Integer userId = op.getUserId() != null ? op.getUserId() : batch.getUserId();
+            InspectionAnomaly anomaly = op.getAnomalyId() != null ? anomalies.get(op.getAnomalyId()) : null;
+            AnnotationAction action;
+
+            switch (op.getAction()) {
+                case CREATED -> {
+                    Long inspectionId = op.getInspectionId() != null ? op.getInspectionId() : batch.getInspectionId();
+                    InspectionAnomaly created = anomalyRepository.save(buildUserAnnotation(inspectionId, op, username));
+                    action = createAction(created.getId(), inspectionId, userId, username, ActionType.CREATED,
+                            null, toBBoxData(created), null, toClassificationData(created), op.getComment());
+                    results.add(AnnotationResponseDTO.success(created.getId(), null, "Annotation created successfully"));
+                }
+                case EDITED -> {
+                    BBoxData originalBbox = toBBoxData(anomaly);
+                    ClassificationData originalClassification = toClassificationData(anomaly);
+                    InspectionAnomaly edited = anomalyRepository.save(buildEditedAnnotation(anomaly, op, username));
+                    anomaly.setIsActive(false);
+                    anomaly.setSupersededBy(edited.getId());
+                    anomaly.setSupersededAt(now);
+                    action = createAction(edited.getId(), anomaly.getInspectionId(), userId, username, ActionType.EDITED,
+                            originalBbox, toBBoxData(edited), originalClassification, toClassificationData(edited),
+                            op.getComment());
+                    results.add(AnnotationResponseDTO.successWithSuperseded(
+                            edited.getId(), null, anomaly.getId(), "Annotation edited successfully"));
+                }
+                case DELETED -> {
+                    anomaly.setIsActive(false);
+                    action = createAction(anomaly.getId(), anomaly.getInspectionId(), userId, username, ActionType.DELETED,
+                            toBBoxData(anomaly), null, toClassificationData(anomaly), null, op.getComment());
+                    results.add(AnnotationResponseDTO.success(anomaly.getId(), null, "Annotation deleted successfully"));
+                }
+                case COMMENTED -> {
+                    AnomalyNote note = new AnomalyNote();
+                    note.setAnomalyId(anomaly.getId());
+                    note.setNote(op.getComment());
+                    note.setCreatedBy(username);
+                    notes.add(note);
+                    action = createAction(anomaly.getId(), anomaly.getInspectionId(), userId, username, ActionType.COMMENTED,
+                            null, null, null, null, op.getComment());
+                    results.add(AnnotationResponseDTO.success(anomaly.getId(), null, "Comment added successfully"));
+                }
+                case APPROVED -> {
+                    if (anomaly.getSource() != AnomalySource.AI_GENERATED) {
+                        throw new RuntimeException("Can only accept AI-generated detections");
+                    }
+                    action = createAction(anomaly.getId(), anomaly.getInspectionId(), userId, username, ActionType.APPROVED,
+                            null, null, null, null, "AI detection accepted");
+                    results.add(AnnotationResponseDTO.success(anomaly.getId(), null, "AI detection accepted"));
+                }
+                case REJECTED -> {
+                    if (anomaly.getSource() != AnomalySource.AI_GENERATED) {
+                        throw new RuntimeException("Can only reject AI-generated detections");
+                    }
+                    anomaly.setIsActive(false);
+                    action = createAction(anomaly.getId(), anomaly.getInspectionId(), userId, username, ActionType.REJECTED,
+                            toBBoxData(anomaly), null, toClassificationData(anomaly), null,
+                            op.getComment() != null ? op.getComment() : "AI detection rejected");
+                    results.add(AnnotationResponseDTO.success(anomaly.getId(), null, "AI detection rejected"));
+                }
+                default -> throw new IllegalArgumentException("Unsupported action type: " + op.getAction());
+            }
+            action.setActionTimestamp(now);
+            actions.add(action);
+        }
+
+        noteRepository.saveAll(notes);
+        // Flush dirty anomalies (batched UPDATEs) before the audit rows that reference them
+        anomalyRepository.flush();
+        actionRecorder.recordAll(actions);
+        actions.stream().map(AnnotationAction::getInspectionId).distinct().forEach(viewCache::evict);
+        actions.stream().filter(a -> a.getActionType() == ActionType.CREATED)
+                .map(AnnotationAction::getInspectionId).distinct().forEach(trackingService::assignTracksAfterCommit);
+        actions.stream().map(AnnotationAction::getInspectionId).distinct()
+                .forEach(id -> eventPublisher.publishEvent(new InspectionChangedEvent(id)));
+
+        log.info("Applied {} annotation operations ({} audit actions)", results.size(), actions.size());
+        return results;
+    }
+
     /**
      * Get annotation history for an anomaly
      */
     public List<AnnotationAction> getAnnotationHistory(Long anomalyId) {
-        return actionRepository.findByAnomalyIdOrderByActionTimestampDesc(anomalyId);
+        // Actions cannot predate their anomaly; bounding on action_timestamp prunes older partitions
+        LocalDateTime createdAt = anomalyRepository.findById(anomalyId)
+                .map(InspectionAnomaly::getCreatedAt)
+                .orElse(null);
+        if (createdAt == null) {
+            return actionRepository.findByAnomalyIdOrderByActionTimestampDesc(anomalyId);
+        }
+        return actionRepository.findByAnomalyIdSince(anomalyId, createdAt.minus(ACTION_CLOCK_SLACK));
     }
 
     /**
      * Get all actions for an inspection
      */
     public List<AnnotationAction> getInspectionActions(Long inspectionId) {
-        return actionRepository.findByInspectionIdOrderByActionTimestampDesc(inspectionId);
+        LocalDateTime earliest = anomalyRepository.findEarliestCreatedAt(inspectionId);
+        if (earliest == null) {
+            return actionRepository.findByInspectionIdOrderByActionTimestampDesc(inspectionId);
+        }
+        return actionRepository.findByInspectionIdSince(inspectionId, earliest.minus(ACTION_CLOCK_SLACK));
     }
 
     /**
-     * Get all annotation actions across all inspections with metadata
-     * This is used by regular users to view annotation history
+     * Get one page of the annotation activity feed across all inspections, newest first.
+     * Served by a single keyset query joined with inspection/transformer metadata.
      */
-    public Map<String, Object> getAllAnnotationActionsWithMetadata() {
-        log.info("Fetching all annotation actions with metadata");
-        
-        try {
-            // Get all annotation actions ordered by timestamp (newest first)
-            List<AnnotationAction> actions = actionRepository.findAll();
-            actions.sort((a, b) -> b.getActionTimestamp().compareTo(a.getActionTimestamp()));
-            
-            // Enrich with inspection metadata
-            Map<Long, Inspection> inspectionCache = new HashMap<>();
-            List<Map<String, Object>> enrichedActions = new ArrayList<>();
-            
-            for (AnnotationAction action : actions) {
-                Map<String, Object> actionData = new HashMap<>();
-                
-                // Basic action info
-                actionData.put("id", action.getId());
-                actionData.put("anomalyId", action.getAnomalyId());
-                actionData.put("inspectionId", action.getInspectionId());
-                actionData.put("actionType", action.getActionType());
-                actionData.put("username", action.getUsername());
-                actionData.put("actionTimestamp", action.getActionTimestamp());
-                actionData.put("comment", action.getComment());
-                
-                // Before/After data
-                actionData.put("previousBbox", action.getPreviousBbox());
-                actionData.put("newBbox", action.getNewBbox());
-                actionData.put("previousClassification", action.getPreviousClassification());
-                actionData.put("newClassification", action.getNewClassification());
-                
-                // Get inspection metadata (with caching)
-                Long inspectionId = action.getInspectionId();
-                if (!inspectionCache.containsKey(inspectionId)) {
-                    inspectionRepo.findById(inspectionId)
-                            .ifPresent(insp -> inspectionCache.put(inspectionId, insp));
-                }
-                
-                Inspection inspection = inspectionCache.get(inspectionId);
-                if (inspection != null) {
-                    actionData.put("transformerId", inspection.getTransformerNo());
-                    actionData.put("transformerName", inspection.getTransformer() != null ? 
-                            inspection.getTransformer().getLocationDetails() : "Unknown");
-                } else {
-                    actionData.put("transformerId", "N/A");
-                    actionData.put("transformerName", "Unknown");
-                }
-                
-                enrichedActions.add(actionData);
-            }
-            
-            Map<String, Object> result = new HashMap<>();
-            result.put("success", true);
-            result.put("annotations", enrichedActions);
-            result.put("total", enrichedActions.size());
-            
-            log.info("Fetched {} annotation actions with metadata", enrichedActions.size());
-            return result;
-            
-        } catch (Exception e) {
-            log.error("Error fetching annotation actions with metadata", e);
-            Map<String, Object> errorResult = new HashMap<>();
-            errorResult.put("success", false);
-            errorResult.put("error", e.getMessage());
-            errorResult.put("annotations", Collections.emptyList());
-            errorResult.put("total", 0);
-            return errorResult;
+    @Transactional(readOnly = true)
+    public AnnotationFeedPageDTO getAnnotationFeed(AnnotationFeedFilter filter) {
+        int limit = Math.max(1, Math.min(filter.getLimit() > 0 ? filter.getLimit() : defaultFeedLimit, maxFeedLimit));
+        filter.setLimit(limit);
+
+        // Fetch one extra row to know whether another page exists
+        List<AnnotationFeedItemDTO> rows = actionRepository.findFeed(filter, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<AnnotationFeedItemDTO> page = hasMore ? new ArrayList<>(rows.subList(0, limit)) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            AnnotationFeedItemDTO last = page.get(page.size() - 1);
+            nextCursor = new AnnotationFeedCursor(last.getActionTimestamp(), last.getId()).encode();
         }
+
+        log.debug("Annotation feed page: {} rows, hasMore={}", page.size(), hasMore);
+        return AnnotationFeedPageDTO.of(page, hasMore, nextCursor, filter.getFrom());
     }
 
     // Helper methods
 
+    private InspectionAnomaly buildUserAnnotation(Long inspectionId, AnnotationRequestDTO request, String username) {
+        InspectionAnomaly anomaly = new InspectionAnomaly();
+        anomaly.setInspectionId(inspectionId);
+        anomaly.setSource(AnomalySource.USER_ADDED);
+        anomaly.setIsActive(true);
+        anomaly.setCreatedBy(username);
+
+        // Set geometry
+        if (request.getGeometry() != null) {
+            setGeometry(anomaly, request.getGeometry().getX(), request.getGeometry().getY(),
+                    request.getGeometry().getWidth(), request.getGeometry().getHeight());
+        }
+
+        // Set classification
+        if (request.getClassification() != null) {
+            anomaly.setFaultType(request.getClassification().getFaultType());
+            anomaly.setFaultConfidence(request.getClassification().getConfidence());
+            anomaly.setClassId(request.getClassification().getClassId());
+        }
+        return anomaly;
+    }
+
+    private InspectionAnomaly buildEditedAnnotation(InspectionAnomaly original, AnnotationRequestDTO request, String username) {
+        InspectionAnomaly newAnomaly = new InspectionAnomaly();
+        newAnomaly.setInspectionId(original.getInspectionId());
+        newAnomaly.setSource(AnomalySource.USER_ADDED); // Edited annotations are user-added
+        newAnomaly.setIsActive(true);
+        newAnomaly.setCreatedBy(username);
+        newAnomaly.setTrackId(original.getTrackId()); // an edit is the same physical hotspot
+
+        // Set new geometry, keeping the original if not provided
+        if (request.getGeometry() != null) {
+            setGeometry(newAnomaly, request.getGeometry().getX(), request.getGeometry().getY(),
+                    request.getGeometry().getWidth(), request.getGeometry().getHeight());
+        } else {
+            setGeometry(newAnomaly, original.getBboxX(), original.getBboxY(),
+                    original.getBboxWidth(), original.getBboxHeight());
+        }
+
+        // Set new classification, keeping the original if not provided
+        if (request.getClassification() != null) {
+            newAnomaly.setFaultType(request.getClassification().getFaultType());
+            newAnomaly.setFaultConfidence(request.getClassification().getConfidence());
+            newAnomaly.setClassId(request.getClassification().getClassId());
+        } else {
+            newAnomaly.setFaultType(original.getFaultType());
+            newAnomaly.setFaultConfidence(original.getFaultConfidence());
+            newAnomaly.setClassId(original.getClassId());
+        }
+        return newAnomaly;
+    }
+
+    private void setGeometry(InspectionAnomaly anomaly, Integer bboxX, Integer bboxY, Integer bboxWidth, Integer bboxHeight) {
+        anomaly.setBboxX(bboxX);
+        anomaly.setBboxY(bboxY);
+        anomaly.setBboxWidth(bboxWidth);
+        anomaly.setBboxHeight(bboxHeight);
+
+        // Calculate centroid and area
+        anomaly.setCentroidX(BoxGeometry.center(bboxX, bboxWidth));
+        anomaly.setCentroidY(BoxGeometry.center(bboxY, bboxHeight));
+        anomaly.setAreaPx(BoxGeometry.area(bboxWidth, bboxHeight));
+    }
+
     private AnnotationAction createAction(Long anomalyId, Long inspectionId, Integer userId,
                                           String username, ActionType actionType,
                                           BBoxData previousBbox, BBoxData newBbox,
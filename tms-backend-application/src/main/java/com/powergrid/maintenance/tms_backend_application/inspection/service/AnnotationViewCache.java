@@ -0,0 +1,68 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnnotationViewDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of assembled AnnotationViewDTOs, keyed by inspection id.
+ *
+ * Every write to an inspection's anomalies must call evict(); eviction runs after commit, and
+ * Caffeine blocks it behind any in-flight load, so a view built from pre-commit rows is never kept.
+ * Hit/miss/eviction counts are published as cache.* meters with cache=annotation-view.
+ */
+@Slf4j
+@Component
+public class AnnotationViewCache {
+
+    private final Cache<Long, AnnotationViewDTO> cache;
+
+    public AnnotationViewCache(@Value("${app.annotations.view-cache.max-size:500}") long maxSize,
+                               @Value("${app.annotations.view-cache.ttl-seconds:600}") long ttlSeconds,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "annotation-view");
+        }
+    }
+
+    public AnnotationViewDTO get(Long inspectionId, Function<Long, AnnotationViewDTO> loader) {
+        return cache.get(inspectionId, loader);
+    }
+
+    /**
+     * Drop the cached view for an inspection once the current transaction commits.
+     */
+    public void evict(Long inspectionId) {
+        if (inspectionId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(inspectionId);
+                }
+            });
+        } else {
+            cache.invalidate(inspectionId);
+        }
+        log.debug("Scheduled annotation view eviction for inspection {}", inspectionId);
+    }
+}
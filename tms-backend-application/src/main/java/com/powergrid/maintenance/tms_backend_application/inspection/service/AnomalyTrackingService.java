@@ -0,0 +1,292 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.service;
+
+import com.powergrid.maintenance.tms_backend_application.common.exception.NotFoundException;
+import com.powergrid.maintenance.tms_backend_application.common.geometry.BoxGeometry;
+import com.powergrid.maintenance.tms_backend_application.inspection.domain.Inspection;
+import com.powergrid.maintenance.tms_backend_application.inspection.domain.InspectionAnomaly;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnomalyTrackDTO;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.AnomalyTrackPointDTO;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionAnomalyRepository;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionRepo;
+import com.powergrid.maintenance.tms_backend_application.inspection.tracking.AnomalyTrackMatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * Links anomalies of consecutive inspections of the same transformer into tracks, so a hotspot
+ * can be followed over time ("is this the one flagged last quarter, and is it growing?").
+ *
+ * Matching is by IoU, falling back to centroid distance, against the latest box of every track
+ * seen in the last maxGapInspections inspections (so a hotspot missed once is not split in two).
+ * The track heads are held in a grid index, keeping matching local for long histories.
+ */
+@Slf4j
+@Service
+public class AnomalyTrackingService {
+
+    private static final int LOAD_CHUNK = 500;
+
+    private final InspectionRepo inspectionRepo;
+    private final InspectionAnomalyRepository anomalyRepository;
+    private final AnnotationViewCache viewCache;
+    private final AnomalyTrackingService self;
+    private final AnomalyTrackMatcher matcher;
+    private final int maxGapInspections;
+    private final Set<String> ignoredFaultTypes;
+
+    public AnomalyTrackingService(InspectionRepo inspectionRepo,
+                                  InspectionAnomalyRepository anomalyRepository,
+                                  AnnotationViewCache viewCache,
+                                  @Lazy AnomalyTrackingService self,
+                                  @Value("${app.tracking.min-iou:0.3}") double minIou,
+                                  @Value("${app.tracking.max-centroid-distance-px:40}") double maxCentroidDistancePx,
+                                  @Value("${app.tracking.grid-cell-px:64}") int gridCellPx,
+                                  @Value("${app.tracking.max-gap-inspections:3}") int maxGapInspections,
+                                  @Value("${app.tracking.ignored-fault-types:normal}") List<String> ignoredFaultTypes) {
+        this.inspectionRepo = inspectionRepo;
+        this.anomalyRepository = anomalyRepository;
+        this.viewCache = viewCache;
+        this.self = self;
+        this.matcher = new AnomalyTrackMatcher(minIou, maxCentroidDistancePx, gridCellPx);
+        this.maxGapInspections = Math.max(1, maxGapInspections);
+        this.ignoredFaultTypes = new HashSet<>();
+        ignoredFaultTypes.forEach(t -> this.ignoredFaultTypes.add(t.trim().toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Assign tracks for an inspection once the current transaction has committed
+     * (inference results and new annotations are only visible after commit).
+     */
+    public void assignTracksAfterCommit(Long inspectionId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runQuietly(inspectionId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runQuietly(inspectionId);
+            }
+        });
+    }
+
+    private void runQuietly(Long inspectionId) {
+        try {
+            self.assignTracks(inspectionId);
+        } catch (Exception e) {
+            // Tracking is derived data; never fail the write that triggered it
+            log.warn("Anomaly tracking failed for inspection {}: {}", inspectionId, e.getMessage());
+        }
+    }
+
+    /**
+     * Assign track ids to the active anomalies of one inspection. Falls back to a full rebuild of
+     * the transformer when the inspection is not the latest one or earlier data is untracked.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void assignTracks(Long inspectionId) {
+        Inspection inspection = inspectionRepo.findById(inspectionId)
+                .orElseThrow(() -> new NotFoundException("Inspection not found: " + inspectionId));
+        String transformerNo = inspection.getTransformerNo();
+        List<Long> timeline = timeline(transformerNo);
+
+        int position = timeline.indexOf(inspectionId);
+        if (position < timeline.size() - 1) {
+            rebuild(transformerNo, timeline);
+            return;
+        }
+
+        List<Long> window = new ArrayList<>(timeline.subList(Math.max(0, position - maxGapInspections), position));
+        Map<Long, List<InspectionAnomaly>> byInspection = loadTrackable(append(window, inspectionId));
+        boolean untrackedHistory = window.stream()
+                .flatMap(id -> byInspection.getOrDefault(id, List.of()).stream())
+                .anyMatch(a -> a.getTrackId() == null);
+        if (untrackedHistory) {
+            rebuild(transformerNo, timeline);
+            return;
+        }
+
+        // Latest box per track within the window
+        Map<String, InspectionAnomaly> heads = new LinkedHashMap<>();
+        for (Long id : window) {
+            for (InspectionAnomaly a : byInspection.getOrDefault(id, List.of())) {
+                heads.put(a.getTrackId(), a);
+            }
+        }
+        Set<Long> changed = new HashSet<>();
+        int assigned = link(heads, byInspection.getOrDefault(inspectionId, List.of()), changed);
+        changed.forEach(viewCache::evict);
+        log.info("Assigned tracks to {} anomalies of inspection {} ({} open tracks)", assigned, inspectionId, heads.size());
+    }
+
+    /**
+     * Recompute every track of a transformer from its full inspection history.
+     */
+    @Transactional
+    public int rebuildTransformer(String transformerNo) {
+        return rebuild(transformerNo, timeline(transformerNo));
+    }
+
+    private int rebuild(String transformerNo, List<Long> timeline) {
+        Map<Long, List<InspectionAnomaly>> byInspection = loadTrackable(timeline);
+        Map<String, InspectionAnomaly> heads = new LinkedHashMap<>();
+        Map<String, Integer> lastSeen = new HashMap<>();
+        Set<Long> changed = new HashSet<>();
+        int assigned = 0;
+
+        for (int position = 0; position < timeline.size(); position++) {
+            // Close tracks not seen within the gap window
+            int oldest = position - maxGapInspections;
+            heads.keySet().removeIf(trackId -> lastSeen.get(trackId) < oldest);
+
+            List<InspectionAnomaly> current = byInspection.getOrDefault(timeline.get(position), List.of());
+            assigned += link(heads, current, changed);
+            for (InspectionAnomaly a : current) {
+                heads.put(a.getTrackId(), a);
+                lastSeen.put(a.getTrackId(), position);
+            }
+        }
+        // Cached annotation views carry track ids; drop the ones that changed once this commits
+        changed.forEach(viewCache::evict);
+        log.info("Rebuilt anomaly tracks for transformer {}: {} anomalies across {} inspections",
+                transformerNo, assigned, timeline.size());
+        return assigned;
+    }
+
+    /**
+     * Give every current anomaly the track id of its matched head. An unmatched anomaly keeps the
+     * track id it already has, so rebuilds do not renumber existing tracks, unless another open
+     * track or another anomaly of the same inspection holds it; otherwise it starts a new track.
+     * Changed entities are managed, so updates are flushed (batched) on commit; the inspections
+     * they belong to are added to changed.
+     */
+    private int link(Map<String, InspectionAnomaly> heads, List<InspectionAnomaly> current, Set<Long> changed) {
+        List<InspectionAnomaly> headList = new ArrayList<>(heads.values());
+        int[] assignment = matcher.match(toBoxes(headList), headList.size(), toBoxes(current), current.size());
+        Set<String> taken = new HashSet<>(heads.keySet());
+        for (int i = 0; i < current.size(); i++) {
+            if (assignment[i] >= 0) {
+                taken.add(headList.get(assignment[i]).getTrackId());
+            }
+        }
+        for (int i = 0; i < current.size(); i++) {
+            InspectionAnomaly anomaly = current.get(i);
+            String trackId;
+            if (assignment[i] >= 0) {
+                trackId = headList.get(assignment[i]).getTrackId();
+            } else if (anomaly.getTrackId() != null && taken.add(anomaly.getTrackId())) {
+                trackId = anomaly.getTrackId();
+            } else {
+                trackId = UUID.randomUUID().toString();
+                taken.add(trackId);
+            }
+            if (!trackId.equals(anomaly.getTrackId())) {
+                anomaly.setTrackId(trackId);
+                changed.add(anomaly.getInspectionId());
+            }
+        }
+        return current.size();
+    }
+
+    /**
+     * Growth-over-time series of one track
+     */
+    @Transactional(readOnly = true)
+    public AnomalyTrackDTO getTrack(String trackId) {
+        List<Object[]> rows = anomalyRepository.findTrackPoints(trackId);
+        if (rows.isEmpty()) {
+            throw new NotFoundException("Track not found: " + trackId);
+        }
+        return toTrack(trackId, rows, null);
+    }
+
+    /**
+     * All tracks of a transformer with their growth series, most recently seen first
+     */
+    @Transactional(readOnly = true)
+    public List<AnomalyTrackDTO> getTracksForTransformer(String transformerNo) {
+        Map<String, List<Object[]>> byTrack = new LinkedHashMap<>();
+        for (Object[] row : anomalyRepository.findTrackPointsByTransformerNo(transformerNo)) {
+            byTrack.computeIfAbsent(((InspectionAnomaly) row[0]).getTrackId(), k -> new ArrayList<>()).add(row);
+        }
+        List<AnomalyTrackDTO> tracks = new ArrayList<>(byTrack.size());
+        byTrack.forEach((trackId, rows) -> tracks.add(toTrack(trackId, rows, transformerNo)));
+        tracks.sort(Comparator.comparing(AnomalyTrackDTO::getLastSeen, Comparator.nullsLast(Comparator.reverseOrder())));
+        return tracks;
+    }
+
+    // Helper methods
+
+    private List<Long> timeline(String transformerNo) {
+        List<Long> ids = new ArrayList<>();
+        for (Object[] row : inspectionRepo.findTimelineByTransformerNo(transformerNo)) {
+            ids.add((Long) row[0]);
+        }
+        return ids;
+    }
+
+    private Map<Long, List<InspectionAnomaly>> loadTrackable(List<Long> inspectionIds) {
+        Map<Long, List<InspectionAnomaly>> byInspection = new HashMap<>();
+        if (inspectionIds.isEmpty()) {
+            return byInspection;
+        }
+        for (int from = 0; from < inspectionIds.size(); from += LOAD_CHUNK) {
+            List<Long> chunk = inspectionIds.subList(from, Math.min(inspectionIds.size(), from + LOAD_CHUNK));
+            for (InspectionAnomaly a : anomalyRepository.findActiveByInspectionIdIn(chunk)) {
+                if (isTrackable(a)) {
+                    byInspection.computeIfAbsent(a.getInspectionId(), k -> new ArrayList<>()).add(a);
+                }
+            }
+        }
+        return byInspection;
+    }
+
+    private boolean isTrackable(InspectionAnomaly a) {
+        return a.getBboxX() != null && a.getBboxY() != null && a.getBboxWidth() != null && a.getBboxHeight() != null
+                && (a.getFaultType() == null || !ignoredFaultTypes.contains(a.getFaultType().toLowerCase(Locale.ROOT)));
+    }
+
+    private static int[] toBoxes(List<InspectionAnomaly> anomalies) {
+        int[] boxes = new int[4 * anomalies.size()];
+        for (int i = 0; i < anomalies.size(); i++) {
+            InspectionAnomaly a = anomalies.get(i);
+            BoxGeometry.xywhToXyxy(a.getBboxX(), a.getBboxY(), a.getBboxWidth(), a.getBboxHeight(), boxes, i);
+        }
+        return boxes;
+    }
+
+    private static List<Long> append(List<Long> ids, Long id) {
+        List<Long> all = new ArrayList<>(ids);
+        all.add(id);
+        return all;
+    }
+
+    private static AnomalyTrackDTO toTrack(String trackId, List<Object[]> rows, String transformerNo) {
+        List<AnomalyTrackPointDTO> points = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            InspectionAnomaly a = (InspectionAnomaly) row[0];
+            points.add(new AnomalyTrackPointDTO(a.getInspectionId(), (ZonedDateTime) row[1], a.getId(),
+                    a.getFaultType(), a.getFaultConfidence(), a.getAreaPx(), a.getCentroidX(), a.getCentroidY()));
+        }
+        AnomalyTrackPointDTO first = points.get(0);
+        AnomalyTrackPointDTO last = points.get(points.size() - 1);
+        Double growth = first.getAreaPx() != null && first.getAreaPx() > 0 && last.getAreaPx() != null
+                ? (last.getAreaPx() - first.getAreaPx()) * 100.0 / first.getAreaPx()
+                : null;
+        if (transformerNo == null) {
+            InspectionAnomaly latest = (InspectionAnomaly) rows.get(rows.size() - 1)[0];
+            transformerNo = latest.getInspection() != null ? latest.getInspection().getTransformerNo() : null;
+        }
+        return new AnomalyTrackDTO(trackId, transformerNo, first.getInspectionTimestamp(), last.getInspectionTimestamp(),
+                points.size(), last.getFaultType(), growth, points);
+    }
+}
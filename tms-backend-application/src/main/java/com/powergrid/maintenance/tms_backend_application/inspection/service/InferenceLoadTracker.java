@@ -0,0 +1,37 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts inference requests this node is currently waiting on (its share of the inference queue).
+ * Background work such as retraining backs off while it is high.
+ */
+@Component
+public class InferenceLoadTracker {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public InferenceLoadTracker(ObjectProvider<MeterRegistry> meterRegistry) {
+        Gauge.builder("tms.inference.in-flight", inFlight, AtomicInteger::get)
+                .description("Inference requests waiting on the inference service")
+                .register(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    public void begin() {
+        inFlight.incrementAndGet();
+    }
+
+    public void end() {
+        inFlight.decrementAndGet();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
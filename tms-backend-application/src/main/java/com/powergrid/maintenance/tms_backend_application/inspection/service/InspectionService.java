@@ -7,10 +7,12 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import com.powergrid.maintenance.tms_backend_application.archive.service.InspectionArchiveService;
 import com.powergrid.maintenance.tms_backend_application.transformer.repo.TransformerRepository;
 import com.powergrid.maintenance.tms_backend_application.transformer.domain.Transformer;
 
@@ -23,6 +25,7 @@ import com.powergrid.maintenance.tms_backend_application.inspection.dto.Inspecti
 import com.powergrid.maintenance.tms_backend_application.inspection.dto.InspectionStatusUpdateRequestDTO;
 import com.powergrid.maintenance.tms_backend_application.inspection.dto.InspectionUpdateRequestDTO;
 import com.powergrid.maintenance.tms_backend_application.inspection.enums.InspectionStatus;
+import com.powergrid.maintenance.tms_backend_application.inspection.event.InspectionChangedEvent;
 import com.powergrid.maintenance.tms_backend_application.inspection.mapper.InspectionMapper;
 import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionRepo;
 
@@ -50,6 +53,15 @@ public class InspectionService {
 
     @Autowired
     private com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionAnomalyRepository inspectionAnomalyRepository;
+
+    @Autowired
+    private AnnotationViewCache annotationViewCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private InspectionArchiveService archiveService;
     
     @PersistenceContext
     private EntityManager entityManager;
@@ -73,6 +85,7 @@ public class InspectionService {
             
             // Step 4: Save entity (now with proper managed relationship)
             Inspection savedInspection = inspectionRepo.save(inspection);
+            eventPublisher.publishEvent(new InspectionChangedEvent(savedInspection.getInspectionIdNumeric()));
             
             // Step 5: Convert back to response DTO
             InspectionResponseDTO responseDTO = inspectionMapper.toResponseDTO(savedInspection);
@@ -118,6 +131,7 @@ public class InspectionService {
             
             // Save updated entity
             Inspection updatedInspection = inspectionRepo.save(existingInspection);
+            eventPublisher.publishEvent(new InspectionChangedEvent(inspectionId));
             
             // Convert to response DTO
             InspectionResponseDTO responseDTO = inspectionMapper.toResponseDTO(updatedInspection);
@@ -151,6 +165,7 @@ public class InspectionService {
             }
 
             inspectionRepo.deleteById(inspectionId);
+            eventPublisher.publishEvent(new InspectionChangedEvent(inspectionId));
             log.info("Successfully deleted inspection with ID: {}", id);
             return ResponseEntity.noContent().build();
             
@@ -172,6 +187,12 @@ public class InspectionService {
             // Parse string ID to Long
             Long inspectionId = Long.parseLong(id);
             Optional<Inspection> optionalInspection = inspectionRepo.findById(inspectionId);
+
+            // Read-through: an archived inspection is restored to the hot tables on first access. The
+            // restored entity comes back from the primary; this transaction may be reading a lagging replica
+            if (optionalInspection.isEmpty()) {
+                optionalInspection = archiveService.rehydrateIfArchived(inspectionId);
+            }
             
             if (optionalInspection.isEmpty()) {
                 log.warn("Inspection not found with id: {}", id);
@@ -351,6 +372,7 @@ public class InspectionService {
             Inspection inspection = optionalInspection.get();
             inspectionMapper.updateStatusFromDTO(inspection, requestDTO);
             Inspection updatedInspection = inspectionRepo.save(inspection);
+            eventPublisher.publishEvent(new InspectionChangedEvent(inspectionId));
             InspectionStatusResponseDTO responseDTO = inspectionMapper.toStatusResponseDTO(updatedInspection);
             
             log.info("Successfully updated inspection status for ID: {} to: {}", id, newStatus.getValue());
@@ -432,6 +454,7 @@ public class InspectionService {
                 CloudImageUploadDTO empty = new CloudImageUploadDTO();
                 inspectionMapper.updateInspectionWithDTO(inspection, empty);
                 Inspection savedInspection = inspectionRepo.save(inspection);
+            eventPublisher.publishEvent(new InspectionChangedEvent(savedInspection.getInspectionIdNumeric()));
                 log.info("Saved inspection with cleared metadata. Cloud URL now: {}", savedInspection.getCloudImageUrl());
                 
                 // Delete associated inference metadata.
@@ -480,6 +503,8 @@ public class InspectionService {
                 log.info("About to call deleteByInspectionId for inspection anomalies for inspection ID: {}", id);
                 try {
                     int deletedAnomalies = inspectionAnomalyRepository.deleteByInspectionId(id);
+                    annotationViewCache.evict(id);
+                    eventPublisher.publishEvent(new InspectionChangedEvent(id));
                     log.info("inspectionAnomalyRepository.deleteByInspectionId affected rows: {} for inspection {}", deletedAnomalies, id);
                 } catch (Exception e) {
                     log.error("Failed to delete inspection anomalies for inspection {}: {}", id, e.getMessage());
@@ -1,10 +1,12 @@
 package com.powergrid.maintenance.tms_backend_application.inspection.service;
 
+import com.powergrid.maintenance.tms_backend_application.common.geometry.BoxGeometry;
 import com.powergrid.maintenance.tms_backend_application.inspection.domain.InferenceMetadata;
 import com.powergrid.maintenance.tms_backend_application.inspection.domain.Inspection;
 import com.powergrid.maintenance.tms_backend_application.inspection.domain.InspectionAnomaly;
 import com.powergrid.maintenance.tms_backend_application.inspection.dto.ImageMetadataDTO;
 import com.powergrid.maintenance.tms_backend_application.inspection.dto.ThresholdConfigDTO;
+import com.powergrid.maintenance.tms_backend_application.inspection.event.InspectionChangedEvent;
 import com.powergrid.maintenance.tms_backend_application.inspection.repo.InferenceMetadataRepository;
 import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionAnomalyRepository;
 import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionRepo;
@@ -15,6 +17,7 @@ import com.powergrid.maintenance.tms_backend_application.transformer.domain.Tran
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -39,6 +42,10 @@ public class ThermalInferenceService {
     private final TransformerRepository transformerRepository;
     private final TransformerImageRepository transformerImageRepository;
     private final RestTemplate restTemplate;
+    private final AnnotationViewCache annotationViewCache;
+    private final AnomalyTrackingService anomalyTrackingService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InferenceLoadTracker inferenceLoad;
 
     @Value("${inference.api.url:http://localhost:8001}")
     private String pythonApiUrl;
@@ -128,6 +135,7 @@ public class ThermalInferenceService {
             log.info("Deleting old inference data for inspection {}", inspectionIdStr);
             
             // Delete existing anomalies
+            annotationViewCache.evict(inspectionId);
             List<InspectionAnomaly> existingAnomalies = anomalyRepository.findByInspectionId(inspectionId);
             if (!existingAnomalies.isEmpty()) {
                 log.info("Deleting {} existing anomalies", existingAnomalies.size());
@@ -148,6 +156,8 @@ public class ThermalInferenceService {
                     });
             
             log.info("Old inference data cleared successfully");
+            // Covers the new results as well as a failed or skipped inference (no anomalies left)
+            eventPublisher.publishEvent(new InspectionChangedEvent(inspectionId));
 
             // Prepare response with metadata (always included)
             Map<String, Object> response = new HashMap<>();
@@ -183,6 +193,7 @@ public class ThermalInferenceService {
 
                 // 4. Save inference results to database using Long ID
                 saveInferenceResults(inspectionId, inferenceResult, baselineUrl, imageMetadata.getCloudImageUrl());
+                anomalyTrackingService.assignTracksAfterCommit(inspectionId);
 
                 // 5. Add inference results to response
                 response.put("inference", inferenceResult);
@@ -227,6 +238,7 @@ public class ThermalInferenceService {
 
             // Delete existing anomalies using Long ID
             anomalyRepository.deleteByInspectionId(inspectionId);
+            annotationViewCache.evict(inspectionId);
 
             // Create metadata with new thresholds (preserve env so baseline lookup works)
             ImageMetadataDTO metadata = new ImageMetadataDTO();
@@ -314,7 +326,13 @@ public class ThermalInferenceService {
 
 
             @SuppressWarnings("rawtypes")
-            Map response = restTemplate.postForObject(url, entity, Map.class);
+            Map response;
+            inferenceLoad.begin();
+            try {
+                response = restTemplate.postForObject(url, entity, Map.class);
+            } finally {
+                inferenceLoad.end();
+            }
 
             @SuppressWarnings("unchecked")
             Map<String, Object> result = (Map<String, Object>) response.get("inference_result");
@@ -443,9 +461,9 @@ public class ThermalInferenceService {
                             anomaly.setBboxHeight(bboxHeight);
 
                             // Calculate centroid and area
-                            anomaly.setCentroidX(bboxX + bboxWidth / 2.0);
-                            anomaly.setCentroidY(bboxY + bboxHeight / 2.0);
-                            anomaly.setAreaPx(bboxWidth * bboxHeight);
+                            anomaly.setCentroidX(BoxGeometry.center(bboxX, bboxWidth));
+                            anomaly.setCentroidY(BoxGeometry.center(bboxY, bboxHeight));
+                            anomaly.setAreaPx(BoxGeometry.area(bboxWidth, bboxHeight));
                         }
 
                         anomalyRepository.save(anomaly);
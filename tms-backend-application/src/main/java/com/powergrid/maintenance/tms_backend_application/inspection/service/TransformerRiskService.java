@@ -0,0 +1,358 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.service;
+
+import com.powergrid.maintenance.tms_backend_application.common.transaction.AfterCommit;
+import com.powergrid.maintenance.tms_backend_application.inspection.domain.Inspection;
+import com.powergrid.maintenance.tms_backend_application.inspection.domain.InspectionAnomaly;
+import com.powergrid.maintenance.tms_backend_application.inspection.domain.InspectionRiskContribution;
+import com.powergrid.maintenance.tms_backend_application.inspection.domain.TransformerRisk;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.TransformerRiskCursor;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.TransformerRiskDTO;
+import com.powergrid.maintenance.tms_backend_application.inspection.dto.TransformerRiskPageDTO;
+import com.powergrid.maintenance.tms_backend_application.inspection.event.InspectionChangedEvent;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionAnomalyRepository;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionRepo;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionRiskContributionRepository;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.TransformerRiskRepository;
+import com.powergrid.maintenance.tms_backend_application.transformer.enums.MapStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * Maintains the transformer_risk read model behind the fleet risk ranking.
+ *
+ * Every active fault anomaly on an inspection inside the risk window scores its fault weight
+ * (faulty or potential) times its confidence. Each inspection's share is stored as an
+ * {@link InspectionRiskContribution}; when inference results are saved or annotations change, the
+ * inspection's share is recomputed and only the difference is added to the transformer's row.
+ * Inspections leaving the window are subtracted by a scheduled job.
+ */
+@Slf4j
+@Service
+public class TransformerRiskService {
+
+    private static final long SCALE = 1000; // scores and confidences are stored in thousandths
+    private static final int EXPIRY_BATCH = 500;
+
+    private record Totals(long score, int faulty, int potential, long confidenceSum) {
+        static final Totals NONE = new Totals(0, 0, 0, 0);
+
+        boolean isEmpty() {
+            return faulty == 0 && potential == 0;
+        }
+
+        Totals plus(Totals other) {
+            return new Totals(score + other.score, faulty + other.faulty, potential + other.potential,
+                    confidenceSum + other.confidenceSum);
+        }
+
+        Totals minus(Totals other) {
+            return new Totals(score - other.score, faulty - other.faulty, potential - other.potential,
+                    confidenceSum - other.confidenceSum);
+        }
+
+        static Totals of(InspectionRiskContribution c) {
+            return new Totals(c.getScore(), c.getFaultyAnomalies(), c.getPotentialAnomalies(), c.getConfidenceSum());
+        }
+    }
+
+    private final InspectionRepo inspectionRepo;
+    private final InspectionAnomalyRepository anomalyRepository;
+    private final TransformerRiskRepository riskRepository;
+    private final InspectionRiskContributionRepository contributionRepository;
+    private final TransformerRiskService self;
+    private final int windowDays;
+    private final double faultyWeight;
+    private final double potentialWeight;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public TransformerRiskService(InspectionRepo inspectionRepo,
+                                  InspectionAnomalyRepository anomalyRepository,
+                                  TransformerRiskRepository riskRepository,
+                                  InspectionRiskContributionRepository contributionRepository,
+                                  @Lazy TransformerRiskService self,
+                                  @Value("${app.risk.window-days:90}") int windowDays,
+                                  @Value("${app.risk.faulty-weight:1.0}") double faultyWeight,
+                                  @Value("${app.risk.potential-weight:0.4}") double potentialWeight,
+                                  @Value("${app.risk.default-limit:50}") int defaultLimit,
+                                  @Value("${app.risk.max-limit:500}") int maxLimit) {
+        this.inspectionRepo = inspectionRepo;
+        this.anomalyRepository = anomalyRepository;
+        this.riskRepository = riskRepository;
+        this.contributionRepository = contributionRepository;
+        this.self = self;
+        this.windowDays = windowDays;
+        this.faultyWeight = faultyWeight;
+        this.potentialWeight = potentialWeight;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Build the read model from scratch on first start (both tables empty).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            if (riskRepository.count() == 0 && contributionRepository.count() == 0) {
+                self.rebuild();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not backfill transformer risk at startup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Refresh the inspection's risk contribution once the change has committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInspectionChanged(InspectionChangedEvent event) {
+        runQuietly(event.inspectionId());
+    }
+
+    /**
+     * Drop a deleted transformer's risk row and contributions once the delete has committed.
+     */
+    public void transformerRemovedAfterCommit(String transformerNo) {
+        AfterCommit.run(() -> {
+            try {
+                self.removeTransformer(transformerNo);
+            } catch (Exception e) {
+                log.warn("Could not remove risk of transformer {}: {}", transformerNo, e.getMessage());
+            }
+        });
+    }
+
+    private void runQuietly(Long inspectionId) {
+        try {
+            self.refresh(inspectionId);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent refresh inserted the same contribution or risk row first; retry as an update
+            try {
+                self.refresh(inspectionId);
+            } catch (Exception retry) {
+                log.warn("Risk refresh failed for inspection {}: {}", inspectionId, retry.getMessage());
+            }
+        } catch (Exception e) {
+            // Risk is derived data; never fail the write that triggered it
+            log.warn("Risk refresh failed for inspection {}: {}", inspectionId, e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute one inspection's contribution and apply the difference to its transformer.
+     * An inspection that was deleted, has left the window or has no fault anomalies contributes nothing.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void refresh(Long inspectionId) {
+        InspectionRiskContribution current = contributionRepository.findForUpdate(inspectionId).orElse(null);
+        Inspection inspection = inspectionRepo.findById(inspectionId).orElse(null);
+
+        Totals next = Totals.NONE;
+        if (inspection != null && inspection.getInspectionTimestamp() != null
+                && !inspection.getInspectionTimestamp().isBefore(windowStart())) {
+            for (InspectionAnomaly a : anomalyRepository.findByInspectionIdAndIsActiveTrue(inspectionId)) {
+                next = next.plus(score(a.getFaultType(), a.getFaultConfidence()));
+            }
+        }
+
+        Totals previous = current != null ? Totals.of(current) : Totals.NONE;
+        String previousTransformer = current != null ? current.getTransformerNo() : null;
+        String nextTransformer = next.isEmpty() ? null : inspection.getTransformerNo();
+        if (previousTransformer != null && previousTransformer.equals(nextTransformer)) {
+            applyDelta(nextTransformer, next.minus(previous), 0);
+        } else {
+            if (previousTransformer != null) {
+                applyDelta(previousTransformer, Totals.NONE.minus(previous), -1);
+            }
+            if (nextTransformer != null) {
+                applyDelta(nextTransformer, next, 1);
+            }
+        }
+
+        if (nextTransformer == null) {
+            if (current != null) {
+                contributionRepository.delete(current);
+            }
+            return;
+        }
+        if (current == null) {
+            current = new InspectionRiskContribution();
+            current.setInspectionId(inspectionId);
+        }
+        current.setTransformerNo(nextTransformer);
+        current.setInspectionTimestamp(inspection.getInspectionTimestamp());
+        current.setScore(next.score());
+        current.setFaultyAnomalies(next.faulty());
+        current.setPotentialAnomalies(next.potential());
+        current.setConfidenceSum(next.confidenceSum());
+        contributionRepository.save(current);
+    }
+
+    /**
+     * Subtract inspections that have aged out of the risk window.
+     */
+    @Scheduled(fixedDelayString = "${app.risk.expiry-interval-ms:3600000}")
+    public void expireAgedContributions() {
+        int expired = 0;
+        List<Long> batch;
+        do {
+            batch = contributionRepository.findExpiredIds(windowStart(), PageRequest.of(0, EXPIRY_BATCH));
+            for (Long inspectionId : batch) {
+                try {
+                    self.refresh(inspectionId);
+                    expired++;
+                } catch (Exception e) {
+                    log.warn("Could not expire risk contribution of inspection {}: {}", inspectionId, e.getMessage());
+                    return;
+                }
+            }
+        } while (batch.size() == EXPIRY_BATCH);
+        if (expired > 0) {
+            log.info("Expired {} inspection risk contributions older than {} days", expired, windowDays);
+        }
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void removeTransformer(String transformerNo) {
+        contributionRepository.deleteByTransformerNo(transformerNo);
+        riskRepository.deleteByTransformerNo(transformerNo);
+    }
+
+    /**
+     * Recompute the whole read model from the anomalies inside the window. Refreshes committing
+     * while this runs may be lost; it is meant for first start and manual repair.
+     */
+    @Transactional
+    public int rebuild() {
+        contributionRepository.deleteAllInBatch();
+        riskRepository.deleteAllInBatch();
+
+        Map<Long, InspectionRiskContribution> contributions = new LinkedHashMap<>();
+        for (Object[] row : anomalyRepository.findActiveRiskRowsSince(windowStart())) {
+            Totals totals = score((String) row[3], (Double) row[4]);
+            if (totals.isEmpty()) {
+                continue;
+            }
+            InspectionRiskContribution c = contributions.computeIfAbsent((Long) row[0], id -> {
+                InspectionRiskContribution created = new InspectionRiskContribution();
+                created.setInspectionId(id);
+                created.setTransformerNo((String) row[1]);
+                created.setInspectionTimestamp((ZonedDateTime) row[2]);
+                return created;
+            });
+            Totals sum = Totals.of(c).plus(totals);
+            c.setScore(sum.score());
+            c.setFaultyAnomalies(sum.faulty());
+            c.setPotentialAnomalies(sum.potential());
+            c.setConfidenceSum(sum.confidenceSum());
+        }
+
+        Map<String, TransformerRisk> risks = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (InspectionRiskContribution c : contributions.values()) {
+            TransformerRisk risk = risks.computeIfAbsent(c.getTransformerNo(), no -> newRisk(no, now));
+            risk.setScore(risk.getScore() + c.getScore());
+            risk.setFaultyAnomalies(risk.getFaultyAnomalies() + c.getFaultyAnomalies());
+            risk.setPotentialAnomalies(risk.getPotentialAnomalies() + c.getPotentialAnomalies());
+            risk.setConfidenceSum(risk.getConfidenceSum() + c.getConfidenceSum());
+            risk.setContributingInspections(risk.getContributingInspections() + 1);
+        }
+        contributionRepository.saveAll(contributions.values());
+        riskRepository.saveAll(risks.values());
+        log.info("Rebuilt transformer risk: {} transformers from {} inspections", risks.size(), contributions.size());
+        return risks.size();
+    }
+
+    /**
+     * One page of the ranking, riskiest first. Served from the (score, transformer_no) index, so
+     * the cost depends on the page size, not on the fleet or its inspection history.
+     */
+    @Transactional(readOnly = true)
+    public TransformerRiskPageDTO getTopRisks(Integer limit, TransformerRiskCursor cursor) {
+        int pageSize = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Object[]> rows = cursor == null
+                ? riskRepository.findTop(page)
+                : riskRepository.findTopAfter(cursor.score(), cursor.transformerNo(), page);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Object[]> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        List<TransformerRiskDTO> items = new ArrayList<>(pageRows.size());
+        for (Object[] row : pageRows) {
+            items.add(toDto((TransformerRisk) row[0], (String) row[1], (String) row[2], (String) row[3]));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            TransformerRisk last = (TransformerRisk) pageRows.get(pageRows.size() - 1)[0];
+            nextCursor = new TransformerRiskCursor(last.getScore(), last.getTransformerNo()).encode();
+        }
+        return TransformerRiskPageDTO.of(items, hasMore, nextCursor);
+    }
+
+    private void applyDelta(String transformerNo, Totals delta, int inspections) {
+        if (delta.equals(Totals.NONE) && inspections == 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int updated = riskRepository.applyDelta(transformerNo, delta.score(), delta.faulty(), delta.potential(),
+                delta.confidenceSum(), inspections, now);
+        if (updated == 0) {
+            TransformerRisk risk = newRisk(transformerNo, now);
+            risk.setScore(delta.score());
+            risk.setFaultyAnomalies(delta.faulty());
+            risk.setPotentialAnomalies(delta.potential());
+            risk.setConfidenceSum(delta.confidenceSum());
+            risk.setContributingInspections(inspections);
+            riskRepository.save(risk);
+        }
+    }
+
+    // Score of one anomaly; normal detections carry no risk
+    private Totals score(String faultType, Double confidence) {
+        MapStatus status = MapStatus.fromFaultType(faultType);
+        if (status != MapStatus.FAULTY && status != MapStatus.POTENTIAL_FAULT) {
+            return Totals.NONE;
+        }
+        double c = confidence == null ? 1.0 : Math.max(0, Math.min(1, confidence));
+        double weight = status == MapStatus.FAULTY ? faultyWeight : potentialWeight;
+        return new Totals(Math.round(weight * c * SCALE),
+                status == MapStatus.FAULTY ? 1 : 0,
+                status == MapStatus.POTENTIAL_FAULT ? 1 : 0,
+                Math.round(c * SCALE));
+    }
+
+    private ZonedDateTime windowStart() {
+        return ZonedDateTime.now().minusDays(windowDays);
+    }
+
+    private static TransformerRisk newRisk(String transformerNo, LocalDateTime now) {
+        TransformerRisk risk = new TransformerRisk();
+        risk.setTransformerNo(transformerNo);
+        risk.setUpdatedAt(now);
+        return risk;
+    }
+
+    private static TransformerRiskDTO toDto(TransformerRisk r, String region, String poleNo, String type) {
+        int anomalies = r.getFaultyAnomalies() + r.getPotentialAnomalies();
+        double averageConfidence = anomalies == 0 ? 0 : (double) r.getConfidenceSum() / SCALE / anomalies;
+        return new TransformerRiskDTO(r.getTransformerNo(), region, poleNo, type, (double) r.getScore() / SCALE,
+                r.getFaultyAnomalies(), r.getPotentialAnomalies(), averageConfidence,
+                r.getContributingInspections(), r.getUpdatedAt());
+    }
+}
@@ -0,0 +1,129 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.tracking;
+
+import com.powergrid.maintenance.tms_backend_application.common.geometry.BoxGeometry;
+
+import java.util.Arrays;
+
+/**
+ * Matches the boxes of one inspection against the open track heads of the same transformer.
+ *
+ * A pair is a candidate when the boxes overlap with IoU >= minIou, or when their centroids are
+ * within maxCentroidDistance (thermal images of the same asset are rarely perfectly registered).
+ * Overlap candidates always outrank distance-only candidates; assignment is greedy by score and
+ * one-to-one. Boxes are packed xyxy arrays (see BoxGeometry).
+ */
+public final class AnomalyTrackMatcher {
+
+    private final double minIou;
+    private final double maxCentroidDistance;
+    private final int cellSize;
+
+    public AnomalyTrackMatcher(double minIou, double maxCentroidDistance, int cellSize) {
+        this.minIou = minIou;
+        this.maxCentroidDistance = maxCentroidDistance;
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * @return for each current box, the index of the matched head, or -1 if it starts a new track
+     */
+    public int[] match(int[] heads, int headCount, int[] current, int currentCount) {
+        int[] assignment = new int[currentCount];
+        Arrays.fill(assignment, -1);
+        if (headCount == 0 || currentCount == 0) {
+            return assignment;
+        }
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (int o = 0; o < 4 * headCount; o += 4) {
+            minX = Math.min(minX, heads[o]);
+            minY = Math.min(minY, heads[o + 1]);
+            maxX = Math.max(maxX, heads[o + 2]);
+            maxY = Math.max(maxY, heads[o + 3]);
+        }
+        BoxGridIndex index = new BoxGridIndex(cellSize, minX, minY, maxX, maxY);
+        for (int o = 0; o < 4 * headCount; o += 4) {
+            index.insert(heads[o], heads[o + 1], heads[o + 2], heads[o + 3]);
+        }
+
+        int reach = (int) Math.ceil(maxCentroidDistance);
+        Candidates candidates = new Candidates(currentCount * 2);
+        for (int i = 0; i < currentCount; i++) {
+            int o = 4 * i;
+            int ci = i;
+            index.query(current[o] - reach, current[o + 1] - reach, current[o + 2] + reach, current[o + 3] + reach, j -> {
+                double score = score(current, ci, heads, j);
+                if (score > 0) {
+                    candidates.add(score, ci, j);
+                }
+            });
+        }
+
+        // Greedy one-to-one assignment, best score first
+        boolean[] headTaken = new boolean[headCount];
+        int[] order = candidates.orderByScoreDesc();
+        for (int r = 0; r < candidates.size; r++) {
+            int k = order[r];
+            int ci = candidates.current[k];
+            int hj = candidates.head[k];
+            if (assignment[ci] == -1 && !headTaken[hj]) {
+                assignment[ci] = hj;
+                headTaken[hj] = true;
+            }
+        }
+        return assignment;
+    }
+
+    /**
+     * 1 + IoU for overlap matches, (0, 1] for centroid-distance matches, 0 for no match.
+     */
+    double score(int[] a, int i, int[] b, int j) {
+        double iou = BoxGeometry.iou(a, i, b, j);
+        if (iou >= minIou) {
+            return 1 + iou;
+        }
+        double distance = BoxGeometry.centerDistance(a, i, b, j);
+        if (distance <= maxCentroidDistance) {
+            return 1 - distance / (maxCentroidDistance + 1);
+        }
+        return 0;
+    }
+
+    /**
+     * Growable parallel arrays of (score, current index, head index).
+     */
+    private static final class Candidates {
+        double[] score;
+        int[] current;
+        int[] head;
+        int size;
+
+        Candidates(int capacity) {
+            int c = Math.max(16, capacity);
+            score = new double[c];
+            current = new int[c];
+            head = new int[c];
+        }
+
+        void add(double s, int ci, int hj) {
+            if (size == score.length) {
+                score = Arrays.copyOf(score, size * 2);
+                current = Arrays.copyOf(current, size * 2);
+                head = Arrays.copyOf(head, size * 2);
+            }
+            score[size] = s;
+            current[size] = ci;
+            head[size] = hj;
+            size++;
+        }
+
+        int[] orderByScoreDesc() {
+            int[] order = new int[size];
+            for (int k = 0; k < size; k++) {
+                order[k] = k;
+            }
+            BoxGeometry.sortIndicesByScoreDesc(order, score, size);
+            return order;
+        }
+    }
+}
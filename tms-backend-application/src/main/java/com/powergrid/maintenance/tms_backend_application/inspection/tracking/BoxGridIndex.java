@@ -0,0 +1,116 @@
+package com.powergrid.maintenance.tms_backend_application.inspection.tracking;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Uniform grid index over axis-aligned boxes (xyxy pixel coordinates) inside known bounds.
+ *
+ * Each box is registered in every cell it overlaps; a query visits only the cells covering the
+ * query rectangle, so candidate lookup stays proportional to local density rather than to the
+ * total number of boxes. Cells are a dense array, so lookups do not box or hash.
+ * Boxes are identified by their insertion index.
+ */
+public final class BoxGridIndex {
+
+    private static final long MAX_CELLS = 1 << 16;
+
+    private final int cellSize;
+    private final int originX;
+    private final int originY;
+    private final int columns;
+    private final int rows;
+    private final int[][] cells; // cell -> [count, id0, id1, ...], null until used
+    private int[] visitedStamp = new int[16];
+    private int stamp;
+    private int size;
+
+    /**
+     * @param minX/minY/maxX/maxY bounds covering every box that will be inserted
+     */
+    public BoxGridIndex(int cellSize, int minX, int minY, int maxX, int maxY) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive");
+        }
+        // Coarsen the grid rather than allocate a huge cell array for very wide bounds
+        long spanX = (long) maxX - minX;
+        long spanY = (long) maxY - minY;
+        long size = cellSize;
+        while ((spanX / size + 1) * (spanY / size + 1) > MAX_CELLS) {
+            size *= 2;
+        }
+        this.cellSize = (int) Math.min(size, Integer.MAX_VALUE);
+        this.originX = minX;
+        this.originY = minY;
+        this.columns = (int) (spanX / this.cellSize) + 1;
+        this.rows = (int) (spanY / this.cellSize) + 1;
+        this.cells = new int[columns * rows][];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a box and returns its id (insertion index).
+     */
+    public int insert(int x1, int y1, int x2, int y2) {
+        int id = size++;
+        if (id >= visitedStamp.length) {
+            visitedStamp = Arrays.copyOf(visitedStamp, visitedStamp.length * 2);
+        }
+        int cx2 = column(x2);
+        int cy2 = row(y2);
+        for (int cx = column(x1); cx <= cx2; cx++) {
+            for (int cy = row(y1); cy <= cy2; cy++) {
+                int cell = cy * columns + cx;
+                int[] bucket = cells[cell];
+                if (bucket == null) {
+                    bucket = new int[5];
+                } else if (bucket[0] + 1 >= bucket.length) {
+                    bucket = Arrays.copyOf(bucket, bucket.length * 2);
+                }
+                bucket[++bucket[0]] = id;
+                cells[cell] = bucket;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Calls the consumer once for every box registered in a cell overlapping the rectangle.
+     * Candidates are not guaranteed to intersect the rectangle; callers apply the exact test.
+     */
+    public void query(int x1, int y1, int x2, int y2, IntConsumer consumer) {
+        if (++stamp == 0) {
+            Arrays.fill(visitedStamp, 0);
+            stamp = 1;
+        }
+        int cx2 = column(x2);
+        int cy2 = row(y2);
+        for (int cx = column(x1); cx <= cx2; cx++) {
+            for (int cy = row(y1); cy <= cy2; cy++) {
+                int[] bucket = cells[cy * columns + cx];
+                if (bucket == null) {
+                    continue;
+                }
+                for (int i = 1; i <= bucket[0]; i++) {
+                    int id = bucket[i];
+                    if (visitedStamp[id] != stamp) {
+                        visitedStamp[id] = stamp;
+                        consumer.accept(id);
+                    }
+                }
+            }
+        }
+    }
+
+    // Coordinates outside the bounds are clamped to the border cells
+    private int column(int x) {
+        return Math.max(0, Math.min(columns - 1, Math.floorDiv(x - originX, cellSize)));
+    }
+
+    private int row(int y) {
+        return Math.max(0, Math.min(rows - 1, Math.floorDiv(y - originY, cellSize)));
+    }
+}
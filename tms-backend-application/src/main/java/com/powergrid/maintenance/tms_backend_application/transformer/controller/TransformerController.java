@@ -1,6 +1,7 @@
 package com.powergrid.maintenance.tms_backend_application.transformer.controller;
 
 import com.powergrid.maintenance.tms_backend_application.transformer.dto.*;
+import com.powergrid.maintenance.tms_backend_application.transformer.service.TransformerSearchIndex;
 import com.powergrid.maintenance.tms_backend_application.transformer.service.TransformerService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +20,7 @@ import java.util.Map;
 public class TransformerController {
 
   private final TransformerService service;
+  private final TransformerSearchIndex searchIndex;
 
   @PostMapping
   public TransformerResponse create(@RequestBody @Valid TransformerCreateRequest req) {
@@ -43,6 +45,13 @@ public class TransformerController {
   }
 
 
+  // Autocomplete over transformer number, pole number, region and location details
+  @GetMapping("/suggest")
+  public List<TransformerSuggestionDTO> suggest(@RequestParam String q,
+                                                @RequestParam(defaultValue = "10") int limit) {
+    return searchIndex.suggest(q, Math.max(1, Math.min(limit, 50)));
+  }
+
   @GetMapping("/numbers")
   public List<String> getTransformerNumbers(@RequestParam(required = false) String region) {
     return service.getAllTransformerNos();
@@ -3,6 +3,7 @@ package com.powergrid.maintenance.tms_backend_application.transformer.controller
 import com.powergrid.maintenance.tms_backend_application.transformer.dto.UpdateLocationRequestDTO;
 import com.powergrid.maintenance.tms_backend_application.transformer.dto.TransformerLocationResponseDTO;
 import com.powergrid.maintenance.tms_backend_application.transformer.dto.TransformerMapLocationDTO;
+import com.powergrid.maintenance.tms_backend_application.transformer.service.TransformerMapIndex;
 import com.powergrid.maintenance.tms_backend_application.transformer.service.TransformerLocationService;
 import jakarta.validation.Valid;
 
@@ -17,9 +18,14 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "http://localhost:5173")
 public class TransformerLocationController {
 
+    private static final int MAX_NEARBY_RESULTS = 500;
+
     @Autowired
     private TransformerLocationService transformerLocationService;
 
+    @Autowired
+    private TransformerMapIndex transformerMapIndex;
+
     @PutMapping("/{transformerNo}/location")
     public ResponseEntity<?> updateTransformerLocation(
             @PathVariable String transformerNo,
@@ -97,4 +103,63 @@ public class TransformerLocationController {
                     .body("Unexpected error retrieving transformers for map: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Clustered markers for a map viewport: transformers inside the bounding box grouped by
+     * proximity at the given zoom, each cluster with a count and its worst status.
+     */
+    @GetMapping("/locations/map/viewport")
+    public ResponseEntity<?> getMapViewport(
+            @RequestParam double minLat,
+            @RequestParam double minLon,
+            @RequestParam double maxLat,
+            @RequestParam double maxLon,
+            @RequestParam int zoom,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String region) {
+        if (minLat < -90 || maxLat > 90 || minLat > maxLat) {
+            return ResponseEntity.badRequest().body("Latitude bounds must satisfy -90 <= minLat <= maxLat <= 90");
+        }
+        if (minLon < -180 || minLon > 180 || maxLon < -180 || maxLon > 180) {
+            return ResponseEntity.badRequest().body("Longitude bounds must be between -180 and 180");
+        }
+        if (zoom < 0 || zoom > 22) {
+            return ResponseEntity.badRequest().body("Zoom must be between 0 and 22");
+        }
+        try {
+            return ResponseEntity.ok(transformerMapIndex.viewport(minLat, minLon, maxLat, maxLon, zoom, type, region));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error retrieving map viewport: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Transformers nearest to a point (e.g. a field crew's position), closest first. With radiusKm
+     * only those within that distance are returned; openAnomaliesOnly keeps transformers whose latest
+     * inspection has active fault anomalies.
+     */
+    @GetMapping("/locations/nearby")
+    public ResponseEntity<?> getNearbyTransformers(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean openAnomaliesOnly) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            return ResponseEntity.badRequest().body("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        if (radiusKm != null && !(radiusKm > 0)) {
+            return ResponseEntity.badRequest().body("radiusKm must be positive");
+        }
+        if (limit < 1 || limit > MAX_NEARBY_RESULTS) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and " + MAX_NEARBY_RESULTS);
+        }
+        try {
+            return ResponseEntity.ok(transformerMapIndex.nearby(lat, lon, radiusKm, limit, openAnomaliesOnly));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error searching nearby transformers: " + e.getMessage());
+        }
+    }
+}
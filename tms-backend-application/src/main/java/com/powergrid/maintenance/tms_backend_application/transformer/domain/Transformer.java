@@ -5,6 +5,10 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.powergrid.maintenance.tms_backend_application.inspection.domain.Inspection;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UuidGenerator;
 
 import java.math.BigDecimal;
@@ -13,6 +17,9 @@ import java.util.List;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "transformer")
+@NaturalIdCache(region = "transformer-natural-id")
 @Table(
     name = "transformers",
     indexes = {
@@ -27,6 +34,8 @@ public class Transformer {
     @UuidGenerator
     private String id;
     
+    // Natural id: transformerNo lookups resolve through the L2 natural-id cache
+    @NaturalId
     @Column(name = "transformer_no", nullable = false, unique = true, length = 64)
     private String transformerNo;
     
@@ -2,6 +2,8 @@ package com.powergrid.maintenance.tms_backend_application.transformer.domain;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.UuidGenerator;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
@@ -10,6 +12,8 @@ import java.time.ZonedDateTime;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "transformer-image")
 @Table(
     name = "transformer_images",
     indexes = {
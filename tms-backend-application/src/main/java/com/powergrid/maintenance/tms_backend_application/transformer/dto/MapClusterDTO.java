@@ -0,0 +1,32 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.powergrid.maintenance.tms_backend_application.transformer.enums.MapStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * One marker of a map viewport: a cluster of nearby transformers, or a single transformer when
+ * count is 1 (then transformerNo, type and region are set).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MapClusterDTO {
+    private double latitude;   // centroid of the members
+    private double longitude;
+    private int count;
+    private MapStatus worstStatus;
+    private Map<MapStatus, Integer> statusCounts;
+    private double minLatitude; // member bounds, for zooming into the cluster
+    private double minLongitude;
+    private double maxLatitude;
+    private double maxLongitude;
+    private String transformerNo;
+    private String type;
+    private String region;
+}
@@ -0,0 +1,18 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.dto;
+
+import com.powergrid.maintenance.tms_backend_application.transformer.enums.MapStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MapViewportDTO {
+    private int zoom;
+    private int total;              // transformers inside the viewport
+    private MapStatus worstStatus;  // null when the viewport is empty
+    private List<MapClusterDTO> clusters;
+}
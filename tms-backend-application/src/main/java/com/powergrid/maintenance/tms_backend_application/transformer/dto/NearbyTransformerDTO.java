@@ -0,0 +1,20 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.dto;
+
+import com.powergrid.maintenance.tms_backend_application.transformer.enums.MapStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyTransformerDTO {
+    private String transformerNo;
+    private String type;
+    private String region;
+    private double latitude;
+    private double longitude;
+    private double distanceKm;     // great-circle distance from the query point
+    private MapStatus status;
+    private int openAnomalies;     // active fault anomalies on the latest inspection
+}
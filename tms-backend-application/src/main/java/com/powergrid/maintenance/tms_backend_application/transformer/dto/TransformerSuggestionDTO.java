@@ -0,0 +1,13 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.dto;
+
+/**
+ * One autocomplete hit: the transformer plus the field and value the query matched.
+ */
+public record TransformerSuggestionDTO(
+  String id,
+  String transformerNo,
+  String poleNo,
+  String region,
+  String matchedField,
+  String matchedValue
+) {}
@@ -0,0 +1,40 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.enums;
+
+/**
+ * Condition shown on the transformer map, from the active anomalies of the latest inspection.
+ * Declared from best to worst; a cluster reports the highest ordinal among its members.
+ */
+public enum MapStatus {
+    NORMAL,
+    UNINSPECTED,
+    POTENTIAL_FAULT,
+    FAULTY;
+
+    private static final MapStatus[] VALUES = values();
+
+    public static MapStatus ofOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Status implied by one anomaly label (model classes such as "Loose Joint -Faulty",
+     * "Loose Joint -Potential", "Full wire overload", "normal"). Unknown labels count as potential faults.
+     */
+    public static MapStatus fromFaultType(String faultType) {
+        if (faultType == null || faultType.isBlank()) {
+            return POTENTIAL_FAULT;
+        }
+        String label = faultType.toLowerCase();
+        if (label.contains("faulty") || label.contains("full wire overload")) {
+            return FAULTY;
+        }
+        if (label.equals("normal")) {
+            return NORMAL;
+        }
+        return POTENTIAL_FAULT;
+    }
+
+    public static MapStatus worse(MapStatus a, MapStatus b) {
+        return a.ordinal() >= b.ordinal() ? a : b;
+    }
+}
@@ -0,0 +1,268 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.geo;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable KD-tree over points on the sphere, for nearest-neighbour and radius search.
+ *
+ * Points are stored as unit vectors, so the tree splits plain 3D space: straight-line (chord)
+ * distance between unit vectors orders points exactly like great-circle distance, with no special
+ * cases at the antimeridian or the poles. The tree is implicit (the median of each range is its
+ * node), built in place over primitive arrays; ids are whatever the caller passed in, e.g. slots of
+ * a {@link LocationGridIndex}.
+ */
+public final class GeoKdTree {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final int[] ids;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+
+    /**
+     * @param ids        point ids, in the same order as the coordinates
+     * @param latitudes  degrees
+     * @param longitudes degrees
+     * @param count      number of leading entries to use
+     */
+    public GeoKdTree(int[] ids, double[] latitudes, double[] longitudes, int count) {
+        this.ids = new int[count];
+        this.xs = new double[count];
+        this.ys = new double[count];
+        this.zs = new double[count];
+        for (int i = 0; i < count; i++) {
+            double lat = Math.toRadians(latitudes[i]);
+            double lon = Math.toRadians(longitudes[i]);
+            this.ids[i] = ids[i];
+            xs[i] = Math.cos(lat) * Math.cos(lon);
+            ys[i] = Math.cos(lat) * Math.sin(lon);
+            zs[i] = Math.sin(lat);
+        }
+        build(0, count, 0);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Up to k ids accepted by the filter, nearest first, no further than maxDistanceKm.
+     */
+    public int[] nearest(double latitude, double longitude, int k, double maxDistanceKm, IntPredicate filter) {
+        if (k <= 0 || ids.length == 0) {
+            return new int[0];
+        }
+        Search search = new Search(latitude, longitude, Math.min(k, ids.length), chordSquared(maxDistanceKm), filter);
+        search.nearest(0, ids.length, 0);
+        return search.sortedIds();
+    }
+
+    /**
+     * All ids accepted by the filter within radiusKm, nearest first.
+     */
+    public int[] within(double latitude, double longitude, double radiusKm, IntPredicate filter) {
+        return nearest(latitude, longitude, ids.length, radiusKm, filter);
+    }
+
+    /**
+     * Great-circle distance in km (haversine formula).
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Squared chord length of a great-circle distance; anything beyond half the globe is unbounded
+    private static double chordSquared(double distanceKm) {
+        if (!(distanceKm < Math.PI * EARTH_RADIUS_KM)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double chord = 2 * Math.sin(Math.max(0, distanceKm) / (2 * EARTH_RADIUS_KM));
+        return chord * chord;
+    }
+
+    private double coordinate(int axis, int i) {
+        return axis == 0 ? xs[i] : axis == 1 ? ys[i] : zs[i];
+    }
+
+    private void build(int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        select(from, to - 1, mid, axis);
+        int next = (axis + 1) % 3;
+        build(from, mid, next);
+        build(mid + 1, to, next);
+    }
+
+    // Quickselect: afterwards position k holds the element of rank k along the axis
+    private void select(int left, int right, int k, int axis) {
+        while (right > left) {
+            int mid = (left + right) >>> 1;
+            double pivot = coordinate(axis, mid);
+            swap(mid, right);
+            int store = left;
+            for (int i = left; i < right; i++) {
+                if (coordinate(axis, i) < pivot) {
+                    swap(i, store++);
+                }
+            }
+            swap(store, right);
+            if (store == k) {
+                return;
+            } else if (store < k) {
+                left = store + 1;
+            } else {
+                right = store - 1;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double t = xs[a];
+        xs[a] = xs[b];
+        xs[b] = t;
+        t = ys[a];
+        ys[a] = ys[b];
+        ys[b] = t;
+        t = zs[a];
+        zs[a] = zs[b];
+        zs[b] = t;
+    }
+
+    /**
+     * One query: a bounded max-heap of the best candidates so far, keyed by squared chord length.
+     */
+    private final class Search {
+        private final double qx;
+        private final double qy;
+        private final double qz;
+        private final int capacity;
+        private final double limit;
+        private final IntPredicate filter;
+        private double[] heapDistances;
+        private int[] heapIds;
+        private int size;
+
+        Search(double latitude, double longitude, int capacity, double limit, IntPredicate filter) {
+            double lat = Math.toRadians(latitude);
+            double lon = Math.toRadians(longitude);
+            this.qx = Math.cos(lat) * Math.cos(lon);
+            this.qy = Math.cos(lat) * Math.sin(lon);
+            this.qz = Math.sin(lat);
+            this.capacity = capacity;
+            this.limit = limit;
+            this.filter = filter;
+            this.heapDistances = new double[Math.min(capacity, 64)];
+            this.heapIds = new int[heapDistances.length];
+        }
+
+        void nearest(int from, int to, int axis) {
+            while (to > from) {
+                int mid = (from + to) >>> 1;
+                double dx = xs[mid] - qx;
+                double dy = ys[mid] - qy;
+                double dz = zs[mid] - qz;
+                double distance = dx * dx + dy * dy + dz * dz;
+                if (distance <= bound() && (filter == null || filter.test(ids[mid]))) {
+                    offer(distance, ids[mid]);
+                }
+                double delta = (axis == 0 ? qx : axis == 1 ? qy : qz) - coordinate(axis, mid);
+                int next = (axis + 1) % 3;
+                // Descend into the query's side first; visit the other side only if it can still hold a better point
+                if (delta < 0) {
+                    nearest(from, mid, next);
+                    if (delta * delta > bound()) {
+                        return;
+                    }
+                    from = mid + 1;
+                } else {
+                    nearest(mid + 1, to, next);
+                    if (delta * delta > bound()) {
+                        return;
+                    }
+                    to = mid;
+                }
+                axis = next;
+            }
+        }
+
+        private double bound() {
+            return size == capacity ? Math.min(limit, heapDistances[0]) : limit;
+        }
+
+        private void offer(double distance, int id) {
+            if (size < capacity) {
+                if (size == heapDistances.length) {
+                    grow();
+                }
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (heapDistances[parent] >= distance) {
+                        break;
+                    }
+                    heapDistances[i] = heapDistances[parent];
+                    heapIds[i] = heapIds[parent];
+                    i = parent;
+                }
+                heapDistances[i] = distance;
+                heapIds[i] = id;
+            } else if (distance < heapDistances[0]) {
+                siftDown(distance, id);
+            }
+        }
+
+        // Replace the root (current worst) and restore the heap
+        private void siftDown(double distance, int id) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heapDistances[child + 1] > heapDistances[child]) {
+                    child++;
+                }
+                if (heapDistances[child] <= distance) {
+                    break;
+                }
+                heapDistances[i] = heapDistances[child];
+                heapIds[i] = heapIds[child];
+                i = child;
+            }
+            heapDistances[i] = distance;
+            heapIds[i] = id;
+        }
+
+        private void grow() {
+            int length = (int) Math.min(capacity, heapDistances.length * 2L);
+            heapDistances = Arrays.copyOf(heapDistances, length);
+            heapIds = Arrays.copyOf(heapIds, length);
+        }
+
+        int[] sortedIds() {
+            // Pop the max-heap from the back: result ends up nearest first
+            int[] result = new int[size];
+            for (int n = size; n > 0; n--) {
+                result[n - 1] = heapIds[0];
+                double lastDistance = heapDistances[n - 1];
+                int lastId = heapIds[n - 1];
+                size = n - 1;
+                if (size > 0) {
+                    siftDown(lastDistance, lastId);
+                }
+            }
+            return result;
+        }
+    }
+}
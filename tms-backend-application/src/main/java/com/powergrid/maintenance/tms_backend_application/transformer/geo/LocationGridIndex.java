@@ -0,0 +1,249 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.geo;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Mutable point index over latitude/longitude, for viewport queries on the transformer map.
+ *
+ * Points live in slots of parallel primitive arrays (coordinates, condition and attribute codes);
+ * removed slots are reused. Each slot is registered in one cell of a fixed degree grid, and only
+ * occupied cells are stored, so the index stays small however sparse the data. A query visits the
+ * cells covering the box, or every occupied cell when that is fewer.
+ *
+ * Not thread-safe; callers synchronise (see TransformerMapIndex).
+ */
+public final class LocationGridIndex {
+
+    private final double cellDegrees;
+    private final Map<Long, int[]> cells = new HashMap<>(); // cell -> [count, slot0, slot1, ...]
+    private final Map<String, Integer> slotByKey = new HashMap<>();
+
+    private String[] keys = new String[64];
+    private double[] latitudes = new double[64];
+    private double[] longitudes = new double[64];
+    private byte[] statuses = new byte[64];
+    private int[] openAnomalies = new int[64];
+    private short[] typeCodes = new short[64];
+    private short[] regionCodes = new short[64];
+    private long[] cellOf = new long[64];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int highWater;
+
+    public LocationGridIndex(double cellDegrees) {
+        if (!(cellDegrees > 0)) {
+            throw new IllegalArgumentException("cellDegrees must be positive");
+        }
+        this.cellDegrees = cellDegrees;
+    }
+
+    public int size() {
+        return slotByKey.size();
+    }
+
+    /**
+     * Slot of the point with this key, or -1 when it is not indexed.
+     */
+    public int slotOf(String key) {
+        Integer slot = slotByKey.get(key);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Inserts or moves a point; the status of an existing point is kept.
+     */
+    public void put(String key, double latitude, double longitude, int typeCode, int regionCode) {
+        Integer existing = slotByKey.get(key);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            removeFromCell(cellOf[slot], slot);
+        } else {
+            slot = allocate();
+            keys[slot] = key;
+            statuses[slot] = 0;
+            openAnomalies[slot] = 0;
+            slotByKey.put(key, slot);
+        }
+        latitudes[slot] = latitude;
+        longitudes[slot] = longitude;
+        typeCodes[slot] = (short) typeCode;
+        regionCodes[slot] = (short) regionCode;
+        long cell = cellKey(row(latitude), column(longitude));
+        cellOf[slot] = cell;
+        addToCell(cell, slot);
+    }
+
+    public boolean remove(String key) {
+        Integer slot = slotByKey.remove(key);
+        if (slot == null) {
+            return false;
+        }
+        removeFromCell(cellOf[slot], slot);
+        keys[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        return true;
+    }
+
+    /**
+     * Sets the status ordinal and open anomaly count of a point; returns false when the key is not indexed.
+     */
+    public boolean setCondition(String key, int status, int openAnomalyCount) {
+        Integer slot = slotByKey.get(key);
+        if (slot == null) {
+            return false;
+        }
+        statuses[slot] = (byte) status;
+        openAnomalies[slot] = openAnomalyCount;
+        return true;
+    }
+
+    /**
+     * Calls the consumer with the slot of every point.
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int[] bucket : cells.values()) {
+            for (int i = 1; i <= bucket[0]; i++) {
+                consumer.accept(bucket[i]);
+            }
+        }
+    }
+
+    /**
+     * Calls the consumer with the slot of every point inside the box (inclusive). The box must not
+     * cross the antimeridian; split such queries in two.
+     */
+    public void query(double minLat, double minLon, double maxLat, double maxLon, IntConsumer consumer) {
+        if (minLat > maxLat || minLon > maxLon || cells.isEmpty()) {
+            return;
+        }
+        int r1 = row(minLat);
+        int r2 = row(maxLat);
+        int c1 = column(minLon);
+        int c2 = column(maxLon);
+        long spanned = (long) (r2 - r1 + 1) * (c2 - c1 + 1);
+        if (spanned <= cells.size()) {
+            for (int r = r1; r <= r2; r++) {
+                for (int c = c1; c <= c2; c++) {
+                    int[] bucket = cells.get(cellKey(r, c));
+                    if (bucket != null) {
+                        emit(bucket, minLat, minLon, maxLat, maxLon, consumer);
+                    }
+                }
+            }
+        } else {
+            for (Map.Entry<Long, int[]> entry : cells.entrySet()) {
+                long cell = entry.getKey();
+                int r = (int) (cell >> 32);
+                int c = (int) cell;
+                if (r >= r1 && r <= r2 && c >= c1 && c <= c2) {
+                    emit(entry.getValue(), minLat, minLon, maxLat, maxLon, consumer);
+                }
+            }
+        }
+    }
+
+    public String key(int slot) {
+        return keys[slot];
+    }
+
+    public double latitude(int slot) {
+        return latitudes[slot];
+    }
+
+    public double longitude(int slot) {
+        return longitudes[slot];
+    }
+
+    public int status(int slot) {
+        return statuses[slot];
+    }
+
+    public int openAnomalies(int slot) {
+        return openAnomalies[slot];
+    }
+
+    public int typeCode(int slot) {
+        return typeCodes[slot];
+    }
+
+    public int regionCode(int slot) {
+        return regionCodes[slot];
+    }
+
+    private void emit(int[] bucket, double minLat, double minLon, double maxLat, double maxLon, IntConsumer consumer) {
+        for (int i = 1; i <= bucket[0]; i++) {
+            int slot = bucket[i];
+            double lat = latitudes[slot];
+            double lon = longitudes[slot];
+            if (lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon) {
+                consumer.accept(slot);
+            }
+        }
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        int slot = highWater++;
+        if (slot == keys.length) {
+            int capacity = slot * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            openAnomalies = Arrays.copyOf(openAnomalies, capacity);
+            typeCodes = Arrays.copyOf(typeCodes, capacity);
+            regionCodes = Arrays.copyOf(regionCodes, capacity);
+            cellOf = Arrays.copyOf(cellOf, capacity);
+        }
+        return slot;
+    }
+
+    private void addToCell(long cell, int slot) {
+        int[] bucket = cells.get(cell);
+        if (bucket == null) {
+            bucket = new int[5];
+        } else if (bucket[0] + 1 >= bucket.length) {
+            bucket = Arrays.copyOf(bucket, bucket.length * 2);
+        }
+        bucket[++bucket[0]] = slot;
+        cells.put(cell, bucket);
+    }
+
+    // Swap-remove: order within a cell does not matter
+    private void removeFromCell(long cell, int slot) {
+        int[] bucket = cells.get(cell);
+        if (bucket == null) {
+            return;
+        }
+        for (int i = 1; i <= bucket[0]; i++) {
+            if (bucket[i] == slot) {
+                bucket[i] = bucket[bucket[0]--];
+                break;
+            }
+        }
+        if (bucket[0] == 0) {
+            cells.remove(cell);
+        }
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor((longitude + 180) / cellDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
@@ -4,9 +4,13 @@ import com.powergrid.maintenance.tms_backend_application.transformer.domain.Tran
 import com.powergrid.maintenance.tms_backend_application.transformer.domain.Transformer;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +21,10 @@ public interface TransformerImageRepository extends JpaRepository<TransformerIma
      * Find images by transformer ID and weather condition string
      * This method accepts String for compatibility with the inference service
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "transformer-meta")
+    })
     @Query("SELECT ti FROM TransformerImage ti WHERE ti.transformer.id = :transformerId AND UPPER(CAST(ti.weatherCondition AS string)) = :weatherCondition")
     List<TransformerImage> findByTransformerIdAndWeatherCondition(
             @Param("transformerId") String transformerId,
@@ -27,6 +35,10 @@ public interface TransformerImageRepository extends JpaRepository<TransformerIma
      * Find image by transformer ID and weather condition
      * Using the relationship path transformer.id
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "transformer-meta")
+    })
     Optional<TransformerImage> findByTransformer_IdAndWeatherCondition(
             String transformerId,
             TransformerImage.WeatherCondition weatherCondition
@@ -4,26 +4,52 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import com.powergrid.maintenance.tms_backend_application.transformer.domain.Transformer;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface TransformerRepository extends JpaRepository<Transformer, String>, JpaSpecificationExecutor<Transformer> {
+public interface TransformerRepository extends JpaRepository<Transformer, String>, JpaSpecificationExecutor<Transformer>,
+        TransformerRepositoryCustom {
 
-    Optional<Transformer> findByTransformerNo(String transformerNo);
+    // findByTransformerNo(String) is a natural-id lookup, see TransformerRepositoryCustom
 
     // Query that returns DTO data directly to avoid loading entity relationships
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "transformer-meta")
+    })
     @Query("SELECT t.id, t.transformerNo, t.poleNo, t.region, t.type, t.locationDetails FROM Transformer t WHERE t.transformerNo = :transformerNo")
     Optional<Object[]> findTransformerDataByTransformerNo(String transformerNo);
 
     // All transformer numbers (distinct for safety)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "transformer-meta")
+    })
     @Query("select distinct t.transformerNo from Transformer t order by t.transformerNo asc")
     List<String> findAllTransformerNos();
 
     // Transformer numbers filtered by region (branch)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "transformer-meta")
+    })
     @Query("select distinct t.transformerNo from Transformer t where t.region = :region order by t.transformerNo asc")
     List<String> findTransformerNosByRegion(String region);
     
     @Query("SELECT t FROM Transformer t WHERE t.latitude IS NOT NULL AND t.longitude IS NOT NULL")
     List<Transformer> findAllTransformersWithLocation();
+
+    // Rows for the map index: {transformerNo, latitude, longitude, type, region}
+    @Query("SELECT t.transformerNo, t.latitude, t.longitude, t.type, t.region FROM Transformer t " +
+           "WHERE t.latitude IS NOT NULL AND t.longitude IS NOT NULL")
+    List<Object[]> findMapPoints();
+
+    // Rows for the search index: {id, transformerNo, poleNo, region, locationDetails}
+    @Query("SELECT t.id, t.transformerNo, t.poleNo, t.region, t.locationDetails FROM Transformer t")
+    List<Object[]> findSearchRows();
 }
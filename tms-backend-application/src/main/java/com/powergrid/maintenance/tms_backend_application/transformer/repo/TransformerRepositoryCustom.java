@@ -0,0 +1,17 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.repo;
+
+import com.powergrid.maintenance.tms_backend_application.transformer.domain.Transformer;
+
+import java.util.Optional;
+
+/**
+ * Lookups that bypass Spring Data query derivation so they can use Hibernate-specific APIs.
+ */
+public interface TransformerRepositoryCustom {
+
+    /**
+     * Load a transformer by its natural id (transformer_no).
+     * Served from the second-level natural-id cache when warm, so no SQL is issued.
+     */
+    Optional<Transformer> findByTransformerNo(String transformerNo);
+}
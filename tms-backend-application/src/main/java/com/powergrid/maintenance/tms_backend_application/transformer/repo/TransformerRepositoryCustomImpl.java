@@ -0,0 +1,24 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.repo;
+
+import com.powergrid.maintenance.tms_backend_application.transformer.domain.Transformer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+class TransformerRepositoryCustomImpl implements TransformerRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Transformer> findByTransformerNo(String transformerNo) {
+        if (transformerNo == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Transformer.class)
+                .loadOptional(transformerNo);
+    }
+}
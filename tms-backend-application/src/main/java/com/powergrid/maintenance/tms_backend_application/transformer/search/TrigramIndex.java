@@ -0,0 +1,215 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Case-insensitive substring index over documents made of a few text fields.
+ *
+ * Every distinct trigram of a document's fields maps to a posting list of document ids (ascending,
+ * since ids are handed out in increasing order and compaction keeps their order). A query of three or more
+ * characters intersects the posting lists of its trigrams and verifies the survivors; shorter
+ * queries scan the live documents, which is cheap at reference-data sizes.
+ *
+ * Updating a document removes it and adds it under a new id; removed ids stay in posting lists
+ * as tombstones until {@link #compactIfNeeded()} drops them and renumbers the live documents.
+ *
+ * Not thread-safe; callers synchronise (see TransformerSearchIndex).
+ */
+public final class TrigramIndex {
+
+    private final int fieldCount;
+    private final Map<Long, int[]> postings = new HashMap<>(); // trigram -> [count, doc0, doc1, ...]
+    private final BitSet live = new BitSet();
+    private String[][] fields = new String[64][];   // doc -> lower-cased field values
+    private int nextDoc;
+    private int liveCount;
+    private int tombstones;
+
+    public TrigramIndex(int fieldCount) {
+        this.fieldCount = fieldCount;
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    public static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds a document and returns its id. Null field values are indexed as empty.
+     */
+    public int add(String... values) {
+        if (values.length != fieldCount) {
+            throw new IllegalArgumentException("Expected " + fieldCount + " fields, got " + values.length);
+        }
+        int doc = nextDoc++;
+        if (doc == fields.length) {
+            fields = Arrays.copyOf(fields, doc * 2);
+        }
+        String[] normalized = new String[fieldCount];
+        Set<Long> seen = new HashSet<>();
+        for (int f = 0; f < fieldCount; f++) {
+            normalized[f] = normalize(values[f]);
+            String value = normalized[f];
+            for (int i = 0; i + 3 <= value.length(); i++) {
+                long gram = trigram(value, i);
+                if (seen.add(gram)) {
+                    append(gram, doc);
+                }
+            }
+        }
+        fields[doc] = normalized;
+        live.set(doc);
+        liveCount++;
+        return doc;
+    }
+
+    public void remove(int doc) {
+        if (doc >= 0 && live.get(doc)) {
+            live.clear(doc);
+            fields[doc] = null;
+            liveCount--;
+            tombstones++;
+        }
+    }
+
+    /**
+     * Lower-cased value of a field of a live document.
+     */
+    public String field(int doc, int field) {
+        return fields[doc][field];
+    }
+
+    /**
+     * Calls the consumer with every live document having the query as a substring of one of the
+     * fields in fieldMask (bit f = field f), in ascending id order.
+     */
+    public void search(String query, int fieldMask, IntConsumer consumer) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return;
+        }
+        if (q.length() < 3) {
+            for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+                if (matches(doc, q, fieldMask)) {
+                    consumer.accept(doc);
+                }
+            }
+            return;
+        }
+
+        // Intersect starting from the rarest trigram
+        int gramCount = q.length() - 2;
+        int[][] lists = new int[gramCount][];
+        for (int i = 0; i < gramCount; i++) {
+            lists[i] = postings.get(trigram(q, i));
+            if (lists[i] == null) {
+                return;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a[0], b[0]));
+        int[] cursors = new int[gramCount];
+        int[] rarest = lists[0];
+        candidates:
+        for (int i = 1; i <= rarest[0]; i++) {
+            int doc = rarest[i];
+            for (int l = 1; l < gramCount; l++) {
+                int[] list = lists[l];
+                int c = cursors[l] == 0 ? 1 : cursors[l];
+                while (c <= list[0] && list[c] < doc) {
+                    c++;
+                }
+                cursors[l] = c;
+                if (c > list[0]) {
+                    return;
+                }
+                if (list[c] != doc) {
+                    continue candidates;
+                }
+            }
+            if (live.get(doc) && matches(doc, q, fieldMask)) {
+                consumer.accept(doc);
+            }
+        }
+    }
+
+    /**
+     * Once tombstones outnumber the live documents, renumbers the live documents 0..size()-1 and
+     * drops the removed ones from the posting lists and the field table.
+     *
+     * @return new id of every old id (-1 for removed ones), or null when nothing was compacted
+     */
+    public int[] compactIfNeeded() {
+        if (tombstones <= Math.max(64, liveCount)) {
+            return null;
+        }
+        int[] remap = new int[nextDoc];
+        String[][] compacted = new String[Math.max(64, liveCount * 2)][];
+        int next = 0;
+        for (int doc = 0; doc < nextDoc; doc++) {
+            if (live.get(doc)) {
+                compacted[next] = fields[doc];
+                remap[doc] = next++;
+            } else {
+                remap[doc] = -1;
+            }
+        }
+        fields = compacted;
+        live.clear();
+        live.set(0, next);
+        nextDoc = next;
+        tombstones = 0;
+        postings.entrySet().removeIf(entry -> {
+            int[] list = entry.getValue();
+            int kept = 0;
+            for (int i = 1; i <= list[0]; i++) {
+                if (remap[list[i]] >= 0) {
+                    list[++kept] = remap[list[i]];
+                }
+            }
+            list[0] = kept;
+            if (kept == 0) {
+                return true;
+            }
+            if (kept + 1 < list.length / 2) {
+                entry.setValue(Arrays.copyOf(list, kept + 1));
+            }
+            return false;
+        });
+        return remap;
+    }
+
+    private boolean matches(int doc, String q, int fieldMask) {
+        String[] values = fields[doc];
+        for (int f = 0; f < fieldCount; f++) {
+            if ((fieldMask & (1 << f)) != 0 && values[f].contains(q)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void append(long gram, int doc) {
+        int[] list = postings.get(gram);
+        if (list == null) {
+            list = new int[4];
+        } else if (list[0] + 1 >= list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+        }
+        list[++list[0]] = doc;
+        postings.put(gram, list);
+    }
+
+    private static long trigram(String value, int at) {
+        return ((long) value.charAt(at) << 32) | ((long) value.charAt(at + 1) << 16) | value.charAt(at + 2);
+    }
+}
@@ -0,0 +1,70 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.service;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Periodic correction of an in-memory index against its table (see TransformerSearchIndex and
+ * TransformerMapIndex).
+ *
+ * The table is read without the index lock, so an after-commit update can land between the read
+ * and the apply; the keys of such updates are recorded and the apply step must leave them alone,
+ * since the rows read for them may predate the change.
+ */
+final class IndexResync {
+
+    private final Lock writeLock;
+    private Set<String> changedDuringResync; // guarded by writeLock
+
+    IndexResync(Lock writeLock) {
+        this.writeLock = writeLock;
+    }
+
+    /**
+     * Records an after-commit update. Caller holds the write lock.
+     */
+    void noteChange(String key) {
+        if (changedDuringResync != null) {
+            changedDuringResync.add(key);
+        }
+    }
+
+    /**
+     * Whether the key was updated since the current resync started. Caller holds the write lock.
+     */
+    boolean changedDuringResync(String key) {
+        return changedDuringResync != null && changedDuringResync.contains(key);
+    }
+
+    /**
+     * Reads the table, then applies it under the write lock.
+     *
+     * @return number of corrections reported by apply
+     */
+    <T> int run(Supplier<T> read, ToIntFunction<T> apply) {
+        setChangedDuringResync(new HashSet<>());
+        try {
+            T rows = read.get();
+            writeLock.lock();
+            try {
+                return apply.applyAsInt(rows);
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            setChangedDuringResync(null);
+        }
+    }
+
+    private void setChangedDuringResync(Set<String> keys) {
+        writeLock.lock();
+        try {
+            changedDuringResync = keys;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.service;
+
+import com.powergrid.maintenance.tms_backend_application.common.transaction.AfterCommit;
+import com.powergrid.maintenance.tms_backend_application.transformer.domain.Transformer;
+import com.powergrid.maintenance.tms_backend_application.transformer.domain.TransformerImage;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts transformer reference data from the Hibernate second-level cache.
+ *
+ * READ_WRITE regions already stay consistent for changes flushed through Hibernate; this covers
+ * the cached lookup queries (transformer-meta) and the natural-id resolutions explicitly, and runs
+ * after commit so a concurrent reader cannot re-populate the cache with pre-commit rows.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransformerCacheInvalidator {
+
+    static final String META_QUERY_REGION = "transformer-meta";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Transformer row changed or was deleted.
+     */
+    public void transformerChanged(String transformerId) {
+        AfterCommit.run(() -> {
+            Cache cache = cache();
+            cache.evictEntityData(Transformer.class, transformerId);
+            cache.evictNaturalIdData(Transformer.class);
+            cache.evictQueryRegion(META_QUERY_REGION);
+            log.debug("Evicted L2 cache entries for transformer {}", transformerId);
+        });
+    }
+
+    /**
+     * A baseline image was uploaded, replaced or removed for this transformer.
+     */
+    public void imagesChanged(String transformerId, String imageId) {
+        AfterCommit.run(() -> {
+            Cache cache = cache();
+            if (imageId != null) {
+                cache.evictEntityData(TransformerImage.class, imageId);
+            }
+            cache.evictQueryRegion(META_QUERY_REGION);
+            log.debug("Evicted L2 image cache entries for transformer {}", transformerId);
+        });
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
@@ -25,6 +25,9 @@ public class TransformerImageService {
     
     @Autowired
     private TransformerImageRepository transformerImageRepository;
+
+    @Autowired
+    private TransformerCacheInvalidator cacheInvalidator;
     
     public ImageUploadResponseDTO saveImageFromUrl(String transformerId, ImageUploadDTO imageUploadDTO) {
         
@@ -74,6 +77,7 @@ public class TransformerImageService {
         }
         
         TransformerImage savedImage = transformerImageRepository.save(transformerImage);
+        cacheInvalidator.imagesChanged(transformerId, savedImage.getId());
         return TransformerImageMapper.toImageUploadResponseDTO(transformer, savedImage);
     }
     
@@ -143,6 +147,7 @@ public class TransformerImageService {
         
         if (image.isPresent()) {
             transformerImageRepository.delete(image.get());
+            cacheInvalidator.imagesChanged(transformerId, image.get().getId());
             return true;
         }
         
@@ -20,6 +20,9 @@ public class TransformerLocationService {
     
     @Autowired
     private TransformerRepository transformerRepository;
+
+    @Autowired
+    private TransformerMapIndex transformerMapIndex;
     
     @Transactional
     public TransformerLocationResponseDTO updateTransformerLocation(String transformerNo, UpdateLocationRequestDTO request) {
@@ -35,6 +38,7 @@ public class TransformerLocationService {
         try {
             transformer.setLocation(request.getLatitude(), request.getLongitude(), request.getAddress());
             Transformer updatedTransformer = transformerRepository.save(transformer);
+            transformerMapIndex.locationChanged(updatedTransformer);
             
             return TransformerLocationMapper.toTransformerLocationResponseDTO(updatedTransformer, true, "Location updated successfully");
             
@@ -78,6 +82,7 @@ public class TransformerLocationService {
         if (hasLocation) {
             transformer.setLocation(null, null, null);
             transformerRepository.save(transformer);
+            transformerMapIndex.locationRemoved(transformerNo);
             return true;
         }
         
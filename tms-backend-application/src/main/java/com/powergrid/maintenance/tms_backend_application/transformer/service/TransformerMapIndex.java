@@ -0,0 +1,472 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.service;
+
+import com.powergrid.maintenance.tms_backend_application.common.transaction.AfterCommit;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionAnomalyRepository;
+import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionRepo;
+import com.powergrid.maintenance.tms_backend_application.transformer.domain.Transformer;
+import com.powergrid.maintenance.tms_backend_application.transformer.dto.MapClusterDTO;
+import com.powergrid.maintenance.tms_backend_application.transformer.dto.MapViewportDTO;
+import com.powergrid.maintenance.tms_backend_application.transformer.dto.NearbyTransformerDTO;
+import com.powergrid.maintenance.tms_backend_application.transformer.enums.MapStatus;
+import com.powergrid.maintenance.tms_backend_application.transformer.geo.GeoKdTree;
+import com.powergrid.maintenance.tms_backend_application.transformer.geo.LocationGridIndex;
+import com.powergrid.maintenance.tms_backend_application.transformer.repo.TransformerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory index of geolocated transformers behind the map viewport and nearby-search APIs.
+ *
+ * Loaded once at startup, then kept current by the location and transformer services (applied
+ * after commit, one point at a time). Those updates only reach this node, so positions are also
+ * compared with the database every app.map.position-resync-ms and corrected. Map statuses and open
+ * anomaly counts come from the latest inspection of each transformer and are recomputed on a fixed
+ * delay (app.map.status-refresh-ms).
+ *
+ * Viewport queries group the points inside a bounding box into clusters of cluster-radius-px
+ * Web Mercator pixels at the requested zoom; from max-cluster-zoom on every transformer is its own marker.
+ * Nearest and radius queries use a KD-tree over the same points, rebuilt on the first query after
+ * a location change.
+ */
+@Slf4j
+@Service
+public class TransformerMapIndex {
+
+    private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
+    private static final int TILE_SIZE = 256;
+    private static final int NO_MATCH = -2;
+    private static final Condition UNINSPECTED = new Condition(MapStatus.UNINSPECTED, 0);
+
+    /**
+     * Map status and number of active fault anomalies on the latest inspection.
+     */
+    private record Condition(MapStatus status, int openAnomalies) {
+    }
+
+    private final TransformerRepository transformerRepository;
+    private final InspectionRepo inspectionRepository;
+    private final InspectionAnomalyRepository anomalyRepository;
+    private final int clusterRadiusPx;
+    private final int maxClusterZoom;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LocationGridIndex index;
+    // Attribute dictionaries: type and region strings are stored as small codes per point
+    private final List<String> typeNames = new ArrayList<>();
+    private final Map<String, Integer> typeCodes = new HashMap<>();
+    private final List<String> regionNames = new ArrayList<>();
+    private final Map<String, Integer> regionCodes = new HashMap<>();
+    private Map<String, Condition> conditions = Map.of();
+    private GeoKdTree tree; // null after a location change until the next nearby query
+    private final IndexResync indexResync = new IndexResync(lock.writeLock());
+    private volatile boolean loaded;
+
+    public TransformerMapIndex(TransformerRepository transformerRepository,
+                               InspectionRepo inspectionRepository,
+                               InspectionAnomalyRepository anomalyRepository,
+                               @Value("${app.map.index-cell-degrees:0.05}") double cellDegrees,
+                               @Value("${app.map.cluster-radius-px:60}") int clusterRadiusPx,
+                               @Value("${app.map.max-cluster-zoom:17}") int maxClusterZoom) {
+        this.transformerRepository = transformerRepository;
+        this.inspectionRepository = inspectionRepository;
+        this.anomalyRepository = anomalyRepository;
+        this.index = new LocationGridIndex(cellDegrees);
+        this.clusterRadiusPx = Math.max(1, clusterRadiusPx);
+        this.maxClusterZoom = maxClusterZoom;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            log.warn("Could not build transformer map index at startup, will retry on first use: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute map statuses from the latest inspections.
+     */
+    @Scheduled(fixedDelayString = "${app.map.status-refresh-ms:60000}",
+               initialDelayString = "${app.map.status-refresh-ms:60000}")
+    public void refreshStatuses() {
+        if (!loaded) {
+            return;
+        }
+        try {
+            Map<String, Condition> computed = computeConditions();
+            lock.writeLock().lock();
+            try {
+                applyConditions(computed);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Transformer map status refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The transformer's location, type or region changed (or it gained a location).
+     */
+    public void locationChanged(Transformer transformer) {
+        if (!transformer.hasLocation()) {
+            locationRemoved(transformer.getTransformerNo());
+            return;
+        }
+        String transformerNo = transformer.getTransformerNo();
+        double latitude = transformer.getLatitude().doubleValue();
+        double longitude = transformer.getLongitude().doubleValue();
+        String type = transformer.getType();
+        String region = transformer.getRegion();
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                indexResync.noteChange(transformerNo);
+                putPoint(transformerNo, latitude, longitude, type, region);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * The transformer lost its location or was deleted.
+     */
+    public void locationRemoved(String transformerNo) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                indexResync.noteChange(transformerNo);
+                if (index.remove(transformerNo)) {
+                    tree = null;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Apply location changes made through other nodes (or lost with an update that failed after
+     * commit). Transformers changed on this node while the table is read are left as they are.
+     */
+    @Scheduled(fixedDelayString = "${app.map.position-resync-ms:300000}",
+               initialDelayString = "${app.map.position-resync-ms:300000}")
+    public void resyncPositions() {
+        if (!loaded) {
+            return;
+        }
+        try {
+            int corrected = indexResync.run(transformerRepository::findMapPoints, points -> {
+                int changed = 0;
+                Set<String> present = new HashSet<>();
+                for (Object[] row : points) {
+                    String transformerNo = (String) row[0];
+                    present.add(transformerNo);
+                    if (indexResync.changedDuringResync(transformerNo)) {
+                        continue;
+                    }
+                    double latitude = ((BigDecimal) row[1]).doubleValue();
+                    double longitude = ((BigDecimal) row[2]).doubleValue();
+                    int slot = index.slotOf(transformerNo);
+                    if (slot < 0 || index.latitude(slot) != latitude || index.longitude(slot) != longitude
+                            || !typeNames.get(index.typeCode(slot)).equals(nullToEmpty((String) row[3]))
+                            || !regionNames.get(index.regionCode(slot)).equals(nullToEmpty((String) row[4]))) {
+                        putPoint(transformerNo, latitude, longitude, (String) row[3], (String) row[4]);
+                        changed++;
+                    }
+                }
+                List<String> indexed = new ArrayList<>(index.size());
+                index.forEach(slot -> indexed.add(index.key(slot)));
+                for (String transformerNo : indexed) {
+                    if (!present.contains(transformerNo) && !indexResync.changedDuringResync(transformerNo)) {
+                        index.remove(transformerNo);
+                        tree = null;
+                        changed++;
+                    }
+                }
+                return changed;
+            });
+            if (corrected > 0) {
+                log.info("Transformer map index resync corrected {} transformers", corrected);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Transformer map position resync failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Clusters of the transformers inside the box at the given zoom, optionally restricted to one
+     * type and/or region. A box with minLongitude > maxLongitude crosses the antimeridian.
+     */
+    public MapViewportDTO viewport(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+                                   int zoom, String type, String region) {
+        ensureLoaded();
+        boolean individual = zoom >= maxClusterZoom;
+        double worldSize = (double) TILE_SIZE * Math.pow(2, zoom);
+        Map<Long, ClusterBuilder> clusters = new HashMap<>();
+        int[] total = new int[1];
+
+        lock.readLock().lock();
+        try {
+            int typeCode = filterCode(type, typeCodes);
+            int regionCode = filterCode(region, regionCodes);
+            if (typeCode != NO_MATCH && regionCode != NO_MATCH) {
+                IntConsumer collect = slot -> {
+                    if ((typeCode >= 0 && index.typeCode(slot) != typeCode)
+                            || (regionCode >= 0 && index.regionCode(slot) != regionCode)) {
+                        return;
+                    }
+                    double lat = index.latitude(slot);
+                    double lon = index.longitude(slot);
+                    long key = individual ? slot : clusterKey(lat, lon, worldSize);
+                    clusters.computeIfAbsent(key, k -> new ClusterBuilder(slot)).add(slot, lat, lon, index.status(slot));
+                    total[0]++;
+                };
+                if (minLongitude <= maxLongitude) {
+                    index.query(minLatitude, minLongitude, maxLatitude, maxLongitude, collect);
+                } else {
+                    index.query(minLatitude, minLongitude, maxLatitude, 180, collect);
+                    index.query(minLatitude, -180, maxLatitude, maxLongitude, collect);
+                }
+            }
+
+            List<MapClusterDTO> result = new ArrayList<>(clusters.size());
+            MapStatus worst = null;
+            for (ClusterBuilder cluster : clusters.values()) {
+                MapClusterDTO dto = cluster.toDto();
+                worst = worst == null ? dto.getWorstStatus() : MapStatus.worse(worst, dto.getWorstStatus());
+                result.add(dto);
+            }
+            return new MapViewportDTO(zoom, total[0], worst, result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Transformers nearest to a point, closest first: at most limit of them, and only those within
+     * radiusKm when given. With openAnomaliesOnly, transformers without open anomalies are skipped.
+     */
+    public List<NearbyTransformerDTO> nearby(double latitude, double longitude, Double radiusKm, int limit,
+                                             boolean openAnomaliesOnly) {
+        ensureLoaded();
+        double maxDistanceKm = radiusKm != null ? radiusKm : Double.POSITIVE_INFINITY;
+        IntPredicate filter = openAnomaliesOnly ? slot -> index.openAnomalies(slot) > 0 : null;
+
+        lock.readLock().lock();
+        try {
+            GeoKdTree current = tree;
+            if (current != null) {
+                return toNearby(current.nearest(latitude, longitude, limit, maxDistanceKm, filter), latitude, longitude);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (tree == null) {
+                tree = buildTree();
+            }
+            lock.readLock().lock(); // downgrade
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            return toNearby(tree.nearest(latitude, longitude, limit, maxDistanceKm, filter), latitude, longitude);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private GeoKdTree buildTree() {
+        int size = index.size();
+        int[] slots = new int[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        int[] count = new int[1];
+        index.forEach(slot -> {
+            int i = count[0]++;
+            slots[i] = slot;
+            latitudes[i] = index.latitude(slot);
+            longitudes[i] = index.longitude(slot);
+        });
+        return new GeoKdTree(slots, latitudes, longitudes, count[0]);
+    }
+
+    // Caller holds the read lock
+    private List<NearbyTransformerDTO> toNearby(int[] slots, double latitude, double longitude) {
+        List<NearbyTransformerDTO> result = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            double lat = index.latitude(slot);
+            double lon = index.longitude(slot);
+            result.add(new NearbyTransformerDTO(index.key(slot), typeNames.get(index.typeCode(slot)),
+                    regionNames.get(index.regionCode(slot)), lat, lon,
+                    GeoKdTree.haversineKm(latitude, longitude, lat, lon),
+                    MapStatus.ofOrdinal(index.status(slot)), index.openAnomalies(slot)));
+        }
+        return result;
+    }
+
+    // -1: no filter, NO_MATCH: value never seen (nothing can match)
+    private static int filterCode(String value, Map<String, Integer> codes) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : NO_MATCH;
+    }
+
+    private long clusterKey(double latitude, double longitude, double worldSize) {
+        double x = (longitude + 180) / 360 * worldSize;
+        double sin = Math.sin(Math.toRadians(Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, latitude))));
+        double y = (0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI)) * worldSize;
+        long column = (long) Math.floor(x / clusterRadiusPx);
+        long row = (long) Math.floor(y / clusterRadiusPx);
+        return (row << 32) | (column & 0xffffffffL);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            List<Object[]> points = transformerRepository.findMapPoints();
+            Map<String, Condition> computed = computeConditions();
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : points) {
+                    String transformerNo = (String) row[0];
+                    index.put(transformerNo, ((BigDecimal) row[1]).doubleValue(), ((BigDecimal) row[2]).doubleValue(),
+                            code((String) row[3], typeNames, typeCodes), code((String) row[4], regionNames, regionCodes));
+                    index.setCondition(transformerNo, MapStatus.UNINSPECTED.ordinal(), 0);
+                }
+                applyConditions(computed);
+                tree = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loaded = true;
+            log.info("Transformer map index loaded with {} located transformers", points.size());
+        }
+    }
+
+    private Map<String, Condition> computeConditions() {
+        Map<String, Condition> computed = new HashMap<>();
+        for (String transformerNo : inspectionRepository.findInspectedTransformerNos()) {
+            computed.put(transformerNo, new Condition(MapStatus.NORMAL, 0));
+        }
+        for (Object[] row : anomalyRepository.findLatestInspectionFaultTypes()) {
+            MapStatus status = MapStatus.fromFaultType((String) row[1]);
+            int open = status == MapStatus.NORMAL ? 0 : 1;
+            computed.merge((String) row[0], new Condition(status, open),
+                    (a, b) -> new Condition(MapStatus.worse(a.status(), b.status()), a.openAnomalies() + b.openAnomalies()));
+        }
+        return computed;
+    }
+
+    // Caller holds the write lock
+    private void applyConditions(Map<String, Condition> computed) {
+        Map<String, Condition> previous = conditions;
+        conditions = computed;
+        for (String transformerNo : previous.keySet()) {
+            if (!computed.containsKey(transformerNo)) {
+                index.setCondition(transformerNo, MapStatus.UNINSPECTED.ordinal(), 0);
+            }
+        }
+        for (Map.Entry<String, Condition> entry : computed.entrySet()) {
+            index.setCondition(entry.getKey(), entry.getValue().status().ordinal(), entry.getValue().openAnomalies());
+        }
+    }
+
+    // Caller holds the write lock
+    private void putPoint(String transformerNo, double latitude, double longitude, String type, String region) {
+        index.put(transformerNo, latitude, longitude, code(type, typeNames, typeCodes), code(region, regionNames, regionCodes));
+        Condition condition = conditions.getOrDefault(transformerNo, UNINSPECTED);
+        index.setCondition(transformerNo, condition.status().ordinal(), condition.openAnomalies());
+        tree = null;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    // Caller holds the write lock
+    private static int code(String value, List<String> names, Map<String, Integer> codes) {
+        String key = nullToEmpty(value);
+        return codes.computeIfAbsent(key, k -> {
+            names.add(k);
+            return names.size() - 1;
+        });
+    }
+
+
+    private final class ClusterBuilder {
+        private final int firstSlot;
+        private final int[] statusCounts = new int[MapStatus.values().length];
+        private int count;
+        private int worst;
+        private double sumLatitude;
+        private double sumLongitude;
+        private double minLatitude = Double.POSITIVE_INFINITY;
+        private double minLongitude = Double.POSITIVE_INFINITY;
+        private double maxLatitude = Double.NEGATIVE_INFINITY;
+        private double maxLongitude = Double.NEGATIVE_INFINITY;
+
+        ClusterBuilder(int firstSlot) {
+            this.firstSlot = firstSlot;
+        }
+
+        void add(int slot, double latitude, double longitude, int status) {
+            count++;
+            statusCounts[status]++;
+            worst = Math.max(worst, status);
+            sumLatitude += latitude;
+            sumLongitude += longitude;
+            minLatitude = Math.min(minLatitude, latitude);
+            minLongitude = Math.min(minLongitude, longitude);
+            maxLatitude = Math.max(maxLatitude, latitude);
+            maxLongitude = Math.max(maxLongitude, longitude);
+        }
+
+        MapClusterDTO toDto() {
+            Map<MapStatus, Integer> counts = new EnumMap<>(MapStatus.class);
+            for (int i = 0; i < statusCounts.length; i++) {
+                if (statusCounts[i] > 0) {
+                    counts.put(MapStatus.ofOrdinal(i), statusCounts[i]);
+                }
+            }
+            MapClusterDTO dto = new MapClusterDTO(sumLatitude / count, sumLongitude / count, count,
+                    MapStatus.ofOrdinal(worst), counts, minLatitude, minLongitude, maxLatitude, maxLongitude,
+                    null, null, null);
+            if (count == 1) {
+                dto.setTransformerNo(index.key(firstSlot));
+                dto.setType(typeNames.get(index.typeCode(firstSlot)));
+                dto.setRegion(regionNames.get(index.regionCode(firstSlot)));
+            }
+            return dto;
+        }
+    }
+}
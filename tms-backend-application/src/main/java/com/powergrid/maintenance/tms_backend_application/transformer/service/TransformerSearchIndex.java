@@ -0,0 +1,301 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.service;
+
+import com.powergrid.maintenance.tms_backend_application.common.transaction.AfterCommit;
+import com.powergrid.maintenance.tms_backend_application.transformer.domain.Transformer;
+import com.powergrid.maintenance.tms_backend_application.transformer.dto.TransformerSuggestionDTO;
+import com.powergrid.maintenance.tms_backend_application.transformer.repo.TransformerRepository;
+import com.powergrid.maintenance.tms_backend_application.transformer.search.TrigramIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory substring search over transformer numbers, pole numbers, regions and location
+ * details, for autocomplete and for the transformer list search (which would otherwise run
+ * unindexable LIKE '%q%' scans).
+ *
+ * Loaded at startup and kept current by TransformerService (create, update and delete are
+ * applied after commit). Those updates only reach this node, so the index is also compared with
+ * the database every app.search.resync-interval-ms and corrected.
+ */
+@Slf4j
+@Service
+public class TransformerSearchIndex {
+
+    static final int FIELD_TRANSFORMER_NO = 0;
+    static final int FIELD_POLE_NO = 1;
+    static final int FIELD_REGION = 2;
+    static final int FIELD_LOCATION_DETAILS = 3;
+    private static final String[] FIELD_NAMES = {"transformerNo", "poleNo", "region", "locationDetails"};
+    private static final int ALL_FIELDS = 0b1111;
+
+    private record Entry(String id, String transformerNo, String poleNo, String region, String locationDetails) {
+        String value(int field) {
+            return switch (field) {
+                case FIELD_TRANSFORMER_NO -> transformerNo;
+                case FIELD_POLE_NO -> poleNo;
+                case FIELD_REGION -> region;
+                default -> locationDetails;
+            };
+        }
+    }
+
+    private record Hit(Entry entry, int field, int score) {
+    }
+
+    private final TransformerRepository transformerRepository;
+    private final int maxIdFilter;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TrigramIndex index = new TrigramIndex(FIELD_NAMES.length);
+    private final Map<String, Integer> docById = new HashMap<>();
+    private final Map<Integer, Entry> entryByDoc = new HashMap<>();
+    private final IndexResync indexResync = new IndexResync(lock.writeLock());
+    private volatile boolean loaded;
+
+    public TransformerSearchIndex(TransformerRepository transformerRepository,
+                                  @Value("${app.search.max-id-filter:1000}") int maxIdFilter) {
+        this.transformerRepository = transformerRepository;
+        this.maxIdFilter = maxIdFilter;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            log.warn("Could not build transformer search index at startup, will retry on first use: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The transformer was created or its searchable fields changed.
+     */
+    public void transformerChanged(Transformer transformer) {
+        Entry entry = new Entry(transformer.getId(), transformer.getTransformerNo(), transformer.getPoleNo(),
+                transformer.getRegion(), transformer.getLocationDetails());
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                indexResync.noteChange(entry.id());
+                put(entry);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void transformerRemoved(String transformerId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                indexResync.noteChange(transformerId);
+                delete(transformerId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Apply creates, updates and deletes made through other nodes (or lost with an update that
+     * failed after commit). Transformers changed on this node while the table is read are left
+     * as they are.
+     */
+    @Scheduled(fixedDelayString = "${app.search.resync-interval-ms:300000}",
+               initialDelayString = "${app.search.resync-interval-ms:300000}")
+    public void resync() {
+        if (!loaded) {
+            return;
+        }
+        try {
+            int corrected = indexResync.run(transformerRepository::findSearchRows, rows -> {
+                int changed = 0;
+                Set<String> present = new HashSet<>();
+                for (Object[] row : rows) {
+                    Entry entry = toEntry(row);
+                    present.add(entry.id());
+                    Integer doc = docById.get(entry.id());
+                    if (!indexResync.changedDuringResync(entry.id()) && (doc == null || !entryByDoc.get(doc).equals(entry))) {
+                        put(entry);
+                        changed++;
+                    }
+                }
+                for (String id : List.copyOf(docById.keySet())) {
+                    if (!present.contains(id) && !indexResync.changedDuringResync(id)) {
+                        delete(id);
+                        changed++;
+                    }
+                }
+                return changed;
+            });
+            if (corrected > 0) {
+                log.info("Transformer search index resync corrected {} transformers", corrected);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Transformer search index resync failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Best matches for an autocomplete query. Exact matches rank before prefix matches, then word
+     * prefixes, then other substrings; within a rank transformer numbers come first, then pole
+     * numbers, regions and location details.
+     */
+    public List<TransformerSuggestionDTO> suggest(String query, int limit) {
+        ensureLoaded();
+        String q = TrigramIndex.normalize(query).trim();
+        if (q.isEmpty()) {
+            return List.of();
+        }
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            index.search(q, ALL_FIELDS, doc -> hits.add(bestHit(doc, q)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return hits.stream()
+                .sorted(Comparator.comparingInt(Hit::score)
+                        .thenComparingInt(hit -> hit.entry().value(hit.field()).length())
+                        .thenComparing(hit -> hit.entry().transformerNo()))
+                .limit(limit)
+                .map(hit -> new TransformerSuggestionDTO(hit.entry().id(), hit.entry().transformerNo(),
+                        hit.entry().poleNo(), hit.entry().region(), FIELD_NAMES[hit.field()],
+                        hit.entry().value(hit.field())))
+                .toList();
+    }
+
+    /**
+     * Ids of transformers whose number and/or pole number (searchBy "transformerNo", "poleNo",
+     * anything else for both) contains the query. Empty when the index is unavailable or the query
+     * matches more than app.search.max-id-filter transformers; callers then fall back to SQL.
+     */
+    public Optional<List<String>> matchingIds(String query, String searchBy) {
+        if (!loaded) {
+            return Optional.empty();
+        }
+        int mask = "transformerNo".equals(searchBy) ? 1 << FIELD_TRANSFORMER_NO
+                : "poleNo".equals(searchBy) ? 1 << FIELD_POLE_NO
+                : (1 << FIELD_TRANSFORMER_NO) | (1 << FIELD_POLE_NO);
+        List<String> ids = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            index.search(query.trim(), mask, doc -> ids.add(entryByDoc.get(doc).id()));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids.size() <= maxIdFilter ? Optional.of(ids) : Optional.empty();
+    }
+
+    private Hit bestHit(int doc, String q) {
+        Entry entry = entryByDoc.get(doc);
+        Hit best = null;
+        for (int field = 0; field < FIELD_NAMES.length; field++) {
+            String value = index.field(doc, field);
+            int at = value.indexOf(q);
+            if (at < 0) {
+                continue;
+            }
+            int rank;
+            if (value.length() == q.length()) {
+                rank = 0;
+            } else if (at == 0) {
+                rank = 1;
+            } else if (wordStartMatch(value, q)) {
+                rank = 2;
+            } else {
+                rank = 3;
+            }
+            int score = rank * FIELD_NAMES.length + field;
+            if (best == null || score < best.score()) {
+                best = new Hit(entry, field, score);
+            }
+        }
+        return best;
+    }
+
+    private static boolean wordStartMatch(String value, String q) {
+        for (int at = value.indexOf(q); at >= 0; at = value.indexOf(q, at + 1)) {
+            if (at == 0 || !Character.isLetterOrDigit(value.charAt(at - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Caller holds the write lock
+    private void put(Entry entry) {
+        Integer previous = docById.remove(entry.id());
+        if (previous != null) {
+            index.remove(previous);
+            entryByDoc.remove(previous);
+        }
+        int doc = index.add(entry.transformerNo(), entry.poleNo(), entry.region(), entry.locationDetails());
+        docById.put(entry.id(), doc);
+        entryByDoc.put(doc, entry);
+        compactIfNeeded();
+    }
+
+    // Caller holds the write lock
+    private void delete(String transformerId) {
+        Integer doc = docById.remove(transformerId);
+        if (doc != null) {
+            index.remove(doc);
+            entryByDoc.remove(doc);
+            compactIfNeeded();
+        }
+    }
+
+    // Caller holds the write lock; compaction renumbers the documents
+    private void compactIfNeeded() {
+        int[] remap = index.compactIfNeeded();
+        if (remap == null) {
+            return;
+        }
+        Map<Integer, Entry> renumbered = new HashMap<>();
+        entryByDoc.forEach((doc, entry) -> renumbered.put(remap[doc], entry));
+        entryByDoc.clear();
+        entryByDoc.putAll(renumbered);
+        docById.replaceAll((id, doc) -> remap[doc]);
+    }
+
+    private static Entry toEntry(Object[] row) {
+        return new Entry((String) row[0], (String) row[1], (String) row[2], (String) row[3], (String) row[4]);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            List<Object[]> rows = transformerRepository.findSearchRows();
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : rows) {
+                    put(toEntry(row));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loaded = true;
+            log.info("Transformer search index loaded with {} transformers", rows.size());
+        }
+    }
+}
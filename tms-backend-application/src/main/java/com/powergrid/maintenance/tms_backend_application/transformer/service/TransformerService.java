@@ -1,8 +1,11 @@
 package com.powergrid.maintenance.tms_backend_application.transformer.service;
 
+import com.powergrid.maintenance.tms_backend_application.analytics.service.FleetAnalyticsService;
+import com.powergrid.maintenance.tms_backend_application.archive.service.InspectionArchiveService;
 import com.powergrid.maintenance.tms_backend_application.common.exception.ConflictException;
 import com.powergrid.maintenance.tms_backend_application.common.exception.NotFoundException;
 import com.powergrid.maintenance.tms_backend_application.inspection.repo.InspectionRepo;
+import com.powergrid.maintenance.tms_backend_application.inspection.service.TransformerRiskService;
 import com.powergrid.maintenance.tms_backend_application.transformer.domain.Transformer;
 import com.powergrid.maintenance.tms_backend_application.transformer.dto.*;
 import com.powergrid.maintenance.tms_backend_application.transformer.repo.TransformerRepository;
@@ -10,6 +13,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
@@ -23,7 +27,14 @@ public class TransformerService {
 
   private final TransformerRepository repo;
   private final InspectionRepo inspectionRepo;
-
+  private final TransformerCacheInvalidator cacheInvalidator;
+  private final TransformerMapIndex mapIndex;
+  private final TransformerSearchIndex searchIndex;
+  private final TransformerRiskService riskService;
+  private final FleetAnalyticsService analyticsService;
+  private final InspectionArchiveService archiveService;
+
+  @Transactional
   public Transformer create(TransformerCreateRequest r) {
     repo.findByTransformerNo(r.transformerNo()).ifPresent(x -> {
       throw new ConflictException("Transformer number already exists");
@@ -34,7 +45,9 @@ public class TransformerService {
     t.setRegion(r.region());
     t.setType(r.type());
     t.setLocationDetails(r.locationDetails());
-    return repo.save(t);
+    Transformer saved = repo.save(t);
+    searchIndex.transformerChanged(saved);
+    return saved;
   }
 
   public Transformer getEntity(String id) {
@@ -63,17 +76,31 @@ public class TransformerService {
   }
 
   // Keep existing method for backward compatibility
+  @Transactional(readOnly = true)
   public Page<Transformer> list(Pageable pageable) {
     return repo.findAll(pageable);
   }
 
   // New method with search support
+  @Transactional(readOnly = true)
   public Page<Transformer> list(Pageable pageable, String query, String searchBy, LocalDateTime fromDate, LocalDateTime toDate) {
 
     if ((query == null || query.trim().isEmpty()) && fromDate == null && toDate == null) {
       return list(pageable);
     }
 
+    // Resolve the text match through the in-memory index; the LIKE predicates below are the fallback
+    if (query != null && !query.trim().isEmpty() && searchBy != null) {
+      Optional<List<String>> ids = searchIndex.matchingIds(query, searchBy);
+      if (ids.isPresent()) {
+        if (ids.get().isEmpty()) {
+          return Page.empty(pageable);
+        }
+        List<String> matched = ids.get();
+        return repo.findAll((root, criteriaQuery, criteriaBuilder) -> root.get("id").in(matched), pageable);
+      }
+    }
+
     Specification<Transformer> spec = (root, criteriaQuery, criteriaBuilder) -> {
       List<Predicate> predicates = new ArrayList<>();
 
@@ -111,15 +138,23 @@ public class TransformerService {
     return repo.findAll(spec, pageable);
   }
 
+  @Transactional
   public Transformer update(String id, TransformerUpdateRequest r) {
     Transformer t = getEntity(id);
     if (r.poleNo() != null) t.setPoleNo(r.poleNo());
-    if (r.region() != null) t.setRegion(r.region());
+    if (r.region() != null && !r.region().equals(t.getRegion())) {
+      t.setRegion(r.region());
+      analyticsService.transformerChangedAfterCommit(t.getTransformerNo());
+    }
     if (r.type() != null) t.setType(r.type());
     if (r.locationDetails() != null) t.setLocationDetails(r.locationDetails());
+    cacheInvalidator.transformerChanged(id);
+    if (t.hasLocation()) mapIndex.locationChanged(t);
+    searchIndex.transformerChanged(t);
     return repo.save(t);
   }
 
+  @Transactional
   public void delete(String id) {
     Transformer transformer = getEntity(id);
     int inspectionCount = inspectionRepo.findByTransformerNo(transformer.getTransformerNo()).size();
@@ -129,6 +164,12 @@ public class TransformerService {
                       " inspection(s) and all associated notes, anomalies, and metadata.");
     
     repo.delete(transformer);
+    archiveService.transformerRemoved(transformer.getTransformerNo());
+    cacheInvalidator.transformerChanged(id);
+    mapIndex.locationRemoved(transformer.getTransformerNo());
+    searchIndex.transformerRemoved(id);
+    riskService.transformerRemovedAfterCommit(transformer.getTransformerNo());
+    analyticsService.transformerChangedAfterCommit(transformer.getTransformerNo());
   }
 
   public static TransformerResponse toResponse(Transformer t) {
@@ -7,6 +7,8 @@ import com.powergrid.maintenance.tms_backend_application.user.dto.VerifyOtpReque
 import com.powergrid.maintenance.tms_backend_application.user.dto.UpdateUserProfileRequest;
 import com.powergrid.maintenance.tms_backend_application.user.dto.UserProfileResponse;
 import com.powergrid.maintenance.tms_backend_application.user.model.User;
+import com.powergrid.maintenance.tms_backend_application.user.service.AuthTokenService;
+import com.powergrid.maintenance.tms_backend_application.user.service.MyUserDetailsService;
 import com.powergrid.maintenance.tms_backend_application.user.service.OtpService;
 import com.powergrid.maintenance.tms_backend_application.user.service.UserService;
 import jakarta.validation.Valid;
@@ -21,6 +23,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -44,6 +47,12 @@ public class UserController {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private MyUserDetailsService userDetailsService;
+
     /**
      * Register a new user.
      * POST /api/auth/register
@@ -153,11 +162,11 @@ public class UserController {
     }
 
     /**
-     * Authenticate user and create session.
+     * Authenticate user and issue an access token and a refresh token.
      * POST /api/auth/login
      *
      * @param loginRequest the login credentials
-     * @return ResponseEntity with authentication result
+     * @return ResponseEntity with authentication result and tokens
      */
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
@@ -169,20 +178,20 @@ public class UserController {
                             loginRequest.getPassword()
                     );
 
-            // Authenticate user
+            // Authenticate user (the only password check; later requests carry the access token)
             Authentication authentication = authenticationManager.authenticate(authToken);
 
-            // Set authentication in security context
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-
             // Get user details
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
             String role = userDetails.getAuthorities().iterator().next().getAuthority();
 
+            AuthTokenService.TokenPair tokens = authTokenService.issueTokens(userDetails.getUsername(), role);
+
             log.info("User logged in successfully: {}", userDetails.getUsername());
 
             return ResponseEntity.ok(
-                    new LoginResponse(true, "Login successful", userDetails.getUsername(), role)
+                    new LoginResponse(true, "Login successful", tokens.username(), tokens.role(),
+                            tokens.accessToken(), tokens.refreshToken(), tokens.expiresIn())
             );
 
         } catch (BadCredentialsException e) {
@@ -199,15 +208,47 @@ public class UserController {
     }
 
     /**
-     * Logout user.
+     * Exchange a refresh token for a new access token and a rotated refresh token.
+     * POST /api/auth/refresh
+     *
+     * @param request body with "refreshToken"
+     * @return ResponseEntity with new tokens
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> request) {
+        String refreshToken = request.get("refreshToken");
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ResponseEntity.badRequest().body(new LoginResponse(false, "Refresh token is required"));
+        }
+        try {
+            AuthTokenService.TokenPair tokens = authTokenService.refresh(refreshToken);
+            return ResponseEntity.ok(
+                    new LoginResponse(true, "Token refreshed", tokens.username(), tokens.role(),
+                            tokens.accessToken(), tokens.refreshToken(), tokens.expiresIn())
+            );
+        } catch (BadCredentialsException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new LoginResponse(false, e.getMessage()));
+        } catch (Exception e) {
+            log.error("Token refresh error: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new LoginResponse(false, "Token refresh failed")
+            );
+        }
+    }
+
+    /**
+     * Logout user by revoking the refresh token, if one is sent.
+     * The access token stays valid until it expires.
      * POST /api/auth/logout
      *
      * @return ResponseEntity with logout result
      */
     @PostMapping("/logout")
-    public ResponseEntity<?> logout() {
+    public ResponseEntity<?> logout(@RequestBody(required = false) Map<String, String> request) {
         try {
-            // Clear security context
+            if (request != null && request.get("refreshToken") != null) {
+                authTokenService.revoke(request.get("refreshToken"));
+            }
             SecurityContextHolder.clearContext();
             
             log.info("User logged out successfully");
@@ -241,13 +282,23 @@ public class UserController {
                 );
             }
 
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            String role = userDetails.getAuthorities().iterator().next().getAuthority();
+            // Current role (cached, evicted on change): the token's role claim may predate a role change
+            UserDetails user = userDetailsService.loadUserByUsername(authentication.getName());
+            if (!user.isEnabled()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                        new LoginResponse(false, "Not authenticated")
+                );
+            }
+            String role = user.getAuthorities().iterator().next().getAuthority();
 
             return ResponseEntity.ok(
-                    new LoginResponse(true, "Authenticated", userDetails.getUsername(), role)
+                    new LoginResponse(true, "Authenticated", user.getUsername(), role)
             );
 
+        } catch (UsernameNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    new LoginResponse(false, "Not authenticated")
+            );
         } catch (Exception e) {
             log.error("Error getting current user: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
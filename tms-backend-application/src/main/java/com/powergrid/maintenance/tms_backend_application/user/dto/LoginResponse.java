@@ -1,15 +1,15 @@
 package com.powergrid.maintenance.tms_backend_application.user.dto;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
  * DTO for login response containing authentication result and user info.
+ * Token fields are only present on login and refresh.
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class LoginResponse {
 
     private boolean success;
@@ -17,8 +17,38 @@ public class LoginResponse {
     private String username;
     private String role;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String accessToken;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String refreshToken;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String tokenType;
+
+    /**
+     * Access token lifetime in seconds
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long expiresIn;
+
     public LoginResponse(boolean success, String message) {
         this.success = success;
         this.message = message;
     }
+
+    public LoginResponse(boolean success, String message, String username, String role) {
+        this(success, message);
+        this.username = username;
+        this.role = role;
+    }
+
+    public LoginResponse(boolean success, String message, String username, String role,
+                         String accessToken, String refreshToken, long expiresIn) {
+        this(success, message, username, role);
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.tokenType = "Bearer";
+        this.expiresIn = expiresIn;
+    }
 }
@@ -0,0 +1,8 @@
+package com.powergrid.maintenance.tms_backend_application.user.event;
+
+/**
+ * Published whenever a user's authentication-relevant state (role, enabled flag, profile, existence)
+ * changes, so caches keyed by username can drop the entry once the change commits.
+ */
+public record UserAccountChangedEvent(String username) {
+}
@@ -0,0 +1,74 @@
+package com.powergrid.maintenance.tms_backend_application.user.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Email waiting in the outbox. Rows are written in the caller's transaction and delivered later by
+ * EmailDispatcher, so request handlers never wait on SMTP.
+ *
+ * A SENDING row is leased until nextAttemptAt; if its dispatcher dies the row becomes due again.
+ * Rows sharing a digestKey that are due together are delivered as one message.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_due", columnList = "status,next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+public class OutboxEmail {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENDING = "SENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 40)
+    private String kind; // OTP, WELCOME, ADMIN_WELCOME, ADMIN_REQUEST, PENDING_APPROVAL, ADMIN_REJECTION
+
+    @Column(nullable = false, length = 100)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "digest_key", length = 140)
+    private String digestKey;
+
+    @Column(nullable = false, length = 16)
+    private String status = STATUS_PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    public OutboxEmail(String kind, String recipient, String subject, String body, LocalDateTime notBefore) {
+        this.kind = kind;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = notBefore;
+    }
+}
@@ -0,0 +1,41 @@
+package com.powergrid.maintenance.tms_backend_application.user.repository;
+
+import com.powergrid.maintenance.tms_backend_application.user.model.OutboxEmail;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    /**
+     * Due rows (pending, or sending with an expired lease), oldest first. Rows locked by another
+     * dispatcher are skipped (lock timeout -2 is SKIP LOCKED), so nodes never claim the same email.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEmail e WHERE e.status IN :statuses AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt, e.id")
+    List<OutboxEmail> findDueForUpdate(@Param("statuses") Collection<String> statuses,
+                                       @Param("now") LocalDateTime now,
+                                       Pageable pageable);
+
+    /**
+     * Drop delivered and abandoned rows older than the cutoff
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEmail e WHERE e.status IN :statuses AND e.createdAt < :cutoff")
+    int deleteFinishedBefore(@Param("statuses") Collection<String> statuses, @Param("cutoff") LocalDateTime cutoff);
+
+    long countByStatus(String status);
+}
@@ -0,0 +1,143 @@
+package com.powergrid.maintenance.tms_backend_application.user.service;
+
+import com.powergrid.maintenance.tms_backend_application.config.security.AccessTokenService;
+import com.powergrid.maintenance.tms_backend_application.user.model.RefreshToken;
+import com.powergrid.maintenance.tms_backend_application.user.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Access/refresh token lifecycle. Access tokens are verified statelessly until they expire;
+ * refresh tokens are opaque, stored hashed, rotated on every use, and are where account state
+ * (enabled, current role) is re-checked against the database.
+ */
+@Service
+public class AuthTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthTokenService.class);
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private MyUserDetailsService userDetailsService;
+
+    @Value("${app.auth.token.refresh-ttl-days:14}")
+    private long refreshTtlDays;
+
+    /**
+     * Tokens returned by login and refresh.
+     */
+    public record TokenPair(String username, String role, String accessToken, String refreshToken, long expiresIn) {
+    }
+
+    @Transactional
+    public TokenPair issueTokens(String username, String role) {
+        String refreshToken = newRefreshToken();
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(new RefreshToken(null, hash(refreshToken), username, now,
+                now.plusDays(refreshTtlDays), null));
+        return new TokenPair(username, role, accessTokenService.issue(username, role), refreshToken,
+                accessTokenService.accessTtl().toSeconds());
+    }
+
+    /**
+     * Exchange a refresh token for a new pair. Presenting an already-rotated token means it was
+     * copied, so every session of that user is revoked.
+     *
+     * @throws BadCredentialsException if the token is unknown, expired, revoked or the account is disabled
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public TokenPair refresh(String refreshToken) {
+        // Row lock: a concurrent request with the same token waits, then sees it revoked (reuse)
+        RefreshToken stored = refreshTokenRepository.findForUpdate(hash(refreshToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        if (stored.isRevoked()) {
+            log.warn("Refresh token reuse detected for user {}; revoking all sessions", stored.getUsername());
+            refreshTokenRepository.revokeAllByUsername(stored.getUsername(), LocalDateTime.now());
+            throw new BadCredentialsException("Refresh token has been revoked");
+        }
+        if (stored.isExpired()) {
+            throw new BadCredentialsException("Refresh token has expired");
+        }
+        stored.setRevokedAt(LocalDateTime.now());
+
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(stored.getUsername());
+        } catch (UsernameNotFoundException e) {
+            user = null;
+        }
+        if (user == null || !user.isEnabled()) {
+            throw new BadCredentialsException("Account is no longer active");
+        }
+        return issueTokens(user.getUsername(), user.getAuthorities().iterator().next().getAuthority());
+    }
+
+    /**
+     * Revoke one refresh token (logout); unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(hash(refreshToken)).ifPresent(token -> {
+            if (!token.isRevoked()) {
+                token.setRevokedAt(LocalDateTime.now());
+            }
+        });
+    }
+
+    /**
+     * Revoke every refresh token of a user; access tokens already issued lapse at expiry.
+     */
+    @Transactional
+    public int revokeAll(String username) {
+        return refreshTokenRepository.revokeAllByUsername(username, LocalDateTime.now());
+    }
+
+    /**
+     * Remove expired refresh tokens; revoked ones are kept until expiry for reuse detection.
+     */
+    @Scheduled(fixedDelayString = "${app.auth.token.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (removed > 0) {
+            log.debug("Purged {} expired refresh tokens", removed);
+        }
+    }
+
+    private static String newRefreshToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.powergrid.maintenance.tms_backend_application.user.service;
+
+import com.powergrid.maintenance.tms_backend_application.user.model.OutboxEmail;
+import com.powergrid.maintenance.tms_backend_application.user.repository.OutboxEmailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers the email outbox in the background.
+ *
+ * Each round claims a batch of due rows (SKIP LOCKED, so several nodes can dispatch), merges rows
+ * sharing a digest key into one message, and sends them on a bounded pool in chunks of
+ * app.mail.outbox.messages-per-connection, each chunk over a single SMTP connection. Failures are
+ * retried with exponential back-off up to app.mail.outbox.max-attempts, then marked FAILED.
+ * Rounds run on enqueue (after commit) and on a fixed poll for retries and delayed digests.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.mail.outbox", name = "dispatcher-enabled", havingValue = "true", matchIfMissing = true)
+public class EmailDispatcher {
+
+    private static final List<String> DUE_STATUSES = List.of(OutboxEmail.STATUS_PENDING, OutboxEmail.STATUS_SENDING);
+    private static final List<String> FINISHED_STATUSES = List.of(OutboxEmail.STATUS_SENT, OutboxEmail.STATUS_FAILED);
+    private static final String DIGEST_SEPARATOR = "\n----------------------------------------\n\n";
+
+    private final OutboxEmailRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final String fromEmail;
+    private final int batchSize;
+    private final int messagesPerConnection;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+    private final Duration retention;
+
+    private final ExecutorService drainer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "email-outbox");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ThreadPoolExecutor senders;
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer connectionTimer;
+
+    public EmailDispatcher(OutboxEmailRepository outboxRepository,
+                           JavaMailSender mailSender,
+                           PlatformTransactionManager transactionManager,
+                           ObjectProvider<MeterRegistry> meterRegistry,
+                           @Value("${spring.mail.username:}") String fromEmail,
+                           @Value("${app.mail.outbox.pool-size:2}") int poolSize,
+                           @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                           @Value("${app.mail.outbox.messages-per-connection:20}") int messagesPerConnection,
+                           @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+                           @Value("${app.mail.outbox.lease-seconds:120}") long leaseSeconds,
+                           @Value("${app.mail.outbox.backoff-base-seconds:30}") long backoffBaseSeconds,
+                           @Value("${app.mail.outbox.backoff-max-seconds:3600}") long backoffMaxSeconds,
+                           @Value("${app.mail.outbox.retention-days:14}") long retentionDays) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fromEmail = fromEmail;
+        this.batchSize = Math.max(1, batchSize);
+        this.messagesPerConnection = Math.max(1, messagesPerConnection);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.backoffBase = Duration.ofSeconds(backoffBaseSeconds);
+        this.backoffMax = Duration.ofSeconds(backoffMaxSeconds);
+        this.retention = Duration.ofDays(retentionDays);
+
+        AtomicInteger threadIds = new AtomicInteger();
+        int threads = Math.max(1, poolSize);
+        // Bounded queue; when full the drainer sends the chunk itself, which throttles claiming
+        this.senders = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 2), r -> {
+                    Thread t = new Thread(r, "email-sender-" + threadIds.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.sentCounter = Counter.builder("tms.email.sent").description("Outbox rows delivered").register(registry);
+        this.retriedCounter = Counter.builder("tms.email.retried").description("Delivery attempts scheduled for retry").register(registry);
+        this.failedCounter = Counter.builder("tms.email.failed").description("Outbox rows abandoned after max attempts").register(registry);
+        this.connectionTimer = Timer.builder("tms.email.connection").description("Time to deliver one chunk over one SMTP connection").register(registry);
+    }
+
+    /**
+     * Request a dispatch round; coalesces with a round that has not started yet.
+     */
+    public void wakeUp() {
+        if (!wakeRequested.getAndSet(true)) {
+            drainer.execute(this::drain);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:5000}",
+               initialDelayString = "${app.mail.outbox.initial-delay-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.purge-interval-ms:3600000}")
+    public void purgeFinished() {
+        Integer removed = transactionTemplate.execute(status ->
+                outboxRepository.deleteFinishedBefore(FINISHED_STATUSES, LocalDateTime.now().minus(retention)));
+        if (removed != null && removed > 0) {
+            log.debug("Purged {} finished outbox emails", removed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Claimed rows that were not delivered become due again when their lease expires
+        drainer.shutdownNow();
+        senders.shutdown();
+        try {
+            senders.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        wakeRequested.set(false);
+        try {
+            while (dispatchBatch() == batchSize && !Thread.currentThread().isInterrupted()) {
+                // Full batch: more may be due
+            }
+        } catch (Exception e) {
+            log.warn("Email outbox dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Claim, send and record one batch.
+     *
+     * @return number of rows claimed
+     */
+    int dispatchBatch() throws InterruptedException {
+        List<OutboxEmail> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEmail> due = outboxRepository.findDueForUpdate(DUE_STATUSES, now, PageRequest.of(0, batchSize));
+            for (OutboxEmail email : due) {
+                email.setStatus(OutboxEmail.STATUS_SENDING);
+                email.setAttempts(email.getAttempts() + 1);
+                email.setNextAttemptAt(now.plus(lease));
+            }
+            return due;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<Delivery> deliveries = toDeliveries(claimed);
+        List<Future<Map<SimpleMailMessage, Exception>>> chunks = new ArrayList<>();
+        for (int from = 0; from < deliveries.size(); from += messagesPerConnection) {
+            List<Delivery> chunk = deliveries.subList(from, Math.min(deliveries.size(), from + messagesPerConnection));
+            chunks.add(senders.submit(() -> send(chunk)));
+        }
+        Map<SimpleMailMessage, Exception> failures = new HashMap<>();
+        for (Future<Map<SimpleMailMessage, Exception>> chunk : chunks) {
+            try {
+                failures.putAll(chunk.get());
+            } catch (ExecutionException e) {
+                // send() reports failures itself; anything else leaves the rows to their lease
+                log.warn("Email chunk failed unexpectedly: {}", e.getCause().getMessage());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Delivery delivery : deliveries) {
+            Exception failure = failures.get(delivery.message());
+            for (OutboxEmail email : delivery.rows()) {
+                if (failure == null) {
+                    email.setStatus(OutboxEmail.STATUS_SENT);
+                    email.setSentAt(now);
+                    email.setLastError(null);
+                    sentCounter.increment();
+                } else {
+                    recordFailure(email, failure, now);
+                }
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.saveAll(claimed));
+        return claimed.size();
+    }
+
+    private void recordFailure(OutboxEmail email, Exception failure, LocalDateTime now) {
+        String message = String.valueOf(failure.getMessage());
+        email.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+        if (email.getAttempts() >= maxAttempts) {
+            email.setStatus(OutboxEmail.STATUS_FAILED);
+            failedCounter.increment();
+            log.error("Giving up on {} email {} to {} after {} attempts: {}",
+                    email.getKind(), email.getId(), email.getRecipient(), email.getAttempts(), message);
+            return;
+        }
+        email.setStatus(OutboxEmail.STATUS_PENDING);
+        email.setNextAttemptAt(now.plus(backoff(email.getAttempts())));
+        retriedCounter.increment();
+        log.warn("Email {} to {} failed (attempt {}), retrying at {}: {}",
+                email.getId(), email.getRecipient(), email.getAttempts(), email.getNextAttemptAt(), message);
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = backoffBase.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+
+    /**
+     * Send one chunk over one connection; returns the messages that failed.
+     */
+    private Map<SimpleMailMessage, Exception> send(List<Delivery> chunk) {
+        SimpleMailMessage[] messages = chunk.stream().map(Delivery::message).toArray(SimpleMailMessage[]::new);
+        Timer.Sample sample = Timer.start();
+        try {
+            mailSender.send(messages);
+            return Map.of();
+        } catch (MailSendException e) {
+            Map<SimpleMailMessage, Exception> failed = new HashMap<>();
+            e.getFailedMessages().forEach((message, cause) -> {
+                if (message instanceof SimpleMailMessage simple) {
+                    failed.put(simple, cause);
+                }
+            });
+            return failed.isEmpty() ? allFailed(messages, e) : failed;
+        } catch (MailException e) {
+            return allFailed(messages, e);
+        } finally {
+            sample.stop(connectionTimer);
+        }
+    }
+
+    private static Map<SimpleMailMessage, Exception> allFailed(SimpleMailMessage[] messages, Exception cause) {
+        Map<SimpleMailMessage, Exception> failed = new HashMap<>();
+        for (SimpleMailMessage message : messages) {
+            failed.put(message, cause);
+        }
+        return failed;
+    }
+
+    /**
+     * One message per row, except rows sharing a digest key, which become a single digest.
+     */
+    private List<Delivery> toDeliveries(List<OutboxEmail> claimed) {
+        List<Delivery> deliveries = new ArrayList<>();
+        Map<String, List<OutboxEmail>> digests = new LinkedHashMap<>();
+        for (OutboxEmail email : claimed) {
+            if (email.getDigestKey() == null) {
+                deliveries.add(new Delivery(message(email.getRecipient(), email.getSubject(), email.getBody()), List.of(email)));
+            } else {
+                digests.computeIfAbsent(email.getDigestKey(), k -> new ArrayList<>()).add(email);
+            }
+        }
+        for (List<OutboxEmail> rows : digests.values()) {
+            OutboxEmail first = rows.get(0);
+            if (rows.size() == 1) {
+                deliveries.add(new Delivery(message(first.getRecipient(), first.getSubject(), first.getBody()), rows));
+                continue;
+            }
+            String body = "You have " + rows.size() + " new notifications.\n\n"
+                    + String.join(DIGEST_SEPARATOR, rows.stream().map(OutboxEmail::getBody).toList());
+            deliveries.add(new Delivery(message(first.getRecipient(), first.getSubject() + " (" + rows.size() + ")", body), rows));
+        }
+        return deliveries;
+    }
+
+    private SimpleMailMessage message(String to, String subject, String body) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        if (StringUtils.hasText(fromEmail)) {
+            message.setFrom(fromEmail);
+        }
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(body);
+        return message;
+    }
+
+    private record Delivery(SimpleMailMessage message, List<OutboxEmail> rows) {
+    }
+}
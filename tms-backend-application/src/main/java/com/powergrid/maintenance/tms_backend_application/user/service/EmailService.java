@@ -1,40 +1,64 @@
 package com.powergrid.maintenance.tms_backend_application.user.service;
 
+import com.powergrid.maintenance.tms_backend_application.user.model.OutboxEmail;
+import com.powergrid.maintenance.tms_backend_application.user.repository.OutboxEmailRepository;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
 
 /**
- * Service for sending emails
+ * Service for sending emails.
+ * Messages are written to the email outbox in the caller's transaction and delivered by
+ * EmailDispatcher, so SMTP latency and outages never reach the request path.
  */
 @Service
 public class EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private OutboxEmailRepository outboxRepository;
+
+    @Autowired
+    private ObjectProvider<EmailDispatcher> dispatcher;
 
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    /**
+     * Admin request notifications are held this long so that requests arriving together reach
+     * each admin as a single digest.
+     */
+    @Value("${app.mail.outbox.admin-digest-seconds:60}")
+    private long adminDigestSeconds;
+
+    private void enqueue(String kind, String toEmail, String subject, String body) {
+        enqueue(new OutboxEmail(kind, toEmail, subject, body, LocalDateTime.now()));
+    }
+
+    /**
+     * Store an email for delivery; the dispatcher is woken once the surrounding transaction commits.
+     */
+    private void enqueue(OutboxEmail email) {
+        outboxRepository.save(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatcher.ifAvailable(EmailDispatcher::wakeUp);
+                }
+            });
+        } else {
+            dispatcher.ifAvailable(EmailDispatcher::wakeUp);
+        }
+    }
 
     /**
      * Send OTP verification email
      */
     public void sendOtpEmail(String toEmail, String otpCode) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("Email Verification - Transformer Maintenance System");
-            message.setText(buildOtpEmailBody(otpCode));
-            
-            mailSender.send(message);
-            System.out.println("OTP email sent successfully to: " + toEmail);
-        } catch (Exception e) {
-            System.err.println("Failed to send OTP email: " + e.getMessage());
-            throw new RuntimeException("Failed to send verification email. Please try again.");
-        }
+        enqueue("OTP", toEmail, "Email Verification - Transformer Maintenance System",
+                buildOtpEmailBody(otpCode));
     }
 
     /**
@@ -59,19 +83,8 @@ public class EmailService {
      * Send welcome email after successful verification
      */
     public void sendWelcomeEmail(String toEmail, String username) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("Welcome to Transformer Maintenance System");
-            message.setText(buildWelcomeEmailBody(username));
-            
-            mailSender.send(message);
-            System.out.println("Welcome email sent successfully to: " + toEmail);
-        } catch (Exception e) {
-            System.err.println("Failed to send welcome email: " + e.getMessage());
-            // Don't throw exception for welcome email failure
-        }
+        enqueue("WELCOME", toEmail, "Welcome to Transformer Maintenance System",
+                buildWelcomeEmailBody(username));
     }
 
     /**
@@ -94,19 +107,8 @@ public class EmailService {
      * Send admin welcome email after approval
      */
     public void sendAdminWelcomeEmail(String toEmail, String username) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("Admin Access Granted - Transformer Maintenance System");
-            message.setText(buildAdminWelcomeEmailBody(username));
-            
-            mailSender.send(message);
-            System.out.println("Admin welcome email sent successfully to: " + toEmail);
-        } catch (Exception e) {
-            System.err.println("Failed to send admin welcome email: " + e.getMessage());
-            // Don't throw exception for welcome email failure
-        }
+        enqueue("ADMIN_WELCOME", toEmail, "Admin Access Granted - Transformer Maintenance System",
+                buildAdminWelcomeEmailBody(username));
     }
 
     /**
@@ -137,19 +139,11 @@ public class EmailService {
      * Send notification to existing admins about new admin request
      */
     public void sendAdminRequestNotification(String adminEmail, String candidateUsername, String candidateEmail, String justification) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(adminEmail);
-            message.setSubject("New Admin Access Request - Action Required");
-            message.setText(buildAdminRequestNotificationBody(candidateUsername, candidateEmail, justification));
-            
-            mailSender.send(message);
-            System.out.println("Admin request notification sent successfully to: " + adminEmail);
-        } catch (Exception e) {
-            System.err.println("Failed to send admin request notification: " + e.getMessage());
-            // Don't throw exception for notification failure
-        }
+        OutboxEmail email = new OutboxEmail("ADMIN_REQUEST", adminEmail, "New Admin Access Request - Action Required",
+                buildAdminRequestNotificationBody(candidateUsername, candidateEmail, justification),
+                LocalDateTime.now().plusSeconds(adminDigestSeconds));
+        email.setDigestKey("ADMIN_REQUEST:" + adminEmail);
+        enqueue(email);
     }
 
     /**
@@ -181,19 +175,8 @@ public class EmailService {
      * Send email to user informing them they're pending approval
      */
     public void sendPendingApprovalEmail(String toEmail, String username) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("Admin Access Request Pending - Transformer Maintenance System");
-            message.setText(buildPendingApprovalEmailBody(username));
-            
-            mailSender.send(message);
-            System.out.println("Pending approval email sent successfully to: " + toEmail);
-        } catch (Exception e) {
-            System.err.println("Failed to send pending approval email: " + e.getMessage());
-            // Don't throw exception for notification email failure
-        }
+        enqueue("PENDING_APPROVAL", toEmail, "Admin Access Request Pending - Transformer Maintenance System",
+                buildPendingApprovalEmailBody(username));
     }
 
     /**
@@ -227,19 +210,8 @@ public class EmailService {
      * Send rejection email to user
      */
     public void sendAdminRejectionEmail(String toEmail, String username, String rejectionReason) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("Admin Access Request - Decision");
-            message.setText(buildAdminRejectionEmailBody(username, rejectionReason));
-            
-            mailSender.send(message);
-            System.out.println("Admin rejection email sent successfully to: " + toEmail);
-        } catch (Exception e) {
-            System.err.println("Failed to send admin rejection email: " + e.getMessage());
-            // Don't throw exception for rejection email failure
-        }
+        enqueue("ADMIN_REJECTION", toEmail, "Admin Access Request - Decision",
+                buildAdminRejectionEmailBody(username, rejectionReason));
     }
 
     /**
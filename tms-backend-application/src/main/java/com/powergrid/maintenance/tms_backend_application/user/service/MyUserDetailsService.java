@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 /**
  * Custom UserDetailsService implementation for Spring Security.
  * This service is used by Spring Security to load user-specific data during authentication.
+ * Lookups go through UserDetailsCache; services publish UserAccountChangedEvent to evict.
  */
 @Service
 public class MyUserDetailsService implements UserDetailsService {
@@ -19,6 +20,9 @@ public class MyUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
     /**
      * Loads the user by username from the database.
      * This method is called by Spring Security during authentication.
@@ -29,6 +33,10 @@ public class MyUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userDetailsCache.get(username, this::loadFromDatabase);
+    }
+
+    private UserDetails loadFromDatabase(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
@@ -0,0 +1,70 @@
+package com.powergrid.maintenance.tms_backend_application.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.powergrid.maintenance.tms_backend_application.user.event.UserAccountChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of loaded UserDetails, keyed by username.
+ *
+ * Entries are dropped when a UserAccountChangedEvent commits (role change, approval, profile
+ * update, deletion) and otherwise expire after app.auth.user-cache.ttl-seconds, which bounds
+ * staleness for changes made outside the services (e.g. direct SQL). Unknown usernames are not
+ * cached. Hit/miss/eviction counts are published as cache.* meters with cache=user-details.
+ */
+@Slf4j
+@Component
+public class UserDetailsCache {
+
+    private final Cache<String, UserDetails> cache;
+
+    public UserDetailsCache(@Value("${app.auth.user-cache.max-size:1000}") long maxSize,
+                            @Value("${app.auth.user-cache.ttl-seconds:300}") long ttlSeconds,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "user-details");
+        }
+    }
+
+    /**
+     * Cached details, or the loader's result; a loader exception (user not found) propagates
+     * and caches nothing.
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return cache.get(username, loader);
+    }
+
+    public void evict(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    /**
+     * Runs after the publishing transaction commits (or immediately outside one), so a concurrent
+     * load cannot re-cache the pre-commit row after eviction.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        evict(event.username());
+        log.debug("Evicted cached user details for {}", event.username());
+    }
+}
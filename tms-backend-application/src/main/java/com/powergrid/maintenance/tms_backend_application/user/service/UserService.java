@@ -1,5 +1,6 @@
 package com.powergrid.maintenance.tms_backend_application.user.service;
 
+import com.powergrid.maintenance.tms_backend_application.user.event.UserAccountChangedEvent;
 import com.powergrid.maintenance.tms_backend_application.user.model.User;
 import com.powergrid.maintenance.tms_backend_application.user.repository.UserRepository;
 import com.powergrid.maintenance.tms_backend_application.user.repository.OtpRepository;
@@ -7,6 +8,7 @@ import com.powergrid.maintenance.tms_backend_application.user.dto.UpdateUserProf
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,6 +36,12 @@ public class UserService {
     @Autowired
     private OtpRepository otpRepository;
 
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Register a new user with encrypted password (account disabled until email verification).
      *
@@ -94,6 +102,7 @@ public class UserService {
         user.setEmailVerified(true);
         user.setEnabled(true);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(user.getUsername()));
 
         // Send welcome email
         emailService.sendWelcomeEmail(email, user.getUsername());
@@ -151,6 +160,7 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(username));
         log.info("Profile updated for user: {}", username);
         return updatedUser;
     }
@@ -174,8 +184,12 @@ public class UserService {
             otpRepository.deleteByEmail(user.getEmail());
         }
 
+        // End all sessions
+        authTokenService.revokeAll(username);
+
         // Delete user
         userRepository.delete(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(username));
         log.info("Account deleted: {}", username);
         return true;
     }
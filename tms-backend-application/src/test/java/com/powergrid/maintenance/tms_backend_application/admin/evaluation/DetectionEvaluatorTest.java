@@ -0,0 +1,168 @@
+package com.powergrid.maintenance.tms_backend_application.admin.evaluation;
+
+import com.powergrid.maintenance.tms_backend_application.admin.evaluation.DetectionEvaluator.ImageDetections;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DetectionEvaluatorTest {
+
+    private static final ForkJoinPool POOL = ForkJoinPool.commonPool();
+    private static final int[] NONE = {};
+    private static final double[] NO_SCORES = {};
+
+    @Test
+    void perfectMatchGivesMapOfOne() {
+        List<ImageDetections> images = new ArrayList<>();
+        // More images than one task handles, so matching is split across the pool
+        for (int i = 0; i < 20; i++) {
+            int[] boxes = {10, 10, 50, 50, 60, 60, 90, 120};
+            int[] classes = {0, 1};
+            images.add(new ImageDetections(boxes, classes, boxes.clone(), classes.clone(), new double[]{0.9, 0.8}));
+        }
+        DetectionMetrics metrics = DetectionEvaluator.evaluate(images, 0.5, POOL);
+
+        assertThat(metrics.images()).isEqualTo(20);
+        assertThat(metrics.truths()).isEqualTo(40);
+        assertThat(metrics.predictions()).isEqualTo(40);
+        assertThat(metrics.map50()).isEqualTo(1.0);
+        assertThat(metrics.map()).isEqualTo(1.0);
+        assertThat(metrics.precision()).isEqualTo(1.0);
+        assertThat(metrics.recall()).isEqualTo(1.0);
+    }
+
+    @Test
+    void noPredictionsGivesApOfZero() {
+        ImageDetections image = new ImageDetections(new int[]{0, 0, 10, 10}, new int[]{3}, NONE, NONE, NO_SCORES);
+        DetectionMetrics metrics = DetectionEvaluator.evaluate(List.of(image), 0.5, POOL);
+
+        DetectionMetrics.ClassMetrics cls = metrics.forClass(3);
+        assertThat(cls.truths()).isEqualTo(1);
+        assertThat(cls.predictions()).isZero();
+        assertThat(cls.ap50()).isZero();
+        assertThat(cls.ap()).isZero();
+        assertThat(cls.recall()).isZero();
+        assertThat(cls.precision()).isZero();
+        assertThat(metrics.map()).isZero();
+    }
+
+    @Test
+    void duplicateDetectionsAreFalsePositives() {
+        // Two predictions on the same truth: the higher score matches, the other is a false positive
+        ImageDetections image = new ImageDetections(
+                new int[]{0, 0, 100, 100}, new int[]{0},
+                new int[]{0, 0, 100, 100, 2, 2, 100, 100}, new int[]{0, 0}, new double[]{0.8, 0.9});
+        DetectionMetrics.ClassMetrics cls = DetectionEvaluator.evaluate(List.of(image), 0.5, POOL).forClass(0);
+
+        assertThat(cls.predictions()).isEqualTo(2);
+        assertThat(cls.precision()).isEqualTo(0.5);
+        assertThat(cls.recall()).isEqualTo(1.0);
+        // The false positive ranks after full recall, so it does not lower AP
+        assertThat(cls.ap50()).isEqualTo(1.0);
+    }
+
+    @Test
+    void falsePositiveRankedFirstHalvesAp() {
+        // Ranked FP then TP: precision [0, 1/2], envelope 1/2 at every recall point
+        ImageDetections image = new ImageDetections(
+                new int[]{0, 0, 100, 100}, new int[]{0},
+                new int[]{0, 0, 100, 100, 200, 200, 300, 300}, new int[]{0, 0}, new double[]{0.6, 0.9});
+        DetectionMetrics.ClassMetrics cls = DetectionEvaluator.evaluate(List.of(image), 0.5, POOL).forClass(0);
+
+        assertThat(cls.ap50()).isCloseTo(0.5, within(1e-12));
+    }
+
+    @Test
+    void apUsesCocoHundredAndOnePointInterpolation() {
+        // Two truths, ranked TP, FP, TP: recall [.5, .5, 1], enveloped precision [1, 2/3, 2/3].
+        // Recall points 0.00..0.50 (51 of them) read 1, points 0.51..1.00 (50) read 2/3.
+        ImageDetections image = new ImageDetections(
+                new int[]{0, 0, 100, 100, 200, 200, 300, 300}, new int[]{0, 0},
+                new int[]{0, 0, 100, 100, 500, 500, 600, 600, 200, 200, 300, 300}, new int[]{0, 0, 0},
+                new double[]{0.9, 0.8, 0.7});
+        DetectionMetrics.ClassMetrics cls = DetectionEvaluator.evaluate(List.of(image), 0.5, POOL).forClass(0);
+
+        assertThat(cls.ap50()).isCloseTo((51 + 50 * (2.0 / 3.0)) / 101, within(1e-12));
+        assertThat(cls.ap50()).isCloseTo(0.834983, within(1e-6));
+    }
+
+    @Test
+    void partialRecallIsNotRoundedToHalf() {
+        // One of two truths found: COCO gives 51/101, not the 0.5 of area-under-curve AP
+        ImageDetections image = new ImageDetections(
+                new int[]{0, 0, 100, 100, 200, 200, 300, 300}, new int[]{0, 0},
+                new int[]{0, 0, 100, 100}, new int[]{0}, new double[]{0.9});
+        DetectionMetrics.ClassMetrics cls = DetectionEvaluator.evaluate(List.of(image), 0.5, POOL).forClass(0);
+
+        assertThat(cls.ap50()).isCloseTo(51.0 / 101, within(1e-12));
+        assertThat(cls.recall()).isEqualTo(0.5);
+    }
+
+    @Test
+    void apAveragesOverIouThresholds() {
+        // IoU 0.72 matches at 0.50..0.70 (5 of 10 thresholds)
+        ImageDetections image = new ImageDetections(
+                new int[]{0, 0, 100, 100}, new int[]{0},
+                new int[]{0, 0, 100, 72}, new int[]{0}, new double[]{0.9});
+        DetectionMetrics.ClassMetrics cls = DetectionEvaluator.evaluate(List.of(image), 0.5, POOL).forClass(0);
+
+        assertThat(cls.ap50()).isEqualTo(1.0);
+        assertThat(cls.ap()).isCloseTo(0.5, within(1e-12));
+    }
+
+    @Test
+    void predictionOfAnotherClassDoesNotMatch() {
+        ImageDetections image = new ImageDetections(
+                new int[]{0, 0, 100, 100}, new int[]{0},
+                new int[]{0, 0, 100, 100}, new int[]{1}, new double[]{0.9});
+        DetectionMetrics metrics = DetectionEvaluator.evaluate(List.of(image), 0.5, POOL);
+
+        assertThat(metrics.forClass(0).ap50()).isZero();
+        assertThat(metrics.forClass(1).precision()).isZero();
+    }
+
+    @Test
+    void classWithoutGroundTruthIsExcludedFromMeans() {
+        ImageDetections image = new ImageDetections(
+                new int[]{0, 0, 100, 100}, new int[]{0},
+                new int[]{0, 0, 100, 100, 300, 300, 400, 400}, new int[]{0, 2}, new double[]{0.9, 0.9});
+        DetectionMetrics metrics = DetectionEvaluator.evaluate(List.of(image), 0.5, POOL);
+
+        DetectionMetrics.ClassMetrics ghost = metrics.forClass(2);
+        assertThat(ghost.truths()).isZero();
+        assertThat(ghost.predictions()).isEqualTo(1);
+        assertThat(ghost.ap50()).isNull();
+        assertThat(ghost.ap()).isNull();
+        assertThat(ghost.recall()).isNull();
+        assertThat(ghost.precision()).isZero();
+
+        assertThat(metrics.map50()).isEqualTo(1.0);
+        assertThat(metrics.precision()).isEqualTo(1.0);
+        assertThat(metrics.toMap()).containsEntry("mAP50", 1.0);
+    }
+
+    @Test
+    void confidenceOnlyAffectsPrecisionAndRecall() {
+        ImageDetections image = new ImageDetections(
+                new int[]{0, 0, 100, 100}, new int[]{0},
+                new int[]{0, 0, 100, 100}, new int[]{0}, new double[]{0.3});
+        DetectionMetrics.ClassMetrics cls = DetectionEvaluator.evaluate(List.of(image), 0.5, POOL).forClass(0);
+
+        assertThat(cls.precision()).isZero();
+        assertThat(cls.recall()).isZero();
+        assertThat(cls.ap50()).isEqualTo(1.0);
+    }
+
+    @Test
+    void emptySampleHasZeroMeans() {
+        DetectionMetrics metrics = DetectionEvaluator.evaluate(List.of(), 0.5, POOL);
+
+        assertThat(metrics.classes()).isEmpty();
+        assertThat(metrics.map()).isZero();
+    }
+}
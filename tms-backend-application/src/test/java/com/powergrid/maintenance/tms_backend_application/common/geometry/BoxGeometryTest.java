@@ -0,0 +1,203 @@
+package com.powergrid.maintenance.tms_backend_application.common.geometry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class BoxGeometryTest {
+
+    @Test
+    void iouOfDisjointBoxesIsZero() {
+        int[] a = {0, 0, 10, 10};
+        int[] b = {20, 20, 30, 30};
+        assertThat(BoxGeometry.iou(a, 0, b, 0)).isZero();
+    }
+
+    @Test
+    void iouOfTouchingBoxesIsZero() {
+        // x2 is exclusive, so sharing an edge is no overlap
+        int[] a = {0, 0, 10, 10};
+        int[] b = {10, 0, 20, 10};
+        assertThat(BoxGeometry.iou(a, 0, b, 0)).isZero();
+        assertThat(BoxGeometry.iou(b, 0, a, 0)).isZero();
+    }
+
+    @Test
+    void iouOfNestedBoxesIsAreaRatio() {
+        int[] outer = {0, 0, 20, 20};
+        int[] inner = {5, 5, 15, 15};
+        assertThat(BoxGeometry.iou(outer, 0, inner, 0)).isCloseTo(100.0 / 400.0, within(1e-12));
+        assertThat(BoxGeometry.iou(inner, 0, outer, 0)).isCloseTo(0.25, within(1e-12));
+        assertThat(BoxGeometry.iou(outer, 0, outer, 0)).isEqualTo(1.0);
+    }
+
+    @Test
+    void iouOfPartialOverlap() {
+        int[] a = {0, 0, 10, 10};
+        int[] b = {5, 0, 15, 10};
+        // intersection 50, union 150
+        assertThat(BoxGeometry.iou(a, 0, b, 0)).isCloseTo(1.0 / 3.0, within(1e-12));
+    }
+
+    @Test
+    void iouOfDegenerateBoxIsZero() {
+        int[] a = {5, 5, 5, 5};
+        assertThat(BoxGeometry.iou(a, 0, a, 0)).isZero();
+    }
+
+    @Test
+    void iouMatrixIsRowMajor() {
+        int[] a = {0, 0, 10, 10, 100, 100, 110, 110};
+        int[] b = {0, 0, 10, 10};
+        double[] out = new double[2];
+        BoxGeometry.iouMatrix(a, 2, b, 1, out);
+        assertThat(out).containsExactly(1.0, 0.0);
+    }
+
+    @Test
+    void largeCoordinatesDoNotOverflow() {
+        int[] a = {0, 0, 100_000, 100_000};
+        int[] b = {0, 0, 100_000, 50_000};
+        assertThat(BoxGeometry.area(a, 0)).isEqualTo(10_000_000_000L);
+        assertThat(BoxGeometry.iou(a, 0, b, 0)).isCloseTo(0.5, within(1e-12));
+
+        int[] huge = {Integer.MIN_VALUE / 2, Integer.MIN_VALUE / 2, Integer.MAX_VALUE / 2, Integer.MAX_VALUE / 2};
+        assertThat(BoxGeometry.area(huge, 0)).isPositive();
+        assertThat(BoxGeometry.iou(huge, 0, huge, 0)).isEqualTo(1.0);
+    }
+
+    @Test
+    void scalarAreaUsesIntArithmetic() {
+        assertThat(BoxGeometry.area(640, 480)).isEqualTo(307_200);
+        // Wraps like the plain multiplication it replaced
+        assertThat(BoxGeometry.area(65_536, 65_536)).isZero();
+    }
+
+    @Test
+    void conversionsRoundTrip() {
+        int[] xywh = {3, 4, 10, 20, 0, 0, 1, 1};
+        int[] xyxy = new int[8];
+        BoxGeometry.xywhToXyxy(xywh, xyxy, 2);
+        assertThat(xyxy).containsExactly(3, 4, 13, 24, 0, 0, 1, 1);
+        int[] back = new int[8];
+        BoxGeometry.xyxyToXywh(xyxy, back, 2);
+        assertThat(back).containsExactly(xywh);
+    }
+
+    @Test
+    void mergeEnclosesBothBoxes() {
+        int[] a = {0, 5, 10, 15};
+        int[] b = {5, 0, 20, 10};
+        int[] out = new int[4];
+        BoxGeometry.merge(a, 0, b, 0, out, 0);
+        assertThat(out).containsExactly(0, 0, 20, 15);
+    }
+
+    @Test
+    void clampKeepsBoxesInsideTheImage() {
+        int[] boxes = {-5, -5, 50, 50, 90, 90, 200, 200, 150, 150, 160, 160};
+        BoxGeometry.clamp(boxes, 3, 100, 100);
+        assertThat(boxes).containsExactly(0, 0, 50, 50, 90, 90, 100, 100, 100, 100, 100, 100);
+    }
+
+    @Test
+    void nmsKeepsBestAndSuppressesOverlaps() {
+        int[] boxes = {
+                0, 0, 10, 10,     // 0
+                1, 1, 11, 11,     // 1: overlaps 0 heavily
+                50, 50, 60, 60,   // 2: separate
+        };
+        double[] scores = {0.8, 0.9, 0.7};
+        int[] order = new int[3];
+        int[] keep = new int[3];
+        int kept = BoxGeometry.nms(boxes, scores, 3, 0.5, order, keep);
+        assertThat(Arrays.copyOf(keep, kept)).containsExactly(1, 2);
+        assertThat(order).containsExactly(1, 0, 2);
+    }
+
+    @Test
+    void nmsSuppressesOnlyAboveThreshold() {
+        int[] boxes = {0, 0, 10, 10, 5, 0, 15, 10}; // IoU 1/3
+        double[] scores = {0.9, 0.8};
+        int[] keep = new int[2];
+        assertThat(BoxGeometry.nms(boxes, scores, 2, 1.0 / 3.0, new int[2], keep)).isEqualTo(2);
+        assertThat(BoxGeometry.nms(boxes, scores, 2, 0.3, new int[2], keep)).isEqualTo(1);
+        assertThat(keep[0]).isZero();
+    }
+
+    @Test
+    void nmsTiesKeepTheEarlierBox() {
+        int[] boxes = {0, 0, 10, 10, 0, 0, 10, 10, 0, 0, 10, 10};
+        double[] scores = {0.5, 0.5, 0.5};
+        int[] keep = new int[3];
+        int kept = BoxGeometry.nms(boxes, scores, 3, 0.5, new int[3], keep);
+        assertThat(kept).isEqualTo(1);
+        assertThat(keep[0]).isZero();
+    }
+
+    @Test
+    void nmsOfNothingKeepsNothing() {
+        assertThat(BoxGeometry.nms(new int[0], new double[0], 0, 0.5, new int[0], new int[0])).isZero();
+    }
+
+    @Test
+    void sortMatchesReferenceOnRandomScoresWithTies() {
+        Random random = new Random(42);
+        for (int n : new int[]{1, 2, 15, 16, 17, 100, 1000}) {
+            double[] scores = new double[n];
+            for (int i = 0; i < n; i++) {
+                scores[i] = random.nextInt(20) / 20.0; // many ties
+            }
+            int[] idx = new int[n];
+            for (int i = 0; i < n; i++) {
+                idx[i] = i;
+            }
+            BoxGeometry.sortIndicesByScoreDesc(idx, scores, n);
+
+            assertThat(Arrays.stream(idx).sorted().toArray()).as("permutation, n=%d", n)
+                    .containsExactly(IntStream.range(0, n).toArray());
+            for (int k = 1; k < n; k++) {
+                assertThat(scores[idx[k - 1]]).as("descending at %d, n=%d", k, n).isGreaterThanOrEqualTo(scores[idx[k]]);
+            }
+        }
+    }
+
+    @Test
+    void nmsMatchesBruteForceOnRandomBoxes() {
+        Random random = new Random(7);
+        int n = 200;
+        int[] boxes = new int[4 * n];
+        double[] scores = new double[n];
+        for (int i = 0; i < n; i++) {
+            int x = random.nextInt(500);
+            int y = random.nextInt(500);
+            BoxGeometry.xywhToXyxy(x, y, 10 + random.nextInt(60), 10 + random.nextInt(60), boxes, i);
+            scores[i] = random.nextDouble(); // distinct, so the order is unique
+        }
+        int[] keep = new int[n];
+        int kept = BoxGeometry.nms(boxes, scores, n, 0.45, new int[n], keep);
+
+        Integer[] byScore = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            byScore[i] = i;
+        }
+        Arrays.sort(byScore, (p, q) -> Double.compare(scores[q], scores[p]));
+        int[] expected = new int[n];
+        int expectedCount = 0;
+        for (int candidate : byScore) {
+            boolean suppressed = false;
+            for (int k = 0; k < expectedCount && !suppressed; k++) {
+                suppressed = BoxGeometry.iou(boxes, candidate, boxes, expected[k]) > 0.45;
+            }
+            if (!suppressed) {
+                expected[expectedCount++] = candidate;
+            }
+        }
+        assertThat(Arrays.copyOf(keep, kept)).containsExactly(Arrays.copyOf(expected, expectedCount));
+    }
+}
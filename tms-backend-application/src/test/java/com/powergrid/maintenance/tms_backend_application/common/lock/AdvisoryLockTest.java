@@ -0,0 +1,27 @@
+package com.powergrid.maintenance.tms_backend_application.common.lock;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdvisoryLockTest {
+
+    @Test
+    void keysAreDistinct() {
+        long[] keys = Arrays.stream(AdvisoryLock.values()).mapToLong(AdvisoryLock::key).toArray();
+
+        assertThat(Arrays.stream(keys).distinct().count()).isEqualTo(keys.length);
+    }
+
+    @Test
+    void keysSpellTheirTags() {
+        for (AdvisoryLock lock : AdvisoryLock.values()) {
+            String tag = new String(ByteBuffer.allocate(Long.BYTES).putLong(lock.key()).array(), StandardCharsets.US_ASCII);
+            assertThat(tag).as(lock.name()).startsWith("tms_").hasSize(8);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeoKdTreeTest {
+
+    private static final double TOLERANCE_KM = 1e-6;
+
+    @Test
+    void nearestMatchesBruteForceOnRandomPoints() {
+        Random random = new Random(11);
+        int n = 3000;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        int[] ids = randomPoints(random, lats, lons, n);
+        GeoKdTree tree = new GeoKdTree(ids, lats, lons, n);
+
+        for (int q = 0; q < 300; q++) {
+            double lat = randomLatitude(random, q % 3);
+            double lon = randomLongitude(random, q % 3);
+            for (int k : new int[]{1, 5, 40}) {
+                assertNearest(tree, lats, lons, n, lat, lon, k, Double.POSITIVE_INFINITY, null);
+            }
+            assertNearest(tree, lats, lons, n, lat, lon, 10, 500, null);
+            assertNearest(tree, lats, lons, n, lat, lon, 10, Double.POSITIVE_INFINITY, id -> id % 3 == 0);
+        }
+    }
+
+    @Test
+    void withinMatchesBruteForceOnRandomPoints() {
+        Random random = new Random(5);
+        int n = 2000;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        int[] ids = randomPoints(random, lats, lons, n);
+        GeoKdTree tree = new GeoKdTree(ids, lats, lons, n);
+
+        for (int q = 0; q < 200; q++) {
+            double lat = randomLatitude(random, q % 3);
+            double lon = randomLongitude(random, q % 3);
+            double radius = random.nextDouble() * 2000;
+            int[] found = tree.within(lat, lon, radius, null);
+
+            assertSortedByDistance(found, lats, lons, lat, lon);
+            for (int id : found) {
+                assertThat(GeoKdTree.haversineKm(lat, lon, lats[id], lons[id])).isLessThanOrEqualTo(radius + TOLERANCE_KM);
+            }
+            int[] sortedFound = found.clone();
+            Arrays.sort(sortedFound);
+            for (int i = 0; i < n; i++) {
+                if (GeoKdTree.haversineKm(lat, lon, lats[i], lons[i]) <= radius - TOLERANCE_KM) {
+                    assertThat(Arrays.binarySearch(sortedFound, i)).as("point %d within %.1f km", i, radius).isNotNegative();
+                }
+            }
+        }
+    }
+
+    @Test
+    void nearestCrossesTheAntimeridian() {
+        double[] lats = {0, 0, 0};
+        double[] lons = {179.9, -179.9, 170};
+        GeoKdTree tree = new GeoKdTree(new int[]{0, 1, 2}, lats, lons, 3);
+
+        assertThat(tree.nearest(0, -179.95, 2, Double.POSITIVE_INFINITY, null)).containsExactly(1, 0);
+        assertThat(tree.nearest(0, 179.95, 2, Double.POSITIVE_INFINITY, null)).containsExactly(0, 1);
+        assertThat(tree.within(0, 180, 20, null)).containsExactlyInAnyOrder(0, 1);
+    }
+
+    @Test
+    void nearestNearThePoles() {
+        // Every longitude at the pole is the same point
+        double[] lats = {90, 90, 89, -89.5, 0};
+        double[] lons = {0, 120, -60, 10, 0};
+        GeoKdTree tree = new GeoKdTree(new int[]{0, 1, 2, 3, 4}, lats, lons, 5);
+
+        int[] found = tree.nearest(89.99, 45, 3, Double.POSITIVE_INFINITY, null);
+        assertThat(found).hasSize(3);
+        assertThat(Arrays.copyOf(found, 2)).containsExactlyInAnyOrder(0, 1);
+        assertThat(found[2]).isEqualTo(2);
+        assertThat(tree.nearest(-90, 0, 1, Double.POSITIVE_INFINITY, null)).containsExactly(3);
+        assertThat(GeoKdTree.haversineKm(90, 0, 90, 120)).isCloseTo(0, within(TOLERANCE_KM));
+    }
+
+    @Test
+    void radiusZeroFindsOnlyCoincidentPoints() {
+        double[] lats = {10, 10, 10.001};
+        double[] lons = {20, 20, 20};
+        GeoKdTree tree = new GeoKdTree(new int[]{7, 8, 9}, lats, lons, 3);
+
+        assertThat(tree.within(10, 20, 0, null)).containsExactlyInAnyOrder(7, 8);
+        assertThat(tree.within(10.0005, 20, 0, null)).isEmpty();
+        assertThat(tree.nearest(10, 20, 5, 0, null)).containsExactlyInAnyOrder(7, 8);
+    }
+
+    @Test
+    void kLargerThanSizeReturnsEveryPoint() {
+        double[] lats = {0, 10, 20, 30};
+        double[] lons = {0, 0, 0, 0};
+        GeoKdTree tree = new GeoKdTree(new int[]{0, 1, 2, 3}, lats, lons, 4);
+
+        assertThat(tree.nearest(31, 0, 100, Double.POSITIVE_INFINITY, null)).containsExactly(3, 2, 1, 0);
+        assertThat(tree.nearest(0, 0, 100, 1200, null)).containsExactly(0, 1);
+        assertThat(tree.nearest(0, 0, 0, Double.POSITIVE_INFINITY, null)).isEmpty();
+    }
+
+    @Test
+    void emptyTreeFindsNothing() {
+        GeoKdTree tree = new GeoKdTree(new int[0], new double[0], new double[0], 0);
+
+        assertThat(tree.size()).isZero();
+        assertThat(tree.nearest(0, 0, 5, Double.POSITIVE_INFINITY, null)).isEmpty();
+    }
+
+    @Test
+    void idsAreTheCallersNotPositions() {
+        double[] lats = {0, 50, 0};
+        double[] lons = {0, 0, 0};
+        GeoKdTree tree = new GeoKdTree(new int[]{40, 41, 42, 43}, lats, lons, 2);
+
+        assertThat(tree.size()).isEqualTo(2);
+        assertThat(tree.nearest(49, 0, 5, Double.POSITIVE_INFINITY, null)).containsExactly(41, 40);
+    }
+
+    private static void assertNearest(GeoKdTree tree, double[] lats, double[] lons, int n,
+                                      double lat, double lon, int k, double maxKm, IntPredicate filter) {
+        double[] expected = IntStream.range(0, n)
+                .filter(i -> filter == null || filter.test(i))
+                .mapToDouble(i -> GeoKdTree.haversineKm(lat, lon, lats[i], lons[i]))
+                .filter(d -> d <= maxKm)
+                .sorted()
+                .limit(k)
+                .toArray();
+        int[] found = tree.nearest(lat, lon, k, maxKm, filter);
+
+        assertThat(found).as("k=%d near (%.3f, %.3f)", k, lat, lon).hasSize(expected.length);
+        for (int i = 0; i < found.length; i++) {
+            assertThat(filter == null || filter.test(found[i])).isTrue();
+            // Compare distances, so ties and near-ties cannot fail on id order
+            assertThat(GeoKdTree.haversineKm(lat, lon, lats[found[i]], lons[found[i]]))
+                    .as("rank %d, k=%d near (%.3f, %.3f)", i, k, lat, lon)
+                    .isCloseTo(expected[i], within(TOLERANCE_KM));
+        }
+    }
+
+    private static void assertSortedByDistance(int[] found, double[] lats, double[] lons, double lat, double lon) {
+        Integer[] boxed = Arrays.stream(found).boxed().toArray(Integer[]::new);
+        Integer[] sorted = boxed.clone();
+        Arrays.sort(sorted, Comparator.comparingDouble(id -> GeoKdTree.haversineKm(lat, lon, lats[id], lons[id])));
+        for (int i = 0; i < found.length; i++) {
+            assertThat(GeoKdTree.haversineKm(lat, lon, lats[boxed[i]], lons[boxed[i]]))
+                    .isCloseTo(GeoKdTree.haversineKm(lat, lon, lats[sorted[i]], lons[sorted[i]]), within(TOLERANCE_KM));
+        }
+    }
+
+    // A third uniform on the sphere, a third along the antimeridian, a third around the poles
+    private static int[] randomPoints(Random random, double[] lats, double[] lons, int n) {
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+            lats[i] = randomLatitude(random, i % 3);
+            lons[i] = randomLongitude(random, i % 3);
+        }
+        return ids;
+    }
+
+    private static double randomLatitude(Random random, int region) {
+        return switch (region) {
+            case 0 -> Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+            case 1 -> random.nextDouble() * 20 - 10;
+            default -> (random.nextBoolean() ? 1 : -1) * (85 + random.nextDouble() * 5);
+        };
+    }
+
+    private static double randomLongitude(Random random, int region) {
+        return switch (region) {
+            case 1 -> random.nextBoolean() ? 180 - random.nextDouble() * 2 : -180 + random.nextDouble() * 2;
+            default -> random.nextDouble() * 360 - 180;
+        };
+    }
+}
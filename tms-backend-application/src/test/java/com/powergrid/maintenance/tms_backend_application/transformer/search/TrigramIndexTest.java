@@ -0,0 +1,206 @@
+package com.powergrid.maintenance.tms_backend_application.transformer.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrigramIndexTest {
+
+    private static final int ALL_FIELDS = 0b11;
+
+    @Test
+    void shortQueriesScanLiveDocuments() {
+        TrigramIndex index = new TrigramIndex(2);
+        int a = index.add("TX-01", "Kandy");
+        int b = index.add("TX-02", "Colombo");
+        int c = index.add("AB", "Galle");
+        index.remove(b);
+
+        assertThat(search(index, "tx", ALL_FIELDS)).containsExactly(a);
+        assertThat(search(index, "A", ALL_FIELDS)).containsExactly(a, c);
+        assertThat(search(index, "ab", 0b01)).containsExactly(c);
+        assertThat(search(index, "ab", 0b10)).isEmpty();
+    }
+
+    @Test
+    void searchIsCaseInsensitive() {
+        TrigramIndex index = new TrigramIndex(2);
+        int doc = index.add("AZ-1001", "Nuwara Eliya");
+
+        assertThat(search(index, "az-1001", ALL_FIELDS)).containsExactly(doc);
+        assertThat(search(index, "NUWARA", ALL_FIELDS)).containsExactly(doc);
+        assertThat(search(index, "eLiYa", 0b10)).containsExactly(doc);
+        assertThat(index.field(doc, 1)).isEqualTo("nuwara eliya");
+    }
+
+    @Test
+    void whitespaceIsMatchedLiterally() {
+        // The index does not trim; TransformerSearchIndex trims user input before searching
+        TrigramIndex index = new TrigramIndex(1);
+        int spaced = index.add("main street");
+        int joined = index.add("mainstreet");
+
+        assertThat(search(index, "n st", ALL_FIELDS)).containsExactly(spaced);
+        assertThat(search(index, "main ", ALL_FIELDS)).containsExactly(spaced);
+        assertThat(search(index, "nst", ALL_FIELDS)).containsExactly(joined);
+        assertThat(search(index, " ", ALL_FIELDS)).containsExactly(spaced);
+    }
+
+    @Test
+    void emptyAndNonMatchingQueriesFindNothing() {
+        TrigramIndex index = new TrigramIndex(2);
+        index.add("TX-01", "Kandy");
+
+        assertThat(search(index, "", ALL_FIELDS)).isEmpty();
+        assertThat(search(index, null, ALL_FIELDS)).isEmpty();
+        assertThat(search(index, "zzz", ALL_FIELDS)).isEmpty();
+        assertThat(search(index, "kandyx", ALL_FIELDS)).isEmpty();
+        assertThat(search(index, "xkandy", ALL_FIELDS)).isEmpty();
+        // Every trigram is present but not as one substring
+        assertThat(search(index, "tx-kandy", ALL_FIELDS)).isEmpty();
+    }
+
+    @Test
+    void nullFieldsAreIndexedAsEmpty() {
+        TrigramIndex index = new TrigramIndex(2);
+        int doc = index.add("TX-01", null);
+
+        assertThat(index.field(doc, 1)).isEmpty();
+        assertThat(search(index, "tx-", ALL_FIELDS)).containsExactly(doc);
+    }
+
+    @Test
+    void wrongFieldCountIsRejected() {
+        TrigramIndex index = new TrigramIndex(2);
+
+        assertThatThrownBy(() -> index.add("only one")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void removedDocumentsAreNotFound() {
+        TrigramIndex index = new TrigramIndex(1);
+        int a = index.add("transformer alpha");
+        int b = index.add("transformer beta");
+        index.remove(a);
+        index.remove(a);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(search(index, "transformer", ALL_FIELDS)).containsExactly(b);
+        assertThat(search(index, "alpha", ALL_FIELDS)).isEmpty();
+    }
+
+    @Test
+    void compactionWaitsForEnoughTombstones() {
+        TrigramIndex index = new TrigramIndex(1);
+        for (int i = 0; i < 100; i++) {
+            index.add("doc " + i);
+        }
+        for (int i = 0; i < 64; i++) {
+            index.remove(i);
+        }
+
+        assertThat(index.compactIfNeeded()).isNull();
+    }
+
+    @Test
+    void compactionRenumbersLiveDocuments() {
+        TrigramIndex index = new TrigramIndex(2);
+        int total = 200;
+        for (int i = 0; i < total; i++) {
+            index.add("TX-" + i, i % 2 == 0 ? "even" : "odd");
+        }
+        // Keep every fourth document: 150 tombstones outnumber the 50 live ones
+        for (int i = 0; i < total; i++) {
+            if (i % 4 != 0) {
+                index.remove(i);
+            }
+        }
+        int[] remap = index.compactIfNeeded();
+
+        assertThat(remap).hasSize(total);
+        for (int i = 0; i < total; i++) {
+            assertThat(remap[i]).as("old id %d", i).isEqualTo(i % 4 == 0 ? i / 4 : -1);
+        }
+        assertThat(index.size()).isEqualTo(50);
+        assertThat(index.field(remap[8], 0)).isEqualTo("tx-8");
+        assertThat(search(index, "tx-8", 0b01)).containsExactly(remap[8], remap[80], remap[84], remap[88]);
+        assertThat(search(index, "even", ALL_FIELDS)).hasSize(50);
+        assertThat(search(index, "odd", ALL_FIELDS)).isEmpty();
+
+        // New documents continue after the compacted range
+        int added = index.add("TX-new", "odd");
+        assertThat(added).isEqualTo(50);
+        assertThat(search(index, "odd", ALL_FIELDS)).containsExactly(added);
+        assertThat(index.compactIfNeeded()).isNull();
+    }
+
+    @Test
+    void searchMatchesLinearScanOnRandomDocuments() {
+        Random random = new Random(3);
+        TrigramIndex index = new TrigramIndex(2);
+        List<String[]> docs = new ArrayList<>();
+        int compactions = 0;
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 300; i++) {
+                String[] values = {randomText(random, 4 + random.nextInt(8)), randomText(random, 6 + random.nextInt(12))};
+                int doc = index.add(values);
+                assertThat(doc).isEqualTo(docs.size());
+                docs.add(values);
+            }
+            for (int i = 0; i < docs.size(); i++) {
+                if (docs.get(i) != null && random.nextBoolean()) {
+                    index.remove(i);
+                    docs.set(i, null);
+                }
+            }
+            int[] remap = index.compactIfNeeded();
+            if (remap != null) {
+                compactions++;
+                List<String[]> compacted = new ArrayList<>();
+                for (int i = 0; i < docs.size(); i++) {
+                    if (remap[i] >= 0) {
+                        assertThat(remap[i]).isEqualTo(compacted.size());
+                        compacted.add(docs.get(i));
+                    }
+                }
+                docs = compacted;
+            }
+
+            for (int q = 0; q < 200; q++) {
+                String query = randomText(random, 1 + random.nextInt(4));
+                int mask = 1 + random.nextInt(3);
+                List<Integer> expected = new ArrayList<>();
+                for (int i = 0; i < docs.size(); i++) {
+                    String[] values = docs.get(i);
+                    if (values != null && (((mask & 1) != 0 && values[0].toLowerCase().contains(query.toLowerCase()))
+                            || ((mask & 2) != 0 && values[1].toLowerCase().contains(query.toLowerCase())))) {
+                        expected.add(i);
+                    }
+                }
+                assertThat(search(index, query, mask)).as("query '%s' mask %d", query, mask).isEqualTo(expected);
+            }
+        }
+        assertThat(compactions).isPositive();
+    }
+
+    private static List<Integer> search(TrigramIndex index, String query, int mask) {
+        List<Integer> out = new ArrayList<>();
+        index.search(query, mask, out::add);
+        return out;
+    }
+
+    // Small alphabet with mixed case and spaces, so short random queries often match
+    private static String randomText(Random random, int length) {
+        String alphabet = "abcdABCD -";
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,231 @@
+package com.powergrid.maintenance.tms_backend_application.user.service;
+
+import com.powergrid.maintenance.tms_backend_application.support.LocalSmtpServer;
+import com.powergrid.maintenance.tms_backend_application.user.model.OutboxEmail;
+import com.powergrid.maintenance.tms_backend_application.user.repository.OutboxEmailRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * EmailDispatcher against a real SMTP session (LocalSmtpServer) through JavaMailSenderImpl, with
+ * the outbox table replaced by an in-memory list.
+ */
+class EmailDispatcherIntegrationTest {
+
+    private LocalSmtpServer smtp;
+    private final List<OutboxEmail> outbox = new ArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private EmailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtp = new LocalSmtpServer();
+        dispatcher = dispatcher(20);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dispatcher.shutdown();
+        smtp.close();
+    }
+
+    @Test
+    void deliversBatchOverOneConnection() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            enqueue(new OutboxEmail("OTP", "user" + i + "@example.com", "Code " + i, "Your code is " + i, LocalDateTime.now()));
+        }
+
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(5);
+
+        assertThat(smtp.messages()).hasSize(5);
+        assertThat(smtp.connections()).isEqualTo(1);
+        assertThat(smtp.messages().get(0).from()).isEqualTo("tms@example.com");
+        assertThat(smtp.messages()).extracting(m -> m.recipients().get(0))
+                .containsExactlyInAnyOrder("user0@example.com", "user1@example.com", "user2@example.com",
+                        "user3@example.com", "user4@example.com");
+        assertThat(outbox).allSatisfy(e -> {
+            assertThat(e.getStatus()).isEqualTo(OutboxEmail.STATUS_SENT);
+            assertThat(e.getSentAt()).isNotNull();
+            assertThat(e.getAttempts()).isEqualTo(1);
+        });
+        assertThat(dispatcher.dispatchBatch()).isZero();
+    }
+
+    @Test
+    void mergesRowsSharingDigestKey() throws Exception {
+        for (String candidate : List.of("alice", "bob", "carol")) {
+            OutboxEmail email = new OutboxEmail("ADMIN_REQUEST", "admin@example.com", "New Admin Access Request",
+                    "Candidate: " + candidate, LocalDateTime.now());
+            email.setDigestKey("ADMIN_REQUEST:admin@example.com");
+            enqueue(email);
+        }
+        enqueue(new OutboxEmail("WELCOME", "dave@example.com", "Welcome", "Hello dave", LocalDateTime.now()));
+
+        dispatcher.dispatchBatch();
+
+        assertThat(smtp.messages()).hasSize(2);
+        LocalSmtpServer.Message digest = smtp.messages().stream()
+                .filter(m -> m.recipients().contains("admin@example.com")).findFirst().orElseThrow();
+        assertThat(digest.header("Subject")).isEqualTo("New Admin Access Request (3)");
+        assertThat(digest.data()).contains("Candidate: alice", "Candidate: bob", "Candidate: carol");
+        assertThat(outbox).allSatisfy(e -> assertThat(e.getStatus()).isEqualTo(OutboxEmail.STATUS_SENT));
+    }
+
+    @Test
+    void splitsLargeBatchesAcrossConnections() throws Exception {
+        dispatcher.shutdown();
+        dispatcher = dispatcher(3);
+        for (int i = 0; i < 7; i++) {
+            enqueue(new OutboxEmail("WELCOME", "user" + i + "@example.com", "Welcome", "Hello", LocalDateTime.now()));
+        }
+
+        dispatcher.dispatchBatch();
+
+        assertThat(smtp.messages()).hasSize(7);
+        assertThat(smtp.connections()).isEqualTo(3);
+    }
+
+    @Test
+    void retriesWithBackoffWhileServerUnavailable() throws Exception {
+        smtp.refuseConnections(true);
+        OutboxEmail email = enqueue(new OutboxEmail("OTP", "user@example.com", "Code", "123456", LocalDateTime.now()));
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.dispatchBatch();
+
+        assertThat(email.getStatus()).isEqualTo(OutboxEmail.STATUS_PENDING);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getLastError()).isNotBlank();
+        assertThat(email.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(30));
+        assertThat(dispatcher.dispatchBatch()).isZero(); // not due yet
+
+        // Second failure doubles the delay
+        email.setNextAttemptAt(LocalDateTime.now());
+        before = LocalDateTime.now();
+        dispatcher.dispatchBatch();
+        assertThat(email.getAttempts()).isEqualTo(2);
+        assertThat(email.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(60));
+
+        smtp.refuseConnections(false);
+        email.setNextAttemptAt(LocalDateTime.now());
+        dispatcher.dispatchBatch();
+        assertThat(email.getStatus()).isEqualTo(OutboxEmail.STATUS_SENT);
+        assertThat(email.getLastError()).isNull();
+        assertThat(smtp.messages()).hasSize(1);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() throws Exception {
+        smtp.refuseConnections(true);
+        OutboxEmail email = enqueue(new OutboxEmail("OTP", "user@example.com", "Code", "123456", LocalDateTime.now()));
+
+        for (int i = 0; i < 3; i++) {
+            email.setNextAttemptAt(LocalDateTime.now());
+            dispatcher.dispatchBatch();
+        }
+
+        assertThat(email.getStatus()).isEqualTo(OutboxEmail.STATUS_FAILED);
+        assertThat(email.getAttempts()).isEqualTo(3);
+        assertThat(dispatcher.dispatchBatch()).isZero();
+    }
+
+    @Test
+    void rejectedRecipientFailsOnlyItsMessage() throws Exception {
+        smtp.rejectRecipient("gone@example.com");
+        OutboxEmail ok = enqueue(new OutboxEmail("WELCOME", "ok@example.com", "Welcome", "Hello", LocalDateTime.now()));
+        OutboxEmail gone = enqueue(new OutboxEmail("WELCOME", "gone@example.com", "Welcome", "Hello", LocalDateTime.now()));
+
+        dispatcher.dispatchBatch();
+
+        assertThat(ok.getStatus()).isEqualTo(OutboxEmail.STATUS_SENT);
+        assertThat(gone.getStatus()).isEqualTo(OutboxEmail.STATUS_PENDING);
+        assertThat(gone.getLastError()).isNotBlank();
+        assertThat(smtp.messages()).extracting(m -> m.recipients().get(0)).containsExactly("ok@example.com");
+    }
+
+    @Test
+    void reclaimsRowsWhoseLeaseExpired() throws Exception {
+        OutboxEmail stuck = enqueue(new OutboxEmail("OTP", "user@example.com", "Code", "123456", LocalDateTime.now()));
+        stuck.setStatus(OutboxEmail.STATUS_SENDING);
+        stuck.setAttempts(1);
+        stuck.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+
+        dispatcher.dispatchBatch();
+
+        assertThat(stuck.getStatus()).isEqualTo(OutboxEmail.STATUS_SENT);
+        assertThat(stuck.getAttempts()).isEqualTo(2);
+    }
+
+    private OutboxEmail enqueue(OutboxEmail email) {
+        email.setId(ids.incrementAndGet());
+        outbox.add(email);
+        return email;
+    }
+
+    @SuppressWarnings("unchecked")
+    private EmailDispatcher dispatcher(int messagesPerConnection) {
+        OutboxEmailRepository repository = mock(OutboxEmailRepository.class);
+        when(repository.findDueForUpdate(anyCollection(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenAnswer(inv -> {
+                    Collection<String> statuses = inv.getArgument(0);
+                    LocalDateTime now = inv.getArgument(1);
+                    Pageable page = inv.getArgument(2);
+                    return outbox.stream()
+                            .filter(e -> statuses.contains(e.getStatus()) && !e.getNextAttemptAt().isAfter(now))
+                            .sorted(Comparator.comparing(OutboxEmail::getNextAttemptAt).thenComparing(OutboxEmail::getId))
+                            .limit(page.getPageSize())
+                            .toList();
+                });
+        when(repository.saveAll(any(Iterable.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtp.port());
+        Properties props = new Properties();
+        props.put("mail.smtp.connectiontimeout", "2000");
+        props.put("mail.smtp.timeout", "2000");
+        mailSender.setJavaMailProperties(props);
+
+        return new EmailDispatcher(repository, mailSender, new NoOpTransactionManager(),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class),
+                "tms@example.com", 2, 50, messagesPerConnection, 3, 120, 30, 3600, 14);
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
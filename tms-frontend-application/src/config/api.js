@@ -1,5 +1,6 @@
 import axios from 'axios';
 import { API_BASE_URL } from './env';
+import { clearAuth, getAccessToken, getAuthorizationHeader, refreshTokens } from '../lib/authTokens';
 
 // Create axios instance with base configuration
 const apiClient = axios.create({
@@ -10,13 +11,14 @@ const apiClient = axios.create({
   withCredentials: true, // Send cookies with requests
 });
 
-// Add request interceptor to include auth credentials
+// Add request interceptor to include the bearer access token
 apiClient.interceptors.request.use(
-  (config) => {
+  async (config) => {
     // Skip auth for public endpoints
     const publicEndpoints = [
       '/api/auth/login', 
       '/api/auth/register', 
+      '/api/auth/refresh',
       '/api/auth/verify-otp', 
       '/api/auth/resend-otp',
       '/api/admin/auth/register',
@@ -29,25 +31,18 @@ apiClient.interceptors.request.use(
     }
     
     // Only add auth header if we have valid auth data
-    const auth = localStorage.getItem('auth');
     const user = localStorage.getItem('user');
     const currentPath = window.location.pathname;
     
     // Skip auth header for public pages or if no user data
-    if (!user || !auth || currentPath === '/login' || currentPath === '/register') {
+    if (!user || currentPath === '/login' || currentPath === '/register') {
       return config;
     }
     
-    try {
-      const { username, password } = JSON.parse(auth);
-      if (username && password) {
-        const credentials = btoa(`${username}:${password}`);
-        config.headers.Authorization = `Basic ${credentials}`;
-      }
-    } catch (e) {
-      // Invalid auth data, clear it
-      localStorage.removeItem('auth');
-      localStorage.removeItem('user');
+    // Refreshes first when the access token is about to expire
+    const accessToken = await getAccessToken();
+    if (accessToken) {
+      config.headers.Authorization = `Bearer ${accessToken}`;
     }
     
     return config;
@@ -60,15 +55,25 @@ apiClient.interceptors.request.use(
 // Add response interceptor to handle 401 errors
 apiClient.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
     if (error.response?.status === 401) {
       const currentPath = window.location.pathname;
+      const original = error.config;
+      
+      // The access token may have expired mid-flight: refresh once and retry
+      if (original && !original._retried && !original.url?.includes('/api/auth/')) {
+        original._retried = true;
+        const accessToken = await refreshTokens();
+        if (accessToken) {
+          original.headers.Authorization = `Bearer ${accessToken}`;
+          return apiClient(original);
+        }
+      }
       
       // Only clear and redirect if we're not already on login/register pages
       if (currentPath !== '/login' && currentPath !== '/register' && currentPath !== '/verify-otp') {
         // Clear auth data on 401
-        localStorage.removeItem('auth');
-        localStorage.removeItem('user');
+        clearAuth();
         
         // Small delay to avoid race conditions
         setTimeout(() => {
@@ -84,6 +89,52 @@ apiClient.interceptors.response.use(
 
 export default apiClient;
 
+/**
+ * Follow a server-sent event stream on an authenticated endpoint.
+ * EventSource cannot send the Authorization header, so the stream is read through fetch.
+ * Calls onEvent(eventName, parsedData) per event; resolves when the server closes the stream.
+ */
+export const streamEvents = async (path, onEvent, { signal } = {}) => {
+  // Without a token the server answers 401
+  const headers = { Accept: 'text/event-stream', ...(await getAuthorizationHeader()) };
+
+  const response = await fetch(`${API_BASE_URL}${path}`, { headers, signal, credentials: 'include' });
+  if (!response.ok || !response.body) {
+    throw new Error(`Event stream failed with status ${response.status}`);
+  }
+
+  const reader = response.body.getReader();
+  const decoder = new TextDecoder();
+  let buffer = '';
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) break;
+    buffer += decoder.decode(value, { stream: true });
+
+    let boundary;
+    while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+      const block = buffer.slice(0, boundary);
+      buffer = buffer.slice(boundary + 2);
+      let eventName = 'message';
+      const dataLines = [];
+      block.split('\n').forEach(line => {
+        if (line.startsWith('event:')) eventName = line.slice(6).trim();
+        else if (line.startsWith('data:')) dataLines.push(line.slice(5).trimStart());
+      });
+      if (dataLines.length > 0) {
+        const raw = dataLines.join('\n');
+        let data = raw;
+        try {
+          data = JSON.parse(raw);
+        } catch (e) {
+          // Non-JSON payload, pass through as text
+        }
+        onEvent(eventName, data);
+      }
+    }
+  }
+};
+
 // Auth API endpoints
 export const authAPI = {
   register: async (username, email, password, role = 'ROLE_USER') => {
@@ -119,9 +170,9 @@ export const authAPI = {
     return response.data;
   },
 
-  logout: async () => {
+  logout: async (refreshToken) => {
     try {
-      const response = await apiClient.post('/api/auth/logout');
+      const response = await apiClient.post('/api/auth/logout', refreshToken ? { refreshToken } : null);
       return response.data;
     } catch (error) {
       console.error('Logout error:', error);
@@ -1,5 +1,6 @@
 import { createContext, useContext, useState, useEffect } from 'react';
 import { authAPI, adminAPI } from '../config/api';
+import { clearAuth, getStoredTokens, refreshTokens, storeTokens } from '../lib/authTokens';
 
 const AuthContext = createContext(null);
 
@@ -19,10 +20,12 @@ export const AuthProvider = ({ children }) => {
   // Load user from localStorage on mount
   useEffect(() => {
     const storedUser = localStorage.getItem('user');
-    const storedAuth = localStorage.getItem('auth');
     
-    if (storedUser && storedAuth) {
+    // Sessions from before token auth stored the password; those must log in again
+    if (storedUser && getStoredTokens()) {
       setUser(JSON.parse(storedUser));
+    } else {
+      clearAuth();
     }
     setLoading(false);
   }, []);
@@ -48,9 +51,10 @@ export const AuthProvider = ({ children }) => {
           
           console.log('[AuthContext] Current role:', currentRole, ', Server role:', newRole);
           
-          // If role changed, update the user
+          // If role changed, update the user and get a token carrying the new role
           if (newRole !== currentRole) {
             console.log(`[AuthContext] 🎉 Role updated: ${currentRole} -> ${newRole}`);
+            await refreshTokens();
             const userData = {
               username: response.username,
               role: newRole,
@@ -98,9 +102,9 @@ export const AuthProvider = ({ children }) => {
           role: response.role,
         };
         
-        // Store user data and credentials
+        // Store user data and tokens (never the password)
         localStorage.setItem('user', JSON.stringify(userData));
-        localStorage.setItem('auth', JSON.stringify({ username, password }));
+        storeTokens(response);
         
         setUser(userData);
         return { success: true };
@@ -229,13 +233,12 @@ export const AuthProvider = ({ children }) => {
 
   const logout = async () => {
     try {
-      await authAPI.logout();
+      await authAPI.logout(getStoredTokens()?.refreshToken);
     } catch (err) {
       console.error('Logout error:', err);
     } finally {
       // Clear local data regardless of API call success
-      localStorage.removeItem('user');
-      localStorage.removeItem('auth');
+      clearAuth();
       setUser(null);
     }
   };
@@ -254,14 +257,16 @@ export const AuthProvider = ({ children }) => {
    */
   const refreshUser = async () => {
     try {
-      const auth = localStorage.getItem('auth');
-      if (!auth) {
+      if (!getStoredTokens()) {
         return { success: false, error: 'Not authenticated' };
       }
 
       const response = await authAPI.getCurrentUser();
       
       if (response.success) {
+        if (response.role !== user?.role) {
+          await refreshTokens();
+        }
         const userData = {
           username: response.username,
           role: response.role,
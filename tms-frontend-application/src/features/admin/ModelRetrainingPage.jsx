@@ -1,7 +1,7 @@
 import { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { useAuth } from '../../contexts/AuthContext';
-import apiClient from '../../config/api';
+import apiClient, { streamEvents } from '../../config/api';
 import * as XLSX from 'xlsx';
 import './ModelRetraining.css';
 
@@ -18,6 +18,10 @@ export default function ModelRetrainingPage() {
   const [success, setSuccess] = useState(null);
   const [retrainingStatus, setRetrainingStatus] = useState(null);
   const [inspectionGroups, setInspectionGroups] = useState([]);
+  // Loaded feed pages; the next page is fetched only when asked for
+  const [annotations, setAnnotations] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [expandedInspections, setExpandedInspections] = useState(new Set());
   const [stats, setStats] = useState({
     total: 0,
@@ -31,6 +35,7 @@ export default function ModelRetrainingPage() {
   const [isRetraining, setIsRetraining] = useState(false);
   const [retrainingProgress, setRetrainingProgress] = useState(0);
   const [retrainingStep, setRetrainingStep] = useState('');
+  const [retrainingRunId, setRetrainingRunId] = useState(null);
   const [showConfirmModal, setShowConfirmModal] = useState(false);
 
   // Filter states
@@ -62,9 +67,14 @@ export default function ModelRetrainingPage() {
     applyFilters();
   }, [filters, inspectionGroups]);
 
-  const loadAnnotations = async () => {
+  // Load the first page of the feed (cursor null) or append the page after cursor
+  const loadAnnotations = async (cursor = null) => {
     try {
-      setLoading(true);
+      if (cursor) {
+        setLoadingMore(true);
+      } else {
+        setLoading(true);
+      }
       setError(null);
 
       // Use admin endpoint if admin, otherwise user endpoint
@@ -72,12 +82,16 @@ export default function ModelRetrainingPage() {
         ? '/api/admin/retraining/annotations'
         : '/api/annotations/history';
       
-      const response = await apiClient.get(endpoint);
+      // The feed is keyset paginated; one page per request
+      const response = await apiClient.get(endpoint, { params: cursor ? { cursor } : {} });
       
       if (response.data.success) {
-        const grouped = groupByInspection(response.data.annotations || []);
+        const loaded = [...(cursor ? annotations : []), ...(response.data.annotations || [])];
+        const grouped = groupByInspection(loaded);
+        setAnnotations(loaded);
+        setNextCursor(response.data.hasMore ? response.data.nextCursor : null);
         setInspectionGroups(grouped);
-        calculateStats(response.data.annotations || [], grouped.length);
+        calculateStats(loaded, grouped.length);
       } else {
         const errorMsg = response.data.error || response.data.message || 'Failed to load annotations';
         console.error('Backend returned error:', errorMsg);
@@ -89,6 +103,7 @@ export default function ModelRetrainingPage() {
       setError(errorMsg);
     } finally {
       setLoading(false);
+      setLoadingMore(false);
     }
   };
 
@@ -146,9 +161,17 @@ export default function ModelRetrainingPage() {
     if (!isAdmin) return;
     
     try {
-      const response = await apiClient.get('/api/admin/model/retraining/status');
-      if (response.data.success) {
-        setRetrainingStatus(response.data.status);
+      // Re-attach to a run that is still in progress (e.g. after a page reload)
+      const response = await apiClient.get('/api/admin/retraining/history', { params: { limit: 1 } });
+      const latest = response.data?.[0];
+      if (latest) {
+        setRetrainingStatus(latest.status);
+        if (latest.status === 'PENDING' || latest.status === 'RUNNING') {
+          setIsRetraining(true);
+          setRetrainingRunId(latest.runId);
+          applyRetrainingProgress(latest);
+          followRetraining(latest.runId);
+        }
       }
     } catch (err) {
       console.error('Error checking retraining status:', err);
@@ -324,27 +347,68 @@ export default function ModelRetrainingPage() {
     setShowConfirmModal(true);
   };
 
+  const STAGE_LABELS = {
+    QUEUED: 'Waiting for the training service...',
+    EXPORTING: 'Preparing training data...',
+    STARTING: 'Starting training...',
+    BUILDING_DATASET: 'Downloading images and building the dataset...',
+    TRAINING: 'Training model...',
+    VALIDATING: 'Validating the fine-tuned model...',
+    EVALUATING: 'Comparing the new model with the current one on verified inspections...',
+  };
+
+  const finishRetraining = (status, errorMessage) => {
+    setRetrainingRunId(null);
+    if (status === 'COMPLETED') {
+      setRetrainingProgress(100);
+      setRetrainingStep('Retraining completed successfully!');
+      setTimeout(() => {
+        setSuccess('Model retraining completed successfully! The page will now show only new actions.');
+        setIsRetraining(false);
+        setRetrainingProgress(0);
+        setRetrainingStep('');
+        loadAnnotations(); // This will now show only new actions (page may be empty)
+      }, 1500);
+    } else {
+      if (status === 'CANCELLED') {
+        setSuccess('Model retraining was cancelled.');
+      } else if (status === 'REJECTED') {
+        setError(`The retrained model was not rolled out: ${errorMessage || 'it scored worse than the current model'}`);
+      } else {
+        setError(`Model retraining failed: ${errorMessage || 'Unknown error'}`);
+      }
+      setIsRetraining(false);
+      setRetrainingProgress(0);
+      setRetrainingStep('');
+    }
+  };
+
+  // Apply a progress snapshot from the server; returns true once the run has finished
+  const applyRetrainingProgress = (progress) => {
+    setRetrainingStatus(progress.status);
+    if (['COMPLETED', 'FAILED', 'CANCELLED', 'REJECTED'].includes(progress.status)) {
+      finishRetraining(progress.status, progress.errorMessage);
+      return true;
+    }
+    setRetrainingProgress(progress.progressPercent || 0);
+    let step = STAGE_LABELS[progress.stage] || 'Training model in progress...';
+    if (progress.stage === 'TRAINING' && progress.totalEpochs) {
+      step = `Training model... epoch ${progress.currentEpoch || 0} of ${progress.totalEpochs}`;
+    }
+    setRetrainingStep(progress.cancelRequested ? 'Cancelling...' : step);
+    return false;
+  };
+
   const confirmRetraining = async () => {
     setShowConfirmModal(false);
 
     try {
       setIsRetraining(true);
       setRetrainingProgress(0);
-      setRetrainingStep('Preparing training data...');
+      setRetrainingStep('Queueing retraining...');
       setError(null);
       setSuccess(null);
 
-      // Simulate progress steps
-      setTimeout(() => {
-        setRetrainingProgress(20);
-        setRetrainingStep('Validating annotations...');
-      }, 500);
-
-      setTimeout(() => {
-        setRetrainingProgress(40);
-        setRetrainingStep('Sending data to training service...');
-      }, 1500);
-
       // Get username from auth context or localStorage
       const username = localStorage.getItem('username') || 'admin';
 
@@ -356,11 +420,9 @@ export default function ModelRetrainingPage() {
       
       if (response.data.success) {
         const runId = response.data.runId;
-        setRetrainingProgress(60);
-        setRetrainingStep('Training model in progress...');
-        setRetrainingStatus('RUNNING');
-        // Poll for status updates
-        pollRetrainingStatus(runId);
+        setRetrainingRunId(runId);
+        setRetrainingStatus(response.data.status);
+        followRetraining(runId);
       } else {
         setError(response.data.message || 'Failed to start retraining');
         setIsRetraining(false);
@@ -378,50 +440,46 @@ export default function ModelRetrainingPage() {
     setShowConfirmModal(false);
   };
 
+  const stopRetraining = async () => {
+    if (!retrainingRunId) return;
+    try {
+      const response = await apiClient.post(`/api/admin/retraining/cancel/${retrainingRunId}`);
+      applyRetrainingProgress(response.data);
+    } catch (err) {
+      console.error('Error cancelling retraining:', err);
+      setError(err.response?.data?.error || 'Failed to cancel retraining');
+    }
+  };
+
+  // Follow progress over server-sent events; fall back to polling if the stream breaks
+  const followRetraining = async (runId) => {
+    let finished = false;
+    try {
+      await streamEvents(`/api/admin/retraining/events/${runId}`, (eventName, data) => {
+        if (eventName === 'progress' && !finished) {
+          finished = applyRetrainingProgress(data);
+        }
+      });
+    } catch (err) {
+      console.error('Progress stream interrupted, falling back to polling:', err);
+    }
+    if (!finished) {
+      pollRetrainingStatus(runId);
+    }
+  };
+
   const pollRetrainingStatus = (runId) => {
     const interval = setInterval(async () => {
       try {
         const response = await apiClient.get(`/api/admin/retraining/status/${runId}`);
-        if (response.data) {
-          setRetrainingStatus(response.data.status);
-          
-          // Update progress based on status
-          if (response.data.status === 'RUNNING') {
-            // Gradually increase progress while training
-            setRetrainingProgress(prev => Math.min(prev + 5, 90));
-            setRetrainingStep('Training model... This may take a few minutes.');
-          }
-          
-          // Stop polling if completed or failed
-          if (response.data.status === 'COMPLETED' || response.data.status === 'FAILED') {
-            clearInterval(interval);
-            
-            if (response.data.status === 'COMPLETED') {
-              setRetrainingProgress(100);
-              setRetrainingStep('Retraining completed successfully!');
-              setTimeout(() => {
-                setSuccess('Model retraining completed successfully! The page will now show only new actions.');
-                setIsRetraining(false);
-                setRetrainingProgress(0);
-                setRetrainingStep('');
-                loadAnnotations(); // This will now show only new actions (page may be empty)
-              }, 1500);
-            } else if (response.data.status === 'FAILED') {
-              setError(`Model retraining failed: ${response.data.errorMessage || 'Unknown error'}`);
-              setIsRetraining(false);
-              setRetrainingProgress(0);
-              setRetrainingStep('');
-            }
-          }
+        if (response.data && applyRetrainingProgress(response.data)) {
+          clearInterval(interval);
         }
       } catch (err) {
         console.error('Error polling status:', err);
         // Don't stop polling on network errors
       }
     }, 5000); // Poll every 5 seconds
-
-    // Cleanup after 10 minutes
-    setTimeout(() => clearInterval(interval), 600000);
   };
 
   const handleExportCSV = () => {
@@ -846,7 +904,7 @@ export default function ModelRetrainingPage() {
               </div>
             </div>
             <p className="modal-warning">
-              ⏱️ Please do not close this window during the retraining process.
+              ⏱️ Training runs in the background on the server and can be cancelled while in progress.
             </p>
             <div className="modal-actions">
               <button className="btn-cancel" onClick={cancelRetraining}>
@@ -875,8 +933,13 @@ export default function ModelRetrainingPage() {
               </div>
             </div>
             <p className="retraining-hint">
-              ☕ This process may take several minutes. Please don't close this window.
+              ☕ This process may take several minutes. Training continues on the server if you close this window.
             </p>
+            {retrainingRunId && (
+              <button className="btn-cancel" onClick={stopRetraining}>
+                Cancel Retraining
+              </button>
+            )}
           </div>
         </div>
       )}
@@ -969,7 +1032,7 @@ export default function ModelRetrainingPage() {
           </button>
         )}
         <button
-          onClick={loadAnnotations}
+          onClick={() => loadAnnotations()}
           disabled={loading}
           className="btn-secondary"
         >
@@ -1302,6 +1365,18 @@ export default function ModelRetrainingPage() {
             ))}
           </div>
         )}
+
+        {nextCursor && (
+          <div className="load-more">
+            <button
+              onClick={() => loadAnnotations(nextCursor)}
+              disabled={loadingMore}
+              className="btn-secondary"
+            >
+              {loadingMore ? 'Loading...' : 'Load More Annotations'}
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
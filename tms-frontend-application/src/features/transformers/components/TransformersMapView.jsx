@@ -9,6 +9,9 @@ export default function TransformersMapView({ transformerService }) {
   const mapRef = useRef(null);
   const mapInstanceRef = useRef(null);
   const markersRef = useRef([]);
+  const transformersRef = useRef([]);
+  const filtersRef = useRef({ type: 'ALL', region: 'ALL' });
+  const viewportRequestRef = useRef(0);
   const mapContainerIdRef = useRef(`transformers-map-${Date.now()}-${Math.random().toString(36).substr(2, 9)}`);
   
   const [isMapLoading, setIsMapLoading] = useState(true);
@@ -19,6 +22,11 @@ export default function TransformersMapView({ transformerService }) {
   const [filterType, setFilterType] = useState('ALL');
   const [filterRegion, setFilterRegion] = useState('ALL');
   const [mapInitialized, setMapInitialized] = useState(false);
+  const [visibleCount, setVisibleCount] = useState(0);
+
+  // Read by the map's moveend handler, which is registered once
+  transformersRef.current = transformers;
+  filtersRef.current = { type: filterType, region: filterRegion };
 
   // Get unique regions for filter
   const uniqueRegions = [...new Set(transformers.map(t => t.region))].filter(Boolean);
@@ -213,6 +221,11 @@ export default function TransformersMapView({ transformerService }) {
       // Store map instance
       mapInstanceRef.current = map;
 
+      // Reload markers for the visible area after every pan and zoom
+      map.on('moveend', () => {
+        updateMapMarkers();
+      });
+
       // Add map event listeners
       map.on('load', () => {
         setIsMapLoading(false);
@@ -247,7 +260,8 @@ export default function TransformersMapView({ transformerService }) {
       
       setMapInitialized(true);
       
-      // Add markers for transformers
+      // Frame the transformers and add markers for the visible area
+      fitToTransformers();
       updateMapMarkers();
       
     } catch (error) {
@@ -256,94 +270,140 @@ export default function TransformersMapView({ transformerService }) {
     }
   };
 
-  const updateMapMarkers = () => {
-    try {
-      if (!mapInstanceRef.current || !window.L) {
-        return;
+  const clearMarkers = () => {
+    markersRef.current.forEach(marker => {
+      try {
+        if (marker && typeof marker.remove === 'function') {
+          marker.remove();
+        }
+      } catch (e) {
+        console.warn('Error removing marker:', e);
       }
+    });
+    markersRef.current = [];
+  };
 
-      // Clear existing markers
-      markersRef.current.forEach(marker => {
-        try {
-          if (marker && typeof marker.remove === 'function') {
-            marker.remove();
-          }
-        } catch (e) {
-          console.warn('Error removing marker:', e);
-        }
-      });
-      markersRef.current = [];
+  // Cluster bubble sized by member count and coloured by the worst status inside it
+  const createClusterIcon = (cluster) => {
+    const size = cluster.count < 10 ? 34 : cluster.count < 100 ? 42 : 52;
+    return window.L.divIcon({
+      html: `<div class="map-cluster-icon map-cluster-${(cluster.worstStatus || 'UNINSPECTED').toLowerCase()}" style="width:${size}px;height:${size}px;line-height:${size - 6}px;">${cluster.count}</div>`,
+      className: 'custom-div-icon',
+      iconSize: [size, size],
+      iconAnchor: [size / 2, size / 2]
+    });
+  };
 
-      // Add new markers
-      let markersAdded = 0;
-      let markersSkipped = 0;
+  const createTransformerMarker = (cluster) => {
+    const transformer = transformersRef.current.find(t => t.transformerNo === cluster.transformerNo)
+      || { transformerNo: cluster.transformerNo, type: cluster.type, region: cluster.region };
+    const lat = cluster.latitude;
+    const lng = cluster.longitude;
+
+    const marker = window.L.marker([lat, lng], { icon: createCustomIcon(transformer.type) });
+
+    const typeIcon = transformer.type === 'Distribution' ? '⚡' : '🏭';
+    const typeColor = transformer.type === 'Distribution' ? '#3498db' : '#e74c3c';
+
+    const popupContent = `
+      <div style="font-family: Arial, sans-serif; min-width: 200px;">
+        <h3 style="margin: 0 0 10px 0; color: ${typeColor}; display: flex; align-items: center; gap: 8px;">
+          ${typeIcon} ${transformer.transformerNo}
+        </h3>
+        <p style="margin: 5px 0;"><strong>Type:</strong> ${transformer.type}</p>
+        <p style="margin: 5px 0;"><strong>Region:</strong> ${transformer.region}</p>
+        <p style="margin: 5px 0;"><strong>Status:</strong> ${(cluster.worstStatus || '').replace('_', ' ')}</p>
+        <p style="margin: 5px 0;"><strong>Location:</strong> ${lat.toFixed(6)}, ${lng.toFixed(6)}</p>
+        ${transformer.address ? `<p style="margin: 5px 0;"><strong>Address:</strong> ${transformer.address}</p>` : ''}
+        <div style="margin-top: 10px;">
+          <button onclick="window.open('https://www.google.com/maps?q=${lat},${lng}', '_blank')" 
+                  style="background: #4285f4; color: white; border: none; padding: 5px 10px; border-radius: 3px; cursor: pointer; margin-right: 5px; display: inline-flex; align-items: center; gap: 4px;">
+            📍 Google Maps
+          </button>
+        </div>
+      </div>
+    `;
 
-      filteredTransformers.forEach((transformer) => {
-        try {
-          const lat = parseFloat(transformer.latitude);
-          const lng = parseFloat(transformer.longitude);
+    marker.bindPopup(popupContent);
+    marker.on('click', () => {
+      setSelectedTransformer(transformer);
+    });
+    return marker;
+  };
 
-          if (isNaN(lat) || isNaN(lng)) {
-            markersSkipped++;
-            return;
-          }
+  // Markers come from the viewport API: only what is visible, clustered for the current zoom
+  const updateMapMarkers = async () => {
+    const map = mapInstanceRef.current;
+    if (!map || !window.L) {
+      return;
+    }
 
-          // Create custom marker based on type
-          const customIcon = createCustomIcon(transformer.type);
-          const marker = window.L.marker([lat, lng], { icon: customIcon }).addTo(mapInstanceRef.current);
-          
-          // Create popup content
-          const typeIcon = transformer.type === 'Distribution' ? '⚡' : '🏭';
-          const typeColor = transformer.type === 'Distribution' ? '#3498db' : '#e74c3c';
-
-          const popupContent = `
-            <div style="font-family: Arial, sans-serif; min-width: 200px;">
-              <h3 style="margin: 0 0 10px 0; color: ${typeColor}; display: flex; align-items: center; gap: 8px;">
-                ${typeIcon} ${transformer.transformerNo}
-              </h3>
-              <p style="margin: 5px 0;"><strong>Type:</strong> ${transformer.type}</p>
-              <p style="margin: 5px 0;"><strong>Region:</strong> ${transformer.region}</p>
-              <p style="margin: 5px 0;"><strong>Location:</strong> ${lat.toFixed(6)}, ${lng.toFixed(6)}</p>
-              ${transformer.address ? `<p style="margin: 5px 0;"><strong>Address:</strong> ${transformer.address}</p>` : ''}
-              <div style="margin-top: 10px;">
-                <button onclick="window.open('https://www.google.com/maps?q=${lat},${lng}', '_blank')" 
-                        style="background: #4285f4; color: white; border: none; padding: 5px 10px; border-radius: 3px; cursor: pointer; margin-right: 5px; display: inline-flex; align-items: center; gap: 4px;">
-                  📍 Google Maps
-                </button>
-              </div>
-            </div>
-          `;
+    const requestId = ++viewportRequestRef.current;
+    const bounds = map.getBounds();
+    const { type, region } = filtersRef.current;
 
-          marker.bindPopup(popupContent);
+    try {
+      const viewport = await transformerService.getMapViewport(
+        {
+          south: Math.max(-90, bounds.getSouth()),
+          west: Math.max(-180, bounds.getWest()),
+          north: Math.min(90, bounds.getNorth()),
+          east: Math.min(180, bounds.getEast())
+        },
+        map.getZoom(),
+        {
+          type: type === 'ALL' ? null : type,
+          region: region === 'ALL' ? null : region
+        }
+      );
 
-          // Add click event
-          marker.on('click', () => {
-            setSelectedTransformer(transformer);
-          });
+      // A newer pan/zoom has been issued meanwhile
+      if (requestId !== viewportRequestRef.current || mapInstanceRef.current !== map) {
+        return;
+      }
 
+      clearMarkers();
+      viewport.clusters.forEach((cluster) => {
+        try {
+          let marker;
+          if (cluster.count === 1 && cluster.transformerNo) {
+            marker = createTransformerMarker(cluster);
+          } else {
+            marker = window.L.marker([cluster.latitude, cluster.longitude], { icon: createClusterIcon(cluster) });
+            marker.on('click', () => {
+              map.fitBounds([
+                [cluster.minLatitude, cluster.minLongitude],
+                [cluster.maxLatitude, cluster.maxLongitude]
+              ], { padding: [40, 40] });
+            });
+          }
+          marker.addTo(map);
           markersRef.current.push(marker);
-          markersAdded++;
-
         } catch (error) {
-          markersSkipped++;
+          console.warn('Error adding marker:', error);
         }
       });
-
-      // Fit map to markers if we have any
-      if (markersAdded > 0) {
-        try {
-          const group = new window.L.featureGroup(markersRef.current);
-          mapInstanceRef.current.fitBounds(group.getBounds().pad(0.1));
-        } catch (error) {
-          console.warn('Error fitting map to markers:', error);
-        }
-      }
-
+      setVisibleCount(viewport.total);
     } catch (error) {
       console.error('Error updating map markers:', error);
     }
   };
 
+  // Frame all located transformers once (initial view)
+  const fitToTransformers = () => {
+    const map = mapInstanceRef.current;
+    const points = transformersRef.current
+      .map(t => [parseFloat(t.latitude), parseFloat(t.longitude)])
+      .filter(([lat, lng]) => !isNaN(lat) && !isNaN(lng));
+    if (!map || points.length === 0) {
+      return;
+    }
+    try {
+      map.fitBounds(window.L.latLngBounds(points).pad(0.1));
+    } catch (error) {
+      console.warn('Error fitting map to transformers:', error);
+    }
+  };
   // Handle filter changes
   const handleFilterChange = (type, value) => {
     if (type === 'type') {
@@ -543,7 +603,7 @@ export default function TransformersMapView({ transformerService }) {
         <div className="map-overlay-info">
           <h4>🗺️ Transformers Map</h4>
           <p>
-            {filteredTransformers.length} transformer{filteredTransformers.length !== 1 ? 's' : ''} displayed
+            {visibleCount} transformer{visibleCount !== 1 ? 's' : ''} in view
           </p>
         </div>
 
@@ -411,6 +411,32 @@ export const transformerService = {
       });
       throw error;
     }
+  },
+
+  /**
+   * Clustered markers for the visible map area.
+   * @param {{south:number, west:number, north:number, east:number}} bounds - viewport bounds
+   * @param {number} zoom - map zoom level
+   * @param {{type?:string, region?:string}} filters - optional type/region filters
+   * @returns {Promise<{zoom:number, total:number, worstStatus:string, clusters:Array}>}
+   */
+  async getMapViewport(bounds, zoom, filters = {}) {
+    const params = new URLSearchParams({
+      minLat: bounds.south,
+      minLon: bounds.west,
+      maxLat: bounds.north,
+      maxLon: bounds.east,
+      zoom: Math.round(zoom)
+    });
+    if (filters.type) params.set('type', filters.type);
+    if (filters.region) params.set('region', filters.region);
+
+    const response = await authFetch(`${API_BASE_URL}/locations/map/viewport?${params}`);
+    if (!response.ok) {
+      const errorText = await response.text();
+      throw new Error(`HTTP error! status: ${response.status}, message: ${errorText}`);
+    }
+    return response.json();
   }
 };
 
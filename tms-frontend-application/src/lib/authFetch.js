@@ -1,13 +1,14 @@
+import { clearAuth, getAuthorizationHeader, getStoredTokens, refreshTokens } from './authTokens';
+
 /**
- * Utility function to get authentication headers for fetch requests
+ * Utility function to get authentication headers for fetch requests.
+ * Uses the stored access token as is; authFetch refreshes it when needed.
  */
 export function getAuthHeaders() {
-  const auth = localStorage.getItem('auth');
-  if (auth) {
-    const { username, password } = JSON.parse(auth);
-    const credentials = btoa(`${username}:${password}`);
+  const tokens = getStoredTokens();
+  if (tokens) {
     return {
-      'Authorization': `Basic ${credentials}`,
+      'Authorization': `Bearer ${tokens.accessToken}`,
       'Content-Type': 'application/json',
     };
   }
@@ -26,22 +27,30 @@ export function getAuthHeaders() {
 export async function authFetch(url, options = {}) {
   const { suppressNotFoundError, ...fetchOptions } = options;
   
-  const headers = {
-    ...getAuthHeaders(),
-    ...fetchOptions.headers,
-  };
+  const send = (authHeader) => fetch(url, {
+    ...fetchOptions,
+    headers: {
+      'Content-Type': 'application/json',
+      ...authHeader,
+      ...fetchOptions.headers,
+    },
+    credentials: 'include', // Send cookies
+  });
 
   try {
-    const response = await fetch(url, {
-      ...fetchOptions,
-      headers,
-      credentials: 'include', // Send cookies
-    });
+    let response = await send(await getAuthorizationHeader());
+
+    // Access token expired mid-flight: refresh once and retry
+    if (response.status === 401) {
+      const accessToken = await refreshTokens();
+      if (accessToken) {
+        response = await send({ Authorization: `Bearer ${accessToken}` });
+      }
+    }
 
     // Handle 401 - redirect to login
     if (response.status === 401) {
-      localStorage.removeItem('auth');
-      localStorage.removeItem('user');
+      clearAuth();
       if (window.location.pathname !== '/login') {
         window.location.href = '/login';
       }
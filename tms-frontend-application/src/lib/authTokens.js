@@ -0,0 +1,82 @@
+import { API_BASE_URL } from '../config/env';
+
+/**
+ * Access/refresh token storage shared by the axios client, authFetch and event streams.
+ * localStorage 'auth' holds { accessToken, refreshToken, expiresAt } (expiresAt in epoch ms).
+ */
+
+// Refresh this long before the access token expires to avoid racing the expiry
+const REFRESH_MARGIN_MS = 30 * 1000;
+
+let refreshInFlight = null;
+
+export function getStoredTokens() {
+  const auth = localStorage.getItem('auth');
+  if (!auth) return null;
+  try {
+    const tokens = JSON.parse(auth);
+    return tokens?.accessToken ? tokens : null;
+  } catch (e) {
+    return null;
+  }
+}
+
+/**
+ * Persist tokens from a login or refresh response.
+ */
+export function storeTokens(response) {
+  localStorage.setItem('auth', JSON.stringify({
+    accessToken: response.accessToken,
+    refreshToken: response.refreshToken,
+    expiresAt: Date.now() + (response.expiresIn || 0) * 1000,
+  }));
+}
+
+export function clearAuth() {
+  localStorage.removeItem('auth');
+  localStorage.removeItem('user');
+}
+
+/**
+ * Exchange the refresh token for new tokens. Concurrent callers share one request, since
+ * refresh tokens are single-use. Resolves to the new access token or null when refresh failed.
+ */
+export function refreshTokens() {
+  if (refreshInFlight) return refreshInFlight;
+  const tokens = getStoredTokens();
+  if (!tokens?.refreshToken) return Promise.resolve(null);
+
+  refreshInFlight = fetch(`${API_BASE_URL}/api/auth/refresh`, {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json' },
+    body: JSON.stringify({ refreshToken: tokens.refreshToken }),
+  })
+    .then(async (response) => {
+      if (!response.ok) return null;
+      const data = await response.json();
+      storeTokens(data);
+      return data.accessToken;
+    })
+    .catch(() => null)
+    .finally(() => {
+      refreshInFlight = null;
+    });
+  return refreshInFlight;
+}
+
+/**
+ * Current access token, refreshed first when it is about to expire.
+ */
+export async function getAccessToken() {
+  const tokens = getStoredTokens();
+  if (!tokens) return null;
+  if (tokens.expiresAt && tokens.expiresAt - Date.now() < REFRESH_MARGIN_MS) {
+    return (await refreshTokens()) || null;
+  }
+  return tokens.accessToken;
+}
+
+export async function getAuthorizationHeader() {
+  const token = await getAccessToken();
+  return token ? { Authorization: `Bearer ${token}` } : {};
+}
@@ -2,11 +2,14 @@
 
 from __future__ import annotations
 
+import json
 import sys
+import uuid
 from pathlib import Path
-from typing import Any, Dict
+from typing import Any, Dict, TextIO
 
-from fastapi import FastAPI, HTTPException
+from fastapi import FastAPI, HTTPException, Request, status
+from pydantic import ValidationError
 
 CURRENT_DIR = Path(__file__).resolve().parent
 MODULE_ROOT = CURRENT_DIR.parent
@@ -14,10 +17,14 @@ if str(MODULE_ROOT) not in sys.path:
     sys.path.insert(0, str(MODULE_ROOT))
 
 import config  # noqa: E402
-from schemas import FineTuneRequest  # noqa: E402
+from evaluation import EvaluationError, predict, promote  # noqa: E402
+from dataset import FeedbackSpool  # noqa: E402
+from schemas import FeedbackImage, FineTuneParams, FineTuneRequest, PredictRequest, PromoteRequest  # noqa: E402
 from trainer import FineTuneError, run_finetune  # noqa: E402
+from jobs import JobRegistry  # noqa: E402
 
 app = FastAPI(title="TMS Fine-Tuning API", version="1.0.0")
+jobs = JobRegistry()
 
 
 @app.post("/api/finetune", response_model=Dict[str, Any])
@@ -38,6 +45,96 @@ def trigger_finetune(request: FineTuneRequest) -> Dict[str, Any]:
         raise HTTPException(status_code=500, detail=str(exc)) from exc
 
 
+@app.post("/api/finetune/jobs", status_code=status.HTTP_202_ACCEPTED, response_model=Dict[str, Any])
+def submit_finetune_job(request: FineTuneRequest) -> Dict[str, Any]:
+    """Queue a fine-tune in the background and return its job id immediately."""
+    return jobs.submit(request).snapshot()
+
+
+@app.post("/api/finetune/jobs/stream", status_code=status.HTTP_202_ACCEPTED, response_model=Dict[str, Any])
+async def submit_finetune_job_stream(request: Request) -> Dict[str, Any]:
+    """Queue a fine-tune from an NDJSON upload: the first line holds the training parameters
+    (everything in FineTuneRequest except ``images``), every following line one feedback image.
+    Each line is validated as it arrives and the images are spooled to disk, so neither the body
+    nor the image list is held in memory; the job reads the spool back while building its dataset."""
+    params: FineTuneParams | None = None
+    line_no = 0
+    count = 0
+    spool_path = config.WORK_DIR / "uploads" / f"{uuid.uuid4().hex}.ndjson"
+    spool_path.parent.mkdir(parents=True, exist_ok=True)
+
+    def consume(raw: bytes, spool: TextIO) -> None:
+        nonlocal params, line_no, count
+        line_no += 1
+        if not raw.strip():
+            return
+        try:
+            record = json.loads(raw)
+            if params is None:
+                params = FineTuneParams.parse_obj({k: v for k, v in record.items() if k != "images"})
+            else:
+                spool.write(FeedbackImage.parse_obj(record).json() + "\n")
+                count += 1
+        except (ValueError, ValidationError) as exc:
+            raise HTTPException(status_code=400, detail=f"Invalid NDJSON line {line_no}: {exc}") from exc
+
+    try:
+        with spool_path.open("w", encoding="utf-8") as spool:
+            buffer = bytearray()
+            async for chunk in request.stream():
+                buffer += chunk
+                start = 0
+                end = buffer.find(b"\n", start)
+                while end >= 0:
+                    consume(bytes(buffer[start:end]), spool)
+                    start = end + 1
+                    end = buffer.find(b"\n", start)
+                # Keep only the unfinished last line
+                del buffer[:start]
+            consume(bytes(buffer), spool)
+        if params is None or count == 0:
+            raise HTTPException(status_code=400, detail="Payload must include parameters and at least one feedback image")
+    except BaseException:
+        spool_path.unlink(missing_ok=True)
+        raise
+    return jobs.submit(params, feedback=FeedbackSpool(path=spool_path, count=count)).snapshot()
+
+
+@app.get("/api/finetune/jobs/{job_id}", response_model=Dict[str, Any])
+def get_finetune_job(job_id: str) -> Dict[str, Any]:
+    job = jobs.get(job_id)
+    if job is None:
+        raise HTTPException(status_code=404, detail=f"Unknown job {job_id}")
+    return job.snapshot()
+
+
+@app.post("/api/finetune/jobs/{job_id}/cancel", response_model=Dict[str, Any])
+def cancel_finetune_job(job_id: str) -> Dict[str, Any]:
+    """Request cancellation; a running job stops at its next training batch."""
+    job = jobs.cancel(job_id)
+    if job is None:
+        raise HTTPException(status_code=404, detail=f"Unknown job {job_id}")
+    return job.snapshot()
+
+
+@app.post("/api/finetune/predict", response_model=Dict[str, Any])
+def predict_detections(request: PredictRequest) -> Dict[str, Any]:
+    """Raw detections of the active model (or a candidate) for evaluation by the backend."""
+    try:
+        return predict(request)
+    except EvaluationError as exc:
+        raise HTTPException(status_code=400, detail=str(exc)) from exc
+
+
+@app.post("/api/finetune/promote", response_model=Dict[str, Any])
+def promote_weights(request: PromoteRequest) -> Dict[str, Any]:
+    """Replace the active model with an evaluated candidate."""
+    try:
+        return {"active_weights": str(promote(request.weights_path))}
+    except EvaluationError as exc:
+        raise HTTPException(status_code=400, detail=str(exc)) from exc
+
+
 @app.get("/health")
 def health_check() -> Dict[str, Any]:
     return {
@@ -2,6 +2,7 @@
 
 from __future__ import annotations
 
+import os
 from pathlib import Path
 from typing import List
 
@@ -17,10 +18,16 @@ TEST_IMAGES_DIR: Path = ANNOTATED_DATASET_ROOT / "test" / "images"
 
 WORK_DIR: Path = MODULE_ROOT / "workdir"
 DOWNLOAD_CACHE_DIR: Path = MODULE_ROOT / "feedback_cache"
+SNAPSHOT_CACHE_DIR: Path = MODULE_ROOT / "snapshot_cache"
+# Backend snapshot directory on shared storage (app.retraining.snapshot.dir), when mounted here
+SHARED_SNAPSHOT_DIR: Path | None = Path(os.environ["TMS_SNAPSHOT_DIR"]) if os.environ.get("TMS_SNAPSHOT_DIR") else None
 RUNS_DIR: Path = MODULE_ROOT / "runs"
 LOGS_DIR: Path = MODULE_ROOT / "logs"
 OUTPUT_WEIGHTS_DIR: Path = MODULE_ROOT / "finetune_weight"
 LAST_METRICS_PATH: Path = OUTPUT_WEIGHTS_DIR / "last_metrics.json"
+ACTIVE_WEIGHTS_PATH: Path = OUTPUT_WEIGHTS_DIR / "best_finetune.pt"
+CANDIDATE_WEIGHTS_DIR: Path = OUTPUT_WEIGHTS_DIR / "candidates"
+CANDIDATES_TO_KEEP: int = 3
 
 DEFAULT_EPOCHS: int = 8
 DEFAULT_BATCH_SIZE: int = 4
@@ -40,9 +47,11 @@ def ensure_directories() -> None:
         MODULE_ROOT,
         WORK_DIR,
         DOWNLOAD_CACHE_DIR,
+        SNAPSHOT_CACHE_DIR,
         RUNS_DIR,
         LOGS_DIR,
         OUTPUT_WEIGHTS_DIR,
+        CANDIDATE_WEIGHTS_DIR,
     ):
         path.mkdir(parents=True, exist_ok=True)
 
@@ -3,14 +3,16 @@
 from __future__ import annotations
 
 import hashlib
+import json
 import logging
+import os
 import random
 import shutil
 import sys
 from dataclasses import dataclass
 from io import BytesIO
 from pathlib import Path
-from typing import List, Sequence
+from typing import Dict, Iterable, Iterator, List, Optional, Tuple
 from urllib.parse import urlparse
 
 MODULE_ROOT = Path(__file__).resolve().parent
@@ -30,6 +32,27 @@ class ImageLabelPair:
     label_path: Path
 
 
+@dataclass
+class FeedbackSpool:
+    """Feedback images of a streamed upload, spooled to an NDJSON file (one FeedbackImage per line)
+    and read back one at a time while the dataset is built."""
+
+    path: Path
+    count: int
+
+    def __iter__(self) -> Iterator[FeedbackImage]:
+        with self.path.open("r", encoding="utf-8") as handle:
+            for line in handle:
+                if line.strip():
+                    yield FeedbackImage.parse_raw(line)
+
+    def __len__(self) -> int:
+        return self.count
+
+    def discard(self) -> None:
+        self.path.unlink(missing_ok=True)
+
+
 @dataclass
 class DatasetBuildResult:
     dataset_root: Path
@@ -57,6 +80,36 @@ def _download_image(url: str, target_path: Path, timeout: int = 30) -> Path:
     return target_path
 
 
+def _snapshot_images(snapshot_id: Optional[str], logger: logging.Logger) -> Dict[str, Tuple[Path, int, int]]:
+    """Image URL -> (image file, width, height) of a dataset snapshot, read from the shared snapshot
+    directory or from a local cache filled by snapshot_sync. Empty when the snapshot is unavailable."""
+    if not snapshot_id:
+        return {}
+    roots = [root for root in (config.SHARED_SNAPSHOT_DIR, config.SNAPSHOT_CACHE_DIR) if root is not None]
+    for root in roots:
+        manifest_path = root / "snapshots" / snapshot_id / "manifest.json"
+        if not manifest_path.exists():
+            continue
+        manifest = json.loads(manifest_path.read_text(encoding="utf-8"))
+        images = {
+            entry["imageUrl"]: (root / entry["image"]["path"], entry["width"], entry["height"])
+            for entry in manifest["entries"]
+        }
+        logger.info("Using dataset snapshot %s from %s (%d images)", snapshot_id, root, len(images))
+        return images
+    logger.warning("Dataset snapshot %s not found under %s; downloading images", snapshot_id, roots)
+    return {}
+
+
+def _link_image(source: Path, target_path: Path) -> Path:
+    target_path.parent.mkdir(parents=True, exist_ok=True)
+    try:
+        os.link(source, target_path)
+    except OSError:
+        shutil.copy2(source, target_path)
+    return target_path
+
+
 def _write_feedback_label(detections, image_size, label_path: Path) -> None:
     width, height = image_size
     lines: List[str] = []
@@ -102,11 +155,12 @@ def _copy_pair(pair: ImageLabelPair, target_images: Path, target_labels: Path, p
 
 def build_dataset(
     *,
-    feedback_images: Sequence[FeedbackImage],
+    feedback_images: Iterable[FeedbackImage],
     run_id: str,
     original_sample_count: int,
     seed: int,
     logger: logging.Logger,
+    snapshot_id: Optional[str] = None,
 ) -> DatasetBuildResult:
     config.ensure_directories()
 
@@ -118,18 +172,29 @@ def build_dataset(
     images_dir.mkdir(parents=True, exist_ok=True)
     labels_dir.mkdir(parents=True, exist_ok=True)
 
+    snapshot_images = _snapshot_images(snapshot_id, logger)
+    downloads = 0
     feedback_pairs: List[ImageLabelPair] = []
     for idx, feedback in enumerate(feedback_images):
         stem = _safe_stem_from_url(str(feedback.image_url))
-        extension = Path(urlparse(str(feedback.image_url)).path).suffix.lower() or ".jpg"
-        image_path = images_dir / f"feedback_{idx:03d}_{stem}{extension}"
-        downloaded_path = _download_image(str(feedback.image_url), image_path)
-        with Image.open(downloaded_path) as img:
-            width, height = img.size
+        cached = snapshot_images.get(str(feedback.image_url))
+        if cached is not None and cached[0].exists():
+            source, width, height = cached
+            image_path = images_dir / f"feedback_{idx:03d}_{stem}{source.suffix.lower() or '.jpg'}"
+            downloaded_path = _link_image(source, image_path)
+        else:
+            extension = Path(urlparse(str(feedback.image_url)).path).suffix.lower() or ".jpg"
+            image_path = images_dir / f"feedback_{idx:03d}_{stem}{extension}"
+            downloaded_path = _download_image(str(feedback.image_url), image_path)
+            downloads += 1
+            with Image.open(downloaded_path) as img:
+                width, height = img.size
         label_path = labels_dir / f"feedback_{idx:03d}_{stem}.txt"
         _write_feedback_label(feedback.detections, (width, height), label_path)
         feedback_pairs.append(ImageLabelPair(image_path=downloaded_path, label_path=label_path))
         logger.info("Registered feedback sample %s with %d detections", downloaded_path.name, len(feedback.detections))
+    if snapshot_images:
+        logger.info("Downloaded %d of %d feedback images not in the snapshot", downloads, len(feedback_pairs))
 
     all_pairs = _discover_training_pairs()
     rng = random.Random(seed)
@@ -0,0 +1,90 @@
+"""Raw detections for model evaluation and promotion of candidate weights.
+
+The backend scores candidates against reviewer-verified annotations; this module only runs the
+detector and swaps the active weights once a candidate has passed.
+"""
+
+from __future__ import annotations
+
+import logging
+import os
+import shutil
+import tempfile
+from pathlib import Path
+from typing import Any, Dict, List, Optional
+
+import config
+from dataset import _download_image, _safe_stem_from_url
+from schemas import PredictRequest
+
+LOGGER = logging.getLogger("tms_finetune.evaluation")
+
+
+class EvaluationError(RuntimeError):
+    """Raised when weights cannot be resolved or promoted."""
+
+
+def active_weights() -> Path:
+    if config.ACTIVE_WEIGHTS_PATH.exists():
+        return config.ACTIVE_WEIGHTS_PATH
+    return config.PRETRAINED_WEIGHTS
+
+
+def resolve_weights(weights_path: Optional[str]) -> Path:
+    """The active model, or a candidate; only files under the weights directory are accepted."""
+    if not weights_path:
+        return active_weights()
+    path = Path(weights_path).resolve()
+    allowed = config.OUTPUT_WEIGHTS_DIR.resolve()
+    if allowed not in path.parents or path.suffix != ".pt":
+        raise EvaluationError(f"Weights must be a .pt file under {allowed}")
+    if not path.exists():
+        raise EvaluationError(f"Weights not found at {path}")
+    return path
+
+
+def predict(request: PredictRequest) -> Dict[str, Any]:
+    """Run one model over the given images; boxes are in source pixels (xyxy)."""
+    from ultralytics import YOLO
+
+    weights = resolve_weights(request.weights_path)
+    imgsz = request.image_size or config.DEFAULT_IMAGE_SIZE
+    model = YOLO(str(weights))
+    predictions: List[Dict[str, Any]] = []
+
+    with tempfile.TemporaryDirectory(dir=config.WORK_DIR) as tmp:
+        for url in request.image_urls:
+            url = str(url)
+            try:
+                path = _download_image(url, Path(tmp) / f"{_safe_stem_from_url(url)}.jpg")
+            except Exception as exc:  # noqa: BLE001 - reported per image
+                LOGGER.warning("Skipping %s: %s", url, exc)
+                predictions.append({"image_url": url, "error": str(exc), "detections": []})
+                continue
+            result = model.predict(str(path), conf=request.conf, imgsz=imgsz, device=request.device, verbose=False)[0]
+            detections = [
+                {
+                    "box": {"x_min": xyxy[0], "y_min": xyxy[1], "x_max": xyxy[2], "y_max": xyxy[3]},
+                    "class_id": int(cls),
+                    "confidence": float(conf),
+                }
+                for xyxy, cls, conf in zip(
+                    result.boxes.xyxy.tolist(), result.boxes.cls.tolist(), result.boxes.conf.tolist()
+                )
+            ]
+            predictions.append({"image_url": url, "detections": detections})
+
+    return {"weights_path": str(weights), "predictions": predictions}
+
+
+def promote(weights_path: str) -> Path:
+    """Make a candidate the active model (atomic replace, so inference never sees a partial file)."""
+    source = resolve_weights(weights_path)
+    target = config.ACTIVE_WEIGHTS_PATH
+    if source == target.resolve():
+        return target
+    tmp = target.with_name(target.name + ".tmp")
+    shutil.copy2(source, tmp)
+    os.replace(tmp, target)
+    LOGGER.info("Promoted %s to %s", source, target)
+    return target
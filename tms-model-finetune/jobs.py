@@ -0,0 +1,151 @@
+"""In-process registry of background fine-tuning jobs."""
+
+from __future__ import annotations
+
+import threading
+import uuid
+from collections import OrderedDict
+from concurrent.futures import ThreadPoolExecutor
+from dataclasses import dataclass, field
+from datetime import datetime, timezone
+from typing import Any, Dict, Optional
+
+from dataset import FeedbackSpool
+from schemas import FineTuneParams
+from trainer import FineTuneCancelled, run_finetune
+
+TERMINAL_STATUSES = {"COMPLETED", "FAILED", "CANCELLED"}
+
+
+def _now() -> str:
+    return datetime.now(timezone.utc).isoformat()
+
+
+@dataclass
+class FineTuneJob:
+    job_id: str
+    status: str = "PENDING"
+    stage: str = "QUEUED"
+    epoch: Optional[int] = None
+    total_epochs: Optional[int] = None
+    progress: int = 0
+    result: Optional[Dict[str, Any]] = None
+    error: Optional[str] = None
+    created_at: str = field(default_factory=_now)
+    updated_at: str = field(default_factory=_now)
+    cancel_event: threading.Event = field(default_factory=threading.Event, repr=False)
+
+    def snapshot(self) -> Dict[str, Any]:
+        return {
+            "job_id": self.job_id,
+            "status": self.status,
+            "stage": self.stage,
+            "epoch": self.epoch,
+            "total_epochs": self.total_epochs,
+            "progress": self.progress,
+            "cancel_requested": self.cancel_event.is_set(),
+            "result": self.result,
+            "error": self.error,
+            "created_at": self.created_at,
+            "updated_at": self.updated_at,
+        }
+
+
+class JobRegistry:
+    """Runs fine-tunes one at a time on a worker thread (runs share the output directories)
+    and keeps the most recent jobs in memory so callers can poll and cancel them."""
+
+    def __init__(self, max_retained: int = 50) -> None:
+        self._jobs: "OrderedDict[str, FineTuneJob]" = OrderedDict()
+        self._lock = threading.Lock()
+        self._max_retained = max_retained
+        self._executor = ThreadPoolExecutor(max_workers=1, thread_name_prefix="finetune")
+
+    def submit(self, request: FineTuneParams, feedback: Optional[FeedbackSpool] = None) -> FineTuneJob:
+        """Queue a job; a ``feedback`` spool is deleted once the job ends."""
+        job = FineTuneJob(job_id=uuid.uuid4().hex)
+        with self._lock:
+            self._jobs[job.job_id] = job
+            self._evict_finished()
+        self._executor.submit(self._run, job, request, feedback)
+        return job
+
+    def get(self, job_id: str) -> Optional[FineTuneJob]:
+        with self._lock:
+            return self._jobs.get(job_id)
+
+    def cancel(self, job_id: str) -> Optional[FineTuneJob]:
+        job = self.get(job_id)
+        if job is None:
+            return None
+        job.cancel_event.set()
+        with self._lock:
+            if job.status == "PENDING":
+                # Not started yet; the worker skips it when it is picked up
+                self._update(job, status="CANCELLED", stage="CANCELLED")
+        return job
+
+    def _run(self, job: FineTuneJob, request: FineTuneParams, feedback: Optional[FeedbackSpool]) -> None:
+        try:
+            self._run_job(job, request, feedback)
+        finally:
+            if feedback is not None:
+                feedback.discard()
+
+    def _run_job(self, job: FineTuneJob, request: FineTuneParams, feedback: Optional[FeedbackSpool]) -> None:
+        with self._lock:
+            if job.status in TERMINAL_STATUSES:
+                return
+            self._update(job, status="RUNNING", stage="STARTING", progress=1)
+
+        def on_progress(update: Dict[str, Any]) -> None:
+            with self._lock:
+                self._update(job, stage=update["stage"], progress=_progress_for(update),
+                             epoch=update.get("epoch", job.epoch),
+                             total_epochs=update.get("total_epochs", job.total_epochs))
+
+        try:
+            summary = run_finetune(request, progress=on_progress, cancel_event=job.cancel_event, feedback=feedback)
+            result = {
+                "run_id": summary.run_id,
+                "weights_path": str(summary.weights_path),
+                "metrics": summary.metrics,
+                "log_path": str(summary.log_path),
+                "dataset_size": summary.dataset_size,
+                "feedback_samples": summary.feedback_samples,
+                "replay_samples": summary.replay_samples,
+                "hyperparameters": summary.hyperparams,
+            }
+            with self._lock:
+                self._update(job, status="COMPLETED", stage="COMPLETED", progress=100, result=result)
+        except FineTuneCancelled:
+            with self._lock:
+                self._update(job, status="CANCELLED", stage="CANCELLED")
+        except Exception as exc:  # noqa: BLE001 - surfaced to the caller through the job status
+            with self._lock:
+                self._update(job, status="FAILED", stage="FAILED", error=str(exc))
+
+    @staticmethod
+    def _update(job: FineTuneJob, **fields: Any) -> None:
+        for key, value in fields.items():
+            setattr(job, key, value)
+        job.updated_at = _now()
+
+    def _evict_finished(self) -> None:
+        excess = len(self._jobs) - self._max_retained
+        for job_id in [j.job_id for j in self._jobs.values() if j.status in TERMINAL_STATUSES][:max(0, excess)]:
+            del self._jobs[job_id]
+
+
+def _progress_for(update: Dict[str, Any]) -> int:
+    """Map a trainer stage to an overall percentage (training itself spans 10-90%)."""
+    stage = update["stage"]
+    if stage == "BUILDING_DATASET":
+        return 5
+    if stage == "TRAINING":
+        total = update.get("total_epochs") or 0
+        epoch = update.get("epoch") or 0
+        return 10 + (80 * epoch // total if total else 0)
+    if stage == "VALIDATING":
+        return 92
+    return 0
@@ -44,8 +44,9 @@ class FeedbackImage(BaseModel):
         return v
 
 
-class FineTuneRequest(BaseModel):
-    images: List[FeedbackImage]
+class FineTuneParams(BaseModel):
+    """Training parameters; the feedback images come with the request or as a streamed upload."""
+
     train_replay: Optional[int] = Field(
         None,
         ge=0,
@@ -60,9 +61,36 @@ class FineTuneRequest(BaseModel):
     freeze: Optional[int] = Field(None, ge=0)
     seed: Optional[int] = Field(None, ge=0)
     device: Optional[str] = Field(None, description="Torch device string (e.g. 'cpu', '0', '0,1', 'auto')")
+    candidate_only: bool = Field(
+        False,
+        description="Write the weights as a candidate instead of replacing the active model; promote it separately",
+    )
+    dataset_snapshot: Optional[str] = Field(
+        None,
+        description="Backend dataset snapshot holding the feedback images; missing ones are downloaded",
+    )
+
+
+class FineTuneRequest(FineTuneParams):
+    images: List[FeedbackImage]
 
     @validator("images")
     def _ensure_images(cls, v: List[FeedbackImage]):  # type: ignore[override]
         if not v:
             raise ValueError("Payload must include at least one feedback image")
         return v
+
+
+class PredictRequest(BaseModel):
+    image_urls: List[HttpUrl]
+    weights_path: Optional[str] = Field(
+        None,
+        description="Candidate weights to run; defaults to the active model",
+    )
+    conf: float = Field(0.001, ge=0, le=1, description="Minimum confidence kept (low, so AP covers the full curve)")
+    image_size: Optional[int] = Field(None, ge=32)
+    device: Optional[str] = None
+
+
+class PromoteRequest(BaseModel):
+    weights_path: str
@@ -0,0 +1,150 @@
+"""Pull backend dataset snapshots into a local content-addressed cache.
+
+The backend publishes snapshots under /api/admin/retraining/snapshots: a manifest listing every
+image/label file by SHA-256, plus the files themselves. Files are immutable, so a sync only
+downloads what the cache does not already hold - for a new snapshot that is its delta.
+"""
+
+from __future__ import annotations
+
+import argparse
+import hashlib
+import json
+import logging
+import os
+import shutil
+import sys
+from pathlib import Path
+from typing import Any, Dict, Optional, Tuple
+
+MODULE_ROOT = Path(__file__).resolve().parent
+if str(MODULE_ROOT) not in sys.path:
+    sys.path.insert(0, str(MODULE_ROOT))
+
+import requests
+
+import config
+
+LOGGER = logging.getLogger("tms_finetune.snapshot")
+
+SNAPSHOTS_PATH = "/api/admin/retraining/snapshots"
+
+
+def _sha256(path: Path) -> str:
+    digest = hashlib.sha256()
+    with path.open("rb") as handle:
+        for chunk in iter(lambda: handle.read(1 << 20), b""):
+            digest.update(chunk)
+    return digest.hexdigest()
+
+
+def _download(session: requests.Session, url: str, target: Path, sha256: str) -> None:
+    tmp = target.with_name(target.name + ".part")
+    with session.get(url, stream=True, timeout=60) as response:
+        response.raise_for_status()
+        with tmp.open("wb") as handle:
+            for chunk in response.iter_content(chunk_size=1 << 16):
+                handle.write(chunk)
+    if _sha256(tmp) != sha256:
+        tmp.unlink(missing_ok=True)
+        raise ValueError(f"Checksum mismatch for {url}")
+    os.replace(tmp, target)
+
+
+def _login(session: requests.Session, base_url: str, auth: Tuple[str, str]) -> None:
+    """Exchange credentials for a bearer access token (valid well beyond one sync)."""
+    response = session.post(
+        base_url.rstrip("/") + "/api/auth/login",
+        json={"username": auth[0], "password": auth[1]},
+        timeout=30,
+    )
+    response.raise_for_status()
+    session.headers["Authorization"] = f"Bearer {response.json()['accessToken']}"
+
+
+def sync_snapshot(
+    base_url: str,
+    auth: Optional[Tuple[str, str]] = None,
+    snapshot_id: str = "latest",
+    cache_dir: Path = config.SNAPSHOT_CACHE_DIR,
+) -> Dict[str, Any]:
+    """Fetch a snapshot manifest and any files missing from ``cache_dir``; returns the manifest."""
+    base = base_url.rstrip("/") + SNAPSHOTS_PATH
+    session = requests.Session()
+    if auth:
+        _login(session, base_url, auth)
+
+    response = session.get(f"{base}/{snapshot_id}/manifest", timeout=60)
+    response.raise_for_status()
+    manifest = response.json()
+
+    files = [entry[kind] for entry in manifest["entries"] for kind in ("image", "label")]
+    fetched = 0
+    for ref in files:
+        target = cache_dir / ref["path"]
+        if target.exists():
+            continue
+        target.parent.mkdir(parents=True, exist_ok=True)
+        _download(session, f"{base}/files/{ref['path']}", target, ref["sha256"])
+        fetched += 1
+
+    snapshot_dir = cache_dir / "snapshots" / manifest["snapshotId"]
+    snapshot_dir.mkdir(parents=True, exist_ok=True)
+    coco = manifest["coco"]
+    if not (snapshot_dir / "coco.json").exists():
+        _download(session, f"{base}/{manifest['snapshotId']}/coco", snapshot_dir / "coco.json", coco["sha256"])
+    (snapshot_dir / "manifest.json").write_text(json.dumps(manifest), encoding="utf-8")
+
+    LOGGER.info(
+        "Synced snapshot %s: %d entries, %d files downloaded, %d already cached",
+        manifest["snapshotId"],
+        len(manifest["entries"]),
+        fetched,
+        len(files) - fetched,
+    )
+    return manifest
+
+
+def materialize_yolo(manifest: Dict[str, Any], cache_dir: Path, target: Path) -> Path:
+    """Lay a synced snapshot out as a YOLO images/labels tree, hard-linking cached files."""
+    images_dir = target / "images"
+    labels_dir = target / "labels"
+    for directory in (images_dir, labels_dir):
+        if directory.exists():
+            shutil.rmtree(directory)
+        directory.mkdir(parents=True)
+
+    for entry in manifest["entries"]:
+        stem = entry["key"]
+        image = cache_dir / entry["image"]["path"]
+        for source, dest in (
+            (image, images_dir / f"{stem}{image.suffix}"),
+            (cache_dir / entry["label"]["path"], labels_dir / f"{stem}.txt"),
+        ):
+            try:
+                os.link(source, dest)
+            except OSError:
+                shutil.copy2(source, dest)
+    return target
+
+
+def main() -> None:
+    parser = argparse.ArgumentParser(description=__doc__.splitlines()[0])
+    parser.add_argument("--backend", default="http://localhost:8080")
+    parser.add_argument("--snapshot", default="latest")
+    parser.add_argument("--user", default=os.environ.get("TMS_ADMIN_USER"))
+    parser.add_argument("--password", default=os.environ.get("TMS_ADMIN_PASSWORD"))
+    parser.add_argument("--cache-dir", type=Path, default=config.SNAPSHOT_CACHE_DIR)
+    parser.add_argument("--yolo-dir", type=Path, help="Also materialize a YOLO images/labels tree here")
+    args = parser.parse_args()
+
+    logging.basicConfig(level=logging.INFO)
+    auth = (args.user, args.password) if args.user else None
+    manifest = sync_snapshot(args.backend, auth, args.snapshot, args.cache_dir)
+    if args.yolo_dir:
+        materialize_yolo(manifest, args.cache_dir, args.yolo_dir)
+        LOGGER.info("YOLO dataset written to %s", args.yolo_dir)
+
+
+if __name__ == "__main__":
+    main()
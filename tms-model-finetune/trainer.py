@@ -6,18 +6,19 @@ import json
 import logging
 import shutil
 import sys
+import threading
 from dataclasses import asdict, dataclass
 from datetime import datetime, timezone
 from pathlib import Path
-from typing import Dict, Optional
+from typing import Any, Callable, Dict, Iterable, Optional
 
 MODULE_ROOT = Path(__file__).resolve().parent
 if str(MODULE_ROOT) not in sys.path:
     sys.path.insert(0, str(MODULE_ROOT))
 
 import config
-from dataset import DatasetBuildResult, build_dataset
-from schemas import FineTuneRequest
+from dataset import DatasetBuildResult, FeedbackSpool, build_dataset
+from schemas import FeedbackImage, FineTuneParams, FineTuneRequest
 
 
 @dataclass
@@ -36,6 +37,13 @@ class FineTuneError(RuntimeError):
     """Raised when fine-tuning cannot be completed."""
 
 
+class FineTuneCancelled(FineTuneError):
+    """Raised when a run is cancelled through its cancel event."""
+
+
+ProgressCallback = Callable[[Dict[str, Any]], None]
+
+
 def _reset_previous_outputs() -> None:
     for path in (config.RUNS_DIR, config.LOGS_DIR):
         if path.exists():
@@ -43,6 +51,12 @@ def _reset_previous_outputs() -> None:
         path.mkdir(parents=True, exist_ok=True)
 
 
+def _prune_candidates(keep: int) -> None:
+    candidates = sorted(config.CANDIDATE_WEIGHTS_DIR.glob("*.pt"), key=lambda p: p.name, reverse=True)
+    for stale in candidates[keep:]:
+        stale.unlink(missing_ok=True)
+
+
 def _setup_logger(run_id: str) -> tuple[logging.Logger, Path]:
     log_path = config.LOGS_DIR / f"{run_id}.log"
     logger = logging.getLogger(f"tms_finetune.{run_id}")
@@ -94,25 +108,50 @@ def _resolve_device(requested: Optional[str], logger: logging.Logger) -> str:
     return ",".join(valid_devices)
 
 
-def run_finetune(request: FineTuneRequest) -> TrainingSummary:
+def run_finetune(
+    request: FineTuneParams,
+    progress: Optional[ProgressCallback] = None,
+    cancel_event: Optional[threading.Event] = None,
+    feedback: Optional[FeedbackSpool] = None,
+) -> TrainingSummary:
+    """Run a fine-tune on the images of a :class:`FineTuneRequest`, or of ``feedback`` for a streamed
+    upload. ``progress`` receives stage/epoch updates; setting ``cancel_event`` aborts the run at
+    the next training batch with :class:`FineTuneCancelled`."""
     from ultralytics import YOLO
 
+    def report(stage: str, **fields: Any) -> None:
+        if progress is not None:
+            progress({"stage": stage, **fields})
+
+    def check_cancelled() -> None:
+        if cancel_event is not None and cancel_event.is_set():
+            raise FineTuneCancelled("Fine-tuning run cancelled")
+
     config.ensure_directories()
 
-    base_weights = config.OUTPUT_WEIGHTS_DIR / "best_finetune.pt"
+    base_weights = config.ACTIVE_WEIGHTS_PATH
     if not base_weights.exists():
         base_weights = config.PRETRAINED_WEIGHTS
 
     if not base_weights.exists():
         raise FineTuneError(f"Base weights not found at {base_weights}")
 
+    if feedback is not None:
+        feedback_images: Iterable[FeedbackImage] = feedback
+        feedback_count = len(feedback)
+    elif isinstance(request, FineTuneRequest):
+        feedback_images = request.images
+        feedback_count = len(request.images)
+    else:
+        raise FineTuneError("No feedback images supplied")
+
     run_id = datetime.now(timezone.utc).strftime("finetune_%Y%m%dT%H%M%SZ")
 
     _reset_previous_outputs()
     logger, log_path = _setup_logger(run_id)
 
     logger.info("Starting fine-tune run %s", run_id)
-    logger.info("Feedback images: %d", len(request.images))
+    logger.info("Feedback images: %d", feedback_count)
     logger.info("Base weights: %s", base_weights)
 
     train_replay = request.train_replay if request.train_replay is not None else config.DEFAULT_TRAIN_REPLAY
@@ -129,12 +168,14 @@ def run_finetune(request: FineTuneRequest) -> TrainingSummary:
 
     dataset: DatasetBuildResult | None = None
     try:
+        report("BUILDING_DATASET")
         dataset = build_dataset(
-            feedback_images=request.images,
+            feedback_images=feedback_images,
             run_id=run_id,
             original_sample_count=train_replay,
             seed=seed,
             logger=logger,
+            snapshot_id=request.dataset_snapshot,
         )
         logger.info(
             "Dataset ready at %s (feedback=%d, replay=%d)",
@@ -143,7 +184,15 @@ def run_finetune(request: FineTuneRequest) -> TrainingSummary:
             len(dataset.replay_pairs),
         )
 
+        check_cancelled()
+
         model = YOLO(str(base_weights))
+        model.add_callback("on_train_batch_end", lambda _trainer: check_cancelled())
+        model.add_callback(
+            "on_train_epoch_end",
+            lambda trainer: report("TRAINING", epoch=trainer.epoch + 1, total_epochs=trainer.epochs),
+        )
+        report("TRAINING", epoch=0, total_epochs=epochs)
         results = model.train(
             data=str(dataset.yaml_path),
             epochs=epochs,
@@ -166,11 +215,18 @@ def run_finetune(request: FineTuneRequest) -> TrainingSummary:
         last_weights = save_dir / "weights" / "last.pt"
         chosen_weights = best_weights if best_weights.exists() else last_weights
 
-        destination = config.OUTPUT_WEIGHTS_DIR / "best_finetune.pt"
+        if request.candidate_only:
+            # Left for the caller to evaluate and promote; the active model stays in service
+            destination = config.CANDIDATE_WEIGHTS_DIR / f"{run_id}.pt"
+        else:
+            destination = config.ACTIVE_WEIGHTS_PATH
         destination.parent.mkdir(parents=True, exist_ok=True)
         shutil.copy2(chosen_weights, destination)
         logger.info("Exported fine-tuned weights to %s", destination)
+        if request.candidate_only:
+            _prune_candidates(keep=config.CANDIDATES_TO_KEEP)
 
+        report("VALIDATING")
         eval_model = YOLO(str(destination))
         val_results = eval_model.val(
             data=str(dataset.yaml_path),
@@ -201,12 +257,17 @@ def run_finetune(request: FineTuneRequest) -> TrainingSummary:
                 "seed": seed,
                 "device": device,
                 "train_replay": train_replay,
+                "candidate_only": request.candidate_only,
+                "dataset_snapshot": request.dataset_snapshot,
             },
         )
 
         config.LAST_METRICS_PATH.write_text(json.dumps(asdict(summary), default=str, indent=2), encoding="utf-8")
         logger.info("Run summary written to %s", config.LAST_METRICS_PATH)
         return summary
+    except FineTuneCancelled:
+        logger.warning("Fine-tuning run %s cancelled", run_id)
+        raise
     except Exception as exc:
         logger.exception("Fine-tuning run failed: %s", exc)
         raise FineTuneError(str(exc)) from exc